@@ -53,7 +53,7 @@ execute() {
 
 printUsage() {
     cat <<-EOF
-USAGE: $0 [create|migrate|info|validate|drop|drop-create|es-drop|es-create|drop-create-all|migrate-all|repair|check-connection]
+USAGE: $0 [create|migrate|info|validate|drop|drop-create|es-drop|es-create|es-reindex|drop-create-all|migrate-all|repair|check-connection]
    create           : Creates the tables. The target database should be empty
    migrate          : Migrates the database to the latest version or creates the tables if the database is empty. Use "info" to see the current version and the pending migrations
    info             : Shows the list of migrations applied and the pending migration waiting to be applied on the target database
@@ -62,6 +62,7 @@ USAGE: $0 [create|migrate|info|validate|drop|drop-create|es-drop|es-create|drop-
    drop-create      : Drops and recreates all the tables in the target database
    es-drop          : Drops the indexes in ElasticSearch
    es-create        : Creates the indexes in ElasticSearch
+   es-reindex       : Rebuilds the indexes in ElasticSearch from the database. Resumes from es-reindex-checkpoint.json when a previous run failed
    drop-create-all  : Drops and recreates all the tables in the database. Drops and creates all the indexes in ElasticSearch
    migrate-all      : Migrates the database to the latest version and migrates the indexes in ElasticSearch
    repair           : Repairs the DATABASE_CHANGE_LOG table which is used to track all the migrations on the target database
@@ -80,7 +81,7 @@ fi
 opt="$1"
 
 case "${opt}" in
-create | drop | migrate | info | validate | repair | check-connection | es-drop | es-create )
+create | drop | migrate | info | validate | repair | check-connection | es-drop | es-create | es-reindex )
     execute "${opt}"
     ;;
 drop-create )
@@ -0,0 +1,48 @@
+-- The virtual eventTime column can't be made stored in place, so it is dropped and added back as a stored column
+ALTER TABLE change_event
+DROP INDEX eventTime,
+DROP COLUMN eventTime;
+
+ALTER TABLE change_event
+ADD COLUMN id BIGINT UNSIGNED NOT NULL AUTO_INCREMENT FIRST,
+ADD COLUMN entityId VARCHAR(36) GENERATED ALWAYS AS (json ->> '$.entityId') STORED AFTER entityType,
+ADD COLUMN eventTime BIGINT UNSIGNED GENERATED ALWAYS AS (json ->> '$.timestamp') STORED NOT NULL AFTER userName,
+ADD PRIMARY KEY (id, eventTime),
+ADD INDEX (eventTime),
+ADD INDEX event_filter_idx (eventType, entityType, eventTime),
+ADD INDEX (entityId);
+
+-- Daily partitions are added ahead of time and dropped after the retention period by ChangeEventRetention.
+-- The existing events go to the partition of the migration day (UTC), so that ChangeEventRetention only splits the
+-- empty p_future partition and never copies them again. Like the ALTER statements above, this rebuilds change_event.
+SET @partition_change_event = CONCAT(
+    'ALTER TABLE change_event PARTITION BY RANGE (eventTime) (PARTITION p', DATE_FORMAT(UTC_DATE(), '%Y%m%d'),
+    ' VALUES LESS THAN (', (TO_DAYS(UTC_DATE()) + 1 - TO_DAYS('1970-01-01')) * 86400000,
+    '), PARTITION p_future VALUES LESS THAN MAXVALUE)');
+PREPARE partition_change_event FROM @partition_change_event;
+EXECUTE partition_change_event;
+DEALLOCATE PREPARE partition_change_event;
+
+CREATE TABLE IF NOT EXISTS audit_log (
+    id BIGINT UNSIGNED NOT NULL AUTO_INCREMENT,
+    entityId VARCHAR(36) GENERATED ALWAYS AS (json ->> '$.entityId') NOT NULL,
+    entityType VARCHAR(256) GENERATED ALWAYS AS (json ->> '$.entityType') NOT NULL,
+    userName VARCHAR(256) GENERATED ALWAYS AS (json ->> '$.userName') NOT NULL,
+    eventTime BIGINT UNSIGNED GENERATED ALWAYS AS (json ->> '$.timestamp') NOT NULL,
+    json JSON NOT NULL,
+    PRIMARY KEY (id),
+    INDEX (eventTime),
+    INDEX (entityId, eventTime),
+    INDEX (userName, eventTime)
+);
+
+ALTER TABLE change_event ADD COLUMN origin VARCHAR(256) AFTER id;
+
+CREATE TABLE IF NOT EXISTS leader_lease (
+    name VARCHAR(64) NOT NULL,
+    owner VARCHAR(256) NOT NULL,
+    token BIGINT UNSIGNED NOT NULL,
+    expiresAt BIGINT UNSIGNED NOT NULL,
+    watermark BIGINT UNSIGNED NOT NULL,
+    PRIMARY KEY (name)
+);
@@ -31,9 +31,9 @@ import io.federecio.dropwizard.swagger.SwaggerBundle;
 import io.federecio.dropwizard.swagger.SwaggerBundleConfiguration;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.security.Security;
 import java.time.temporal.ChronoUnit;
 import javax.ws.rs.container.ContainerRequestFilter;
-import javax.ws.rs.container.ContainerResponseFilter;
 import javax.ws.rs.core.Response;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
@@ -44,14 +44,43 @@ import org.glassfish.jersey.server.ServerProperties;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.core.statement.SqlLogger;
 import org.jdbi.v3.core.statement.StatementContext;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchConfiguration;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchConfiguration.SearchBackendType;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchConsistencyJob;
 import org.openmetadata.catalog.elasticsearch.ElasticSearchEventPublisher;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchListIndex;
+import org.openmetadata.catalog.elasticsearch.SearchDocumentLimits;
+import org.openmetadata.catalog.events.CacheInvalidationConfiguration;
+import org.openmetadata.catalog.events.CacheInvalidator;
+import org.openmetadata.catalog.events.ChangeEventRelay;
+import org.openmetadata.catalog.events.ChangeEventRetention;
+import org.openmetadata.catalog.events.EventBackPressureFilter;
 import org.openmetadata.catalog.events.EventFilter;
+import org.openmetadata.catalog.events.EventHandlerConfiguration;
+import org.openmetadata.catalog.events.EventHandlerConfiguration.OverflowPolicy;
 import org.openmetadata.catalog.events.EventPubSub;
+import org.openmetadata.catalog.events.EventStreamBroadcaster;
+import org.openmetadata.catalog.events.LeaderEventHandlers;
+import org.openmetadata.catalog.events.segmentlog.SegmentLogConfiguration;
+import org.openmetadata.catalog.events.segmentlog.SegmentLogEventPublisher;
 import org.openmetadata.catalog.exception.CatalogGenericExceptionMapper;
 import org.openmetadata.catalog.exception.ConstraintViolationExceptionMapper;
 import org.openmetadata.catalog.exception.JsonMappingExceptionMapper;
+import org.openmetadata.catalog.http.OutboundHttpClient;
+import org.openmetadata.catalog.http.OutboundHttpClientConfiguration;
+import org.openmetadata.catalog.jdbi3.EntityRepository;
+import org.openmetadata.catalog.jobs.ComputePercentileJob;
+import org.openmetadata.catalog.jobs.JobScheduler;
+import org.openmetadata.catalog.jobs.JobSchedulerConfiguration;
+import org.openmetadata.catalog.jobs.LeaderElection;
+import org.openmetadata.catalog.jobs.WebhookSyncJob;
+import org.openmetadata.catalog.lucene.LuceneEventPublisher;
+import org.openmetadata.catalog.lucene.LuceneIndexes;
+import org.openmetadata.catalog.lucene.LuceneListIndex;
 import org.openmetadata.catalog.resources.CollectionRegistry;
 import org.openmetadata.catalog.resources.config.ConfigResource;
+import org.openmetadata.catalog.resources.lineage.LineageGraphService;
+import org.openmetadata.catalog.resources.search.AutocompleteIndex;
 import org.openmetadata.catalog.resources.search.SearchResource;
 import org.openmetadata.catalog.security.AuthenticationConfiguration;
 import org.openmetadata.catalog.security.Authorizer;
@@ -72,9 +101,18 @@ public class CatalogApplication extends Application<CatalogApplicationConfig> {
       throws ClassNotFoundException, IllegalAccessException, InstantiationException, NoSuchMethodException,
           InvocationTargetException, IOException {
 
+    OutboundHttpClientConfiguration httpClientConfig =
+        catalogConfig.getHttpClientConfiguration() != null
+            ? catalogConfig.getHttpClientConfiguration()
+            : new OutboundHttpClientConfiguration();
+    setNetworkProperties(httpClientConfig);
+
     final JdbiFactory factory = new JdbiFactory();
     final Jdbi jdbi = factory.build(environment, catalogConfig.getDataSourceFactory(), "mysql3");
 
+    // Outbound HTTP client shared by the webhook, Slack and Airflow clients
+    environment.lifecycle().manage(OutboundHttpClient.initialize(httpClientConfig, environment.metrics()));
+
     SqlLogger sqlLogger =
         new SqlLogger() {
           @Override
@@ -110,13 +148,19 @@ public class CatalogApplication extends Application<CatalogApplicationConfig> {
     environment.healthChecks().register("UserDatabaseCheck", new CatalogHealthCheck(catalogConfig, jdbi));
     registerResources(catalogConfig, environment, jdbi);
 
+    // Managed objects stop in reverse order, the event hub stops after the capture stage has drained its queue
+    environment.lifecycle().manage(new ManagedShutdown());
     // Register Event Handler
     registerEventFilter(catalogConfig, environment, jdbi);
-    environment.lifecycle().manage(new ManagedShutdown());
     // start event hub before registering publishers
-    EventPubSub.start();
-    // Register Event publishers
-    registerEventPublisher(catalogConfig);
+    EventHandlerConfiguration eventHandlerConfig =
+        catalogConfig.getEventHandlerConfiguration() != null
+            ? catalogConfig.getEventHandlerConfiguration()
+            : new EventHandlerConfiguration();
+    EventPubSub.start(eventHandlerConfig, environment.metrics());
+    // Register Event publishers and jobs that run on the leader only
+    registerLeaderServices(catalogConfig, environment, jdbi);
+    environment.lifecycle().manage(new EventStreamBroadcaster(jdbi, eventHandlerConfig, environment.metrics()));
   }
 
   @SneakyThrows
@@ -144,6 +188,18 @@ public class CatalogApplication extends Application<CatalogApplicationConfig> {
     super.initialize(bootstrap);
   }
 
+  /**
+   * Set the JVM wide networking properties. They apply to the whole process and are read once, the DNS cache TTL on the
+   * first name lookup and the keep-alive timeout when the first {@link java.net.http.HttpClient} is created, so they
+   * are set before any connection is opened.
+   */
+  private static void setNetworkProperties(OutboundHttpClientConfiguration httpClientConfig) {
+    if (httpClientConfig.getDnsCacheTtlSeconds() != null) {
+      Security.setProperty("networkaddress.cache.ttl", String.valueOf(httpClientConfig.getDnsCacheTtlSeconds()));
+    }
+    System.setProperty("jdk.httpclient.keepalive.timeout", String.valueOf(httpClientConfig.getKeepAliveSeconds()));
+  }
+
   private void registerAuthorizer(CatalogApplicationConfig catalogConfig, Environment environment, Jdbi jdbi)
       throws NoSuchMethodException, ClassNotFoundException, IllegalAccessException, InvocationTargetException,
           InstantiationException, IOException {
@@ -176,31 +232,110 @@ public class CatalogApplication extends Application<CatalogApplicationConfig> {
 
   private void registerEventFilter(CatalogApplicationConfig catalogConfig, Environment environment, Jdbi jdbi) {
     if (catalogConfig.getEventHandlerConfiguration() != null) {
-      ContainerResponseFilter eventFilter = new EventFilter(catalogConfig, jdbi);
+      EventFilter eventFilter = new EventFilter(catalogConfig, jdbi, environment.metrics());
+      environment.lifecycle().manage(eventFilter.getCaptureStage());
       environment.jersey().register(eventFilter);
+      CacheInvalidationConfiguration cacheInvalidation =
+          catalogConfig.getEventHandlerConfiguration().getCacheInvalidation();
+      if (!cacheInvalidation.isEnabled() && hasInProcessCaches(catalogConfig)) {
+        // The caches would otherwise serve the changes made on the other servers until they expire
+        LOG.info("Enabling cache invalidation as in-process caches are configured");
+        cacheInvalidation.setEnabled(true);
+      }
+      environment.lifecycle().manage(new CacheInvalidator(jdbi, cacheInvalidation));
+      if (catalogConfig.getEventHandlerConfiguration().getOverflowPolicy() == OverflowPolicy.REJECT) {
+        environment.jersey().register(new EventBackPressureFilter());
+      }
     }
   }
 
-  private void registerEventPublisher(CatalogApplicationConfig catalogApplicationConfig) {
+  private static boolean hasInProcessCaches(CatalogApplicationConfig catalogConfig) {
+    ElasticSearchConfiguration esConfig = catalogConfig.getElasticSearchConfiguration();
+    return catalogConfig.getLineageConfiguration().isGraphEnabled()
+        || (esConfig != null && (esConfig.isAutocompleteIndex() || esConfig.getSearchCacheTtlSeconds() > 0));
+  }
+
+  private void registerLeaderServices(CatalogApplicationConfig catalogConfig, Environment environment, Jdbi jdbi) {
+    JobSchedulerConfiguration jobConfig =
+        catalogConfig.getJobSchedulerConfiguration() != null
+            ? catalogConfig.getJobSchedulerConfiguration()
+            : new JobSchedulerConfiguration();
+    LeaderElection leaderElection = new LeaderElection(jdbi, jobConfig);
+    JobScheduler jobScheduler =
+        new JobScheduler(leaderElection)
+            .addJob(new ComputePercentileJob(jdbi, jobConfig))
+            .addJob(new WebhookSyncJob(jdbi, jobConfig));
+    if (catalogConfig.getEventHandlerConfiguration() != null) {
+      jobScheduler.addJob(
+          new ChangeEventRetention(jdbi, catalogConfig.getEventHandlerConfiguration().getChangeEventRetention()));
+    }
+    ElasticSearchConfiguration esConfig = catalogConfig.getElasticSearchConfiguration();
+    if (esConfig != null
+        && esConfig.getSearchBackend() == SearchBackendType.ELASTICSEARCH
+        && esConfig.getConsistencyCheckIntervalMinutes() > 0) {
+      jobScheduler.addJob(new ElasticSearchConsistencyJob(jdbi, esConfig, environment.metrics()));
+    }
+    leaderElection.addListener(registerEventPublisher(catalogConfig));
+    leaderElection.addListener(jobScheduler);
+    if (leaderElection.isEnabled()) {
+      // Deliver the change events recorded by the other servers to the publishers running on the leader
+      leaderElection.addListener(new ChangeEventRelay(jdbi, jobConfig));
+    }
+    environment.lifecycle().manage(leaderElection);
+  }
+
+  private LeaderEventHandlers registerEventPublisher(CatalogApplicationConfig catalogApplicationConfig) {
+    LeaderEventHandlers leaderEventHandlers = new LeaderEventHandlers();
     // register ElasticSearch Event publisher
-    if (catalogApplicationConfig.getElasticSearchConfiguration() != null) {
-      ElasticSearchEventPublisher elasticSearchEventPublisher =
-          new ElasticSearchEventPublisher(catalogApplicationConfig.getElasticSearchConfiguration());
-      EventPubSub.addEventHandler(elasticSearchEventPublisher);
+    ElasticSearchConfiguration esConfig = catalogApplicationConfig.getElasticSearchConfiguration();
+    if (esConfig != null && esConfig.getSearchBackend() == SearchBackendType.LUCENE) {
+      leaderEventHandlers.add("lucene", esConfig.getConsumerThreads(), () -> new LuceneEventPublisher(esConfig));
+    } else if (esConfig != null) {
+      // Index the events of different entities in parallel while keeping the order of events per entity
+      leaderEventHandlers.add(
+          "elasticsearch", esConfig.getConsumerThreads(), () -> new ElasticSearchEventPublisher(esConfig));
+    }
+    // register the local segment log publisher
+    SegmentLogConfiguration segmentLogConfig = catalogApplicationConfig.getSegmentLogConfiguration();
+    if (segmentLogConfig != null) {
+      leaderEventHandlers.add("segment-log", 1, () -> new SegmentLogEventPublisher(segmentLogConfig));
     }
     // register slack Event publishers
     if (catalogApplicationConfig.getSlackEventPublishers() != null) {
       for (SlackPublisherConfiguration slackPublisherConfiguration :
           catalogApplicationConfig.getSlackEventPublishers()) {
-        SlackWebhookEventPublisher slackPublisher = new SlackWebhookEventPublisher(slackPublisherConfiguration);
-        EventPubSub.addEventHandler(slackPublisher);
+        leaderEventHandlers.add(
+            slackPublisherConfiguration.getName(),
+            1,
+            () -> new SlackWebhookEventPublisher(slackPublisherConfiguration));
       }
     }
+    return leaderEventHandlers;
   }
 
-  private void registerResources(CatalogApplicationConfig config, Environment environment, Jdbi jdbi) {
+  private void registerResources(CatalogApplicationConfig config, Environment environment, Jdbi jdbi)
+      throws IOException {
     CollectionRegistry.getInstance().registerResources(jdbi, environment, config, authorizer);
-    environment.jersey().register(new SearchResource(config.getElasticSearchConfiguration()));
+    ElasticSearchConfiguration esConfig = config.getElasticSearchConfiguration();
+    if (esConfig != null) {
+      SearchDocumentLimits.configure(esConfig);
+    }
+    if (esConfig != null && esConfig.getSearchBackend() == SearchBackendType.LUCENE) {
+      environment.lifecycle().manage(LuceneIndexes.initialize(esConfig, jdbi));
+    }
+    if (esConfig != null && esConfig.isSearchBackedLists()) {
+      EntityRepository.setListIndex(
+          esConfig.getSearchBackend() == SearchBackendType.LUCENE
+              ? new LuceneListIndex(LuceneIndexes.getInstance())
+              : new ElasticSearchListIndex(esConfig));
+    }
+    if (config.getLineageConfiguration().isGraphEnabled()) {
+      environment.lifecycle().manage(new LineageGraphService(jdbi, config.getLineageConfiguration()));
+    }
+    if (esConfig != null && esConfig.isAutocompleteIndex()) {
+      environment.lifecycle().manage(new AutocompleteIndex(jdbi, esConfig));
+    }
+    environment.jersey().register(new SearchResource(config.getElasticSearchConfiguration(), environment.metrics()));
     environment.jersey().register(new JsonPatchProvider());
     ErrorPageErrorHandler eph = new ErrorPageErrorHandler();
     eph.addErrorPage(Response.Status.NOT_FOUND.getStatusCode(), "/");
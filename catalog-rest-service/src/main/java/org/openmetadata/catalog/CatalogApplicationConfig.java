@@ -24,6 +24,10 @@ import javax.validation.constraints.NotNull;
 import org.openmetadata.catalog.airflow.AirflowConfiguration;
 import org.openmetadata.catalog.elasticsearch.ElasticSearchConfiguration;
 import org.openmetadata.catalog.events.EventHandlerConfiguration;
+import org.openmetadata.catalog.events.segmentlog.SegmentLogConfiguration;
+import org.openmetadata.catalog.http.OutboundHttpClientConfiguration;
+import org.openmetadata.catalog.jobs.JobSchedulerConfiguration;
+import org.openmetadata.catalog.resources.lineage.LineageConfiguration;
 import org.openmetadata.catalog.security.AuthenticationConfiguration;
 import org.openmetadata.catalog.security.AuthorizerConfiguration;
 import org.openmetadata.catalog.slack.SlackPublisherConfiguration;
@@ -56,6 +60,18 @@ public class CatalogApplicationConfig extends Configuration {
   @JsonProperty("slackEventPublishers")
   private List<SlackPublisherConfiguration> slackEventPublishers;
 
+  @JsonProperty("jobScheduler")
+  private JobSchedulerConfiguration jobSchedulerConfiguration;
+
+  @JsonProperty("httpClient")
+  private OutboundHttpClientConfiguration httpClientConfiguration;
+
+  @JsonProperty("segmentLogPublisher")
+  private SegmentLogConfiguration segmentLogConfiguration;
+
+  @JsonProperty("lineage")
+  private LineageConfiguration lineageConfiguration = new LineageConfiguration();
+
   public DataSourceFactory getDataSourceFactory() {
     return dataSourceFactory;
   }
@@ -104,6 +120,38 @@ public class CatalogApplicationConfig extends Configuration {
     this.airflowConfiguration = airflowConfiguration;
   }
 
+  public JobSchedulerConfiguration getJobSchedulerConfiguration() {
+    return jobSchedulerConfiguration;
+  }
+
+  public void setJobSchedulerConfiguration(JobSchedulerConfiguration jobSchedulerConfiguration) {
+    this.jobSchedulerConfiguration = jobSchedulerConfiguration;
+  }
+
+  public OutboundHttpClientConfiguration getHttpClientConfiguration() {
+    return httpClientConfiguration;
+  }
+
+  public void setHttpClientConfiguration(OutboundHttpClientConfiguration httpClientConfiguration) {
+    this.httpClientConfiguration = httpClientConfiguration;
+  }
+
+  public SegmentLogConfiguration getSegmentLogConfiguration() {
+    return segmentLogConfiguration;
+  }
+
+  public void setSegmentLogConfiguration(SegmentLogConfiguration segmentLogConfiguration) {
+    this.segmentLogConfiguration = segmentLogConfiguration;
+  }
+
+  public LineageConfiguration getLineageConfiguration() {
+    return lineageConfiguration;
+  }
+
+  public void setLineageConfiguration(LineageConfiguration lineageConfiguration) {
+    this.lineageConfiguration = lineageConfiguration;
+  }
+
   public List<SlackPublisherConfiguration> getSlackEventPublishers() {
     return slackEventPublishers;
   }
@@ -108,6 +108,15 @@ public final class Entity {
     return dao.findEntityReferenceById(id);
   }
 
+  /** References of the entities of a type with the given ids, read at once, leaving out the ones not found. */
+  public static List<EntityReference> getEntityReferences(String entity, List<String> ids) throws IOException {
+    EntityDAO<?> dao = DAO_MAP.get(entity);
+    if (dao == null) {
+      throw EntityNotFoundException.byMessage(CatalogExceptionMessage.entityTypeNotFound(entity));
+    }
+    return dao.findEntityReferencesByIds(ids, Include.NON_DELETED);
+  }
+
   public static EntityReference getEntityReferenceByName(String entity, String fqn) throws IOException {
     EntityDAO<?> dao = DAO_MAP.get(entity);
     if (dao == null) {
@@ -116,6 +125,14 @@ public final class Entity {
     return dao.findEntityReferenceByName(fqn);
   }
 
+  public static Class<?> getEntityClass(String entity) {
+    EntityDAO<?> dao = DAO_MAP.get(entity);
+    if (dao == null) {
+      throw EntityNotFoundException.byMessage(CatalogExceptionMessage.entityTypeNotFound(entity));
+    }
+    return dao.getEntityClass();
+  }
+
   public static <T> EntityReference getEntityReference(T entity) {
     String entityType = getEntityTypeFromObject(entity);
 
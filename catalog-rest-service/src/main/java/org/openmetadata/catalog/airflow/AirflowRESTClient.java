@@ -15,7 +15,6 @@ package org.openmetadata.catalog.airflow;
 
 import java.io.IOException;
 import java.net.MalformedURLException;
-import java.net.URI;
 import java.net.URL;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
@@ -33,6 +32,7 @@ import org.openmetadata.catalog.airflow.models.AirflowListResponse;
 import org.openmetadata.catalog.airflow.models.IngestionAirflowPipeline;
 import org.openmetadata.catalog.exception.AirflowException;
 import org.openmetadata.catalog.exception.AirflowPipelineDeploymentException;
+import org.openmetadata.catalog.http.OutboundHttpClient;
 import org.openmetadata.catalog.operations.pipelines.AirflowPipeline;
 import org.openmetadata.catalog.operations.pipelines.PipelineStatus;
 import org.openmetadata.catalog.util.JsonUtils;
@@ -41,7 +41,8 @@ public class AirflowRESTClient {
   private final URL url;
   private final String username;
   private final String password;
-  private final HttpClient client;
+  private final OutboundHttpClient client;
+  private final Duration timeout;
   private static final String AUTH_HEADER = "Authorization";
   private static final String AUTH_TOKEN = "Bearer %s";
   private static final String CONTENT_HEADER = "Content-Type";
@@ -56,11 +57,8 @@ public class AirflowRESTClient {
     }
     this.username = airflowConfig.getUsername();
     this.password = airflowConfig.getPassword();
-    this.client =
-        HttpClient.newBuilder()
-            .version(HttpClient.Version.HTTP_1_1)
-            .connectTimeout(Duration.ofSeconds(airflowConfig.getTimeout()))
-            .build();
+    this.client = OutboundHttpClient.getInstance();
+    this.timeout = Duration.ofSeconds(airflowConfig.getTimeout());
   }
 
   private String authenticate() throws InterruptedException, IOException {
@@ -70,7 +68,7 @@ public class AirflowRESTClient {
         AirflowAuthRequest.builder().username(this.username).password(this.password).build();
     String authPayload = JsonUtils.pojoToJson(authRequest);
     HttpRequest request =
-        HttpRequest.newBuilder(URI.create(authUrl))
+        newRequest(authUrl)
             .header(CONTENT_HEADER, CONTENT_TYPE)
             .POST(HttpRequest.BodyPublishers.ofString(authPayload))
             .build();
@@ -82,6 +80,10 @@ public class AirflowRESTClient {
     throw new AirflowException("Failed to get access_token. Please check AirflowConfiguration username, password");
   }
 
+  private HttpRequest.Builder newRequest(String url) {
+    return client.newRequest(url).version(HttpClient.Version.HTTP_1_1).timeout(timeout);
+  }
+
   public String deploy(AirflowPipeline airflowPipeline, CatalogApplicationConfig config) {
     try {
       IngestionAirflowPipeline pipeline =
@@ -92,7 +94,7 @@ public class AirflowRESTClient {
       String deployEndPoint = "%s/rest_api/api?api=deploy_dag";
       String deployUrl = String.format(deployEndPoint, url);
       HttpRequest request =
-          HttpRequest.newBuilder(URI.create(deployUrl))
+          newRequest(deployUrl)
               .header(CONTENT_HEADER, CONTENT_TYPE)
               .header(AUTH_HEADER, authToken)
               .POST(HttpRequest.BodyPublishers.ofString(pipelinePayload))
@@ -119,7 +121,7 @@ public class AirflowRESTClient {
       JSONObject requestPayload = new JSONObject();
       requestPayload.put("workflow_name", pipelineName);
       HttpRequest request =
-          HttpRequest.newBuilder(URI.create(triggerUrl))
+          newRequest(triggerUrl)
               .header(CONTENT_HEADER, CONTENT_TYPE)
               .header(AUTH_HEADER, authToken)
               .POST(HttpRequest.BodyPublishers.ofString(requestPayload.toString()))
@@ -144,7 +146,7 @@ public class AirflowRESTClient {
       String statusUrl = String.format(statusEndPoint, url, airflowPipeline.getName());
       JSONObject requestPayload = new JSONObject();
       HttpRequest request =
-          HttpRequest.newBuilder(URI.create(statusUrl))
+          newRequest(statusUrl)
               .header(CONTENT_HEADER, CONTENT_TYPE)
               .header(AUTH_HEADER, authToken)
               .POST(HttpRequest.BodyPublishers.ofString(requestPayload.toString()))
@@ -0,0 +1,99 @@
+/*
+ *  Copyright 2021 Collate
+ *  contributor license agreements. See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.elasticsearch;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.rest.RestStatus;
+
+/**
+ * Sends bulk requests and retries the items rejected with a transient status with an exponential backoff. The items
+ * after a retried one that write the same document are sent again with it, in their original order, so that a retry
+ * doesn't overwrite a newer version of the document written by a later item.
+ */
+@Slf4j
+final class ElasticSearchBulk {
+  private static final long RETRY_BACKOFF_MILLIS = 100;
+
+  private ElasticSearchBulk() {}
+
+  /** Sends a bulk request, the client's bulk method can't be stubbed in the tests. */
+  interface BulkSender {
+    BulkResponse send(BulkRequest bulkRequest) throws IOException;
+  }
+
+  /**
+   * Send the bulk request and retry its failed items up to {@code retries} times. A request failing as a whole throws,
+   * while the items that failed for good are returned.
+   */
+  static List<BulkItemResponse> bulk(RestHighLevelClient client, BulkRequest bulkRequest, int retries)
+      throws IOException, InterruptedException {
+    return bulk(request -> client.bulk(request, RequestOptions.DEFAULT), bulkRequest, retries);
+  }
+
+  static List<BulkItemResponse> bulk(BulkSender sender, BulkRequest bulkRequest, int retries)
+      throws IOException, InterruptedException {
+    List<BulkItemResponse> failures = new ArrayList<>();
+    for (int attempt = 0; ; attempt++) {
+      BulkResponse response = sender.send(bulkRequest);
+      if (!response.hasFailures()) {
+        return failures;
+      }
+      List<DocWriteRequest<?>> requests = bulkRequest.requests();
+      Set<String> retriedDocuments = new HashSet<>();
+      BulkRequest retryRequest = new BulkRequest();
+      retryRequest.setRefreshPolicy(bulkRequest.getRefreshPolicy());
+      retryRequest.timeout(bulkRequest.timeout());
+      for (BulkItemResponse item : response.getItems()) {
+        DocWriteRequest<?> request = requests.get(item.getItemId());
+        String document = request.index() + "/" + request.id();
+        if (retriedDocuments.contains(document)) {
+          retryRequest.add(request); // Written again after the earlier item of the same document
+        } else if (item.isFailed() && attempt < retries && isRetriable(item.status())) {
+          retriedDocuments.add(document);
+          retryRequest.add(request);
+        } else if (item.isFailed()) {
+          failures.add(item);
+        }
+      }
+      if (retryRequest.numberOfActions() == 0) {
+        return failures;
+      }
+      LOG.warn("Retrying {} failed ES doc updates", retryRequest.numberOfActions());
+      Thread.sleep(RETRY_BACKOFF_MILLIS << attempt);
+      bulkRequest = retryRequest;
+    }
+  }
+
+  /** Statuses of the rejections that may succeed later. A version conflict fails the same way again. */
+  private static boolean isRetriable(RestStatus status) {
+    return status == RestStatus.TOO_MANY_REQUESTS
+        || status == RestStatus.SERVICE_UNAVAILABLE
+        || status == RestStatus.GATEWAY_TIMEOUT
+        || status == RestStatus.INTERNAL_SERVER_ERROR
+        || status == RestStatus.REQUEST_TIMEOUT;
+  }
+}
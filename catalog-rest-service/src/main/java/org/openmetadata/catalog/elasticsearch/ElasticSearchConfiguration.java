@@ -16,6 +16,12 @@ package org.openmetadata.catalog.elasticsearch;
 import javax.validation.constraints.NotEmpty;
 
 public class ElasticSearchConfiguration {
+  /** Where the search API reads from and the search publisher writes to. */
+  public enum SearchBackendType {
+    ELASTICSEARCH,
+    /** Lucene index embedded in the server, for a single server. */
+    LUCENE
+  }
 
   @NotEmpty private String host;
 
@@ -35,7 +41,65 @@ public class ElasticSearchConfiguration {
 
   private Integer socketTimeoutSecs = 60;
 
-  private Integer batchSize = 10;
+  private Integer batchSize = 100;
+
+  private Integer consumerThreads = 1;
+
+  private Integer bulkMaxBytes = 5 * 1024 * 1024;
+
+  private Integer bulkRetries = 3;
+
+  private Integer documentThreads = 4;
+
+  private Integer reindexBatchSize = 500;
+
+  private Integer reindexThreads = 4;
+
+  private Integer consistencyCheckIntervalMinutes = 60;
+
+  private Integer consistencyCheckBatchSize = 1000;
+
+  private Integer searchCacheTtlSeconds = 10;
+
+  private Integer facetCacheTtlSeconds = 60;
+
+  private Integer searchCacheMaxEntries = 10000;
+
+  private Integer searchTimeoutSeconds = 30;
+
+  private Integer searchMaxConcurrentRequests = 50;
+
+  private Integer searchCircuitBreakerFailureThreshold = 5;
+
+  private Integer searchCircuitBreakerOpenSeconds = 30;
+
+  private Integer searchCursorKeepAliveSeconds = 300;
+
+  private SearchBackendType searchBackend = SearchBackendType.ELASTICSEARCH;
+
+  private String luceneIndexDirectory;
+
+  private Integer luceneRefreshMillis = 1000;
+
+  private Integer luceneCommitIntervalSeconds = 30;
+
+  private boolean searchBackedLists = false;
+
+  private Integer maxFlattenedColumns = 1000;
+
+  private Integer maxColumnDescriptionLength = 1000;
+
+  private Integer maxChangeDescriptions = 10;
+
+  private boolean autocompleteIndex = false;
+
+  private Integer autocompleteRefreshMillis = 1000;
+
+  private Integer autocompleteUsageRefreshMinutes = 60;
+
+  private Integer autocompleteRebuildMillis = 10000;
+
+  private Integer autocompleteRebuildChanges = 1000;
 
   public String getHost() {
     return host;
@@ -117,6 +181,238 @@ public class ElasticSearchConfiguration {
     this.batchSize = batchSize;
   }
 
+  public Integer getConsumerThreads() {
+    return consumerThreads;
+  }
+
+  public void setConsumerThreads(Integer consumerThreads) {
+    this.consumerThreads = consumerThreads;
+  }
+
+  public Integer getBulkMaxBytes() {
+    return bulkMaxBytes;
+  }
+
+  public void setBulkMaxBytes(Integer bulkMaxBytes) {
+    this.bulkMaxBytes = bulkMaxBytes;
+  }
+
+  public Integer getBulkRetries() {
+    return bulkRetries;
+  }
+
+  public void setBulkRetries(Integer bulkRetries) {
+    this.bulkRetries = bulkRetries;
+  }
+
+  public Integer getDocumentThreads() {
+    return documentThreads;
+  }
+
+  public void setDocumentThreads(Integer documentThreads) {
+    this.documentThreads = documentThreads;
+  }
+
+  public Integer getReindexBatchSize() {
+    return reindexBatchSize;
+  }
+
+  public void setReindexBatchSize(Integer reindexBatchSize) {
+    this.reindexBatchSize = reindexBatchSize;
+  }
+
+  public Integer getReindexThreads() {
+    return reindexThreads;
+  }
+
+  public void setReindexThreads(Integer reindexThreads) {
+    this.reindexThreads = reindexThreads;
+  }
+
+  public Integer getConsistencyCheckIntervalMinutes() {
+    return consistencyCheckIntervalMinutes;
+  }
+
+  public void setConsistencyCheckIntervalMinutes(Integer consistencyCheckIntervalMinutes) {
+    this.consistencyCheckIntervalMinutes = consistencyCheckIntervalMinutes;
+  }
+
+  public Integer getConsistencyCheckBatchSize() {
+    return consistencyCheckBatchSize;
+  }
+
+  public void setConsistencyCheckBatchSize(Integer consistencyCheckBatchSize) {
+    this.consistencyCheckBatchSize = consistencyCheckBatchSize;
+  }
+
+  public Integer getSearchCacheTtlSeconds() {
+    return searchCacheTtlSeconds;
+  }
+
+  public void setSearchCacheTtlSeconds(Integer searchCacheTtlSeconds) {
+    this.searchCacheTtlSeconds = searchCacheTtlSeconds;
+  }
+
+  public Integer getFacetCacheTtlSeconds() {
+    return facetCacheTtlSeconds;
+  }
+
+  public void setFacetCacheTtlSeconds(Integer facetCacheTtlSeconds) {
+    this.facetCacheTtlSeconds = facetCacheTtlSeconds;
+  }
+
+  public Integer getSearchCacheMaxEntries() {
+    return searchCacheMaxEntries;
+  }
+
+  public void setSearchCacheMaxEntries(Integer searchCacheMaxEntries) {
+    this.searchCacheMaxEntries = searchCacheMaxEntries;
+  }
+
+  public Integer getSearchTimeoutSeconds() {
+    return searchTimeoutSeconds;
+  }
+
+  public void setSearchTimeoutSeconds(Integer searchTimeoutSeconds) {
+    this.searchTimeoutSeconds = searchTimeoutSeconds;
+  }
+
+  public Integer getSearchMaxConcurrentRequests() {
+    return searchMaxConcurrentRequests;
+  }
+
+  public void setSearchMaxConcurrentRequests(Integer searchMaxConcurrentRequests) {
+    this.searchMaxConcurrentRequests = searchMaxConcurrentRequests;
+  }
+
+  public Integer getSearchCircuitBreakerFailureThreshold() {
+    return searchCircuitBreakerFailureThreshold;
+  }
+
+  public void setSearchCircuitBreakerFailureThreshold(Integer searchCircuitBreakerFailureThreshold) {
+    this.searchCircuitBreakerFailureThreshold = searchCircuitBreakerFailureThreshold;
+  }
+
+  public Integer getSearchCircuitBreakerOpenSeconds() {
+    return searchCircuitBreakerOpenSeconds;
+  }
+
+  public void setSearchCircuitBreakerOpenSeconds(Integer searchCircuitBreakerOpenSeconds) {
+    this.searchCircuitBreakerOpenSeconds = searchCircuitBreakerOpenSeconds;
+  }
+
+  public Integer getSearchCursorKeepAliveSeconds() {
+    return searchCursorKeepAliveSeconds;
+  }
+
+  public void setSearchCursorKeepAliveSeconds(Integer searchCursorKeepAliveSeconds) {
+    this.searchCursorKeepAliveSeconds = searchCursorKeepAliveSeconds;
+  }
+
+  public SearchBackendType getSearchBackend() {
+    return searchBackend;
+  }
+
+  public void setSearchBackend(SearchBackendType searchBackend) {
+    this.searchBackend = searchBackend;
+  }
+
+  public String getLuceneIndexDirectory() {
+    return luceneIndexDirectory;
+  }
+
+  public void setLuceneIndexDirectory(String luceneIndexDirectory) {
+    this.luceneIndexDirectory = luceneIndexDirectory;
+  }
+
+  public Integer getLuceneRefreshMillis() {
+    return luceneRefreshMillis;
+  }
+
+  public void setLuceneRefreshMillis(Integer luceneRefreshMillis) {
+    this.luceneRefreshMillis = luceneRefreshMillis;
+  }
+
+  public Integer getLuceneCommitIntervalSeconds() {
+    return luceneCommitIntervalSeconds;
+  }
+
+  public void setLuceneCommitIntervalSeconds(Integer luceneCommitIntervalSeconds) {
+    this.luceneCommitIntervalSeconds = luceneCommitIntervalSeconds;
+  }
+
+  public boolean isSearchBackedLists() {
+    return searchBackedLists;
+  }
+
+  public void setSearchBackedLists(boolean searchBackedLists) {
+    this.searchBackedLists = searchBackedLists;
+  }
+
+  public Integer getMaxFlattenedColumns() {
+    return maxFlattenedColumns;
+  }
+
+  public void setMaxFlattenedColumns(Integer maxFlattenedColumns) {
+    this.maxFlattenedColumns = maxFlattenedColumns;
+  }
+
+  public Integer getMaxColumnDescriptionLength() {
+    return maxColumnDescriptionLength;
+  }
+
+  public void setMaxColumnDescriptionLength(Integer maxColumnDescriptionLength) {
+    this.maxColumnDescriptionLength = maxColumnDescriptionLength;
+  }
+
+  public Integer getMaxChangeDescriptions() {
+    return maxChangeDescriptions;
+  }
+
+  public void setMaxChangeDescriptions(Integer maxChangeDescriptions) {
+    this.maxChangeDescriptions = maxChangeDescriptions;
+  }
+
+  public boolean isAutocompleteIndex() {
+    return autocompleteIndex;
+  }
+
+  public void setAutocompleteIndex(boolean autocompleteIndex) {
+    this.autocompleteIndex = autocompleteIndex;
+  }
+
+  public Integer getAutocompleteRefreshMillis() {
+    return autocompleteRefreshMillis;
+  }
+
+  public void setAutocompleteRefreshMillis(Integer autocompleteRefreshMillis) {
+    this.autocompleteRefreshMillis = autocompleteRefreshMillis;
+  }
+
+  public Integer getAutocompleteUsageRefreshMinutes() {
+    return autocompleteUsageRefreshMinutes;
+  }
+
+  public void setAutocompleteUsageRefreshMinutes(Integer autocompleteUsageRefreshMinutes) {
+    this.autocompleteUsageRefreshMinutes = autocompleteUsageRefreshMinutes;
+  }
+
+  public Integer getAutocompleteRebuildMillis() {
+    return autocompleteRebuildMillis;
+  }
+
+  public void setAutocompleteRebuildMillis(Integer autocompleteRebuildMillis) {
+    this.autocompleteRebuildMillis = autocompleteRebuildMillis;
+  }
+
+  public Integer getAutocompleteRebuildChanges() {
+    return autocompleteRebuildChanges;
+  }
+
+  public void setAutocompleteRebuildChanges(Integer autocompleteRebuildChanges) {
+    this.autocompleteRebuildChanges = autocompleteRebuildChanges;
+  }
+
   @Override
   public String toString() {
     return "ElasticSearchConfiguration{"
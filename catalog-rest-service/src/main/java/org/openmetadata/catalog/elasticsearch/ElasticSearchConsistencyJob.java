@@ -0,0 +1,311 @@
+/*
+ *  Copyright 2021 Collate
+ *  contributor license agreements. See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.elasticsearch;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.index.VersionType;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.elasticsearch.search.sort.SortOrder;
+import org.jdbi.v3.core.Jdbi;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchIndexDefinition.ElasticSearchIndexType;
+import org.openmetadata.catalog.jdbi3.CollectionDAO;
+import org.openmetadata.catalog.jdbi3.CollectionDAO.EntityState;
+import org.openmetadata.catalog.jobs.LeaderElection;
+import org.openmetadata.catalog.jobs.ScheduledJob;
+import org.openmetadata.catalog.util.ElasticSearchClientUtils;
+
+/**
+ * Verifies that the search indexes match the database, and repairs the documents that drifted. Change events can be
+ * lost on the way to the index, for instance when a batch fails for good or a server stops with events in flight.
+ *
+ * <p>For each index the (id, version, deleted) of the entities and of the documents are read with keyset scans sorted
+ * by id, and merged. The documents are sorted on the keyword sub-field of their id field, which has doc values, rather
+ * than on {@code _id}. A document is repaired when it is missing, has another version or deleted flag than its entity,
+ * or has no entity left. A repair reads the entity again and either indexes it or deletes the document, so the
+ * documents changed while the scans ran are repaired with their latest state. The counts of drifted documents found by
+ * the last check are reported as gauges.
+ *
+ * <p>A repaired document is indexed with an external version, the update time of the entity, so that it doesn't
+ * overwrite a document the event publisher wrote after the entity was read. The entity version is a decimal that the
+ * versions of the publisher's updates can run ahead of, while the update time only grows with the entity.
+ */
+@Slf4j
+public class ElasticSearchConsistencyJob implements ScheduledJob {
+  private final RestHighLevelClient client;
+  private final ElasticSearchConfiguration esConfig;
+  private final Map<ElasticSearchIndexType, SearchEntitySource<?>> sources;
+  private final Map<ElasticSearchIndexType, Map<Drift, AtomicLong>> drift = new EnumMap<>(ElasticSearchIndexType.class);
+  private final Counter repaired;
+  private final Timer checkTimer;
+
+  public ElasticSearchConsistencyJob(Jdbi jdbi, ElasticSearchConfiguration esConfig, MetricRegistry metrics) {
+    this.client = ElasticSearchClientUtils.createElasticSearchClient(esConfig);
+    this.esConfig = esConfig;
+    this.sources = SearchEntitySource.of(jdbi.onDemand(CollectionDAO.class));
+    for (ElasticSearchIndexType indexType : sources.keySet()) {
+      Map<Drift, AtomicLong> counts = new EnumMap<>(Drift.class);
+      for (Drift kind : Drift.values()) {
+        AtomicLong count = new AtomicLong();
+        counts.put(kind, count);
+        metrics.register(
+            MetricRegistry.name(ElasticSearchConsistencyJob.class, indexType.indexName, kind.name().toLowerCase()),
+            (Gauge<Long>) count::get);
+      }
+      drift.put(indexType, counts);
+    }
+    this.repaired = metrics.counter(MetricRegistry.name(ElasticSearchConsistencyJob.class, "repaired"));
+    this.checkTimer = metrics.timer(MetricRegistry.name(ElasticSearchConsistencyJob.class, "check"));
+  }
+
+  @Override
+  public String getName() {
+    return "searchConsistency";
+  }
+
+  @Override
+  public long getIntervalSeconds() {
+    return TimeUnit.MINUTES.toSeconds(esConfig.getConsistencyCheckIntervalMinutes());
+  }
+
+  @Override
+  public void run(long fencingToken) throws IOException {
+    for (Map.Entry<ElasticSearchIndexType, SearchEntitySource<?>> entry : sources.entrySet()) {
+      try (Timer.Context ignored = checkTimer.time()) {
+        check(entry.getKey(), entry.getValue(), fencingToken);
+      }
+    }
+  }
+
+  private <T> void check(ElasticSearchIndexType indexType, SearchEntitySource<T> source, long fencingToken)
+      throws IOException {
+    int batchSize = esConfig.getConsistencyCheckBatchSize();
+    Map<Drift, Long> counts = new EnumMap<>(Drift.class);
+    List<String> repairs = new ArrayList<>();
+    try {
+      Iterator<EntityState> database = new PagedIterator(after -> source.scanVersions(batchSize, after));
+      Iterator<EntityState> index = new PagedIterator(after -> scanIndex(indexType, batchSize, after));
+      compare(
+          database,
+          index,
+          (id, kind) -> {
+            counts.merge(kind, 1L, Long::sum);
+            repairs.add(id);
+            if (repairs.size() >= batchSize) {
+              repair(indexType.indexName, source, repairs, fencingToken);
+              repairs.clear();
+            }
+          });
+      repair(indexType.indexName, source, repairs, fencingToken);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    drift.get(indexType).forEach((kind, count) -> count.set(counts.getOrDefault(kind, 0L)));
+    if (counts.isEmpty()) {
+      LOG.info("{} is consistent with the database", indexType.indexName);
+    } else {
+      LOG.warn("Repaired {} in {}", counts, indexType.indexName);
+    }
+  }
+
+  /** Read the version and deleted flag of the documents in id order, after the given id. */
+  private List<EntityState> scanIndex(ElasticSearchIndexType indexType, int limit, String after) throws IOException {
+    SearchSourceBuilder searchSource =
+        new SearchSourceBuilder()
+            .query(QueryBuilders.matchAllQuery())
+            .size(limit)
+            .sort(SortBuilders.fieldSort(indexType.idField + ".keyword").order(SortOrder.ASC).unmappedType("keyword"))
+            .fetchSource(new String[] {"version", "deleted"}, null);
+    if (!after.isEmpty()) {
+      searchSource.searchAfter(new Object[] {after});
+    }
+    SearchRequest request = new SearchRequest(indexType.indexName).source(searchSource);
+    SearchResponse response = client.search(request, RequestOptions.DEFAULT);
+    List<EntityState> versions = new ArrayList<>();
+    for (SearchHit hit : response.getHits().getHits()) {
+      Map<String, Object> doc = hit.getSourceAsMap();
+      Object version = doc.get("version");
+      versions.add(
+          new EntityState(
+              hit.getId(),
+              version instanceof Number ? ((Number) version).doubleValue() : null,
+              Boolean.TRUE.equals(doc.get("deleted"))));
+    }
+    return versions;
+  }
+
+  /**
+   * Index the entities with the given ids again, and delete the documents of the ones that are gone. The documents are
+   * written by the holder of the lease only, so that a former leader does not write the entities it read before.
+   */
+  private <T> void repair(String index, SearchEntitySource<T> source, List<String> ids, long fencingToken) {
+    if (ids.isEmpty()) {
+      return;
+    }
+    if (!LeaderElection.holdsLease(fencingToken)) {
+      throw new UncheckedIOException(new IOException("Leader lease " + fencingToken + " is no longer valid"));
+    }
+    BulkRequest bulkRequest = new BulkRequest();
+    try {
+      for (String id : ids) {
+        T entity = source.find(id);
+        if (entity == null) {
+          bulkRequest.add(new DeleteRequest(index, id));
+        } else {
+          try {
+            bulkRequest.add(
+                source
+                    .toIndexRequest(index, entity)
+                    .versionType(VersionType.EXTERNAL)
+                    .version(source.getUpdatedAt(entity)));
+          } catch (ParseException | RuntimeException e) {
+            LOG.error("Failed to build the search document of {}", id, e);
+          }
+        }
+      }
+      if (bulkRequest.numberOfActions() == 0) {
+        return;
+      }
+      List<BulkItemResponse> failures = ElasticSearchBulk.bulk(client, bulkRequest, esConfig.getBulkRetries());
+      for (BulkItemResponse item : failures) {
+        if (item.status() == RestStatus.CONFLICT) {
+          LOG.debug("ES doc {}/{} was updated since the entity was read", item.getIndex(), item.getId());
+        } else {
+          LOG.error("Failed to repair ES doc {}/{}: {}", item.getIndex(), item.getId(), item.getFailureMessage());
+        }
+      }
+      repaired.inc((long) bulkRequest.numberOfActions() - failures.size());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new UncheckedIOException(new IOException("Interrupted while repairing " + index, e));
+    }
+  }
+
+  /**
+   * Merge the entities of the database and the documents of the index, both sorted by id, and report the ids of the
+   * documents that drifted.
+   */
+  static void compare(Iterator<EntityState> database, Iterator<EntityState> index, DriftListener listener) {
+    EntityState entity = next(database);
+    EntityState doc = next(index);
+    while (entity != null || doc != null) {
+      int order = entity == null ? 1 : doc == null ? -1 : entity.getId().compareTo(doc.getId());
+      if (order < 0) {
+        listener.onDrift(entity.getId(), Drift.MISSING);
+        entity = next(database);
+      } else if (order > 0) {
+        listener.onDrift(doc.getId(), Drift.EXTRA);
+        doc = next(index);
+      } else {
+        if (!Objects.equals(entity.getVersion(), doc.getVersion()) || entity.isDeleted() != doc.isDeleted()) {
+          listener.onDrift(entity.getId(), Drift.STALE);
+        }
+        entity = next(database);
+        doc = next(index);
+      }
+    }
+  }
+
+  private static EntityState next(Iterator<EntityState> iterator) {
+    return iterator.hasNext() ? iterator.next() : null;
+  }
+
+  /** How a document differs from its entity. */
+  enum Drift {
+    /** The entity has no document. */
+    MISSING,
+    /** The document has another version or deleted flag than the entity. */
+    STALE,
+    /** The document has no entity. */
+    EXTRA
+  }
+
+  interface DriftListener {
+    void onDrift(String id, Drift drift);
+  }
+
+  interface PageReader {
+    List<EntityState> read(String after) throws IOException;
+  }
+
+  /** Iterates over the pages of a keyset scan, reading the next page after the last id of the previous one. */
+  static final class PagedIterator implements Iterator<EntityState> {
+    private final PageReader reader;
+    private Iterator<EntityState> page = Collections.emptyIterator();
+    private String after = "";
+    private boolean exhausted;
+
+    PagedIterator(PageReader reader) {
+      this.reader = reader;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (!page.hasNext() && !exhausted) {
+        List<EntityState> versions;
+        try {
+          versions = reader.read(after);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        if (versions.isEmpty()) {
+          exhausted = true;
+        } else {
+          after = versions.get(versions.size() - 1).getId();
+          page = versions.iterator();
+        }
+      }
+      return page.hasNext();
+    }
+
+    @Override
+    public EntityState next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return page.next();
+    }
+  }
+}
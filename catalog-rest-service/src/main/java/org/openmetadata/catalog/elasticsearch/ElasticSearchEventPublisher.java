@@ -15,6 +15,7 @@
 
 package org.openmetadata.catalog.elasticsearch;
 
+import com.lmax.disruptor.util.DaemonThreadFactory;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -22,13 +23,20 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import lombok.extern.slf4j.Slf4j;
 import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.support.WriteRequest.RefreshPolicy;
 import org.elasticsearch.action.update.UpdateRequest;
-import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
 import org.elasticsearch.common.xcontent.XContentType;
-import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.script.Script;
 import org.elasticsearch.script.ScriptType;
 import org.openmetadata.catalog.Entity;
@@ -48,16 +56,33 @@ import org.openmetadata.catalog.type.FieldChange;
 import org.openmetadata.catalog.util.ElasticSearchClientUtils;
 import org.openmetadata.catalog.util.JsonUtils;
 
+/**
+ * Indexes the entities of the change events in Elasticsearch. Each batch of events is turned into bulk requests of up
+ * to {@code bulkMaxBytes}, with the search documents built in parallel. The updates of an entity keep their order as
+ * the items of a bulk request for the same document are applied in order. Items rejected with a transient status are
+ * retried on their own, while a bulk request that fails as a whole is retried with the batch by {@link
+ * AbstractEventPublisher}. The bulk requests wait for the refresh that makes their writes searchable, and only then
+ * move the {@link IndexGenerations generations} of their indexes, so that a search cached in between isn't kept.
+ */
 @Slf4j
 public class ElasticSearchEventPublisher extends AbstractEventPublisher {
+  /** Keep only the most recent change descriptions of the document, see {@link SearchDocumentLimits}. */
+  private static final String TRIM_CHANGE_DESCRIPTIONS =
+      "int excess = ctx._source.change_descriptions.size() - params.max_change_descriptions; "
+          + "if (excess > 0) { ctx._source.change_descriptions.subList(0, excess).clear(); } ";
+
   private final RestHighLevelClient client;
   private final ElasticSearchIndexDefinition esIndexDefinition;
+  private final ElasticSearchConfiguration esConfig;
+  private final ExecutorService documentBuilders;
 
   public ElasticSearchEventPublisher(ElasticSearchConfiguration esConfig) {
     super(esConfig.getBatchSize(), new ArrayList<>());
+    this.esConfig = esConfig;
     this.client = ElasticSearchClientUtils.createElasticSearchClient(esConfig);
     esIndexDefinition = new ElasticSearchIndexDefinition(client);
     esIndexDefinition.createIndexes();
+    documentBuilders = Executors.newFixedThreadPool(esConfig.getDocumentThreads(), DaemonThreadFactory.INSTANCE);
   }
 
   @Override
@@ -67,53 +92,107 @@ public class ElasticSearchEventPublisher extends AbstractEventPublisher {
 
   @Override
   public void publish(ChangeEventList events) throws EventPublisherException {
-    for (ChangeEvent event : events.getData()) {
-      try {
-        String entityType = event.getEntityType();
-        UpdateRequest updateRequest = null;
-        switch (entityType) {
-          case Entity.TABLE:
-            updateRequest = updateTable(event);
-            break;
-          case Entity.DASHBOARD:
-            updateRequest = updateDashboard(event);
-            break;
-          case Entity.TOPIC:
-            updateRequest = updateTopic(event);
-            break;
-          case Entity.PIPELINE:
-            updateRequest = updatePipeline(event);
-            break;
-          default:
-            LOG.warn("Ignoring Entity Type {}", entityType);
-        }
-        if (updateRequest != null) {
-          client.update(updateRequest, RequestOptions.DEFAULT);
-        }
-      } catch (ElasticsearchException e) {
-        LOG.error("failed to update ES doc");
-        LOG.debug(e.getMessage());
-        if (e.status() == RestStatus.NOT_FOUND
-            || e.status() == RestStatus.GATEWAY_TIMEOUT
-            || e.status() == RestStatus.INTERNAL_SERVER_ERROR
-            || e.status() == RestStatus.REQUEST_TIMEOUT) {
-          LOG.error("Error in publishing to ElasticSearch");
-          throw new ElasticSearchRetriableException(e.getMessage());
-        } else {
-          throw new EventPublisherException(e.getMessage());
-        }
-      } catch (IOException ie) {
-        throw new EventPublisherException(ie.getMessage());
+    BulkRequest bulkRequest = newBulkRequest();
+    for (DocWriteRequest<?> writeRequest : buildWriteRequests(events.getData())) {
+      bulkRequest.add(writeRequest);
+      if (bulkRequest.estimatedSizeInBytes() >= esConfig.getBulkMaxBytes()) {
+        bulk(bulkRequest);
+        bulkRequest = newBulkRequest();
       }
     }
+    if (bulkRequest.numberOfActions() > 0) {
+      bulk(bulkRequest);
+    }
+  }
+
+  /** Bulk request returning once its writes are visible to searches. */
+  private static BulkRequest newBulkRequest() {
+    return new BulkRequest().setRefreshPolicy(RefreshPolicy.WAIT_UNTIL);
   }
 
   @Override
   public void onShutdown() {
+    documentBuilders.shutdownNow();
     close();
     LOG.info("Shutting down ElasticSearchEventPublisher");
   }
 
+  /** Build the write requests of the events in parallel, in the order of the events. */
+  private List<DocWriteRequest<?>> buildWriteRequests(List<ChangeEvent> events) throws EventPublisherException {
+    List<Future<DocWriteRequest<?>>> futures = new ArrayList<>(events.size());
+    for (ChangeEvent event : events) {
+      futures.add(documentBuilders.submit(() -> toWriteRequest(event)));
+    }
+    List<DocWriteRequest<?>> writeRequests = new ArrayList<>(events.size());
+    for (int i = 0; i < futures.size(); i++) {
+      try {
+        DocWriteRequest<?> writeRequest = futures.get(i).get();
+        if (writeRequest != null && !isEmptyUpdate(writeRequest)) {
+          writeRequests.add(writeRequest);
+        }
+      } catch (ExecutionException e) {
+        LOG.error("Failed to build the search document for event {}", events.get(i), e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new EventPublisherException(e);
+      }
+    }
+    return writeRequests;
+  }
+
+  /** Updates of events that don't change the index have neither a doc nor a script. */
+  private static boolean isEmptyUpdate(DocWriteRequest<?> writeRequest) {
+    if (writeRequest instanceof UpdateRequest) {
+      UpdateRequest updateRequest = (UpdateRequest) writeRequest;
+      return updateRequest.doc() == null && updateRequest.script() == null;
+    }
+    return false;
+  }
+
+  private DocWriteRequest<?> toWriteRequest(ChangeEvent event) throws IOException {
+    String entityType = event.getEntityType();
+    switch (entityType) {
+      case Entity.TABLE:
+        return updateTable(event);
+      case Entity.DASHBOARD:
+        return updateDashboard(event);
+      case Entity.TOPIC:
+        return updateTopic(event);
+      case Entity.PIPELINE:
+        return updatePipeline(event);
+      default:
+        ElasticSearchIndexType indexType = ElasticSearchIndexDefinition.findIndexTypeByEntityType(entityType);
+        if (indexType == null) {
+          // Entities without a search index
+          LOG.debug("Ignoring Entity Type {}", entityType);
+          return null;
+        }
+        return updateEntity(indexType, event);
+    }
+  }
+
+  /**
+   * Send the bulk request, the items that failed with a transient status are retried. Search results cached before the
+   * writes are stale once the request returns, even when only some of its items were applied.
+   */
+  private void bulk(BulkRequest bulkRequest) throws EventPublisherException {
+    try {
+      List<BulkItemResponse> failures = ElasticSearchBulk.bulk(client, bulkRequest, esConfig.getBulkRetries());
+      for (BulkItemResponse item : failures) {
+        LOG.error("Failed to update ES doc {}/{}: {}", item.getIndex(), item.getId(), item.getFailureMessage());
+      }
+      if (failures.size() < bulkRequest.numberOfActions()) {
+        bulkRequest.getIndices().forEach(IndexGenerations::increment);
+      }
+    } catch (IOException | ElasticsearchException e) {
+      LOG.error("Error in publishing to ElasticSearch", e);
+      throw new ElasticSearchRetriableException(e.getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new EventPublisherException(e);
+    }
+  }
+
   private UpdateRequest applyChangeEvent(ChangeEvent event) {
     String entityType = event.getEntityType();
     ElasticSearchIndexType esIndexType = esIndexDefinition.getIndexMappingByEntityType(entityType);
@@ -123,18 +202,12 @@ public class ElasticSearchEventPublisher extends AbstractEventPublisher {
     List<FieldChange> fieldsAdded = changeDescription.getFieldsAdded();
     StringBuilder scriptTxt = new StringBuilder();
     Map<String, Object> fieldAddParams = new HashMap<>();
-    ESChangeDescription esChangeDescription =
-        ESChangeDescription.builder()
-            .updatedAt(event.getTimestamp())
-            .updatedBy(event.getUserName())
-            .fieldsAdded(changeDescription.getFieldsAdded())
-            .fieldsUpdated(changeDescription.getFieldsUpdated())
-            .fieldsDeleted(changeDescription.getFieldsDeleted())
-            .build();
-    Map<String, Object> esChangeDescriptionDoc = JsonUtils.getMap(esChangeDescription);
-    fieldAddParams.put("change_description", esChangeDescriptionDoc);
+    fieldAddParams.put("change_description", SearchDocuments.changeDescription(event));
     fieldAddParams.put("last_updated_timestamp", event.getTimestamp());
+    fieldAddParams.put("max_change_descriptions", SearchDocumentLimits.getMaxChangeDescriptions());
+    scriptTxt.append("if (ctx._source.change_descriptions == null) { ctx._source.change_descriptions = []; } ");
     scriptTxt.append("ctx._source.change_descriptions.add(params.change_description); ");
+    scriptTxt.append(TRIM_CHANGE_DESCRIPTIONS);
     scriptTxt.append("ctx._source.last_updated_timestamp=params.last_updated_timestamp;");
     for (FieldChange fieldChange : fieldsAdded) {
       if (fieldChange.getName().equalsIgnoreCase("followers")) {
@@ -168,7 +241,7 @@ public class ElasticSearchEventPublisher extends AbstractEventPublisher {
     }
   }
 
-  private UpdateRequest updateTable(ChangeEvent event) throws IOException {
+  private DocWriteRequest<?> updateTable(ChangeEvent event) throws IOException {
     UpdateRequest updateRequest =
         new UpdateRequest(ElasticSearchIndexType.TABLE_SEARCH_INDEX.indexName, event.getEntityId().toString());
     TableESIndex tableESIndex = null;
@@ -190,16 +263,16 @@ public class ElasticSearchEventPublisher extends AbstractEventPublisher {
         }
         break;
       case ENTITY_SOFT_DELETED:
-        softDeleteEntity(updateRequest);
+        softDeleteEntity(event, updateRequest);
         break;
       case ENTITY_DELETED:
-        break;
+        return new DeleteRequest(updateRequest.index(), updateRequest.id());
     }
 
     return updateRequest;
   }
 
-  private UpdateRequest updateTopic(ChangeEvent event) throws IOException {
+  private DocWriteRequest<?> updateTopic(ChangeEvent event) throws IOException {
     UpdateRequest updateRequest =
         new UpdateRequest(ElasticSearchIndexType.TOPIC_SEARCH_INDEX.indexName, event.getEntityId().toString());
     TopicESIndex topicESIndex = null;
@@ -222,15 +295,15 @@ public class ElasticSearchEventPublisher extends AbstractEventPublisher {
         }
         break;
       case ENTITY_SOFT_DELETED:
-        softDeleteEntity(updateRequest);
+        softDeleteEntity(event, updateRequest);
         break;
       case ENTITY_DELETED:
-        break;
+        return new DeleteRequest(updateRequest.index(), updateRequest.id());
     }
     return updateRequest;
   }
 
-  private UpdateRequest updateDashboard(ChangeEvent event) throws IOException {
+  private DocWriteRequest<?> updateDashboard(ChangeEvent event) throws IOException {
     DashboardESIndex dashboardESIndex = null;
     UpdateRequest updateRequest =
         new UpdateRequest(ElasticSearchIndexType.DASHBOARD_SEARCH_INDEX.indexName, event.getEntityId().toString());
@@ -252,15 +325,15 @@ public class ElasticSearchEventPublisher extends AbstractEventPublisher {
         }
         break;
       case ENTITY_SOFT_DELETED:
-        softDeleteEntity(updateRequest);
+        softDeleteEntity(event, updateRequest);
         break;
       case ENTITY_DELETED:
-        break;
+        return new DeleteRequest(updateRequest.index(), updateRequest.id());
     }
     return updateRequest;
   }
 
-  private UpdateRequest updatePipeline(ChangeEvent event) throws IOException {
+  private DocWriteRequest<?> updatePipeline(ChangeEvent event) throws IOException {
     PipelineESIndex pipelineESIndex = null;
     if (event.getEntity() != null && event.getEventType() != EventType.ENTITY_SOFT_DELETED) {
       Pipeline pipeline = (Pipeline) event.getEntity();
@@ -282,29 +355,63 @@ public class ElasticSearchEventPublisher extends AbstractEventPublisher {
         }
         break;
       case ENTITY_SOFT_DELETED:
-        softDeleteEntity(updateRequest);
+        softDeleteEntity(event, updateRequest);
         break;
       case ENTITY_DELETED:
-        break;
+        return new DeleteRequest(updateRequest.index(), updateRequest.id());
     }
 
     return updateRequest;
   }
 
+  /** Update the document of an entity of the types indexed with {@link ElasticSearchIndex#withEntity}. */
+  private DocWriteRequest<?> updateEntity(ElasticSearchIndexType indexType, ChangeEvent event) throws IOException {
+    ElasticSearchIndex document = null;
+    if (event.getEntity() != null && event.getEventType() != EventType.ENTITY_SOFT_DELETED) {
+      document = SearchDocuments.document(event.getEntityType(), event.getEntity(), event.getEventType());
+    }
+    UpdateRequest updateRequest = new UpdateRequest(indexType.indexName, event.getEntityId().toString());
+    switch (event.getEventType()) {
+      case ENTITY_CREATED:
+        updateRequest.doc(JsonUtils.pojoToJson(document), XContentType.JSON);
+        updateRequest.docAsUpsert(true);
+        break;
+      case ENTITY_UPDATED:
+        if (Objects.equals(event.getCurrentVersion(), event.getPreviousVersion())) {
+          updateRequest = applyChangeEvent(event);
+        } else {
+          scriptedUpsert(document, updateRequest);
+        }
+        break;
+      case ENTITY_SOFT_DELETED:
+        softDeleteEntity(event, updateRequest);
+        break;
+      case ENTITY_DELETED:
+        return new DeleteRequest(updateRequest.index(), updateRequest.id());
+    }
+    return updateRequest;
+  }
+
   private void scriptedUpsert(Object index, UpdateRequest updateRequest) {
     String scriptTxt =
-        "for (k in params.keySet()) {if (k == 'change_descriptions') "
-            + "{ ctx._source.change_descriptions.addAll(params.change_descriptions) } "
-            + "else { ctx._source.put(k, params.get(k)) }}";
-    Map<String, Object> doc = JsonUtils.getMap(index);
-    Script script = new Script(ScriptType.INLINE, "painless", scriptTxt, doc);
+        "for (k in params.doc.keySet()) {if (k == 'change_descriptions') "
+            + "{ if (ctx._source.change_descriptions == null) { ctx._source.change_descriptions = []; } "
+            + "ctx._source.change_descriptions.addAll(params.doc.change_descriptions); "
+            + TRIM_CHANGE_DESCRIPTIONS
+            + "} else { ctx._source.put(k, params.doc.get(k)) }}";
+    Map<String, Object> params = new HashMap<>();
+    params.put("doc", JsonUtils.getMap(index));
+    params.put("max_change_descriptions", SearchDocumentLimits.getMaxChangeDescriptions());
+    Script script = new Script(ScriptType.INLINE, "painless", scriptTxt, params);
     updateRequest.script(script);
     updateRequest.scriptedUpsert(true);
   }
 
-  private void softDeleteEntity(UpdateRequest updateRequest) {
-    String scriptTxt = "ctx._source.deleted=true";
-    Script script = new Script(ScriptType.INLINE, "painless", scriptTxt, new HashMap<>());
+  private void softDeleteEntity(ChangeEvent event, UpdateRequest updateRequest) {
+    String scriptTxt = "ctx._source.deleted=true; ctx._source.version=params.version";
+    Map<String, Object> params = new HashMap<>();
+    params.put("version", event.getCurrentVersion());
+    Script script = new Script(ScriptType.INLINE, "painless", scriptTxt, params);
     updateRequest.script(script);
   }
 
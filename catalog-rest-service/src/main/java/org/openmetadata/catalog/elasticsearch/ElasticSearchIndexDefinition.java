@@ -20,7 +20,6 @@ import lombok.Setter;
 import lombok.Value;
 import lombok.experimental.SuperBuilder;
 import lombok.extern.slf4j.Slf4j;
-import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
 import org.elasticsearch.action.support.master.AcknowledgedResponse;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
@@ -30,24 +29,36 @@ import org.elasticsearch.client.indices.GetIndexRequest;
 import org.elasticsearch.client.indices.PutMappingRequest;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.openmetadata.catalog.Entity;
+import org.openmetadata.catalog.entity.data.Chart;
 import org.openmetadata.catalog.entity.data.Dashboard;
+import org.openmetadata.catalog.entity.data.Location;
+import org.openmetadata.catalog.entity.data.MlModel;
 import org.openmetadata.catalog.entity.data.Pipeline;
 import org.openmetadata.catalog.entity.data.Table;
 import org.openmetadata.catalog.entity.data.Topic;
+import org.openmetadata.catalog.entity.teams.Team;
+import org.openmetadata.catalog.entity.teams.User;
 import org.openmetadata.catalog.type.Column;
 import org.openmetadata.catalog.type.EntityReference;
 import org.openmetadata.catalog.type.EventType;
 import org.openmetadata.catalog.type.FieldChange;
 import org.openmetadata.catalog.type.TagLabel;
 import org.openmetadata.catalog.type.Task;
+import org.openmetadata.catalog.util.EntityInterface;
 
 @Slf4j
 public class ElasticSearchIndexDefinition {
   final Map<ElasticSearchIndexType, ElasticSearchIndexStatus> elasticSearchIndexes = new HashMap<>();
   private final RestHighLevelClient client;
+  private final SearchIndexAdmin admin;
 
   public ElasticSearchIndexDefinition(RestHighLevelClient client) {
+    this(client, SearchIndexAdmin.of(client));
+  }
+
+  ElasticSearchIndexDefinition(RestHighLevelClient client, SearchIndexAdmin admin) {
     this.client = client;
+    this.admin = admin;
     for (ElasticSearchIndexType elasticSearchIndexType : ElasticSearchIndexType.values()) {
       elasticSearchIndexes.put(elasticSearchIndexType, ElasticSearchIndexStatus.NOT_CREATED);
     }
@@ -60,17 +71,35 @@ public class ElasticSearchIndexDefinition {
   }
 
   public enum ElasticSearchIndexType {
-    TABLE_SEARCH_INDEX("table_search_index", "/elasticsearch/table_index_mapping.json"),
-    TOPIC_SEARCH_INDEX("topic_search_index", "/elasticsearch/topic_index_mapping.json"),
-    DASHBOARD_SEARCH_INDEX("dashboard_search_index", "/elasticsearch/dashboard_index_mapping.json"),
-    PIPELINE_SEARCH_INDEX("pipeline_search_index", "/elasticsearch/pipeline_index_mapping.json");
+    TABLE_SEARCH_INDEX("table_search_index", "/elasticsearch/table_index_mapping.json", "table_id"),
+    TOPIC_SEARCH_INDEX("topic_search_index", "/elasticsearch/topic_index_mapping.json", "topic_id"),
+    DASHBOARD_SEARCH_INDEX("dashboard_search_index", "/elasticsearch/dashboard_index_mapping.json", "dashboard_id"),
+    PIPELINE_SEARCH_INDEX("pipeline_search_index", "/elasticsearch/pipeline_index_mapping.json", "pipeine_id"),
+    USER_SEARCH_INDEX("user_search_index", "/elasticsearch/user_index_mapping.json", "user_id"),
+    TEAM_SEARCH_INDEX("team_search_index", "/elasticsearch/team_index_mapping.json", "team_id"),
+    CHART_SEARCH_INDEX("chart_search_index", "/elasticsearch/chart_index_mapping.json", "chart_id"),
+    MLMODEL_SEARCH_INDEX("mlmodel_search_index", "/elasticsearch/mlmodel_index_mapping.json", "ml_model_id"),
+    LOCATION_SEARCH_INDEX("location_search_index", "/elasticsearch/location_index_mapping.json", "location_id"),
+    DATABASE_SERVICE_SEARCH_INDEX(
+        "database_service_search_index", "/elasticsearch/service_index_mapping.json", "service_id"),
+    MESSAGING_SERVICE_SEARCH_INDEX(
+        "messaging_service_search_index", "/elasticsearch/service_index_mapping.json", "service_id"),
+    DASHBOARD_SERVICE_SEARCH_INDEX(
+        "dashboard_service_search_index", "/elasticsearch/service_index_mapping.json", "service_id"),
+    PIPELINE_SERVICE_SEARCH_INDEX(
+        "pipeline_service_search_index", "/elasticsearch/service_index_mapping.json", "service_id"),
+    STORAGE_SERVICE_SEARCH_INDEX(
+        "storage_service_search_index", "/elasticsearch/service_index_mapping.json", "service_id");
 
     public final String indexName;
     public final String indexMappingFile;
+    /** Field of the documents holding the entity id, mapped dynamically as text with a keyword sub-field. */
+    public final String idField;
 
-    ElasticSearchIndexType(String indexName, String indexMappingFile) {
+    ElasticSearchIndexType(String indexName, String indexMappingFile, String idField) {
       this.indexName = indexName;
       this.indexMappingFile = indexMappingFile;
+      this.idField = idField;
     }
   }
 
@@ -161,9 +190,10 @@ public class ElasticSearchIndexDefinition {
 
   private boolean deleteIndex(ElasticSearchIndexType elasticSearchIndexType) {
     try {
-      DeleteIndexRequest request = new DeleteIndexRequest(elasticSearchIndexType.indexName);
-      AcknowledgedResponse deleteIndexResponse = client.indices().delete(request, RequestOptions.DEFAULT);
-      LOG.info("{} Deleted {}", elasticSearchIndexType.indexName, deleteIndexResponse.isAcknowledged());
+      // Resolve the versioned index created by es-reindex when the name is an alias
+      List<String> indices = List.of(admin.resolve(elasticSearchIndexType.indexName));
+      admin.delete(indices);
+      LOG.info("{} Deleted {}", elasticSearchIndexType.indexName, indices);
     } catch (IOException e) {
       LOG.error("Failed to delete Elastic Search indexes due to", e);
       return false;
@@ -181,6 +211,15 @@ public class ElasticSearchIndexDefinition {
   }
 
   public ElasticSearchIndexType getIndexMappingByEntityType(String type) {
+    ElasticSearchIndexType indexType = findIndexTypeByEntityType(type);
+    if (indexType == null) {
+      throw new RuntimeException("Failed to find index doc for type " + type);
+    }
+    return indexType;
+  }
+
+  /** Index of the entity type, or null when the entities of the type are not indexed. */
+  public static ElasticSearchIndexType findIndexTypeByEntityType(String type) {
     if (type.equalsIgnoreCase(Entity.TABLE)) {
       return ElasticSearchIndexType.TABLE_SEARCH_INDEX;
     } else if (type.equalsIgnoreCase(Entity.DASHBOARD)) {
@@ -189,8 +228,28 @@ public class ElasticSearchIndexDefinition {
       return ElasticSearchIndexType.PIPELINE_SEARCH_INDEX;
     } else if (type.equalsIgnoreCase(Entity.TOPIC)) {
       return ElasticSearchIndexType.TOPIC_SEARCH_INDEX;
-    }
-    throw new RuntimeException("Failed to find index doc for type " + type);
+    } else if (type.equalsIgnoreCase(Entity.USER)) {
+      return ElasticSearchIndexType.USER_SEARCH_INDEX;
+    } else if (type.equalsIgnoreCase(Entity.TEAM)) {
+      return ElasticSearchIndexType.TEAM_SEARCH_INDEX;
+    } else if (type.equalsIgnoreCase(Entity.CHART)) {
+      return ElasticSearchIndexType.CHART_SEARCH_INDEX;
+    } else if (type.equalsIgnoreCase(Entity.MLMODEL)) {
+      return ElasticSearchIndexType.MLMODEL_SEARCH_INDEX;
+    } else if (type.equalsIgnoreCase(Entity.LOCATION)) {
+      return ElasticSearchIndexType.LOCATION_SEARCH_INDEX;
+    } else if (type.equalsIgnoreCase(Entity.DATABASE_SERVICE)) {
+      return ElasticSearchIndexType.DATABASE_SERVICE_SEARCH_INDEX;
+    } else if (type.equalsIgnoreCase(Entity.MESSAGING_SERVICE)) {
+      return ElasticSearchIndexType.MESSAGING_SERVICE_SEARCH_INDEX;
+    } else if (type.equalsIgnoreCase(Entity.DASHBOARD_SERVICE)) {
+      return ElasticSearchIndexType.DASHBOARD_SERVICE_SEARCH_INDEX;
+    } else if (type.equalsIgnoreCase(Entity.PIPELINE_SERVICE)) {
+      return ElasticSearchIndexType.PIPELINE_SERVICE_SEARCH_INDEX;
+    } else if (type.equalsIgnoreCase(Entity.STORAGE_SERVICE)) {
+      return ElasticSearchIndexType.STORAGE_SERVICE_SEARCH_INDEX;
+    }
+    return null;
   }
 }
 
@@ -205,6 +264,7 @@ class ElasticSearchIndex {
   String fqdn;
   String service;
   Boolean deleted;
+  Double version;
 
   @JsonProperty("service_type")
   String serviceType;
@@ -228,6 +288,68 @@ class ElasticSearchIndex {
 
   @JsonProperty("change_descriptions")
   List<ESChangeDescription> changeDescriptions;
+
+  /**
+   * Set the fields common to the documents of all the entity types, read through the {@link EntityInterface} of the
+   * entity. Used by the documents of the entity types added to the search after the tables, topics, dashboards and
+   * pipelines.
+   */
+  static <B extends ElasticSearchIndexBuilder<?, ?>> B withEntity(
+      B builder, EntityInterface<?> entity, String name, String entityType, EventType eventType) {
+    List<ElasticSearchSuggest> suggest = new ArrayList<>();
+    suggest.add(ElasticSearchSuggest.builder().input(entity.getFullyQualifiedName()).weight(5).build());
+    suggest.add(ElasticSearchSuggest.builder().input(name).weight(10).build());
+    long updatedTimestamp = entity.getUpdatedAt();
+    builder.name(name);
+    builder.displayName(entity.getDisplayName() != null ? entity.getDisplayName() : "");
+    builder.description(entity.getDescription() != null ? entity.getDescription() : "");
+    builder.fqdn(entity.getFullyQualifiedName());
+    builder.deleted(entity.isDeleted());
+    builder.version(entity.getVersion());
+    builder.lastUpdatedTimestamp(updatedTimestamp);
+    builder.entityType(entityType);
+    builder.suggest(suggest);
+
+    if (entity.getTags() != null) {
+      ParseTags parseTags =
+          new ParseTags(entity.getTags().stream().map(TagLabel::getTagFQN).collect(Collectors.toList()));
+      builder.tags(parseTags.tags);
+      builder.tier(parseTags.tierTag);
+    }
+    if (entity.getFollowers() != null) {
+      builder.followers(
+          entity.getFollowers().stream().map(item -> item.getId().toString()).collect(Collectors.toList()));
+    }
+    if (entity.getOwner() != null) {
+      builder.owner(entity.getOwner().getId().toString());
+    }
+
+    ESChangeDescription esChangeDescription = null;
+    if (entity.getChangeDescription() != null) {
+      esChangeDescription =
+          ESChangeDescription.builder().updatedAt(updatedTimestamp).updatedBy(entity.getUpdatedBy()).build();
+      esChangeDescription.setFieldsAdded(entity.getChangeDescription().getFieldsAdded());
+      esChangeDescription.setFieldsDeleted(entity.getChangeDescription().getFieldsDeleted());
+      esChangeDescription.setFieldsUpdated(entity.getChangeDescription().getFieldsUpdated());
+    } else if (eventType == EventType.ENTITY_CREATED) {
+      esChangeDescription =
+          ESChangeDescription.builder().updatedAt(updatedTimestamp).updatedBy(entity.getUpdatedBy()).build();
+    }
+    builder.changeDescriptions(esChangeDescription != null ? List.of(esChangeDescription) : null);
+    return builder;
+  }
+
+  /** Ids of the entities, the followers of an entity that can be followed being an empty list when it is created. */
+  static List<String> ids(List<EntityReference> entities, EventType eventType) {
+    if (entities != null) {
+      return entities.stream().map(item -> item.getId().toString()).collect(Collectors.toList());
+    }
+    return eventType == EventType.ENTITY_CREATED ? Collections.emptyList() : null;
+  }
+
+  static List<String> names(List<EntityReference> entities) {
+    return entities != null ? entities.stream().map(EntityReference::getName).collect(Collectors.toList()) : null;
+  }
 }
 
 @Getter
@@ -302,6 +424,9 @@ class TableESIndex extends ElasticSearchIndex {
   @JsonProperty("column_descriptions")
   List<String> columnDescriptions;
 
+  @JsonProperty("columns_truncated")
+  Boolean columnsTruncated;
+
   @JsonProperty("monthly_stats")
   Integer monthlyStats;
 
@@ -336,15 +461,16 @@ class TableESIndex extends ElasticSearchIndex {
       table.getTags().forEach(tag -> tags.add(tag.getTagFQN()));
     }
 
+    boolean columnsTruncated = false;
     if (table.getColumns() != null) {
       List<FlattenColumn> cols = new ArrayList<>();
-      cols = parseColumns(table.getColumns(), cols, null);
+      columnsTruncated = !parseColumns(table.getColumns(), cols, null, SearchDocumentLimits.getMaxFlattenedColumns());
 
       for (FlattenColumn col : cols) {
         if (col.getTags() != null) {
           tags.addAll(col.getTags());
         }
-        columnDescriptions.add(col.getDescription());
+        columnDescriptions.add(SearchDocumentLimits.truncateDescription(col.getDescription()));
         columnNames.add(col.getName());
       }
     }
@@ -354,6 +480,7 @@ class TableESIndex extends ElasticSearchIndex {
         internalBuilder()
             .tableId(tableId)
             .deleted(table.getDeleted())
+            .version(table.getVersion())
             .name(tableName)
             .displayName(tableName)
             .description(description)
@@ -364,6 +491,7 @@ class TableESIndex extends ElasticSearchIndex {
             .serviceCategory("databaseService")
             .columnNames(columnNames)
             .columnDescriptions(columnDescriptions)
+            .columnsTruncated(columnsTruncated)
             .tableType(tableType)
             .tags(parseTags.tags)
             .tier(parseTags.tierTag);
@@ -425,11 +553,15 @@ class TableESIndex extends ElasticSearchIndex {
     return tableESIndexBuilder;
   }
 
-  private static List<FlattenColumn> parseColumns(
-      List<Column> columns, List<FlattenColumn> flattenColumns, String parentColumn) {
+  /** Flatten the columns, and their children, up to the maximum number. Returns false when columns were left out. */
+  private static boolean parseColumns(
+      List<Column> columns, List<FlattenColumn> flattenColumns, String parentColumn, int maxColumns) {
     Optional<String> optParentColumn = Optional.ofNullable(parentColumn).filter(Predicate.not(String::isEmpty));
     List<String> tags = new ArrayList<>();
     for (Column col : columns) {
+      if (flattenColumns.size() >= maxColumns) {
+        return false;
+      }
       String columnName = col.getName();
       if (optParentColumn.isPresent()) {
         columnName = optParentColumn.get() + "." + columnName;
@@ -444,11 +576,11 @@ class TableESIndex extends ElasticSearchIndex {
         flattenColumn.tags = tags;
       }
       flattenColumns.add(flattenColumn);
-      if (col.getChildren() != null) {
-        parseColumns(col.getChildren(), flattenColumns, col.getName());
+      if (col.getChildren() != null && !parseColumns(col.getChildren(), flattenColumns, col.getName(), maxColumns)) {
+        return false;
       }
     }
-    return flattenColumns;
+    return true;
   }
 }
 
@@ -478,6 +610,7 @@ class TopicESIndex extends ElasticSearchIndex {
         internalBuilder()
             .topicId(topic.getId().toString())
             .deleted(topic.getDeleted())
+            .version(topic.getVersion())
             .name(topic.getName())
             .displayName(displayName)
             .description(description)
@@ -577,6 +710,7 @@ class DashboardESIndex extends ElasticSearchIndex {
         internalBuilder()
             .dashboardId(dashboard.getId().toString())
             .deleted(dashboard.getDeleted())
+            .version(dashboard.getVersion())
             .name(dashboard.getDisplayName())
             .displayName(displayName)
             .description(description)
@@ -666,6 +800,7 @@ class PipelineESIndex extends ElasticSearchIndex {
         internalBuilder()
             .pipelineId(pipeline.getId().toString())
             .deleted(pipeline.getDeleted())
+            .version(pipeline.getVersion())
             .name(pipeline.getDisplayName())
             .displayName(description)
             .description(displayName)
@@ -707,3 +842,138 @@ class PipelineESIndex extends ElasticSearchIndex {
     return pipelineESIndexBuilder;
   }
 }
+
+@EqualsAndHashCode(callSuper = true)
+@Getter
+@SuperBuilder(builderMethodName = "internalBuilder")
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+class UserESIndex extends ElasticSearchIndex {
+  @JsonProperty("user_id")
+  String userId;
+
+  String email;
+
+  @JsonProperty("is_admin")
+  Boolean isAdmin;
+
+  @JsonProperty("is_bot")
+  Boolean isBot;
+
+  List<String> teams;
+
+  public static UserESIndexBuilder builder(User user, EventType eventType) {
+    return withEntity(internalBuilder(), Entity.getEntityInterface(user), user.getName(), Entity.USER, eventType)
+        .userId(user.getId().toString())
+        .email(user.getEmail())
+        .isAdmin(user.getIsAdmin())
+        .isBot(user.getIsBot())
+        .teams(names(user.getTeams()));
+  }
+}
+
+@EqualsAndHashCode(callSuper = true)
+@Getter
+@SuperBuilder(builderMethodName = "internalBuilder")
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+class TeamESIndex extends ElasticSearchIndex {
+  @JsonProperty("team_id")
+  String teamId;
+
+  List<String> users;
+
+  public static TeamESIndexBuilder builder(Team team, EventType eventType) {
+    return withEntity(internalBuilder(), Entity.getEntityInterface(team), team.getName(), Entity.TEAM, eventType)
+        .teamId(team.getId().toString())
+        .users(names(team.getUsers()));
+  }
+}
+
+@EqualsAndHashCode(callSuper = true)
+@Getter
+@SuperBuilder(builderMethodName = "internalBuilder")
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+class ChartESIndex extends ElasticSearchIndex {
+  @JsonProperty("chart_id")
+  String chartId;
+
+  @JsonProperty("chart_type")
+  String chartType;
+
+  public static ChartESIndexBuilder builder(Chart chart, EventType eventType) {
+    return withEntity(internalBuilder(), Entity.getEntityInterface(chart), chart.getName(), Entity.CHART, eventType)
+        .chartId(chart.getId().toString())
+        .chartType(chart.getChartType() != null ? chart.getChartType().toString() : null)
+        .service(chart.getService().getName())
+        .serviceType(chart.getServiceType().toString())
+        .serviceCategory(Entity.DASHBOARD_SERVICE)
+        .followers(ids(chart.getFollowers(), eventType));
+  }
+}
+
+@EqualsAndHashCode(callSuper = true)
+@Getter
+@SuperBuilder(builderMethodName = "internalBuilder")
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+class MlModelESIndex extends ElasticSearchIndex {
+  @JsonProperty("ml_model_id")
+  String mlModelId;
+
+  String algorithm;
+
+  public static MlModelESIndexBuilder builder(MlModel mlModel, EventType eventType) {
+    return withEntity(
+            internalBuilder(), Entity.getEntityInterface(mlModel), mlModel.getName(), Entity.MLMODEL, eventType)
+        .mlModelId(mlModel.getId().toString())
+        .algorithm(mlModel.getAlgorithm())
+        .followers(ids(mlModel.getFollowers(), eventType));
+  }
+}
+
+@EqualsAndHashCode(callSuper = true)
+@Getter
+@SuperBuilder(builderMethodName = "internalBuilder")
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+class LocationESIndex extends ElasticSearchIndex {
+  @JsonProperty("location_id")
+  String locationId;
+
+  @JsonProperty("location_type")
+  String locationType;
+
+  public static LocationESIndexBuilder builder(Location location, EventType eventType) {
+    return withEntity(
+            internalBuilder(), Entity.getEntityInterface(location), location.getName(), Entity.LOCATION, eventType)
+        .locationId(location.getId().toString())
+        .locationType(location.getLocationType() != null ? location.getLocationType().toString() : null)
+        .service(location.getService().getName())
+        .serviceType(location.getServiceType().toString())
+        .serviceCategory(Entity.STORAGE_SERVICE)
+        .followers(ids(location.getFollowers(), eventType));
+  }
+}
+
+/** Document of the database, messaging, dashboard, pipeline and storage services, each in an index of its own. */
+@EqualsAndHashCode(callSuper = true)
+@Getter
+@SuperBuilder(builderMethodName = "internalBuilder")
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+class ServiceESIndex extends ElasticSearchIndex {
+  @JsonProperty("service_id")
+  String serviceId;
+
+  public static ServiceESIndexBuilder builder(
+      Object service, String entityType, Object serviceType, EventType eventType) {
+    EntityInterface<?> entityInterface = Entity.getEntityInterface(service);
+    return withEntity(
+            internalBuilder(), entityInterface, entityInterface.getFullyQualifiedName(), entityType, eventType)
+        .serviceId(entityInterface.getId().toString())
+        .serviceType(serviceType.toString())
+        .serviceCategory(entityType);
+  }
+}
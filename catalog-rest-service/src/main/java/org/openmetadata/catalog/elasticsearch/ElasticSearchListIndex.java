@@ -0,0 +1,91 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.elasticsearch;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.SortOrder;
+import org.openmetadata.catalog.Entity;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchIndexDefinition.ElasticSearchIndexType;
+import org.openmetadata.catalog.jdbi3.EntityListIndex;
+import org.openmetadata.catalog.type.Include;
+import org.openmetadata.catalog.util.ElasticSearchClientUtils;
+
+/** List pages of the entities read from the Elasticsearch indexes, with {@code search_after} on the fqdn. */
+public class ElasticSearchListIndex implements EntityListIndex {
+  private final RestHighLevelClient client;
+
+  public ElasticSearchListIndex(ElasticSearchConfiguration esConfig) {
+    this.client = ElasticSearchClientUtils.createElasticSearchClient(esConfig);
+  }
+
+  @Override
+  public Page listAfter(String entityType, String fqnPrefix, int limit, String after, Include include)
+      throws IOException {
+    return list(entityType, fqnPrefix, limit, after, include, SortOrder.ASC);
+  }
+
+  @Override
+  public Page listBefore(String entityType, String fqnPrefix, int limit, String before, Include include)
+      throws IOException {
+    Page page = list(entityType, fqnPrefix, limit, before, include, SortOrder.DESC);
+    if (page != null) {
+      Collections.reverse(page.getIds());
+      Collections.reverse(page.getNames());
+    }
+    return page;
+  }
+
+  private Page list(String entityType, String fqnPrefix, int limit, String cursor, Include include, SortOrder order)
+      throws IOException {
+    ElasticSearchIndexType indexType = ElasticSearchIndexDefinition.findIndexTypeByEntityType(entityType);
+    if (indexType == null) {
+      return null;
+    }
+    BoolQueryBuilder query = QueryBuilders.boolQuery();
+    if (fqnPrefix != null) {
+      query.filter(
+          entityType.equals(Entity.USER)
+              ? QueryBuilders.termQuery("teams", fqnPrefix)
+              : QueryBuilders.prefixQuery("fqdn", fqnPrefix + "."));
+    }
+    if (include != Include.ALL) {
+      query.filter(QueryBuilders.termQuery("deleted", include == Include.DELETED));
+    }
+    SearchSourceBuilder source =
+        new SearchSourceBuilder().query(query).size(limit).fetchSource(false).trackTotalHits(true).sort("fqdn", order);
+    if (!cursor.isEmpty()) {
+      source.searchAfter(new Object[] {cursor});
+    }
+    SearchResponse response =
+        client.search(new SearchRequest(indexType.indexName).source(source), RequestOptions.DEFAULT);
+    List<String> ids = new ArrayList<>();
+    List<String> names = new ArrayList<>();
+    for (SearchHit hit : response.getHits().getHits()) {
+      ids.add(hit.getId());
+      names.add((String) hit.getSortValues()[0]);
+    }
+    return new Page(ids, names, (int) response.getHits().getTotalHits().value);
+  }
+}
@@ -0,0 +1,368 @@
+/*
+ *  Copyright 2021 Collate
+ *  contributor license agreements. See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.elasticsearch;
+
+import com.codahale.metrics.MetricRegistry;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import io.dropwizard.db.ManagedDataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest.AliasActions;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.settings.Settings;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.sqlobject.SqlObjectPlugin;
+import org.openmetadata.catalog.CatalogApplicationConfig;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchIndexDefinition.ElasticSearchIndexType;
+import org.openmetadata.catalog.jdbi3.ChartRepository;
+import org.openmetadata.catalog.jdbi3.CollectionDAO;
+import org.openmetadata.catalog.jdbi3.DashboardRepository;
+import org.openmetadata.catalog.jdbi3.DashboardServiceRepository;
+import org.openmetadata.catalog.jdbi3.DatabaseRepository;
+import org.openmetadata.catalog.jdbi3.DatabaseServiceRepository;
+import org.openmetadata.catalog.jdbi3.LocationRepository;
+import org.openmetadata.catalog.jdbi3.MessagingServiceRepository;
+import org.openmetadata.catalog.jdbi3.MlModelRepository;
+import org.openmetadata.catalog.jdbi3.PipelineRepository;
+import org.openmetadata.catalog.jdbi3.PipelineServiceRepository;
+import org.openmetadata.catalog.jdbi3.StorageServiceRepository;
+import org.openmetadata.catalog.jdbi3.TableRepository;
+import org.openmetadata.catalog.jdbi3.TeamRepository;
+import org.openmetadata.catalog.jdbi3.TopicRepository;
+import org.openmetadata.catalog.jdbi3.UserRepository;
+import org.openmetadata.catalog.util.JsonUtils;
+
+/**
+ * Rebuilds the search indexes from the entities in the database without downtime. Each index is loaded into a new
+ * versioned index, named after the index with the time the load started, and the index name is then atomically moved to
+ * it as an alias. The index or the versioned index previously behind the name is dropped after the swap.
+ *
+ * <p>The entities are read with keyset scans ordered by fully qualified name. Pages are indexed by {@code
+ * reindexThreads} threads, and the name of the last entity of the pages indexed so far is checkpointed to a file so
+ * that a failed reindex resumes where it stopped. Once an index is loaded, the entities updated since the load started
+ * are indexed once more to pick up the changes the running servers made meanwhile, before the alias is swapped. The
+ * running servers write to the previous index until the swap, so the entities updated since that catch-up started are
+ * indexed again after the swap.
+ */
+@Slf4j
+public class ElasticSearchReindexer {
+  /** Entities updated this long before a load started are indexed again, to cover transactions in flight. */
+  private static final long CATCH_UP_MARGIN_MILLIS = 60_000;
+
+  private final SearchIndexAdmin admin;
+  private final ElasticSearchConfiguration esConfig;
+  private final ElasticSearchIndexDefinition esIndexDefinition;
+  private final ManagedDataSource dataSource;
+  private final Path checkpointFile;
+  private final Map<ElasticSearchIndexType, SearchEntitySource<?>> sources;
+
+  public ElasticSearchReindexer(RestHighLevelClient client, CatalogApplicationConfig config, Path checkpointFile) {
+    this.admin = SearchIndexAdmin.of(client);
+    this.esConfig = config.getElasticSearchConfiguration();
+    SearchDocumentLimits.configure(esConfig);
+    this.esIndexDefinition = new ElasticSearchIndexDefinition(client);
+    this.checkpointFile = checkpointFile;
+    this.dataSource = config.getDataSourceFactory().build(new MetricRegistry(), "es-reindex");
+    Jdbi jdbi = Jdbi.create(dataSource);
+    jdbi.installPlugin(new SqlObjectPlugin());
+    CollectionDAO dao = jdbi.onDemand(CollectionDAO.class);
+
+    // The entities of the documents refer to these entities, which must be registered to be looked up
+    new DatabaseRepository(dao);
+    new DatabaseServiceRepository(dao);
+    new MessagingServiceRepository(dao);
+    new ChartRepository(dao);
+    new DashboardServiceRepository(dao);
+    new PipelineServiceRepository(dao);
+    new LocationRepository(dao);
+    new StorageServiceRepository(dao);
+    new MlModelRepository(dao);
+    new UserRepository(dao);
+    new TeamRepository(dao);
+
+    new TableRepository(dao);
+    new TopicRepository(dao);
+    new DashboardRepository(dao);
+    new PipelineRepository(dao);
+    this.sources = SearchEntitySource.of(dao);
+  }
+
+  ElasticSearchReindexer(
+      SearchIndexAdmin admin,
+      ElasticSearchConfiguration esConfig,
+      Map<ElasticSearchIndexType, SearchEntitySource<?>> sources,
+      Path checkpointFile) {
+    this.admin = admin;
+    this.esConfig = esConfig;
+    this.esIndexDefinition = new ElasticSearchIndexDefinition(null, admin);
+    this.dataSource = null;
+    this.checkpointFile = checkpointFile;
+    this.sources = sources;
+  }
+
+  /** Reindex all the indexes, resuming from the checkpoint file when there is one. */
+  public void reindex() throws IOException, InterruptedException {
+    Checkpoint checkpoint = readCheckpoint();
+    ExecutorService loaders = Executors.newFixedThreadPool(esConfig.getReindexThreads(), DaemonThreadFactory.INSTANCE);
+    try {
+      for (Map.Entry<ElasticSearchIndexType, SearchEntitySource<?>> entry : sources.entrySet()) {
+        IndexProgress progress = checkpoint.getIndexes().get(entry.getKey().indexName);
+        if (progress == null || !exists(progress.getIndex())) {
+          progress = new IndexProgress();
+          checkpoint.getIndexes().put(entry.getKey().indexName, progress);
+        }
+        reindex(entry.getKey(), entry.getValue(), progress, checkpoint, loaders);
+      }
+      Files.deleteIfExists(checkpointFile);
+    } finally {
+      loaders.shutdownNow();
+      try {
+        if (dataSource != null) {
+          dataSource.stop();
+        }
+      } catch (Exception e) {
+        LOG.warn("Failed to close the database connections", e);
+      }
+    }
+  }
+
+  private void reindex(
+      ElasticSearchIndexType indexType,
+      SearchEntitySource<?> source,
+      IndexProgress progress,
+      Checkpoint checkpoint,
+      ExecutorService loaders)
+      throws IOException, InterruptedException {
+    if (progress.isDone()) {
+      LOG.info("{} was already reindexed into {}", indexType.indexName, progress.getIndex());
+      return;
+    }
+    if (progress.getIndex() == null) {
+      progress.setStartedAt(System.currentTimeMillis());
+      progress.setIndex(indexType.indexName + "_" + progress.getStartedAt());
+      createIndex(progress.getIndex(), esIndexDefinition.getIndexMapping(indexType));
+      writeCheckpoint(checkpoint);
+    }
+    if (!progress.isLoaded()) {
+      LOG.info(
+          "Loading {} from {}", progress.getIndex(), progress.getAfter().isEmpty() ? "start" : progress.getAfter());
+      load(source, progress, 0, checkpoint, loaders);
+      progress.setLoaded(true);
+      progress.setAfter("");
+      writeCheckpoint(checkpoint);
+    }
+    if (!progress.isSwapped()) {
+      if (progress.getCatchUpStartedAt() == 0) {
+        progress.setCatchUpStartedAt(System.currentTimeMillis());
+        writeCheckpoint(checkpoint);
+      }
+      LOG.info("Indexing the entities updated since the load of {} started", progress.getIndex());
+      load(source, progress, progress.getStartedAt() - CATCH_UP_MARGIN_MILLIS, checkpoint, loaders);
+
+      // Back to the default refresh interval turned off for the load
+      admin.putSettings(progress.getIndex(), Settings.builder().putNull("index.refresh_interval").build());
+      swapAlias(indexType.indexName, progress.getIndex());
+      progress.setSwapped(true);
+      progress.setAfter("");
+      writeCheckpoint(checkpoint);
+    }
+    // The running servers wrote the changes made until the swap to the previous index
+    LOG.info("Indexing the entities updated since the catch-up of {} started", progress.getIndex());
+    load(source, progress, progress.getCatchUpStartedAt() - CATCH_UP_MARGIN_MILLIS, checkpoint, loaders);
+    progress.setDone(true);
+    writeCheckpoint(checkpoint);
+    LOG.info("Reindexed {} documents into {}", progress.getCount(), progress.getIndex());
+  }
+
+  /**
+   * Index the entities updated at or after {@code updatedSince}, from the one after the checkpointed name. Up to two
+   * pages per thread are in flight, and the checkpoint only moves past a page once it and all the pages before it are
+   * indexed.
+   */
+  private <T> void load(
+      SearchEntitySource<T> source,
+      IndexProgress progress,
+      long updatedSince,
+      Checkpoint checkpoint,
+      ExecutorService loaders)
+      throws IOException, InterruptedException {
+    Deque<Page> inFlight = new ArrayDeque<>();
+    String after = progress.getAfter();
+    while (true) {
+      List<T> entities = source.scan(esConfig.getReindexBatchSize(), after, updatedSince);
+      if (!entities.isEmpty()) {
+        after = source.getCursor(entities.get(entities.size() - 1));
+        String index = progress.getIndex();
+        inFlight.add(new Page(after, loaders.submit(() -> index(source, index, entities))));
+      }
+      if (!inFlight.isEmpty() && (entities.isEmpty() || inFlight.size() >= 2 * esConfig.getReindexThreads())) {
+        Page page = inFlight.remove();
+        try {
+          progress.setCount(progress.getCount() + page.indexed.get());
+        } catch (ExecutionException e) {
+          throw new IOException(
+              "Failed to index " + progress.getIndex() + " after " + progress.getAfter(), e.getCause());
+        }
+        progress.setAfter(page.after);
+        writeCheckpoint(checkpoint);
+      }
+      if (entities.isEmpty() && inFlight.isEmpty()) {
+        return;
+      }
+    }
+  }
+
+  /** Build the documents of the entities and index them with bulk requests of up to {@code bulkMaxBytes}. */
+  private <T> int index(SearchEntitySource<T> source, String index, List<T> entities)
+      throws IOException, InterruptedException {
+    int indexed = 0;
+    BulkRequest bulkRequest = new BulkRequest();
+    for (T entity : entities) {
+      try {
+        bulkRequest.add(source.toIndexRequest(index, entity));
+      } catch (IOException | ParseException | RuntimeException e) {
+        LOG.error("Failed to build the search document of {}", source.getCursor(entity), e);
+        continue;
+      }
+      if (bulkRequest.estimatedSizeInBytes() >= esConfig.getBulkMaxBytes()) {
+        indexed += bulk(bulkRequest);
+        bulkRequest = new BulkRequest();
+      }
+    }
+    if (bulkRequest.numberOfActions() > 0) {
+      indexed += bulk(bulkRequest);
+    }
+    return indexed;
+  }
+
+  private int bulk(BulkRequest bulkRequest) throws IOException, InterruptedException {
+    List<BulkItemResponse> failures = ElasticSearchBulk.bulk(admin, bulkRequest, esConfig.getBulkRetries());
+    if (!failures.isEmpty()) {
+      BulkItemResponse failure = failures.get(0);
+      throw new IOException(
+          String.format(
+              "Failed to index %d documents, %s/%s: %s",
+              failures.size(), failure.getIndex(), failure.getId(), failure.getFailureMessage()));
+    }
+    return bulkRequest.numberOfActions();
+  }
+
+  private void createIndex(String index, String mapping) throws IOException {
+    // No refreshes while loading, the index isn't searched before the alias is swapped
+    admin.create(index, mapping, Settings.builder().put("index.refresh_interval", "-1").build());
+    LOG.info("Created {}", index);
+  }
+
+  private boolean exists(String index) throws IOException {
+    return index != null && admin.exists(index);
+  }
+
+  /**
+   * Point the alias at the index, and remove it from the indexes it pointed at, in one atomic request. An index created
+   * before reindexing was introduced has the name of the alias, and is removed in the same request.
+   */
+  private void swapAlias(String alias, String index) throws IOException {
+    IndicesAliasesRequest request = new IndicesAliasesRequest();
+    request.addAliasAction(AliasActions.add().index(index).alias(alias));
+    List<String> previous = new ArrayList<>();
+    Set<String> holders = admin.getAliasHolders(alias);
+    for (String holder : holders) {
+      if (!holder.equals(index)) {
+        request.addAliasAction(AliasActions.remove().index(holder).alias(alias));
+        previous.add(holder);
+      }
+    }
+    if (holders.isEmpty() && exists(alias)) {
+      request.addAliasAction(AliasActions.removeIndex().index(alias));
+    }
+    admin.updateAliases(request);
+    LOG.info("Moved alias {} to {}", alias, index);
+    if (!previous.isEmpty()) {
+      admin.delete(previous);
+      LOG.info("Deleted {}", previous);
+    }
+  }
+
+  private Checkpoint readCheckpoint() throws IOException {
+    if (Files.exists(checkpointFile)) {
+      LOG.info("Resuming reindex from {}", checkpointFile);
+      return JsonUtils.readValue(Files.readString(checkpointFile), Checkpoint.class);
+    }
+    return new Checkpoint();
+  }
+
+  private synchronized void writeCheckpoint(Checkpoint checkpoint) throws IOException {
+    Path tmp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+    Files.write(tmp, JsonUtils.pojoToJson(checkpoint).getBytes(StandardCharsets.UTF_8));
+    Files.move(tmp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static final class Page {
+    private final String after;
+    private final Future<Integer> indexed;
+
+    Page(String after, Future<Integer> indexed) {
+      this.after = after;
+      this.indexed = indexed;
+    }
+  }
+
+  /** Progress of a reindex, stored in the checkpoint file. */
+  @Data
+  static class Checkpoint {
+    private Map<String, IndexProgress> indexes = new TreeMap<>();
+  }
+
+  @Data
+  static class IndexProgress {
+    /** Versioned index being loaded. */
+    private String index;
+
+    private long startedAt;
+    /** Fully qualified name of the last entity indexed, the scans resume after it. */
+    private String after = "";
+
+    private long count;
+    /** Whether all the entities were loaded, and only the ones updated since the load started are left. */
+    private boolean loaded;
+    /** When indexing the entities updated since the load started began, the last pass starts from there. */
+    private long catchUpStartedAt;
+    /** Whether the alias was moved to the index, and only the entities updated since the catch-up are left. */
+    private boolean swapped;
+
+    private boolean done;
+  }
+}
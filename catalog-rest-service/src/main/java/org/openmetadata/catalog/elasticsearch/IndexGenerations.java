@@ -0,0 +1,65 @@
+/*
+ *  Copyright 2021 Collate
+ *  contributor license agreements. See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.elasticsearch;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchIndexDefinition.ElasticSearchIndexType;
+
+/**
+ * Generation of each search index, incremented when writes to the index are flushed. Search results cached at an older
+ * generation of their index are stale. Names that are not a single index, such as patterns over several indexes, have
+ * the generation of all the indexes, incremented on any write.
+ */
+public final class IndexGenerations {
+  private static final Map<String, AtomicLong> GENERATIONS = new ConcurrentHashMap<>();
+  private static final AtomicLong ALL = new AtomicLong();
+
+  static {
+    for (ElasticSearchIndexType indexType : ElasticSearchIndexType.values()) {
+      GENERATIONS.put(indexType.indexName, new AtomicLong());
+    }
+  }
+
+  private IndexGenerations() {}
+
+  public static long get(String index) {
+    AtomicLong generation = GENERATIONS.get(index);
+    return generation != null ? generation.get() : ALL.get();
+  }
+
+  public static void increment(String index) {
+    AtomicLong generation = GENERATIONS.get(index);
+    if (generation != null) {
+      generation.incrementAndGet();
+    }
+    ALL.incrementAndGet();
+  }
+
+  /** Increment the generation of the index of the entity type, if the entities of the type are indexed. */
+  public static void incrementForEntityType(String entityType) {
+    ElasticSearchIndexType indexType = ElasticSearchIndexDefinition.findIndexTypeByEntityType(entityType);
+    if (indexType != null) {
+      increment(indexType.indexName);
+    }
+  }
+
+  public static void incrementAll() {
+    GENERATIONS.values().forEach(AtomicLong::incrementAndGet);
+    ALL.incrementAndGet();
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.elasticsearch;
+
+/**
+ * Bounds on the size of the search documents, so that the documents of very wide tables and of entities changed many
+ * times, and the script updates applied to them, stay small. The flattened columns of a table are capped, with {@code
+ * columns_truncated} set on the documents left with only the first ones, and their descriptions are truncated. Only the
+ * most recent change descriptions are kept in a document.
+ */
+public final class SearchDocumentLimits {
+  private static volatile int maxFlattenedColumns = 1000;
+  private static volatile int maxColumnDescriptionLength = 1000;
+  private static volatile int maxChangeDescriptions = 10;
+
+  private SearchDocumentLimits() {}
+
+  public static void configure(ElasticSearchConfiguration esConfig) {
+    maxFlattenedColumns = esConfig.getMaxFlattenedColumns();
+    maxColumnDescriptionLength = esConfig.getMaxColumnDescriptionLength();
+    maxChangeDescriptions = esConfig.getMaxChangeDescriptions();
+  }
+
+  public static int getMaxFlattenedColumns() {
+    return maxFlattenedColumns;
+  }
+
+  public static int getMaxChangeDescriptions() {
+    return maxChangeDescriptions;
+  }
+
+  /** The description cut to the maximum length, null staying null. */
+  static String truncateDescription(String description) {
+    return description != null && description.length() > maxColumnDescriptionLength
+        ? description.substring(0, maxColumnDescriptionLength)
+        : description;
+  }
+}
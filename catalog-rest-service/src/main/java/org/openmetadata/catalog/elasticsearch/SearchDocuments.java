@@ -0,0 +1,150 @@
+/*
+ *  Copyright 2021 Collate
+ *  contributor license agreements. See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.elasticsearch;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.List;
+import java.util.Map;
+import org.openmetadata.catalog.Entity;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchIndexDefinition.ElasticSearchIndexType;
+import org.openmetadata.catalog.entity.data.Chart;
+import org.openmetadata.catalog.entity.data.Dashboard;
+import org.openmetadata.catalog.entity.data.Location;
+import org.openmetadata.catalog.entity.data.MlModel;
+import org.openmetadata.catalog.entity.data.Pipeline;
+import org.openmetadata.catalog.entity.data.Table;
+import org.openmetadata.catalog.entity.data.Topic;
+import org.openmetadata.catalog.entity.services.DashboardService;
+import org.openmetadata.catalog.entity.services.DatabaseService;
+import org.openmetadata.catalog.entity.services.MessagingService;
+import org.openmetadata.catalog.entity.services.PipelineService;
+import org.openmetadata.catalog.entity.services.StorageService;
+import org.openmetadata.catalog.entity.teams.Team;
+import org.openmetadata.catalog.entity.teams.User;
+import org.openmetadata.catalog.jdbi3.CollectionDAO;
+import org.openmetadata.catalog.type.ChangeEvent;
+import org.openmetadata.catalog.type.EventType;
+import org.openmetadata.catalog.util.JsonUtils;
+
+/**
+ * Search documents of the entities, for the search backends other than Elasticsearch that index the same documents as
+ * {@link ElasticSearchEventPublisher} and {@link ElasticSearchReindexer}.
+ */
+public final class SearchDocuments {
+  private SearchDocuments() {}
+
+  public interface DocumentConsumer {
+    void accept(ElasticSearchIndexType indexType, String id, String json) throws IOException;
+  }
+
+  /** Search document of the entity of a change event, or null when the entities of its type are not indexed. */
+  public static String build(String entityType, Object entity, EventType eventType) throws JsonProcessingException {
+    ElasticSearchIndex document = document(entityType, entity, eventType);
+    return document != null ? JsonUtils.pojoToJson(document) : null;
+  }
+
+  static ElasticSearchIndex document(String entityType, Object entity, EventType eventType) {
+    switch (entityType) {
+      case Entity.TABLE:
+        return TableESIndex.builder((Table) entity, eventType).build();
+      case Entity.TOPIC:
+        return TopicESIndex.builder((Topic) entity, eventType).build();
+      case Entity.DASHBOARD:
+        return DashboardESIndex.builder((Dashboard) entity, eventType).build();
+      case Entity.PIPELINE:
+        return PipelineESIndex.builder((Pipeline) entity, eventType).build();
+      case Entity.USER:
+        return UserESIndex.builder((User) entity, eventType).build();
+      case Entity.TEAM:
+        return TeamESIndex.builder((Team) entity, eventType).build();
+      case Entity.CHART:
+        return ChartESIndex.builder((Chart) entity, eventType).build();
+      case Entity.MLMODEL:
+        return MlModelESIndex.builder((MlModel) entity, eventType).build();
+      case Entity.LOCATION:
+        return LocationESIndex.builder((Location) entity, eventType).build();
+      case Entity.DATABASE_SERVICE:
+        return ServiceESIndex.builder(entity, entityType, ((DatabaseService) entity).getServiceType(), eventType)
+            .build();
+      case Entity.MESSAGING_SERVICE:
+        return ServiceESIndex.builder(entity, entityType, ((MessagingService) entity).getServiceType(), eventType)
+            .build();
+      case Entity.DASHBOARD_SERVICE:
+        return ServiceESIndex.builder(entity, entityType, ((DashboardService) entity).getServiceType(), eventType)
+            .build();
+      case Entity.PIPELINE_SERVICE:
+        return ServiceESIndex.builder(entity, entityType, ((PipelineService) entity).getServiceType(), eventType)
+            .build();
+      case Entity.STORAGE_SERVICE:
+        return ServiceESIndex.builder(entity, entityType, ((StorageService) entity).getServiceType(), eventType)
+            .build();
+      default:
+        return null;
+    }
+  }
+
+  /** Entry of the {@code change_descriptions} of a search document for the change event. */
+  public static Map<String, Object> changeDescription(ChangeEvent event) {
+    return JsonUtils.getMap(
+        ESChangeDescription.builder()
+            .updatedAt(event.getTimestamp())
+            .updatedBy(event.getUserName())
+            .fieldsAdded(event.getChangeDescription().getFieldsAdded())
+            .fieldsUpdated(event.getChangeDescription().getFieldsUpdated())
+            .fieldsDeleted(event.getChangeDescription().getFieldsDeleted())
+            .build());
+  }
+
+  /**
+   * Search document of the entity with the given id as it is in the database, including a deleted one, or null when
+   * there is no such entity or the entities of its type are not indexed.
+   */
+  public static String read(CollectionDAO dao, String entityType, String id) throws IOException, ParseException {
+    ElasticSearchIndexType indexType = ElasticSearchIndexDefinition.findIndexTypeByEntityType(entityType);
+    return indexType == null ? null : read(SearchEntitySource.of(dao).get(indexType), id);
+  }
+
+  private static <T> String read(SearchEntitySource<T> source, String id) throws IOException, ParseException {
+    T entity = source.find(id);
+    return entity == null ? null : source.toJson(entity);
+  }
+
+  /** Build the search documents of all the indexed entities in the database, a page of entities at a time. */
+  public static void scan(CollectionDAO dao, int batchSize, DocumentConsumer consumer)
+      throws IOException, ParseException {
+    for (Map.Entry<ElasticSearchIndexType, SearchEntitySource<?>> entry : SearchEntitySource.of(dao).entrySet()) {
+      scan(entry.getKey(), entry.getValue(), batchSize, consumer);
+    }
+  }
+
+  private static <T> void scan(
+      ElasticSearchIndexType indexType, SearchEntitySource<T> source, int batchSize, DocumentConsumer consumer)
+      throws IOException, ParseException {
+    String after = "";
+    List<T> entities;
+    do {
+      entities = source.scan(batchSize, after, 0L);
+      for (T entity : entities) {
+        consumer.accept(indexType, source.getId(entity), source.toJson(entity));
+      }
+      if (!entities.isEmpty()) {
+        after = source.getCursor(entities.get(entities.size() - 1));
+      }
+    } while (entities.size() == batchSize);
+  }
+}
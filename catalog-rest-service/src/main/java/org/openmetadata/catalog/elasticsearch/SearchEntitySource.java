@@ -0,0 +1,237 @@
+/*
+ *  Copyright 2021 Collate
+ *  contributor license agreements. See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.elasticsearch;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.openmetadata.catalog.Entity;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchIndexDefinition.ElasticSearchIndexType;
+import org.openmetadata.catalog.entity.data.Chart;
+import org.openmetadata.catalog.entity.data.Dashboard;
+import org.openmetadata.catalog.entity.data.Location;
+import org.openmetadata.catalog.entity.data.MlModel;
+import org.openmetadata.catalog.entity.data.Pipeline;
+import org.openmetadata.catalog.entity.data.Table;
+import org.openmetadata.catalog.entity.data.Topic;
+import org.openmetadata.catalog.entity.teams.Team;
+import org.openmetadata.catalog.entity.teams.User;
+import org.openmetadata.catalog.exception.EntityNotFoundException;
+import org.openmetadata.catalog.jdbi3.CollectionDAO;
+import org.openmetadata.catalog.jdbi3.CollectionDAO.EntityState;
+import org.openmetadata.catalog.jdbi3.EntityDAO;
+import org.openmetadata.catalog.jdbi3.EntityRepository;
+import org.openmetadata.catalog.resources.charts.ChartResource;
+import org.openmetadata.catalog.resources.dashboards.DashboardResource;
+import org.openmetadata.catalog.resources.databases.TableResource;
+import org.openmetadata.catalog.resources.locations.LocationResource;
+import org.openmetadata.catalog.resources.mlmodels.MlModelResource;
+import org.openmetadata.catalog.resources.pipelines.PipelineResource;
+import org.openmetadata.catalog.resources.teams.TeamResource;
+import org.openmetadata.catalog.resources.teams.UserResource;
+import org.openmetadata.catalog.resources.topics.TopicResource;
+import org.openmetadata.catalog.type.EventType;
+import org.openmetadata.catalog.type.Include;
+import org.openmetadata.catalog.util.EntityUtil.Fields;
+import org.openmetadata.catalog.util.JsonUtils;
+
+/**
+ * Entities of a search index read from the database, and how to build their search documents. The entity repositories
+ * must be registered, which the resources do in the server.
+ */
+class SearchEntitySource<T> {
+  private final String entityType;
+  private final EntityDAO<T> dao;
+  private final Class<T> entityClass;
+  private final Fields fields;
+  private final Function<T, ElasticSearchIndex> documentBuilder;
+
+  SearchEntitySource(
+      String entityType,
+      EntityDAO<T> dao,
+      Class<T> entityClass,
+      Fields fields,
+      Function<T, ElasticSearchIndex> documentBuilder) {
+    this.entityType = entityType;
+    this.dao = dao;
+    this.entityClass = entityClass;
+    this.fields = fields;
+    this.documentBuilder = documentBuilder;
+  }
+
+  /** Sources of all the search indexes, in the order of the index types. */
+  static Map<ElasticSearchIndexType, SearchEntitySource<?>> of(CollectionDAO dao) {
+    Map<ElasticSearchIndexType, SearchEntitySource<?>> sources = new TreeMap<>();
+    sources.put(
+        ElasticSearchIndexType.TABLE_SEARCH_INDEX,
+        new SearchEntitySource<>(
+            Entity.TABLE,
+            dao.tableDAO(),
+            Table.class,
+            new Fields(TableResource.FIELD_LIST, "owner,columns,followers,tags,usageSummary"),
+            table -> TableESIndex.builder(table, EventType.ENTITY_CREATED).build()));
+    sources.put(
+        ElasticSearchIndexType.TOPIC_SEARCH_INDEX,
+        new SearchEntitySource<>(
+            Entity.TOPIC,
+            dao.topicDAO(),
+            Topic.class,
+            new Fields(TopicResource.FIELD_LIST, "owner,followers,tags"),
+            topic -> TopicESIndex.builder(topic, EventType.ENTITY_CREATED).build()));
+    sources.put(
+        ElasticSearchIndexType.DASHBOARD_SEARCH_INDEX,
+        new SearchEntitySource<>(
+            Entity.DASHBOARD,
+            dao.dashboardDAO(),
+            Dashboard.class,
+            new Fields(DashboardResource.FIELD_LIST, "owner,charts,followers,tags,usageSummary"),
+            dashboard -> DashboardESIndex.builder(dashboard, EventType.ENTITY_CREATED).build()));
+    sources.put(
+        ElasticSearchIndexType.PIPELINE_SEARCH_INDEX,
+        new SearchEntitySource<>(
+            Entity.PIPELINE,
+            dao.pipelineDAO(),
+            Pipeline.class,
+            new Fields(PipelineResource.FIELD_LIST, "owner,tasks,followers,tags"),
+            pipeline -> PipelineESIndex.builder(pipeline, EventType.ENTITY_CREATED).build()));
+    sources.put(
+        ElasticSearchIndexType.USER_SEARCH_INDEX,
+        new SearchEntitySource<>(
+            Entity.USER,
+            dao.userDAO(),
+            User.class,
+            new Fields(UserResource.FIELD_LIST, "teams"),
+            user -> UserESIndex.builder(user, EventType.ENTITY_CREATED).build()));
+    sources.put(
+        ElasticSearchIndexType.TEAM_SEARCH_INDEX,
+        new SearchEntitySource<>(
+            Entity.TEAM,
+            dao.teamDAO(),
+            Team.class,
+            new Fields(TeamResource.FIELD_LIST, "users"),
+            team -> TeamESIndex.builder(team, EventType.ENTITY_CREATED).build()));
+    sources.put(
+        ElasticSearchIndexType.CHART_SEARCH_INDEX,
+        new SearchEntitySource<>(
+            Entity.CHART,
+            dao.chartDAO(),
+            Chart.class,
+            new Fields(ChartResource.FIELD_LIST, "owner,followers,tags"),
+            chart -> ChartESIndex.builder(chart, EventType.ENTITY_CREATED).build()));
+    sources.put(
+        ElasticSearchIndexType.MLMODEL_SEARCH_INDEX,
+        new SearchEntitySource<>(
+            Entity.MLMODEL,
+            dao.mlModelDAO(),
+            MlModel.class,
+            new Fields(MlModelResource.FIELD_LIST, "owner,followers,tags"),
+            mlModel -> MlModelESIndex.builder(mlModel, EventType.ENTITY_CREATED).build()));
+    sources.put(
+        ElasticSearchIndexType.LOCATION_SEARCH_INDEX,
+        new SearchEntitySource<>(
+            Entity.LOCATION,
+            dao.locationDAO(),
+            Location.class,
+            new Fields(LocationResource.FIELD_LIST, "owner,followers,tags"),
+            location -> LocationESIndex.builder(location, EventType.ENTITY_CREATED).build()));
+    putService(
+        sources, ElasticSearchIndexType.DATABASE_SERVICE_SEARCH_INDEX, Entity.DATABASE_SERVICE, dao.dbServiceDAO());
+    putService(
+        sources,
+        ElasticSearchIndexType.MESSAGING_SERVICE_SEARCH_INDEX,
+        Entity.MESSAGING_SERVICE,
+        dao.messagingServiceDAO());
+    putService(
+        sources,
+        ElasticSearchIndexType.DASHBOARD_SERVICE_SEARCH_INDEX,
+        Entity.DASHBOARD_SERVICE,
+        dao.dashboardServiceDAO());
+    putService(
+        sources,
+        ElasticSearchIndexType.PIPELINE_SERVICE_SEARCH_INDEX,
+        Entity.PIPELINE_SERVICE,
+        dao.pipelineServiceDAO());
+    putService(
+        sources, ElasticSearchIndexType.STORAGE_SERVICE_SEARCH_INDEX, Entity.STORAGE_SERVICE, dao.storageServiceDAO());
+    return sources;
+  }
+
+  private static <S> void putService(
+      Map<ElasticSearchIndexType, SearchEntitySource<?>> sources,
+      ElasticSearchIndexType indexType,
+      String entityType,
+      EntityDAO<S> dao) {
+    sources.put(
+        indexType,
+        new SearchEntitySource<>(
+            entityType,
+            dao,
+            dao.getEntityClass(),
+            Fields.EMPTY_FIELDS,
+            service -> SearchDocuments.document(entityType, service, EventType.ENTITY_CREATED)));
+  }
+
+  /** Keyset scan, by fully qualified name, over the entities updated at or after {@code updatedSince}. */
+  List<T> scan(int limit, String after, long updatedSince) throws IOException {
+    return JsonUtils.readObjects(dao.listAfterUpdatedSince(limit, after, updatedSince), entityClass);
+  }
+
+  /** Keyset scan, by id, over the versions of the entities. */
+  List<EntityState> scanVersions(int limit, String after) {
+    return dao.listVersionsAfter(limit, after);
+  }
+
+  /** The entity with the given id, including a deleted one, or null when there is none. */
+  T find(String id) throws IOException {
+    try {
+      return dao.findEntityById(UUID.fromString(id), Include.ALL);
+    } catch (EntityNotFoundException e) {
+      return null;
+    }
+  }
+
+  String getCursor(T entity) {
+    return getRepository().getFullyQualifiedName(entity);
+  }
+
+  IndexRequest toIndexRequest(String index, T entity) throws IOException, ParseException {
+    return new IndexRequest(index).id(getId(entity)).source(toJson(entity), XContentType.JSON);
+  }
+
+  String getId(T entity) {
+    return getRepository().getEntityInterface(entity).getId().toString();
+  }
+
+  long getUpdatedAt(T entity) {
+    return getRepository().getEntityInterface(entity).getUpdatedAt();
+  }
+
+  /** Search document of the entity, with the fields it is built from set. */
+  String toJson(T entity) throws IOException, ParseException {
+    getRepository().setFields(entity, fields);
+    return JsonUtils.pojoToJson(documentBuilder.apply(entity));
+  }
+
+  private EntityRepository<T> getRepository() {
+    return Entity.getEntityRepository(entityType);
+  }
+}
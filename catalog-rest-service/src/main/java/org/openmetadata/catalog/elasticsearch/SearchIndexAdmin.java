@@ -0,0 +1,102 @@
+/*
+ *  Copyright 2021 Collate
+ *  contributor license agreements. See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.elasticsearch;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest;
+import org.elasticsearch.action.admin.indices.alias.get.GetAliasesRequest;
+import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
+import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRequest;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.client.indices.CreateIndexRequest;
+import org.elasticsearch.client.indices.GetIndexRequest;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentType;
+
+/**
+ * Index administration requests of the reindexer and the index definitions. The client's methods can't be stubbed in
+ * the tests, so they are called through this interface.
+ */
+interface SearchIndexAdmin extends ElasticSearchBulk.BulkSender {
+  void create(String index, String mapping, Settings settings) throws IOException;
+
+  boolean exists(String index) throws IOException;
+
+  void putSettings(String index, Settings settings) throws IOException;
+
+  /** Indexes behind the name, which is either an index or an alias. */
+  String[] resolve(String name) throws IOException;
+
+  /** Indexes the alias points at, none when there is no such alias. */
+  Set<String> getAliasHolders(String alias) throws IOException;
+
+  void updateAliases(IndicesAliasesRequest request) throws IOException;
+
+  void delete(List<String> indexes) throws IOException;
+
+  static SearchIndexAdmin of(RestHighLevelClient client) {
+    return new SearchIndexAdmin() {
+      @Override
+      public BulkResponse send(BulkRequest bulkRequest) throws IOException {
+        return client.bulk(bulkRequest, RequestOptions.DEFAULT);
+      }
+
+      @Override
+      public void create(String index, String mapping, Settings settings) throws IOException {
+        CreateIndexRequest request = new CreateIndexRequest(index);
+        request.mapping(mapping, XContentType.JSON);
+        request.settings(settings);
+        client.indices().create(request, RequestOptions.DEFAULT);
+      }
+
+      @Override
+      public boolean exists(String index) throws IOException {
+        return client.indices().exists(new GetIndexRequest(index), RequestOptions.DEFAULT);
+      }
+
+      @Override
+      public void putSettings(String index, Settings settings) throws IOException {
+        UpdateSettingsRequest request = new UpdateSettingsRequest(index);
+        request.settings(settings);
+        client.indices().putSettings(request, RequestOptions.DEFAULT);
+      }
+
+      @Override
+      public String[] resolve(String name) throws IOException {
+        return client.indices().get(new GetIndexRequest(name), RequestOptions.DEFAULT).getIndices();
+      }
+
+      @Override
+      public Set<String> getAliasHolders(String alias) throws IOException {
+        return client.indices().getAlias(new GetAliasesRequest(alias), RequestOptions.DEFAULT).getAliases().keySet();
+      }
+
+      @Override
+      public void updateAliases(IndicesAliasesRequest request) throws IOException {
+        client.indices().updateAliases(request, RequestOptions.DEFAULT);
+      }
+
+      @Override
+      public void delete(List<String> indexes) throws IOException {
+        client.indices().delete(new DeleteIndexRequest(indexes.toArray(new String[0])), RequestOptions.DEFAULT);
+      }
+    };
+  }
+}
@@ -56,7 +56,9 @@ public abstract class AbstractEventPublisher implements EventPublisher {
       setNextBackOff();
       Thread.sleep(currentBackoffTime);
     } catch (Exception e) {
-      LOG.error("Failed to publish event {}", changeEvent);
+      // Drop the batch, otherwise it is published again with every following event and fails again
+      LOG.error("Failed to publish {} events, last event {}", batch.size(), changeEvent, e);
+      batch.clear();
     }
   }
 
@@ -19,14 +19,19 @@ import lombok.extern.slf4j.Slf4j;
 import org.jdbi.v3.core.Jdbi;
 import org.openmetadata.catalog.CatalogApplicationConfig;
 import org.openmetadata.catalog.Entity;
+import org.openmetadata.catalog.jdbi3.CollectionDAO;
 import org.openmetadata.catalog.type.AuditLog;
 import org.openmetadata.catalog.type.EntityReference;
+import org.openmetadata.catalog.util.JsonUtils;
 
 @Slf4j
 public class AuditEventHandler implements EventHandler {
+  private GroupCommitWriter writer;
 
   public void init(CatalogApplicationConfig config, Jdbi jdbi) {
-    // Nothing to do
+    CollectionDAO dao = jdbi.onDemand(CollectionDAO.class);
+    this.writer =
+        new GroupCommitWriter("audit_log", dao.auditLogDAO()::insertAll, config.getEventHandlerConfiguration());
   }
 
   public Void process(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
@@ -46,7 +51,8 @@ public class AuditEventHandler implements EventHandler {
                 .withMethod(AuditLog.Method.fromValue(method))
                 .withUserName(username)
                 .withResponseCode(responseCode);
-        LOG.info("Added audit log entry: {}", auditLog);
+        writer.add(JsonUtils.pojoToJson(auditLog));
+        LOG.debug("Added audit log entry: {}", auditLog);
       } catch (Exception e) {
         LOG.error("Failed to capture audit log for {} and method {} due to {}", path, method, e.getMessage());
       }
@@ -54,5 +60,7 @@ public class AuditEventHandler implements EventHandler {
     return null;
   }
 
-  public void close() {}
+  public void close() {
+    writer.close();
+  }
 }
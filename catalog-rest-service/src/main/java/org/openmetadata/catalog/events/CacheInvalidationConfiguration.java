@@ -0,0 +1,72 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.events;
+
+/**
+ * Invalidation of the in-process caches from the change_event table. A change made on any server is evicted from the
+ * caches of every server within about {@code intervalMillis + settleMillis} of its change_event row being inserted. The
+ * row is inserted after the change waited in the capture queue and up to {@code groupCommitMaxDelayMillis} in the group
+ * commit writer, see {@link EventHandlerConfiguration}, so under load the staleness grows with the capture backlog. A
+ * change whose capture is dropped because the capture queue is full has no row and is never evicted on the other
+ * servers; it is served until the cache entry expires or the entity changes again. Invalidation is enabled whenever an
+ * in-process cache is configured.
+ */
+public class CacheInvalidationConfiguration {
+  private boolean enabled = false;
+
+  private long intervalMillis = 500;
+
+  private long settleMillis = 2000;
+
+  private int batchSize = 1000;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public long getIntervalMillis() {
+    return intervalMillis;
+  }
+
+  public void setIntervalMillis(long intervalMillis) {
+    this.intervalMillis = intervalMillis;
+  }
+
+  public long getSettleMillis() {
+    return settleMillis;
+  }
+
+  public void setSettleMillis(long settleMillis) {
+    this.settleMillis = settleMillis;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Longest time a server may serve a cached entity after its change_event row was inserted on another server. The time
+   * the change spent in the capture queue and the group commit writer comes on top.
+   */
+  public long getMaxStalenessMillis() {
+    return intervalMillis + settleMillis;
+  }
+}
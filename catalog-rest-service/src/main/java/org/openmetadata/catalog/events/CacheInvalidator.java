@@ -0,0 +1,138 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.events;
+
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import io.dropwizard.lifecycle.Managed;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.Jdbi;
+import org.openmetadata.catalog.jdbi3.CollectionDAO;
+import org.openmetadata.catalog.jdbi3.CollectionDAO.ChangeEventDAO;
+import org.openmetadata.catalog.jdbi3.CollectionDAO.EntityChange;
+
+/**
+ * Evicts the entities changed on any server from the in-process caches of this server. Every server tails the
+ * change_event table by id on its own, so no message broker is needed. Changes are picked up once they are older than
+ * {@code settleMillis} (see {@link SettledIdTracker}) and the table is polled every {@code intervalMillis}, which
+ * bounds how long a cache serves a changed entity once its change_event row is inserted. See {@link
+ * CacheInvalidationConfiguration} for the delay before the insert and for the changes that are never recorded.
+ *
+ * <p>When the table can't be read for longer than that bound, the caches are cleared on every failed poll so that the
+ * bound holds while the database is unavailable.
+ */
+@Slf4j
+public class CacheInvalidator implements Managed {
+  private static final List<CacheListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+  private final ChangeEventDAO dao;
+  private final CacheInvalidationConfiguration config;
+  private final SettledIdTracker settledIdTracker;
+  private ScheduledExecutorService executor;
+  private long watermark = -1;
+  private long lastPollTime = System.currentTimeMillis();
+
+  /** Cache to evict the changed entities from. */
+  public interface CacheListener {
+    void invalidate(String entityType, String entityId);
+
+    /** Evict everything, called when changes may have been missed. */
+    void invalidateAll();
+  }
+
+  public static void addListener(CacheListener listener) {
+    LISTENERS.add(listener);
+  }
+
+  public static void removeListener(CacheListener listener) {
+    LISTENERS.remove(listener);
+  }
+
+  public CacheInvalidator(Jdbi jdbi, CacheInvalidationConfiguration config) {
+    this(jdbi.onDemand(CollectionDAO.class).changeEventDAO(), config);
+  }
+
+  CacheInvalidator(ChangeEventDAO dao, CacheInvalidationConfiguration config) {
+    this.dao = dao;
+    this.config = config;
+    this.settledIdTracker = new SettledIdTracker(dao, config.getSettleMillis());
+  }
+
+  @Override
+  public void start() {
+    if (config.isEnabled()) {
+      executor = Executors.newSingleThreadScheduledExecutor(DaemonThreadFactory.INSTANCE);
+      executor.scheduleWithFixedDelay(this::poll, 0, config.getIntervalMillis(), TimeUnit.MILLISECONDS);
+      LOG.info("Cache invalidation started with a staleness bound of {} ms", config.getMaxStalenessMillis());
+    }
+  }
+
+  @Override
+  public void stop() throws InterruptedException {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+  }
+
+  void poll() {
+    long pollTime = System.currentTimeMillis();
+    try {
+      if (watermark < 0) {
+        watermark = dao.getMaxId(); // Caches start empty, only the changes to come matter
+      }
+      long settledMaxId = settledIdTracker.getSettledMaxId(watermark);
+      List<EntityChange> changes;
+      do {
+        changes = dao.listEntityChangesAfter(watermark, settledMaxId, config.getBatchSize());
+        for (EntityChange change : changes) {
+          invalidate(change);
+        }
+        if (!changes.isEmpty()) {
+          watermark = changes.get(changes.size() - 1).getId();
+        }
+      } while (changes.size() == config.getBatchSize());
+      lastPollTime = pollTime;
+    } catch (Exception e) {
+      LOG.error("Failed to read the change events after id {}", watermark, e);
+      if (pollTime - lastPollTime > config.getMaxStalenessMillis()) {
+        LOG.warn("Clearing the caches as changes could not be read for {} ms", pollTime - lastPollTime);
+        invalidateAll();
+      }
+    }
+  }
+
+  private static void invalidate(EntityChange change) {
+    for (CacheListener listener : LISTENERS) {
+      try {
+        listener.invalidate(change.getEntityType(), change.getEntityId());
+      } catch (Exception e) {
+        LOG.error("Failed to invalidate {} {}", change.getEntityType(), change.getEntityId(), e);
+      }
+    }
+  }
+
+  private static void invalidateAll() {
+    for (CacheListener listener : LISTENERS) {
+      try {
+        listener.invalidateAll();
+      } catch (Exception e) {
+        LOG.error("Failed to clear the cache {}", listener, e);
+      }
+    }
+  }
+}
@@ -17,6 +17,21 @@ import static org.openmetadata.catalog.type.EventType.ENTITY_DELETED;
 import static org.openmetadata.catalog.type.EventType.ENTITY_SOFT_DELETED;
 import static org.openmetadata.catalog.type.EventType.ENTITY_UPDATED;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ContainerResponseContext;
 import javax.ws.rs.core.Response.Status;
@@ -24,20 +39,56 @@ import lombok.extern.slf4j.Slf4j;
 import org.jdbi.v3.core.Jdbi;
 import org.openmetadata.catalog.CatalogApplicationConfig;
 import org.openmetadata.catalog.Entity;
+import org.openmetadata.catalog.events.EventHandlerConfiguration.OverflowPolicy;
 import org.openmetadata.catalog.jdbi3.CollectionDAO;
+import org.openmetadata.catalog.jdbi3.CollectionDAO.EventRecord;
+import org.openmetadata.catalog.jobs.LeaderElection;
+import org.openmetadata.catalog.type.ChangeDescription;
 import org.openmetadata.catalog.type.ChangeEvent;
 import org.openmetadata.catalog.type.EntityReference;
 import org.openmetadata.catalog.type.EventType;
+import org.openmetadata.catalog.type.FieldChange;
 import org.openmetadata.catalog.util.EntityInterface;
 import org.openmetadata.catalog.util.JsonUtils;
 import org.openmetadata.catalog.util.RestUtil;
 
+/**
+ * Publishes the change events of the requests to {@link EventPubSub} and records them in change_event.
+ *
+ * <p>With the {@link OverflowPolicy#SPILL} overflow policy, an event that finds the ring buffer full is recorded right
+ * away and its id is queued. The following events are spilled the same way until the queue is empty, so that the
+ * subscribers still see the events of this server in order. The spilled events are read back from change_event and
+ * published when the ring buffer has room again. The ids are only queued in memory, so the events still spilled when
+ * the server stops are recorded but never published to the subscribers of this server.
+ */
 @Slf4j
 public class ChangeEventHandler implements EventHandler {
+  private static final long REPLAY_INTERVAL_MILLIS = 100;
+  private static final int REPLAY_BATCH_SIZE = 100;
+  /** Field changes whose values are lists of entity references instead of JSON strings. */
+  private static final Set<String> ENTITY_REFERENCE_FIELDS = Set.of("followers", "upstream");
+
+  private static final TypeReference<List<EntityReference>> ENTITY_REFERENCES = new TypeReference<>() {};
+
   private CollectionDAO dao;
+  private GroupCommitWriter writer;
+  private final Deque<Long> spilledIds = new ArrayDeque<>(); // Guarded by itself
+  private ScheduledExecutorService replayer;
 
   public void init(CatalogApplicationConfig config, Jdbi jdbi) {
-    this.dao = jdbi.onDemand(CollectionDAO.class);
+    init(jdbi.onDemand(CollectionDAO.class), config.getEventHandlerConfiguration());
+  }
+
+  void init(CollectionDAO dao, EventHandlerConfiguration config) {
+    this.dao = dao;
+    this.writer =
+        new GroupCommitWriter(
+            "change_event", jsons -> dao.changeEventDAO().insertAll(LeaderElection.NODE_ID, jsons), config);
+    if (config.getOverflowPolicy() == OverflowPolicy.SPILL) {
+      replayer = Executors.newSingleThreadScheduledExecutor(DaemonThreadFactory.INSTANCE);
+      replayer.scheduleWithFixedDelay(
+          this::replaySpilled, REPLAY_INTERVAL_MILLIS, REPLAY_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
   }
 
   public Void process(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
@@ -51,13 +102,7 @@ public class ChangeEventHandler implements EventHandler {
             changeEvent.getEntityId(),
             changeEvent.getEventType(),
             changeEvent.getEntityType());
-        EventPubSub.publish(changeEvent);
-        if (changeEvent.getEntity() != null) {
-          Object entity = changeEvent.getEntity();
-          changeEvent = copyChangeEvent(changeEvent);
-          changeEvent.setEntity(JsonUtils.pojoToJson(entity));
-        }
-        dao.changeEventDAO().insert(JsonUtils.pojoToJson(changeEvent));
+        publish(changeEvent);
       }
     } catch (Exception e) {
       LOG.error("Failed to capture change event for method {} due to ", method, e);
@@ -65,6 +110,68 @@ public class ChangeEventHandler implements EventHandler {
     return null;
   }
 
+  private void publish(ChangeEvent changeEvent) throws JsonProcessingException {
+    String json = toJson(changeEvent);
+    if (replayer == null) {
+      EventPubSub.publish(changeEvent);
+      writer.add(json);
+      return;
+    }
+    synchronized (spilledIds) {
+      if (spilledIds.isEmpty() && EventPubSub.publish(changeEvent)) {
+        writer.add(json);
+        return;
+      }
+      spilledIds.add(dao.changeEventDAO().insert(LeaderElection.NODE_ID, json));
+    }
+  }
+
+  /** Publish the spilled events in order while the ring buffer has room. */
+  private void replaySpilled() {
+    try {
+      List<Long> ids;
+      do {
+        synchronized (spilledIds) {
+          ids = new ArrayList<>(Math.min(REPLAY_BATCH_SIZE, spilledIds.size()));
+          for (Iterator<Long> it = spilledIds.iterator(); it.hasNext() && ids.size() < REPLAY_BATCH_SIZE; ) {
+            ids.add(it.next());
+          }
+        }
+        if (ids.isEmpty()) {
+          return;
+        }
+        Map<Long, String> jsons = new HashMap<>();
+        for (EventRecord record : dao.changeEventDAO().listByIds(ids)) {
+          jsons.put(record.getId(), record.getJson());
+        }
+        synchronized (spilledIds) {
+          for (Long id : ids) {
+            ChangeEvent changeEvent = readSpilled(id, jsons.get(id));
+            if (changeEvent != null && !EventPubSub.publish(changeEvent)) {
+              return; // Subscribers are still lagging, try again later
+            }
+            spilledIds.removeFirst();
+          }
+        }
+      } while (ids.size() == REPLAY_BATCH_SIZE);
+    } catch (Exception e) {
+      LOG.error("Failed to replay spilled change events", e);
+    }
+  }
+
+  private static ChangeEvent readSpilled(long id, String json) {
+    if (json == null) {
+      LOG.warn("Spilled change event {} is no longer in change_event", id);
+      return null;
+    }
+    try {
+      return fromJson(json);
+    } catch (IOException e) {
+      LOG.error("Failed to read spilled change event {}", id, e);
+      return null;
+    }
+  }
+
   public static ChangeEvent getChangeEvent(String method, ContainerResponseContext responseContext) {
     // GET operations don't produce change events
     if (method.equals("GET")) {
@@ -139,6 +246,47 @@ public class ChangeEventHandler implements EventHandler {
         .withCurrentVersion(entityInterface.getVersion());
   }
 
+  /** JSON of a change event as recorded in change_event, with the entity serialized as a JSON string. */
+  static String toJson(ChangeEvent changeEvent) throws JsonProcessingException {
+    if (changeEvent.getEntity() != null) {
+      Object entity = changeEvent.getEntity();
+      changeEvent = copyChangeEvent(changeEvent);
+      changeEvent.setEntity(JsonUtils.pojoToJson(entity));
+    }
+    return JsonUtils.pojoToJson(changeEvent);
+  }
+
+  /**
+   * Change event read from change_event, with the entity and the entity references of the field changes restored to the
+   * classes the event handlers expect.
+   */
+  static ChangeEvent fromJson(String json) throws IOException {
+    ChangeEvent changeEvent = JsonUtils.readValue(json, ChangeEvent.class);
+    if (changeEvent.getEntity() instanceof String) {
+      Class<?> entityClass = Entity.getEntityClass(changeEvent.getEntityType());
+      changeEvent.setEntity(JsonUtils.readValue((String) changeEvent.getEntity(), entityClass));
+    }
+    ChangeDescription changeDescription = changeEvent.getChangeDescription();
+    if (changeDescription != null) {
+      restoreEntityReferences(changeDescription.getFieldsAdded());
+      restoreEntityReferences(changeDescription.getFieldsUpdated());
+      restoreEntityReferences(changeDescription.getFieldsDeleted());
+    }
+    return changeEvent;
+  }
+
+  private static void restoreEntityReferences(List<FieldChange> fieldChanges) {
+    if (fieldChanges == null) {
+      return;
+    }
+    for (FieldChange fieldChange : fieldChanges) {
+      if (ENTITY_REFERENCE_FIELDS.contains(fieldChange.getName())) {
+        fieldChange.setOldValue(JsonUtils.convertValue(fieldChange.getOldValue(), ENTITY_REFERENCES));
+        fieldChange.setNewValue(JsonUtils.convertValue(fieldChange.getNewValue(), ENTITY_REFERENCES));
+      }
+    }
+  }
+
   private static ChangeEvent copyChangeEvent(ChangeEvent changeEvent) {
     return new ChangeEvent()
         .withEventType(changeEvent.getEventType())
@@ -151,6 +299,17 @@ public class ChangeEventHandler implements EventHandler {
   }
 
   public void close() {
-    /* Nothing to do */
+    if (replayer != null) {
+      replayer.shutdownNow();
+      synchronized (spilledIds) {
+        if (!spilledIds.isEmpty()) {
+          LOG.warn(
+              "{} spilled change events, from id {}, were not replayed to the subscribers",
+              spilledIds.size(),
+              spilledIds.peekFirst());
+        }
+      }
+    }
+    writer.close();
   }
 }
@@ -0,0 +1,118 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.events;
+
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.Jdbi;
+import org.openmetadata.catalog.jdbi3.CollectionDAO;
+import org.openmetadata.catalog.jdbi3.CollectionDAO.EventRecord;
+import org.openmetadata.catalog.jobs.JobSchedulerConfiguration;
+import org.openmetadata.catalog.jobs.LeaderElection;
+import org.openmetadata.catalog.jobs.LeaderElection.LeaderListener;
+
+/**
+ * Publishes to {@link EventPubSub} on the leader the change events recorded by the other servers, so that the {@link
+ * LeaderEventHandlers} running on the leader see the events of all the servers. The change_event table is tailed by id.
+ * The id up to which events have been relayed is stored in the leader lease with the fencing token, so that a new
+ * leader resumes where the previous one stopped and a former leader can't move it.
+ *
+ * <p>The events this server recorded while it was a follower only reached its own handlers, so they are relayed too.
+ * The events it records as the leader are skipped since they were already published locally. Those are the events after
+ * the last id recorded {@code relaySettleMillis} after the election, by when the events published before the election
+ * have been written. Events published around the election may therefore be delivered twice.
+ *
+ * <p>Only the events older than {@code relaySettleMillis} are relayed, see {@link SettledIdTracker}. The watermark
+ * stops at the first event {@link EventPubSub} doesn't take, which is relayed again on the next poll.
+ */
+@Slf4j
+public class ChangeEventRelay implements LeaderListener {
+  private static final int BATCH_SIZE = 1000;
+  private static final long UNKNOWN = -1;
+
+  private final CollectionDAO dao;
+  private final JobSchedulerConfiguration config;
+  private final SettledIdTracker settledIdTracker;
+  private ScheduledExecutorService executor;
+  private long watermark;
+  private long localAfterId;
+
+  public ChangeEventRelay(Jdbi jdbi, JobSchedulerConfiguration config) {
+    this(jdbi.onDemand(CollectionDAO.class), config);
+  }
+
+  ChangeEventRelay(CollectionDAO dao, JobSchedulerConfiguration config) {
+    this.dao = dao;
+    this.config = config;
+    this.settledIdTracker = new SettledIdTracker(dao.changeEventDAO(), config.getRelaySettleMillis());
+  }
+
+  @Override
+  public synchronized void onElected(long token) {
+    watermark = dao.leaderLeaseDAO().getWatermark(LeaderElection.LEASE);
+    localAfterId = UNKNOWN;
+    settledIdTracker.clear();
+    executor = Executors.newSingleThreadScheduledExecutor(DaemonThreadFactory.INSTANCE);
+    executor.scheduleWithFixedDelay(
+        () -> relay(token), config.getRelaySettleMillis(), config.getRelayIntervalMillis(), TimeUnit.MILLISECONDS);
+    LOG.info("Relaying change events of the other servers after id {}", watermark);
+  }
+
+  @Override
+  public synchronized void onRevoked() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+  private void relay(long token) {
+    try {
+      if (localAfterId == UNKNOWN) {
+        localAfterId = dao.changeEventDAO().getMaxId();
+        LOG.info("Relaying the change events of this server up to id {}", localAfterId);
+      }
+      long settledMaxId = settledIdTracker.getSettledMaxId(watermark);
+      List<EventRecord> records;
+      boolean published = true;
+      do {
+        records =
+            dao.changeEventDAO()
+                .listOthersAfter(LeaderElection.NODE_ID, localAfterId, watermark, settledMaxId, BATCH_SIZE);
+        long last = watermark;
+        for (EventRecord record : records) {
+          // Events recorded by this server as the leader were already published locally
+          if (record.getJson() != null && !EventPubSub.publish(ChangeEventHandler.fromJson(record.getJson()))) {
+            published = false; // Subscribers are lagging, relay from this event on the next poll
+            break;
+          }
+          last = record.getId();
+        }
+        if (last > watermark) {
+          if (dao.leaderLeaseDAO().setWatermark(LeaderElection.LEASE, token, last) == 0) {
+            LOG.warn("Stopped relaying change events as the leader lease {} is no longer valid", token);
+            onRevoked();
+            return;
+          }
+          watermark = last;
+        }
+      } while (published && records.size() == BATCH_SIZE);
+    } catch (Exception e) {
+      LOG.error("Failed to relay change events after id {}", watermark, e);
+    }
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.events;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.Jdbi;
+import org.openmetadata.catalog.jdbi3.CollectionDAO;
+import org.openmetadata.catalog.jdbi3.CollectionDAO.ChangeEventDAO;
+import org.openmetadata.catalog.jobs.LeaderElection;
+import org.openmetadata.catalog.jobs.ScheduledJob;
+
+/**
+ * Maintains the daily partitions of the change_event table. Partition {@code pYYYYMMDD} holds the events of that day
+ * (UTC). Periodically partitions are added ahead of time by splitting the catch all {@code p_future} partition, and
+ * partitions older than the retention period are dropped as a whole instead of deleting their rows.
+ *
+ * <p>When compaction is enabled, events older than {@code compactAfterDays} are deleted when a newer event exists for
+ * the same entity, so that only the latest event of each entity is kept past the compaction cutoff.
+ *
+ * <p>The partitions are changed with DDL, so this runs as a {@link ScheduledJob} on the leader only.
+ */
+@Slf4j
+public class ChangeEventRetention implements ScheduledJob {
+  private static final DateTimeFormatter PARTITION_FORMAT = DateTimeFormatter.ofPattern("'p'uuuuMMdd");
+
+  private final ChangeEventDAO dao;
+  private final ChangeEventRetentionConfiguration config;
+
+  public ChangeEventRetention(Jdbi jdbi, ChangeEventRetentionConfiguration config) {
+    this.dao = jdbi.onDemand(CollectionDAO.class).changeEventDAO();
+    this.config = config;
+  }
+
+  @Override
+  public String getName() {
+    return "changeEventRetention";
+  }
+
+  @Override
+  public long getIntervalSeconds() {
+    return TimeUnit.MINUTES.toSeconds(config.getPurgeIntervalMinutes());
+  }
+
+  /** Add the upcoming partitions, drop the expired ones and compact. */
+  @Override
+  public void run(long fencingToken) {
+    LocalDate today = LocalDate.now(ZoneOffset.UTC);
+    List<String> partitions = dao.listPartitions();
+    List<String> toAdd = getPartitionsToAdd(partitions, today, config.getPartitionsAhead());
+    if (!toAdd.isEmpty()) {
+      if (leaseLost(fencingToken)) {
+        return;
+      }
+      dao.addPartitions(getPartitionDefinitions(toAdd));
+      LOG.info("Added change_event partitions {}", toAdd);
+    }
+    if (config.getRetentionDays() > 0) {
+      List<String> toDrop = getPartitionsToDrop(partitions, today, config.getRetentionDays());
+      if (!toDrop.isEmpty()) {
+        if (leaseLost(fencingToken)) {
+          return;
+        }
+        dao.dropPartitions(String.join(",", toDrop));
+        LOG.info("Dropped change_event partitions {}", toDrop);
+      }
+    }
+    if (config.getCompactAfterDays() > 0) {
+      compact(today.minusDays(config.getCompactAfterDays()), fencingToken);
+    }
+  }
+
+  /** The partitions are changed by the holder of the lease only, a former leader could split or drop them twice. */
+  private static boolean leaseLost(long fencingToken) {
+    if (LeaderElection.holdsLease(fencingToken)) {
+      return false;
+    }
+    LOG.warn("Stopped maintaining change_event as the leader lease {} is no longer valid", fencingToken);
+    return true;
+  }
+
+  private void compact(LocalDate cutoffDay, long fencingToken) {
+    long cutoff = toEpochMilli(cutoffDay);
+    int batchSize = config.getCompactionBatchSize();
+    int deleted = 0;
+    List<Long> ids;
+    do {
+      ids = dao.listSuperseded(cutoff, batchSize);
+      if (!ids.isEmpty()) {
+        if (leaseLost(fencingToken)) {
+          return;
+        }
+        deleted += dao.delete(ids, cutoff);
+      }
+    } while (ids.size() == batchSize);
+    if (deleted > 0) {
+      LOG.info("Compacted {} change events older than {}", deleted, cutoffDay);
+    }
+  }
+
+  /** Daily partitions after the last existing one, up to {@code partitionsAhead} days after today. */
+  static List<String> getPartitionsToAdd(List<String> partitions, LocalDate today, int partitionsAhead) {
+    LocalDate day = partitions.isEmpty() ? today : toDay(partitions.get(partitions.size() - 1)).plusDays(1);
+    List<String> toAdd = new ArrayList<>();
+    for (; !day.isAfter(today.plusDays(partitionsAhead)); day = day.plusDays(1)) {
+      toAdd.add(toPartition(day));
+    }
+    return toAdd;
+  }
+
+  /** Daily partitions whose events are all older than {@code retentionDays} days. */
+  static List<String> getPartitionsToDrop(List<String> partitions, LocalDate today, int retentionDays) {
+    LocalDate cutoff = today.minusDays(retentionDays);
+    List<String> toDrop = new ArrayList<>();
+    for (String partition : partitions) {
+      if (toDay(partition).isBefore(cutoff)) {
+        toDrop.add(partition);
+      }
+    }
+    return toDrop;
+  }
+
+  static String getPartitionDefinitions(List<String> partitions) {
+    StringBuilder definitions = new StringBuilder();
+    for (String partition : partitions) {
+      definitions
+          .append("PARTITION ")
+          .append(partition)
+          .append(" VALUES LESS THAN (")
+          .append(toEpochMilli(toDay(partition).plusDays(1)))
+          .append("), ");
+    }
+    return definitions.append("PARTITION p_future VALUES LESS THAN MAXVALUE").toString();
+  }
+
+  private static String toPartition(LocalDate day) {
+    return day.format(PARTITION_FORMAT);
+  }
+
+  private static LocalDate toDay(String partition) {
+    return LocalDate.parse(partition, PARTITION_FORMAT);
+  }
+
+  private static long toEpochMilli(LocalDate day) {
+    return day.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+  }
+}
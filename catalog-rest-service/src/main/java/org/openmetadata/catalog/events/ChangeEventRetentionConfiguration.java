@@ -0,0 +1,66 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.events;
+
+/** Retention of the change events recorded in the daily partitions of the change_event table. */
+public class ChangeEventRetentionConfiguration {
+  private int retentionDays = 0; // 0 keeps the events forever
+
+  private int compactAfterDays = 0; // 0 disables compaction
+
+  private int partitionsAhead = 7;
+
+  private int purgeIntervalMinutes = 60;
+
+  private int compactionBatchSize = 1000;
+
+  public int getRetentionDays() {
+    return retentionDays;
+  }
+
+  public void setRetentionDays(int retentionDays) {
+    this.retentionDays = retentionDays;
+  }
+
+  public int getCompactAfterDays() {
+    return compactAfterDays;
+  }
+
+  public void setCompactAfterDays(int compactAfterDays) {
+    this.compactAfterDays = compactAfterDays;
+  }
+
+  public int getPartitionsAhead() {
+    return partitionsAhead;
+  }
+
+  public void setPartitionsAhead(int partitionsAhead) {
+    this.partitionsAhead = partitionsAhead;
+  }
+
+  public int getPurgeIntervalMinutes() {
+    return purgeIntervalMinutes;
+  }
+
+  public void setPurgeIntervalMinutes(int purgeIntervalMinutes) {
+    this.purgeIntervalMinutes = purgeIntervalMinutes;
+  }
+
+  public int getCompactionBatchSize() {
+    return compactionBatchSize;
+  }
+
+  public void setCompactionBatchSize(int compactionBatchSize) {
+    this.compactionBatchSize = compactionBatchSize;
+  }
+}
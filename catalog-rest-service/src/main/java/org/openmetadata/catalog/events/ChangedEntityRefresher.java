@@ -0,0 +1,192 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.events;
+
+import com.lmax.disruptor.BatchEventProcessor;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import io.dropwizard.lifecycle.Managed;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.openmetadata.catalog.events.EventPubSub.ChangeEventHolder;
+import org.openmetadata.catalog.type.ChangeEvent;
+
+/**
+ * Keeps an in-memory view of the entities current. The view is loaded at startup, in the background, and loaded again
+ * when {@link CacheInvalidator} may have missed changes. The entities changed on this server are picked up from {@link
+ * EventPubSub} and the ones changed on the other servers from {@link CacheInvalidator}, and are refreshed a batch at a
+ * time every refresh interval. The load and the refreshes run one at a time on the same thread.
+ *
+ * <p>A batch failing to refresh is refreshed again on the next refresh, unless its entities were changed again in the
+ * meantime. An entity failing {@link #MAX_REFRESH_ATTEMPTS} refreshes in a row is logged and dropped, and the view
+ * keeps its previous state until the entity changes again or the view is loaded again.
+ */
+@Slf4j
+public abstract class ChangedEntityRefresher
+    implements Managed, EventHandler<ChangeEventHolder>, CacheInvalidator.CacheListener {
+  static final int MAX_REFRESH_ATTEMPTS = 5;
+
+  private final String name;
+  private final int refreshMillis;
+  private final int batchSize;
+  /** Entities changed since the last refresh, by id, with their entity type. */
+  private final Map<String, String> changed = new ConcurrentHashMap<>();
+  /** Failed refreshes of the changed entities, by id. */
+  private final Map<String, Integer> attempts = new ConcurrentHashMap<>();
+  /** Whether a load is queued and not started yet, so that the invalidations in the meantime share it. */
+  private final AtomicBoolean loadPending = new AtomicBoolean();
+
+  private ScheduledExecutorService executor;
+  private BatchEventProcessor<ChangeEventHolder> processor;
+
+  protected ChangedEntityRefresher(String name, int refreshMillis, int batchSize) {
+    this.name = name;
+    this.refreshMillis = refreshMillis;
+    this.batchSize = batchSize;
+  }
+
+  /** Load the whole view. */
+  protected abstract void load() throws Exception;
+
+  /** Refresh the changed entities, given by id with their entity type, in the view. */
+  protected abstract void refresh(Map<String, String> entities) throws Exception;
+
+  /** Whether the changes of the entities of the type are refreshed. */
+  protected boolean accepts(String entityType) {
+    return true;
+  }
+
+  /** Whether the view is loaded, the changes being kept until then. */
+  protected boolean isLoaded() {
+    return true;
+  }
+
+  /** Called after the changed entities are refreshed. */
+  protected void afterRefresh() throws Exception {}
+
+  @Override
+  public void start() {
+    executor = Executors.newSingleThreadScheduledExecutor(DaemonThreadFactory.INSTANCE);
+    CacheInvalidator.addListener(this);
+    processor = EventPubSub.addEventHandler(this);
+    // The tasks run one at a time on the same thread, so the changes are applied after the load
+    invalidateAll();
+    executor.scheduleWithFixedDelay(this::refresh, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void stop() {
+    if (processor != null) {
+      processor.halt();
+      EventPubSub.removeProcessor(processor);
+    }
+    CacheInvalidator.removeListener(this);
+    executor.shutdownNow();
+  }
+
+  /** Run a task periodically on the thread of the load and the refreshes. */
+  protected void scheduleWithFixedDelay(Runnable task, long delay, TimeUnit unit) {
+    executor.scheduleWithFixedDelay(task, delay, delay, unit);
+  }
+
+  @Override
+  public void onEvent(ChangeEventHolder changeEventHolder, long sequence, boolean endOfBatch) {
+    ChangeEvent event = changeEventHolder.get();
+    if (event != null && event.getEntityId() != null) {
+      invalidate(event.getEntityType(), event.getEntityId().toString());
+    }
+  }
+
+  @Override
+  public void invalidate(String entityType, String entityId) {
+    if (accepts(entityType)) {
+      changed.put(entityId, entityType);
+    }
+  }
+
+  @Override
+  public void invalidateAll() {
+    if (loadPending.compareAndSet(false, true)) {
+      executor.execute(this::loadAll);
+    }
+  }
+
+  private void loadAll() {
+    loadPending.set(false);
+    try {
+      load();
+    } catch (Exception e) {
+      LOG.error("Failed to load the {}", name, e);
+    }
+  }
+
+  void refresh() {
+    if (!isLoaded()) {
+      return;
+    }
+    Map<String, String> entities = new HashMap<>();
+    Iterator<Map.Entry<String, String>> iterator = changed.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<String, String> entry = iterator.next();
+      iterator.remove();
+      entities.put(entry.getKey(), entry.getValue());
+      if (entities.size() == batchSize || !iterator.hasNext()) {
+        refreshBatch(entities);
+        entities.clear();
+      }
+    }
+    try {
+      afterRefresh();
+    } catch (Exception e) {
+      LOG.error("Failed to refresh the {}", name, e);
+    }
+  }
+
+  private void refreshBatch(Map<String, String> entities) {
+    try {
+      refresh(entities);
+      entities.keySet().forEach(attempts::remove);
+    } catch (Exception e) {
+      List<String> dropped = new ArrayList<>();
+      for (Map.Entry<String, String> entity : entities.entrySet()) {
+        if (attempts.merge(entity.getKey(), 1, Integer::sum) >= MAX_REFRESH_ATTEMPTS) {
+          attempts.remove(entity.getKey());
+          dropped.add(entity.getKey());
+        } else {
+          changed.putIfAbsent(entity.getKey(), entity.getValue());
+        }
+      }
+      if (dropped.isEmpty()) {
+        LOG.warn("Failed to refresh {} entities in the {}: {}", entities.size(), name, e.getMessage());
+      } else {
+        LOG.error(
+            "Dropping the changes of {} entities from the {} after {} attempts: {}",
+            dropped.size(),
+            name,
+            MAX_REFRESH_ATTEMPTS,
+            dropped,
+            e);
+      }
+    }
+  }
+}
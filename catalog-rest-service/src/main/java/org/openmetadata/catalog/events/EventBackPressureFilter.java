@@ -0,0 +1,58 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.events;
+
+import io.dropwizard.jersey.errors.ErrorMessage;
+import java.util.Arrays;
+import java.util.List;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.ext.Provider;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rejects mutating requests with 503 while the {@link EventPubSub} ring buffer is full. Used with the {@link
+ * EventHandlerConfiguration.OverflowPolicy#REJECT} overflow policy to push back on clients before their changes are
+ * committed. The events of the requests admitted just before the ring buffer filled up wait for a free slot, so no
+ * event of a committed change is dropped.
+ */
+@Slf4j
+@Provider
+public class EventBackPressureFilter implements ContainerRequestFilter {
+  private static final List<String> MUTATING_METHODS = Arrays.asList("POST", "PUT", "PATCH", "DELETE");
+  private static final String RETRY_AFTER_SECONDS = "1";
+
+  @Override
+  public void filter(ContainerRequestContext requestContext) {
+    if (MUTATING_METHODS.contains(requestContext.getMethod()) && EventPubSub.isFull()) {
+      LOG.warn("Rejecting {} {} as event subscribers are lagging", requestContext.getMethod(), getPath(requestContext));
+      requestContext.abortWith(
+          Response.status(Status.SERVICE_UNAVAILABLE)
+              .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+              .type(MediaType.APPLICATION_JSON_TYPE)
+              .entity(
+                  new ErrorMessage(
+                      Status.SERVICE_UNAVAILABLE.getStatusCode(), "Change event subscribers are lagging, retry later"))
+              .build());
+    }
+  }
+
+  private static String getPath(ContainerRequestContext requestContext) {
+    return requestContext.getUriInfo().getPath();
+  }
+}
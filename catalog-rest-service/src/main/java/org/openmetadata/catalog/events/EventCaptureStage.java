@@ -0,0 +1,211 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.events;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import io.dropwizard.lifecycle.Managed;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import lombok.extern.slf4j.Slf4j;
+import org.openmetadata.catalog.Entity;
+import org.openmetadata.catalog.events.EventHandlerConfiguration.CaptureRejectionPolicy;
+import org.openmetadata.catalog.type.ChangeEvent;
+
+/**
+ * Runs the {@link EventHandler}s for the responses of mutating requests off the request thread. The request thread only
+ * enqueues the request and response on a bounded queue. Each worker thread drains its own queue in batches and calls
+ * every handler for each request in the batch. Responses are assigned to a worker by the id of the entity they changed,
+ * the same way as {@link PartitionedEventHandler}, so that the events of an entity reach {@link EventPubSub} in order.
+ *
+ * <p>When the queue is full the {@link CaptureRejectionPolicy} decides between waiting, running the handlers on the
+ * request thread, or dropping the request.
+ */
+@Slf4j
+public class EventCaptureStage implements Managed {
+  private final List<EventHandler> eventHandlers;
+  private final List<BlockingQueue<CapturedResponse>> queues = new ArrayList<>();
+  private final int threads;
+  private final int batchSize;
+  private final long enqueueTimeoutMillis;
+  private final CaptureRejectionPolicy rejectionPolicy;
+  private final Meter enqueued;
+  private final Meter rejected;
+  private final Timer batchTimer;
+  private ExecutorService workers;
+  private volatile boolean running = false;
+
+  public EventCaptureStage(List<EventHandler> eventHandlers, EventHandlerConfiguration config, MetricRegistry metrics) {
+    this.eventHandlers = eventHandlers;
+    this.threads = Math.max(1, config.getCaptureThreads());
+    for (int i = 0; i < threads; i++) {
+      queues.add(new ArrayBlockingQueue<>(Math.max(1, config.getCaptureQueueSize() / threads)));
+    }
+    this.batchSize = config.getCaptureBatchSize();
+    this.enqueueTimeoutMillis = config.getCaptureEnqueueTimeoutMillis();
+    this.rejectionPolicy = config.getCaptureRejectionPolicy();
+    MetricRegistry registry = metrics != null ? metrics : new MetricRegistry();
+    registry.register(MetricRegistry.name(EventCaptureStage.class, "queueSize"), (Gauge<Integer>) this::getQueueSize);
+    this.enqueued = registry.meter(MetricRegistry.name(EventCaptureStage.class, "enqueued"));
+    this.rejected = registry.meter(MetricRegistry.name(EventCaptureStage.class, "rejected"));
+    this.batchTimer = registry.timer(MetricRegistry.name(EventCaptureStage.class, "batch"));
+  }
+
+  @Override
+  public void start() {
+    if (!running) {
+      running = true;
+      workers = Executors.newFixedThreadPool(threads, DaemonThreadFactory.INSTANCE);
+      for (BlockingQueue<CapturedResponse> queue : queues) {
+        workers.execute(() -> drain(queue));
+      }
+      LOG.info("Event capture stage started with {} threads", threads);
+    }
+  }
+
+  @Override
+  public void stop() throws InterruptedException {
+    if (running) {
+      running = false;
+      workers.shutdownNow();
+      workers.awaitTermination(10, TimeUnit.SECONDS);
+      // Process whatever was captured before the workers stopped
+      for (BlockingQueue<CapturedResponse> queue : queues) {
+        List<CapturedResponse> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        process(remaining);
+      }
+      eventHandlers.forEach(EventHandler::close);
+      LOG.info("Event capture stage stopped");
+    }
+  }
+
+  /** Capture the response of a mutating request. This is the only work done on the request thread. */
+  public void capture(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+    CapturedResponse captured = new CapturedResponse(requestContext, responseContext);
+    BlockingQueue<CapturedResponse> queue =
+        queues.get(PartitionedEventHandler.getPartition(getEntityId(responseContext), threads));
+    if (running && queue.offer(captured)) {
+      enqueued.mark();
+      return;
+    }
+    switch (rejectionPolicy) {
+      case BLOCK:
+        try {
+          if (running && queue.offer(captured, enqueueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            enqueued.mark();
+            return;
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        reject(captured);
+        break;
+      case CALLER_RUNS:
+        process(List.of(captured));
+        break;
+      case DISCARD:
+      default:
+        reject(captured);
+    }
+  }
+
+  private void reject(CapturedResponse captured) {
+    rejected.mark();
+    LOG.error(
+        "Event capture queue is full, dropped events for {} {}",
+        captured.requestContext.getMethod(),
+        captured.requestContext.getUriInfo().getPath());
+  }
+
+  /** Id of the entity changed by a request, or null when the response is not an entity or a change event. */
+  private static UUID getEntityId(ContainerResponseContext responseContext) {
+    Object entity = responseContext.getEntity();
+    if (entity == null) {
+      return null;
+    }
+    if (entity instanceof ChangeEvent) {
+      return ((ChangeEvent) entity).getEntityId();
+    }
+    try {
+      return Entity.getEntityInterface(entity).getId();
+    } catch (Exception e) {
+      return null; // Not an entity, no event is produced from it
+    }
+  }
+
+  private int getQueueSize() {
+    int size = 0;
+    for (BlockingQueue<CapturedResponse> queue : queues) {
+      size += queue.size();
+    }
+    return size;
+  }
+
+  private void drain(BlockingQueue<CapturedResponse> queue) {
+    List<CapturedResponse> batch = new ArrayList<>(batchSize);
+    while (running) {
+      try {
+        batch.add(queue.take());
+        queue.drainTo(batch, batchSize - 1);
+        process(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (Exception e) {
+        LOG.error("Failed to process captured events", e);
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  private void process(List<CapturedResponse> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    try (Timer.Context ignored = batchTimer.time()) {
+      for (CapturedResponse captured : batch) {
+        for (EventHandler eventHandler : eventHandlers) {
+          try {
+            eventHandler.process(captured.requestContext, captured.responseContext);
+          } catch (Exception e) {
+            LOG.error("Event handler {} failed", eventHandler.getClass().getSimpleName(), e);
+          }
+        }
+      }
+    }
+  }
+
+  private static class CapturedResponse {
+    private final ContainerRequestContext requestContext;
+    private final ContainerResponseContext responseContext;
+
+    CapturedResponse(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+      this.requestContext = requestContext;
+      this.responseContext = responseContext;
+    }
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.events;
+
+import com.lmax.disruptor.BatchEventProcessor;
+import com.lmax.disruptor.RingBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.openmetadata.catalog.events.EventPubSub.ChangeEventHolder;
+
+/**
+ * A group of {@link BatchEventProcessor}s consuming the change events of {@link EventPubSub} in parallel. Each
+ * processor runs in its own thread and handles one partition of the events, see {@link PartitionedEventHandler}.
+ */
+public class EventConsumerGroup {
+  private final String name;
+  private final RingBuffer<ChangeEventHolder> ringBuffer;
+  private final List<PartitionedEventHandler> handlers = new ArrayList<>();
+  private final List<BatchEventProcessor<ChangeEventHolder>> processors = new ArrayList<>();
+
+  EventConsumerGroup(String name, RingBuffer<ChangeEventHolder> ringBuffer) {
+    this.name = name;
+    this.ringBuffer = ringBuffer;
+  }
+
+  void add(PartitionedEventHandler handler, BatchEventProcessor<ChangeEventHolder> processor) {
+    handlers.add(handler);
+    processors.add(processor);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getPartitions() {
+    return processors.size();
+  }
+
+  public List<PartitionedEventHandler> getHandlers() {
+    return Collections.unmodifiableList(handlers);
+  }
+
+  public List<BatchEventProcessor<ChangeEventHolder>> getProcessors() {
+    return Collections.unmodifiableList(processors);
+  }
+
+  /** Number of published events the given partition has not yet moved past. */
+  public long getLag(int partition) {
+    return Math.max(0, ringBuffer.getCursor() - processors.get(partition).getSequence().get());
+  }
+
+  /** Lag of the slowest partition which is the one gating the publishers. */
+  public long getMaxLag() {
+    long maxLag = 0;
+    for (int i = 0; i < processors.size(); i++) {
+      maxLag = Math.max(maxLag, getLag(i));
+    }
+    return maxLag;
+  }
+
+  public long getProcessed(int partition) {
+    return handlers.get(partition).getProcessed();
+  }
+
+  @Override
+  public String toString() {
+    return "EventConsumerGroup{name=" + name + ", partitions=" + processors.size() + '}';
+  }
+}
@@ -13,11 +13,11 @@
 
 package org.openmetadata.catalog.events;
 
+import com.codahale.metrics.MetricRegistry;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ForkJoinPool;
 import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ContainerResponseContext;
 import javax.ws.rs.container.ContainerResponseFilter;
@@ -25,20 +25,23 @@ import javax.ws.rs.ext.Provider;
 import lombok.extern.slf4j.Slf4j;
 import org.jdbi.v3.core.Jdbi;
 import org.openmetadata.catalog.CatalogApplicationConfig;
-import org.openmetadata.catalog.util.ParallelStreamUtil;
 
 @Slf4j
 @Provider
 public class EventFilter implements ContainerResponseFilter {
   private static final List<String> AUDITABLE_METHODS = Arrays.asList("POST", "PUT", "PATCH", "DELETE");
-  private static final int FORK_JOIN_POOL_PARALLELISM = 20;
-  private final ForkJoinPool forkJoinPool;
   private final List<EventHandler> eventHandlers;
+  private final EventCaptureStage captureStage;
 
-  public EventFilter(CatalogApplicationConfig config, Jdbi jdbi) {
-    this.forkJoinPool = new ForkJoinPool(FORK_JOIN_POOL_PARALLELISM);
+  public EventFilter(CatalogApplicationConfig config, Jdbi jdbi, MetricRegistry metrics) {
     this.eventHandlers = new ArrayList<>();
     registerEventHandlers(config, jdbi);
+    this.captureStage = new EventCaptureStage(eventHandlers, config.getEventHandlerConfiguration(), metrics);
+  }
+
+  /** Capture stage running the event handlers. It must be started and stopped with the application lifecycle. */
+  public EventCaptureStage getCaptureStage() {
+    return captureStage;
   }
 
   private void registerEventHandlers(CatalogApplicationConfig config, Jdbi jdbi) {
@@ -63,10 +66,6 @@ public class EventFilter implements ContainerResponseFilter {
     if ((responseCode < 200 || responseCode > 299) || (!AUDITABLE_METHODS.contains(method))) {
       return;
     }
-    eventHandlers
-        .parallelStream()
-        .forEach(
-            eventHandler ->
-                ParallelStreamUtil.runAsync(() -> eventHandler.process(requestContext, responseContext), forkJoinPool));
+    captureStage.capture(requestContext, responseContext);
   }
 }
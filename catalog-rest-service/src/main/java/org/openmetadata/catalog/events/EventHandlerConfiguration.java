@@ -12,11 +12,89 @@
  */
 package org.openmetadata.catalog.events;
 
+import com.lmax.disruptor.dsl.ProducerType;
 import java.util.Set;
 
 public class EventHandlerConfiguration {
+  /** Disruptor wait strategy used by the event subscribers while waiting for new events. */
+  public enum WaitStrategy {
+    BLOCKING,
+    SLEEPING,
+    YIELDING,
+    BUSY_SPIN
+  }
+
+  /** What {@link EventPubSub#publish} does when the slowest subscriber has not freed up a slot in the ring buffer. */
+  public enum OverflowPolicy {
+    /** Wait for a free slot. */
+    BLOCK,
+    /**
+     * Don't wait. The event is recorded in the change_event table and delivered to the subscribers from there once the
+     * ring buffer has room again. The queue of the events to deliver is kept in memory: the events still spilled when
+     * the server stops stay in change_event, for the events API and the other servers, but are not delivered to the
+     * subscribers of this server.
+     */
+    SPILL,
+    /**
+     * Reject mutating API requests with 503 while the ring buffer is full. The events of the requests already admitted
+     * wait for a free slot.
+     */
+    REJECT
+  }
+
+  /** What {@link EventCaptureStage#capture} does when the capture queue is full. */
+  public enum CaptureRejectionPolicy {
+    /** Wait up to captureEnqueueTimeoutMillis for room in the queue, then drop the captured response. */
+    BLOCK,
+    /**
+     * Run the event handlers on the request thread which slows down the clients producing the events. The event may
+     * then overtake events of the same entity still queued for a worker.
+     */
+    CALLER_RUNS,
+    /** Drop the captured response. */
+    DISCARD
+  }
+
   private Set<String> eventHandlerClassNames;
 
+  private int ringBufferSize = 1024; // Must be a power of 2
+
+  private ProducerType producerType = ProducerType.MULTI;
+
+  private WaitStrategy waitStrategy = WaitStrategy.BLOCKING;
+
+  private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+  private int captureThreads = 2;
+
+  private int captureQueueSize = 10000;
+
+  private int captureBatchSize = 100;
+
+  private long captureEnqueueTimeoutMillis = 1000;
+
+  private CaptureRejectionPolicy captureRejectionPolicy = CaptureRejectionPolicy.CALLER_RUNS;
+
+  private int groupCommitMaxBatchSize = 500;
+
+  private long groupCommitMaxDelayMillis = 100;
+
+  private int groupCommitQueueSize = 50000;
+
+  private int streamBufferSize = 256;
+
+  private int streamWriterThreads = 64;
+
+  private int streamWriterQueueSize = 1000;
+
+  private int streamKeepAliveSeconds = 30;
+
+  private int streamMaxClients = 10000;
+
+  private ChangeEventRetentionConfiguration changeEventRetention = new ChangeEventRetentionConfiguration();
+
+  private CacheInvalidationConfiguration cacheInvalidation = new CacheInvalidationConfiguration();
+
   public Set<String> getEventHandlerClassNames() {
     return eventHandlerClassNames;
   }
@@ -24,4 +102,156 @@ public class EventHandlerConfiguration {
   public void setEventHandlerClassNames(Set<String> eventHandlerClassNames) {
     this.eventHandlerClassNames = eventHandlerClassNames;
   }
+
+  public int getRingBufferSize() {
+    return ringBufferSize;
+  }
+
+  public void setRingBufferSize(int ringBufferSize) {
+    this.ringBufferSize = ringBufferSize;
+  }
+
+  public ProducerType getProducerType() {
+    return producerType;
+  }
+
+  public void setProducerType(ProducerType producerType) {
+    this.producerType = producerType;
+  }
+
+  public WaitStrategy getWaitStrategy() {
+    return waitStrategy;
+  }
+
+  public void setWaitStrategy(WaitStrategy waitStrategy) {
+    this.waitStrategy = waitStrategy;
+  }
+
+  public OverflowPolicy getOverflowPolicy() {
+    return overflowPolicy;
+  }
+
+  public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+    this.overflowPolicy = overflowPolicy;
+  }
+
+  public int getCaptureThreads() {
+    return captureThreads;
+  }
+
+  public void setCaptureThreads(int captureThreads) {
+    this.captureThreads = captureThreads;
+  }
+
+  public int getCaptureQueueSize() {
+    return captureQueueSize;
+  }
+
+  public void setCaptureQueueSize(int captureQueueSize) {
+    this.captureQueueSize = captureQueueSize;
+  }
+
+  public int getCaptureBatchSize() {
+    return captureBatchSize;
+  }
+
+  public void setCaptureBatchSize(int captureBatchSize) {
+    this.captureBatchSize = captureBatchSize;
+  }
+
+  public long getCaptureEnqueueTimeoutMillis() {
+    return captureEnqueueTimeoutMillis;
+  }
+
+  public void setCaptureEnqueueTimeoutMillis(long captureEnqueueTimeoutMillis) {
+    this.captureEnqueueTimeoutMillis = captureEnqueueTimeoutMillis;
+  }
+
+  public CaptureRejectionPolicy getCaptureRejectionPolicy() {
+    return captureRejectionPolicy;
+  }
+
+  public void setCaptureRejectionPolicy(CaptureRejectionPolicy captureRejectionPolicy) {
+    this.captureRejectionPolicy = captureRejectionPolicy;
+  }
+
+  public ChangeEventRetentionConfiguration getChangeEventRetention() {
+    return changeEventRetention;
+  }
+
+  public void setChangeEventRetention(ChangeEventRetentionConfiguration changeEventRetention) {
+    this.changeEventRetention = changeEventRetention;
+  }
+
+  public CacheInvalidationConfiguration getCacheInvalidation() {
+    return cacheInvalidation;
+  }
+
+  public void setCacheInvalidation(CacheInvalidationConfiguration cacheInvalidation) {
+    this.cacheInvalidation = cacheInvalidation;
+  }
+
+  public int getGroupCommitMaxBatchSize() {
+    return groupCommitMaxBatchSize;
+  }
+
+  public void setGroupCommitMaxBatchSize(int groupCommitMaxBatchSize) {
+    this.groupCommitMaxBatchSize = groupCommitMaxBatchSize;
+  }
+
+  public long getGroupCommitMaxDelayMillis() {
+    return groupCommitMaxDelayMillis;
+  }
+
+  public void setGroupCommitMaxDelayMillis(long groupCommitMaxDelayMillis) {
+    this.groupCommitMaxDelayMillis = groupCommitMaxDelayMillis;
+  }
+
+  public int getGroupCommitQueueSize() {
+    return groupCommitQueueSize;
+  }
+
+  public void setGroupCommitQueueSize(int groupCommitQueueSize) {
+    this.groupCommitQueueSize = groupCommitQueueSize;
+  }
+
+  public int getStreamBufferSize() {
+    return streamBufferSize;
+  }
+
+  public void setStreamBufferSize(int streamBufferSize) {
+    this.streamBufferSize = streamBufferSize;
+  }
+
+  public int getStreamWriterThreads() {
+    return streamWriterThreads;
+  }
+
+  public void setStreamWriterThreads(int streamWriterThreads) {
+    this.streamWriterThreads = streamWriterThreads;
+  }
+
+  public int getStreamWriterQueueSize() {
+    return streamWriterQueueSize;
+  }
+
+  public void setStreamWriterQueueSize(int streamWriterQueueSize) {
+    this.streamWriterQueueSize = streamWriterQueueSize;
+  }
+
+  public int getStreamKeepAliveSeconds() {
+    return streamKeepAliveSeconds;
+  }
+
+  public void setStreamKeepAliveSeconds(int streamKeepAliveSeconds) {
+    this.streamKeepAliveSeconds = streamKeepAliveSeconds;
+  }
+
+  public int getStreamMaxClients() {
+    return streamMaxClients;
+  }
+
+  public void setStreamMaxClients(int streamMaxClients) {
+    this.streamMaxClients = streamMaxClients;
+  }
 }
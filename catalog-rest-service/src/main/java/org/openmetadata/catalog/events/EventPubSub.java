@@ -13,34 +13,68 @@
 
 package org.openmetadata.catalog.events;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
 import com.lmax.disruptor.BatchEventProcessor;
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
 import com.lmax.disruptor.EventFactory;
 import com.lmax.disruptor.EventHandler;
 import com.lmax.disruptor.ExceptionHandler;
+import com.lmax.disruptor.InsufficientCapacityException;
 import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
 import com.lmax.disruptor.dsl.Disruptor;
 import com.lmax.disruptor.util.DaemonThreadFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import lombok.extern.slf4j.Slf4j;
+import org.openmetadata.catalog.events.EventHandlerConfiguration.OverflowPolicy;
 import org.openmetadata.catalog.type.ChangeEvent;
 
 @Slf4j
 /** Change event PubSub built based on LMAX Disruptor. */
 public class EventPubSub {
-  private static Disruptor<ChangeEventHolder> disruptor;
+  private static volatile Disruptor<ChangeEventHolder> disruptor;
   private static ExecutorService executor;
   private static RingBuffer<ChangeEventHolder> ringBuffer;
   private static boolean started = false;
+  private static OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+  private static MetricRegistry metricRegistry;
+  private static Meter overflowMeter;
+  private static final Map<BatchEventProcessor<ChangeEventHolder>, String> processorMetrics = new ConcurrentHashMap<>();
 
   public static void start() {
+    start(new EventHandlerConfiguration(), null);
+  }
+
+  public static void start(EventHandlerConfiguration config, MetricRegistry metrics) {
     if (!started) {
-      disruptor = new Disruptor<>(ChangeEventHolder::new, 1024, DaemonThreadFactory.INSTANCE);
+      disruptor =
+          new Disruptor<>(
+              ChangeEventHolder::new,
+              config.getRingBufferSize(),
+              DaemonThreadFactory.INSTANCE,
+              config.getProducerType(),
+              getWaitStrategy(config.getWaitStrategy()));
       disruptor.setDefaultExceptionHandler(new DefaultExceptionHandler());
       executor = Executors.newCachedThreadPool(DaemonThreadFactory.INSTANCE);
       ringBuffer = disruptor.start();
-      LOG.info("Disruptor started");
+      overflowPolicy = config.getOverflowPolicy();
+      registerMetrics(metrics);
+      LOG.info(
+          "Disruptor started with ring buffer size {}, producer type {}, wait strategy {} and overflow policy {}",
+          config.getRingBufferSize(),
+          config.getProducerType(),
+          config.getWaitStrategy(),
+          overflowPolicy);
       started = true;
     }
   }
@@ -51,6 +85,7 @@ public class EventPubSub {
       disruptor.halt();
       executor.shutdownNow();
       executor.awaitTermination(10, TimeUnit.SECONDS);
+      unregisterMetrics();
       disruptor = null;
       ringBuffer = null;
       started = false;
@@ -58,6 +93,43 @@ public class EventPubSub {
     }
   }
 
+  private static WaitStrategy getWaitStrategy(EventHandlerConfiguration.WaitStrategy waitStrategy) {
+    switch (waitStrategy) {
+      case SLEEPING:
+        return new SleepingWaitStrategy();
+      case YIELDING:
+        return new YieldingWaitStrategy();
+      case BUSY_SPIN:
+        return new BusySpinWaitStrategy();
+      case BLOCKING:
+      default:
+        return new BlockingWaitStrategy();
+    }
+  }
+
+  private static void registerMetrics(MetricRegistry metrics) {
+    metricRegistry = metrics;
+    if (metricRegistry == null) {
+      return;
+    }
+    metricRegistry.register(
+        MetricRegistry.name(EventPubSub.class, "remainingCapacity"),
+        (Gauge<Long>) () -> ringBuffer == null ? 0 : ringBuffer.remainingCapacity());
+    metricRegistry.register(
+        MetricRegistry.name(EventPubSub.class, "cursor"),
+        (Gauge<Long>) () -> ringBuffer == null ? 0 : ringBuffer.getCursor());
+    overflowMeter = metricRegistry.meter(MetricRegistry.name(EventPubSub.class, "overflow"));
+  }
+
+  private static void unregisterMetrics() {
+    if (metricRegistry != null) {
+      metricRegistry.removeMatching((name, metric) -> name.startsWith(EventPubSub.class.getName()));
+    }
+    processorMetrics.clear();
+    metricRegistry = null;
+    overflowMeter = null;
+  }
+
   public static class ChangeEventHolder {
     private ChangeEvent value;
 
@@ -76,20 +148,73 @@ public class EventPubSub {
     }
   }
 
-  public static void publish(ChangeEvent event) {
-    if (event != null) {
-      RingBuffer<ChangeEventHolder> ringBuffer = disruptor.getRingBuffer();
-      long sequence = ringBuffer.next();
-      ringBuffer.get(sequence).set(event);
-      ringBuffer.publish(sequence);
+  /**
+   * Publish a change event to the subscribers. With {@link OverflowPolicy#BLOCK} and {@link OverflowPolicy#REJECT} the
+   * caller waits for the slowest subscriber to free up a slot. REJECT pushes back on the clients before their requests
+   * are processed, see {@link EventBackPressureFilter}, and the events of the requests already admitted wait like
+   * BLOCK. With {@link OverflowPolicy#SPILL} the event is not handed to the subscribers when the ring buffer is full
+   * and the caller is expected to publish it again later, see {@link ChangeEventHandler}. Once the event hub is shut
+   * down the events are not published.
+   *
+   * @return true if the event was published to the subscribers
+   */
+  public static boolean publish(ChangeEvent event) {
+    Disruptor<ChangeEventHolder> current = disruptor;
+    if (event == null) {
+      return false;
+    }
+    if (current == null) {
+      LOG.warn(
+          "Event hub is stopped, change event {}:{}:{} is not published",
+          event.getEntityType(),
+          event.getEntityId(),
+          event.getEventType());
+      return false;
     }
+    RingBuffer<ChangeEventHolder> ringBuffer = current.getRingBuffer();
+    long sequence;
+    if (overflowPolicy != OverflowPolicy.SPILL) {
+      sequence = ringBuffer.next();
+    } else {
+      try {
+        sequence = ringBuffer.tryNext();
+      } catch (InsufficientCapacityException e) {
+        if (overflowMeter != null) {
+          overflowMeter.mark();
+        }
+        LOG.warn(
+            "Event subscribers are lagging, change event {}:{}:{} is spilled to change_event",
+            event.getEntityType(),
+            event.getEntityId(),
+            event.getEventType());
+        return false;
+      }
+    }
+    ringBuffer.get(sequence).set(event);
+    ringBuffer.publish(sequence);
+    return true;
+  }
+
+  /** Returns true when the ring buffer has no free slot left, that is when a blocking publish would have to wait. */
+  public static boolean isFull() {
+    return started && !ringBuffer.hasAvailableCapacity(1);
+  }
+
+  public static OverflowPolicy getOverflowPolicy() {
+    return overflowPolicy;
   }
 
   public static BatchEventProcessor<ChangeEventHolder> addEventHandler(EventHandler<ChangeEventHolder> eventHandler) {
+    return addEventHandler(eventHandler.getClass().getSimpleName(), eventHandler);
+  }
+
+  public static BatchEventProcessor<ChangeEventHolder> addEventHandler(
+      String name, EventHandler<ChangeEventHolder> eventHandler) {
     BatchEventProcessor<ChangeEventHolder> processor =
         new BatchEventProcessor<>(ringBuffer, ringBuffer.newBarrier(), eventHandler);
     processor.setExceptionHandler(new DefaultExceptionHandler());
     ringBuffer.addGatingSequences(processor.getSequence());
+    registerLagGauge(name, processor);
     executor.execute(processor);
     LOG.info("Processor added for {}", processor);
     return processor;
@@ -97,9 +222,52 @@ public class EventPubSub {
 
   public static void removeProcessor(BatchEventProcessor<ChangeEventHolder> processor) {
     ringBuffer.removeGatingSequence(processor.getSequence());
+    String metricName = processorMetrics.remove(processor);
+    if (metricName != null && metricRegistry != null) {
+      metricRegistry.remove(metricName);
+    }
     LOG.info("Processor removed for {}", processor);
   }
 
+  /** Publish how many events a subscriber is behind the publishers, that is the cursor minus its sequence. */
+  private static void registerLagGauge(String name, BatchEventProcessor<ChangeEventHolder> processor) {
+    if (metricRegistry == null) {
+      return;
+    }
+    String metricName = MetricRegistry.name(EventPubSub.class, "consumer", name, "lag");
+    for (int i = 1; metricRegistry.getNames().contains(metricName); i++) {
+      metricName = MetricRegistry.name(EventPubSub.class, "consumer", name + "-" + i, "lag");
+    }
+    metricRegistry.register(
+        metricName, (Gauge<Long>) () -> Math.max(0, ringBuffer.getCursor() - processor.getSequence().get()));
+    processorMetrics.put(processor, metricName);
+  }
+
+  /**
+   * Add a consumer group of {@code partitions} event handlers, each running in its own thread. Events are partitioned
+   * by entity id so that events of the same entity are processed in order by the same handler. A new handler instance
+   * is created per partition using {@code handlerFactory} as the handlers are not shared across threads.
+   */
+  public static EventConsumerGroup addEventHandlers(
+      String name, int partitions, Supplier<EventHandler<ChangeEventHolder>> handlerFactory) {
+    EventConsumerGroup group = new EventConsumerGroup(name, ringBuffer);
+    int count = Math.max(1, partitions);
+    for (int partition = 0; partition < count; partition++) {
+      PartitionedEventHandler handler = new PartitionedEventHandler(handlerFactory.get(), partition, count);
+      group.add(handler, addEventHandler(name + "-" + partition, handler));
+    }
+    LOG.info("Consumer group {} added with {} partitions", name, count);
+    return group;
+  }
+
+  public static void removeEventHandlers(EventConsumerGroup group) {
+    for (BatchEventProcessor<ChangeEventHolder> processor : group.getProcessors()) {
+      processor.halt();
+      removeProcessor(processor);
+    }
+    LOG.info("Consumer group {} removed", group.getName());
+  }
+
   public void close() {}
 
   public static class DefaultExceptionHandler implements ExceptionHandler<ChangeEventHolder> {
@@ -0,0 +1,228 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.events;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.lmax.disruptor.BatchEventProcessor;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import io.dropwizard.lifecycle.Managed;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response.Status;
+import lombok.extern.slf4j.Slf4j;
+import org.glassfish.jersey.server.ChunkedOutput;
+import org.jdbi.v3.core.Jdbi;
+import org.openmetadata.catalog.events.EventPubSub.ChangeEventHolder;
+import org.openmetadata.catalog.events.EventStreamSubscriber.Frame;
+import org.openmetadata.catalog.jdbi3.ChangeEventRepository;
+import org.openmetadata.catalog.jdbi3.CollectionDAO;
+import org.openmetadata.catalog.type.ChangeEvent;
+import org.openmetadata.catalog.type.EventType;
+
+/**
+ * Fans out the change events published to {@link EventPubSub} to the clients of the server-sent events stream. A single
+ * {@link EventPubSub} consumer serves all the clients. Each event is serialized once and queued on the bounded buffer
+ * of every client whose filters match; clients that fall behind and fill their buffer are disconnected. A client only
+ * uses a writer thread while it has frames to write, so idle clients cost nothing except for a periodic keep alive
+ * comment, and a slow client blocks its own writer thread only. The writer threads are bounded: the clients with frames
+ * to write wait in a bounded queue once all the threads are busy, and are disconnected when the queue is full.
+ *
+ * <p>The SSE event id is the event timestamp. A client reconnecting with {@code Last-Event-ID} gets the events since
+ * that timestamp replayed from change_event on a thread of its own before the live events. Events with the same
+ * timestamp as the last event id are sent again, so clients must tolerate duplicates.
+ */
+@Slf4j
+public class EventStreamBroadcaster implements EventHandler<ChangeEventHolder>, Managed {
+  private static final Frame KEEP_ALIVE = new Frame(Long.MAX_VALUE, ": keep-alive\n\n");
+  private static final long REPLAY_RETRY_MILLIS = 100;
+  private static final int MAX_IDLE_REPLAY_PASSES = 50;
+  private static EventStreamBroadcaster instance;
+
+  private final Set<EventStreamSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+  private final ChangeEventRepository repository;
+  private final EventHandlerConfiguration config;
+  private final Meter dropped;
+  private ExecutorService writers;
+  private ExecutorService closer;
+  private ExecutorService replayers;
+  private ScheduledExecutorService keepAlive;
+  private BatchEventProcessor<ChangeEventHolder> processor;
+
+  public EventStreamBroadcaster(Jdbi jdbi, EventHandlerConfiguration config, MetricRegistry metrics) {
+    this.repository = new ChangeEventRepository(jdbi.onDemand(CollectionDAO.class));
+    this.config = config;
+    MetricRegistry registry = metrics != null ? metrics : new MetricRegistry();
+    registry.register(MetricRegistry.name(EventStreamBroadcaster.class, "clients"), (Gauge<Integer>) subscribers::size);
+    this.dropped = registry.meter(MetricRegistry.name(EventStreamBroadcaster.class, "dropped"));
+  }
+
+  public static EventStreamBroadcaster getInstance() {
+    return instance;
+  }
+
+  @Override
+  public void start() {
+    // A thread is started for each client with frames to write up to the maximum, and stops after a minute idle
+    ThreadPoolExecutor writerPool =
+        new ThreadPoolExecutor(
+            config.getStreamWriterThreads(),
+            config.getStreamWriterThreads(),
+            60,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(config.getStreamWriterQueueSize()),
+            DaemonThreadFactory.INSTANCE);
+    writerPool.allowCoreThreadTimeOut(true);
+    writers = writerPool;
+    // Closing flushes the connection, which blocks when the client stopped reading
+    closer = Executors.newSingleThreadExecutor(DaemonThreadFactory.INSTANCE);
+    replayers = Executors.newCachedThreadPool(DaemonThreadFactory.INSTANCE);
+    keepAlive = Executors.newSingleThreadScheduledExecutor(DaemonThreadFactory.INSTANCE);
+    int interval = config.getStreamKeepAliveSeconds();
+    keepAlive.scheduleWithFixedDelay(this::sendKeepAlive, interval, interval, TimeUnit.SECONDS);
+    processor = EventPubSub.addEventHandler("event-stream", this);
+    instance = this;
+  }
+
+  @Override
+  public void stop() throws InterruptedException {
+    instance = null;
+    if (processor != null) {
+      processor.halt();
+      EventPubSub.removeProcessor(processor);
+    }
+    keepAlive.shutdownNow();
+    replayers.shutdownNow();
+    writers.shutdownNow();
+    writers.awaitTermination(10, TimeUnit.SECONDS);
+    closer.shutdownNow();
+    subscribers.forEach(EventStreamSubscriber::close);
+    subscribers.clear();
+  }
+
+  /**
+   * Connect a client to the stream. When {@code lastEventTime} is not null the events since then are replayed from
+   * change_event first.
+   *
+   * @param entityTypes entity types to stream, null or {@code *} for all
+   * @param eventTypes event types to stream, null for all
+   */
+  public ChunkedOutput<String> subscribe(List<String> entityTypes, Set<EventType> eventTypes, Long lastEventTime) {
+    if (subscribers.size() >= config.getStreamMaxClients()) {
+      throw new WebApplicationException("Too many event stream clients", Status.SERVICE_UNAVAILABLE);
+    }
+    ChunkedOutput<String> output = new ChunkedOutput<>(String.class);
+    EventStreamSubscriber subscriber =
+        new EventStreamSubscriber(
+            output, entityTypes, eventTypes, config.getStreamBufferSize(), writers, lastEventTime != null);
+    subscribers.add(subscriber);
+    if (lastEventTime != null) {
+      // Replay once the response is committed, live events are buffered meanwhile
+      replayers.execute(() -> replay(subscriber, lastEventTime));
+    }
+    LOG.debug("Event stream client connected, {} clients", subscribers.size());
+    return output;
+  }
+
+  private void replay(EventStreamSubscriber subscriber, long lastEventTime) {
+    Map<EventType, List<String>> filter = new EnumMap<>(EventType.class);
+    for (EventType eventType : EventType.values()) {
+      if (subscriber.getEventTypes() == null || subscriber.getEventTypes().contains(eventType)) {
+        filter.put(eventType, subscriber.getEntityTypes() == null ? List.of("*") : subscriber.getEntityTypes());
+      }
+    }
+    try {
+      // Read change_event again until the replay caught up with the live events dropped meanwhile. Those are only
+      // missing from change_event while their group commit is pending.
+      long since = lastEventTime;
+      for (int idlePasses = 0; ; idlePasses++) {
+        repository.stream(since, filter, record -> subscriber.replay(toFrame(record.getEventTime(), record.getJson())));
+        if (subscriber.endReplay()) {
+          return;
+        }
+        if (subscriber.getReplayedUpTo() > since) {
+          since = subscriber.getReplayedUpTo();
+          idlePasses = 0;
+        } else if (idlePasses == MAX_IDLE_REPLAY_PASSES) {
+          LOG.warn("Disconnecting event stream client as the replay did not catch up with the change events");
+          remove(subscriber);
+          return;
+        } else {
+          Thread.sleep(REPLAY_RETRY_MILLIS);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      remove(subscriber);
+    } catch (IOException e) {
+      remove(subscriber);
+    } catch (Exception e) {
+      LOG.error("Failed to replay change events since {}", lastEventTime, e);
+      remove(subscriber);
+    }
+  }
+
+  @Override
+  public void onEvent(ChangeEventHolder changeEventHolder, long sequence, boolean endOfBatch) throws Exception {
+    if (subscribers.isEmpty()) {
+      return;
+    }
+    ChangeEvent event = changeEventHolder.get();
+    Frame frame = null;
+    for (EventStreamSubscriber subscriber : subscribers) {
+      if (subscriber.accepts(event)) {
+        if (frame == null) {
+          frame = toFrame(event.getTimestamp(), ChangeEventHandler.toJson(event));
+        }
+        if (!subscriber.offer(frame)) {
+          dropped.mark();
+          LOG.warn("Disconnecting event stream client that is not keeping up with the change events");
+          remove(subscriber);
+        }
+      }
+    }
+  }
+
+  private void sendKeepAlive() {
+    for (EventStreamSubscriber subscriber : subscribers) {
+      if (subscriber.isClosed()) {
+        subscribers.remove(subscriber);
+      } else if (!subscriber.offer(KEEP_ALIVE)) { // Writing the comment detects the clients that went away
+        remove(subscriber);
+      }
+    }
+  }
+
+  private void remove(EventStreamSubscriber subscriber) {
+    if (subscribers.remove(subscriber)) {
+      closer.execute(subscriber::close);
+    }
+  }
+
+  private static Frame toFrame(long eventTime, String json) {
+    return new Frame(eventTime, "id: " + eventTime + "\ndata: " + json + "\n\n");
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.events;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.glassfish.jersey.server.ChunkedOutput;
+import org.openmetadata.catalog.type.ChangeEvent;
+import org.openmetadata.catalog.type.EventType;
+
+/**
+ * A client connected to the change event stream. Frames for the client are queued in a bounded buffer and written to
+ * the connection by a writer pool that runs a task per client with frames to write, so that a connection only uses a
+ * thread while it has frames to write and a client that reads slowly only holds up its own writes. The broadcaster
+ * drops the client when its buffer is full or when the writer pool has no room left for it.
+ *
+ * <p>While the events since {@code Last-Event-ID} are replayed, the live frames that don't fit in the buffer are not
+ * lost: the buffer is emptied and the replay reads change_event again up to the latest frame it dropped.
+ */
+public class EventStreamSubscriber {
+  private final ChunkedOutput<String> output;
+  private final List<String> entityTypes;
+  private final Set<EventType> eventTypes;
+  private final BlockingQueue<Frame> buffer;
+  private final Executor writers;
+  private final AtomicBoolean scheduled = new AtomicBoolean(false);
+  private volatile boolean rejected;
+  private volatile boolean replaying;
+  private volatile long replayedUpTo = Long.MIN_VALUE;
+  private long droppedUpTo = Long.MIN_VALUE; // Guarded by this
+
+  EventStreamSubscriber(
+      ChunkedOutput<String> output,
+      List<String> entityTypes,
+      Set<EventType> eventTypes,
+      int bufferSize,
+      Executor writers,
+      boolean replaying) {
+    this.output = output;
+    this.entityTypes = entityTypes;
+    this.eventTypes = eventTypes;
+    this.buffer = new ArrayBlockingQueue<>(bufferSize);
+    this.writers = writers;
+    this.replaying = replaying;
+  }
+
+  public ChunkedOutput<String> getOutput() {
+    return output;
+  }
+
+  public List<String> getEntityTypes() {
+    return entityTypes;
+  }
+
+  public Set<EventType> getEventTypes() {
+    return eventTypes;
+  }
+
+  /** Returns true if the client asked for events of this entity type and event type. */
+  public boolean accepts(ChangeEvent event) {
+    return (eventTypes == null || eventTypes.contains(event.getEventType()))
+        && (entityTypes == null || entityTypes.get(0).equals("*") || entityTypes.contains(event.getEntityType()));
+  }
+
+  /** Queue a frame for the client. Returns false when the buffer is full or the writer pool rejected the client. */
+  boolean offer(Frame frame) {
+    if (!buffer.offer(frame)) {
+      return replaying && dropDuringReplay(frame);
+    }
+    return schedule();
+  }
+
+  /** Empty the buffer and leave the frames to the replay, unless the replay ended meanwhile. */
+  private synchronized boolean dropDuringReplay(Frame frame) {
+    if (!replaying) {
+      return buffer.offer(frame);
+    }
+    for (Frame dropped = buffer.poll(); dropped != null; dropped = buffer.poll()) {
+      droppedUpTo = Math.max(droppedUpTo, dropped.getEventTime());
+    }
+    droppedUpTo = Math.max(droppedUpTo, frame.getEventTime());
+    return true;
+  }
+
+  /** Write a frame replayed from change_event directly to the connection. */
+  void replay(Frame frame) throws IOException {
+    output.write(frame.text);
+    replayedUpTo = frame.eventTime;
+  }
+
+  long getReplayedUpTo() {
+    return replayedUpTo;
+  }
+
+  /**
+   * End the replay when it caught up with the live frames dropped meanwhile, and start writing the frames buffered
+   * meanwhile except the ones already replayed. Returns false when change_event must be read again.
+   */
+  synchronized boolean endReplay() {
+    if (droppedUpTo > replayedUpTo) {
+      return false;
+    }
+    replaying = false;
+    schedule();
+    return true;
+  }
+
+  boolean isClosed() {
+    return rejected || output.isClosed();
+  }
+
+  void close() {
+    try {
+      output.close();
+    } catch (IOException ignored) {
+      // Connection is already gone
+    }
+  }
+
+  /**
+   * Start writing the buffered frames unless already started. Returns false once the writer pool had no room for the
+   * client, the client is then closed as it would miss frames.
+   */
+  private boolean schedule() {
+    if (!rejected && !replaying && !buffer.isEmpty() && scheduled.compareAndSet(false, true)) {
+      try {
+        writers.execute(this::drain);
+      } catch (RejectedExecutionException e) {
+        rejected = true;
+        buffer.clear();
+      }
+    }
+    return !rejected;
+  }
+
+  private void drain() {
+    try {
+      for (Frame frame = buffer.poll(); frame != null; frame = buffer.poll()) {
+        if (frame.eventTime >= replayedUpTo) {
+          output.write(frame.text);
+        }
+      }
+    } catch (IOException e) {
+      buffer.clear();
+      close();
+    } finally {
+      scheduled.set(false);
+    }
+    // A frame may have been queued after the last poll and before clearing the flag
+    schedule();
+  }
+
+  /** A server-sent event frame. {@code eventTime} is the time of the change event, or MAX_VALUE for keep alives. */
+  static class Frame {
+    private final long eventTime;
+    private final String text;
+
+    Frame(long eventTime, String text) {
+      this.eventTime = eventTime;
+      this.text = text;
+    }
+
+    /** Time of the change event, keep alives are not change events and are not replayed. */
+    private long getEventTime() {
+      return eventTime == Long.MAX_VALUE ? Long.MIN_VALUE : eventTime;
+    }
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.events;
+
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Writes rows to the database asynchronously with group commit. Rows added by any thread are queued and a single writer
+ * thread inserts them with one multi-row insert per batch. A batch is written when it reaches {@code maxBatchSize} rows
+ * or when its first row has waited {@code maxDelayMillis}, whichever comes first. When the queue is full, {@link
+ * #add(String)} waits for the writer to catch up.
+ *
+ * <p>A batch that fails is retried with backoff, then written row by row so that one bad row doesn't take the others
+ * down with it. The rows that still fail are logged with their content and counted in {@link #getFailedRows()}.
+ */
+@Slf4j
+public class GroupCommitWriter {
+  private static final int MAX_ATTEMPTS = 3;
+  private static final long RETRY_BACKOFF_MILLIS = 100;
+
+  private final String name;
+  private final Consumer<List<String>> inserter;
+  private final BlockingQueue<String> queue;
+  private final int maxBatchSize;
+  private final long maxDelayNanos;
+  private final Thread writer;
+  private volatile boolean running = true;
+  private final AtomicLong failedRows = new AtomicLong();
+
+  public GroupCommitWriter(
+      String name, Consumer<List<String>> inserter, int maxBatchSize, long maxDelayMillis, int queueSize) {
+    this.name = name;
+    this.inserter = inserter;
+    this.queue = new LinkedBlockingQueue<>(queueSize);
+    this.maxBatchSize = maxBatchSize;
+    this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+    this.writer = DaemonThreadFactory.INSTANCE.newThread(this::run);
+    this.writer.setName("group-commit-" + name);
+    this.writer.start();
+  }
+
+  public GroupCommitWriter(String name, Consumer<List<String>> inserter, EventHandlerConfiguration config) {
+    this(
+        name,
+        inserter,
+        config.getGroupCommitMaxBatchSize(),
+        config.getGroupCommitMaxDelayMillis(),
+        config.getGroupCommitQueueSize());
+  }
+
+  /** Queue a row to be inserted with the next batch. */
+  public void add(String row) {
+    if (!running) {
+      inserter.accept(List.of(row));
+      return;
+    }
+    try {
+      queue.put(row);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOG.error("Interrupted while queuing a row for {}, writing it synchronously", name);
+      inserter.accept(List.of(row));
+    }
+  }
+
+  /** Number of rows that could not be written. */
+  public long getFailedRows() {
+    return failedRows.get();
+  }
+
+  /** Stop the writer thread after writing the rows already queued. */
+  public void close() {
+    running = false;
+    writer.interrupt();
+    try {
+      writer.join(TimeUnit.SECONDS.toMillis(10));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    List<String> remaining = new ArrayList<>();
+    queue.drainTo(remaining);
+    for (int from = 0; from < remaining.size(); from += maxBatchSize) {
+      write(remaining.subList(from, Math.min(remaining.size(), from + maxBatchSize)));
+    }
+  }
+
+  private void run() {
+    List<String> batch = new ArrayList<>(maxBatchSize);
+    while (running) {
+      try {
+        batch.add(queue.take());
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (batch.size() < maxBatchSize) {
+          if (queue.drainTo(batch, maxBatchSize - batch.size()) == 0) {
+            String row = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (row == null) {
+              break;
+            }
+            batch.add(row);
+          }
+        }
+        write(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        write(batch);
+        return;
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  private void write(List<String> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+      try {
+        inserter.accept(batch);
+        return;
+      } catch (Exception e) {
+        LOG.warn("Failed to write {} rows of {}, attempt {} of {}", batch.size(), name, attempt, MAX_ATTEMPTS, e);
+      }
+      if (attempt < MAX_ATTEMPTS && !sleep(RETRY_BACKOFF_MILLIS << (attempt - 1))) {
+        break;
+      }
+    }
+    for (String row : batch) {
+      try {
+        inserter.accept(List.of(row));
+      } catch (Exception e) {
+        failedRows.incrementAndGet();
+        LOG.error("Failed to write row of {}: {}", name, row, e);
+      }
+    }
+  }
+
+  /** Returns false when interrupted, the interrupt is kept for the writer loop to stop. */
+  private static boolean sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
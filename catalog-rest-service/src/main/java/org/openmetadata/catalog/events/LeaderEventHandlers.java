@@ -0,0 +1,63 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.events;
+
+import com.lmax.disruptor.EventHandler;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.openmetadata.catalog.events.EventPubSub.ChangeEventHolder;
+import org.openmetadata.catalog.jobs.LeaderElection.LeaderListener;
+
+/**
+ * Event handlers that must run on one server only, such as the publishers to Elasticsearch and Slack. They are added to
+ * {@link EventPubSub} when this server becomes the leader and removed when it stops being the leader.
+ */
+@Slf4j
+public class LeaderEventHandlers implements LeaderListener {
+  private final List<Registration> registrations = new ArrayList<>();
+  private final List<EventConsumerGroup> groups = new ArrayList<>();
+
+  /** Add a consumer group of {@code partitions} handlers created with {@code handlerFactory} on every election. */
+  public LeaderEventHandlers add(
+      String name, int partitions, Supplier<EventHandler<ChangeEventHolder>> handlerFactory) {
+    registrations.add(new Registration(name, partitions, handlerFactory));
+    return this;
+  }
+
+  @Override
+  public synchronized void onElected(long token) {
+    for (Registration registration : registrations) {
+      groups.add(EventPubSub.addEventHandlers(registration.name, registration.partitions, registration.factory));
+    }
+  }
+
+  @Override
+  public synchronized void onRevoked() {
+    groups.forEach(EventPubSub::removeEventHandlers);
+    groups.clear();
+  }
+
+  private static class Registration {
+    private final String name;
+    private final int partitions;
+    private final Supplier<EventHandler<ChangeEventHolder>> factory;
+
+    Registration(String name, int partitions, Supplier<EventHandler<ChangeEventHolder>> factory) {
+      this.name = name;
+      this.partitions = partitions;
+      this.factory = factory;
+    }
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.events;
+
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.LifecycleAware;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openmetadata.catalog.events.EventPubSub.ChangeEventHolder;
+import org.openmetadata.catalog.type.ChangeEvent;
+
+/**
+ * Wraps an event handler so that it only receives the events of one partition of a {@link EventConsumerGroup}. Events
+ * are assigned to a partition by entity id, which keeps the events of an entity in order while different entities are
+ * processed in parallel by the other partitions.
+ *
+ * <p>The last event of this partition in a Disruptor batch is held back by one event, so that the delegate still sees
+ * {@code endOfBatch} even when the batch ends with an event that belongs to another partition.
+ */
+public class PartitionedEventHandler implements EventHandler<ChangeEventHolder>, LifecycleAware {
+  private final EventHandler<ChangeEventHolder> delegate;
+  private final int partition;
+  private final int partitions;
+  private final ChangeEventHolder pending = new ChangeEventHolder();
+  private final AtomicLong processed = new AtomicLong();
+  private long pendingSequence = -1;
+  private boolean hasPending = false;
+
+  public PartitionedEventHandler(EventHandler<ChangeEventHolder> delegate, int partition, int partitions) {
+    this.delegate = delegate;
+    this.partition = partition;
+    this.partitions = partitions;
+  }
+
+  public static int getPartition(UUID entityId, int partitions) {
+    return entityId == null ? 0 : Math.floorMod(entityId.hashCode(), partitions);
+  }
+
+  @Override
+  public void onEvent(ChangeEventHolder changeEventHolder, long sequence, boolean endOfBatch) throws Exception {
+    ChangeEvent changeEvent = changeEventHolder.get();
+    if (getPartition(changeEvent.getEntityId(), partitions) == partition) {
+      flushPending(false);
+      pending.set(changeEvent);
+      pendingSequence = sequence;
+      hasPending = true;
+    }
+    if (endOfBatch) {
+      flushPending(true);
+    }
+  }
+
+  private void flushPending(boolean endOfBatch) throws Exception {
+    if (hasPending) {
+      hasPending = false;
+      processed.incrementAndGet();
+      delegate.onEvent(pending, pendingSequence, endOfBatch);
+    }
+  }
+
+  @Override
+  public void onStart() {
+    if (delegate instanceof LifecycleAware) {
+      ((LifecycleAware) delegate).onStart();
+    }
+  }
+
+  @Override
+  public void onShutdown() {
+    if (delegate instanceof LifecycleAware) {
+      ((LifecycleAware) delegate).onShutdown();
+    }
+  }
+
+  public EventHandler<ChangeEventHolder> getDelegate() {
+    return delegate;
+  }
+
+  public int getPartition() {
+    return partition;
+  }
+
+  /** Number of events of this partition handed over to the delegate. */
+  public long getProcessed() {
+    return processed.get();
+  }
+
+  @Override
+  public String toString() {
+    return "PartitionedEventHandler{" + delegate + ", partition=" + partition + "/" + partitions + '}';
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.events;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import org.openmetadata.catalog.jdbi3.CollectionDAO.ChangeEventDAO;
+
+/**
+ * Tracks up to which id change_event can be tailed. Ids are allocated before the rows are committed, so an id may
+ * become visible after a higher one. Only the ids allocated at least {@code settleMillis} ago are returned, which
+ * assumes inserts commit within that time.
+ */
+class SettledIdTracker {
+  private final ChangeEventDAO dao;
+  private final long settleMillis;
+  private final Deque<long[]> maxIdSnapshots = new ArrayDeque<>();
+
+  SettledIdTracker(ChangeEventDAO dao, long settleMillis) {
+    this.dao = dao;
+    this.settleMillis = settleMillis;
+  }
+
+  /** Highest id allocated at least settleMillis ago, not lower than {@code watermark}. Called on every poll. */
+  synchronized long getSettledMaxId(long watermark) {
+    long now = System.currentTimeMillis();
+    maxIdSnapshots.addLast(new long[] {now, dao.getMaxId()});
+    long settled = watermark;
+    while (!maxIdSnapshots.isEmpty() && maxIdSnapshots.peekFirst()[0] <= now - settleMillis) {
+      settled = Math.max(settled, maxIdSnapshots.pollFirst()[1]);
+    }
+    return settled;
+  }
+
+  synchronized void clear() {
+    maxIdSnapshots.clear();
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.events.segmentlog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Segment of the log: a memory-mapped log file holding the records and a sparse index file of (offset, position)
+ * entries. Both files are named after the offset of the first record of the segment and are preallocated, so that
+ * readers can map them at their final size.
+ */
+class Segment implements Closeable {
+  static final String LOG_SUFFIX = ".log";
+  static final String INDEX_SUFFIX = ".index";
+  static final int INDEX_ENTRY_BYTES = 12;
+
+  private final long baseOffset;
+  private final Path logFile;
+  private final Path indexFile;
+  private final MappedByteBuffer log;
+  private final MappedByteBuffer index;
+
+  private Segment(long baseOffset, Path logFile, Path indexFile, MappedByteBuffer log, MappedByteBuffer index) {
+    this.baseOffset = baseOffset;
+    this.logFile = logFile;
+    this.indexFile = indexFile;
+    this.log = log;
+    this.index = index;
+  }
+
+  /** Create a segment. The log file appears under its final name only once it is preallocated. */
+  static Segment create(Path directory, long baseOffset, int logBytes, int indexBytes) throws IOException {
+    Path indexFile = directory.resolve(getName(baseOffset) + INDEX_SUFFIX);
+    Path logFile = directory.resolve(getName(baseOffset) + LOG_SUFFIX);
+    Path tmpFile = directory.resolve(getName(baseOffset) + LOG_SUFFIX + ".tmp");
+    MappedByteBuffer index = map(indexFile, MapMode.READ_WRITE, indexBytes);
+    index.putLong(0, baseOffset).putInt(8, 0);
+    MappedByteBuffer log = map(tmpFile, MapMode.READ_WRITE, logBytes);
+    Files.move(tmpFile, logFile, StandardCopyOption.ATOMIC_MOVE);
+    return new Segment(baseOffset, logFile, indexFile, log, index);
+  }
+
+  /** Open an existing segment. */
+  static Segment open(Path directory, long baseOffset, boolean writable) throws IOException {
+    Path indexFile = directory.resolve(getName(baseOffset) + INDEX_SUFFIX);
+    Path logFile = directory.resolve(getName(baseOffset) + LOG_SUFFIX);
+    MapMode mode = writable ? MapMode.READ_WRITE : MapMode.READ_ONLY;
+    MappedByteBuffer log = map(logFile, mode, Files.size(logFile));
+    MappedByteBuffer index = map(indexFile, mode, Files.size(indexFile));
+    return new Segment(baseOffset, logFile, indexFile, log, index);
+  }
+
+  /** Base offsets of the segments in the directory in ascending order. */
+  static List<Long> list(Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .map(file -> file.getFileName().toString())
+          .filter(name -> name.endsWith(LOG_SUFFIX))
+          .map(name -> Long.parseLong(name.substring(0, name.length() - LOG_SUFFIX.length())))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  static String getName(long baseOffset) {
+    return String.format("%020d", baseOffset);
+  }
+
+  long getBaseOffset() {
+    return baseOffset;
+  }
+
+  Path getLogFile() {
+    return logFile;
+  }
+
+  MappedByteBuffer getLog() {
+    return log;
+  }
+
+  int getIndexCapacity() {
+    return index.capacity() / INDEX_ENTRY_BYTES;
+  }
+
+  void putIndexEntry(int entry, long offset, int position) {
+    index.putLong(entry * INDEX_ENTRY_BYTES, offset).putInt(entry * INDEX_ENTRY_BYTES + 8, position);
+  }
+
+  /** Position of the last indexed record with an offset not greater than the given offset. */
+  int lookup(long offset) {
+    int low = 0;
+    int high = getIndexEntries() - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (index.getLong(mid * INDEX_ENTRY_BYTES) <= offset) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return index.getInt(low * INDEX_ENTRY_BYTES + 8);
+  }
+
+  /** Entries written so far. Only the first entry has position 0, the rest of the index is zero filled. */
+  private int getIndexEntries() {
+    int entries = 1;
+    while (entries < getIndexCapacity() && index.getInt(entries * INDEX_ENTRY_BYTES + 8) > 0) {
+      entries++;
+    }
+    return entries;
+  }
+
+  void force() {
+    log.force();
+    index.force();
+  }
+
+  void delete() throws IOException {
+    Files.deleteIfExists(logFile);
+    Files.deleteIfExists(indexFile);
+  }
+
+  /** The mappings are released when the buffers are garbage collected. */
+  @Override
+  public void close() {}
+
+  private static MappedByteBuffer map(Path file, MapMode mode, long size) throws IOException {
+    StandardOpenOption[] options =
+        mode == MapMode.READ_ONLY
+            ? new StandardOpenOption[] {StandardOpenOption.READ}
+            : new StandardOpenOption[] {StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE};
+    try (FileChannel channel = FileChannel.open(file, options)) {
+      return channel.map(mode, 0, size);
+    }
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.events.segmentlog;
+
+import javax.validation.constraints.NotEmpty;
+
+/** Configuration of the {@link SegmentLogEventPublisher}. */
+public class SegmentLogConfiguration {
+  @NotEmpty private String directory;
+
+  private int segmentBytes = 64 * 1024 * 1024;
+
+  private int indexIntervalBytes = 4096;
+
+  private long retentionBytes = 1024L * 1024 * 1024; // 0 disables retention by size
+
+  private int retentionHours = 168; // 0 disables retention by age
+
+  public String getDirectory() {
+    return directory;
+  }
+
+  public void setDirectory(String directory) {
+    this.directory = directory;
+  }
+
+  public int getSegmentBytes() {
+    return segmentBytes;
+  }
+
+  public void setSegmentBytes(int segmentBytes) {
+    this.segmentBytes = segmentBytes;
+  }
+
+  public int getIndexIntervalBytes() {
+    return indexIntervalBytes;
+  }
+
+  public void setIndexIntervalBytes(int indexIntervalBytes) {
+    this.indexIntervalBytes = indexIntervalBytes;
+  }
+
+  public long getRetentionBytes() {
+    return retentionBytes;
+  }
+
+  public void setRetentionBytes(long retentionBytes) {
+    this.retentionBytes = retentionBytes;
+  }
+
+  public int getRetentionHours() {
+    return retentionHours;
+  }
+
+  public void setRetentionHours(int retentionHours) {
+    this.retentionHours = retentionHours;
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.events.segmentlog;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.openmetadata.catalog.events.AbstractEventPublisher;
+import org.openmetadata.catalog.events.errors.EventPublisherException;
+import org.openmetadata.catalog.resources.events.EventResource.ChangeEventList;
+import org.openmetadata.catalog.type.ChangeEvent;
+import org.openmetadata.catalog.util.JsonUtils;
+
+/**
+ * Appends the change events to a {@link SegmentLogWriter segment log} on the local disk, so that jobs on the same host
+ * can consume the changes with a {@link SegmentLogReader} without polling the REST API or running a message broker.
+ *
+ * <p>The publisher runs on the leader only, where the change events of all the servers are delivered. The log is
+ * therefore written on whichever host leads: when the leadership moves, the new leader continues in its own log and the
+ * readers must run on the leader's host to see the latest events. Run a single server when the readers need one
+ * complete log.
+ */
+@Slf4j
+public class SegmentLogEventPublisher extends AbstractEventPublisher {
+  private final SegmentLogConfiguration config;
+  private SegmentLogWriter writer;
+
+  public SegmentLogEventPublisher(SegmentLogConfiguration config) {
+    super(100, List.of());
+    this.config = config;
+  }
+
+  @Override
+  public void onStart() {
+    try {
+      writer = new SegmentLogWriter(config);
+      LOG.info("Segment log publisher started in {} at offset {}", config.getDirectory(), writer.getNextOffset());
+    } catch (IOException e) {
+      LOG.error("Failed to open the segment log in {}", config.getDirectory(), e);
+    }
+  }
+
+  @Override
+  public void onShutdown() {
+    if (writer != null) {
+      writer.close();
+      writer = null;
+    }
+  }
+
+  @Override
+  public void publish(ChangeEventList events) throws EventPublisherException {
+    if (writer == null) {
+      throw new EventPublisherException("Segment log in " + config.getDirectory() + " is not open");
+    }
+    List<ChangeEvent> pending = events.getData();
+    int appended = 0;
+    try {
+      for (ChangeEvent event : pending) {
+        long timestamp = event.getTimestamp() != null ? event.getTimestamp() : System.currentTimeMillis();
+        writer.append(timestamp, JsonUtils.pojoToJson(event).getBytes(StandardCharsets.UTF_8));
+        appended++;
+      }
+    } catch (IOException e) {
+      // Only the events not appended yet are published again
+      pending.subList(0, appended).clear();
+      throw new SegmentLogRetriableException(
+          "Failed to append " + pending.size() + " events to the segment log in " + config.getDirectory(), e);
+    }
+  }
+}
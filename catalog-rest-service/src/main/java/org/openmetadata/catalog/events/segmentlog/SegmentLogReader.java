@@ -0,0 +1,123 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.events.segmentlog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the segment log written by {@link SegmentLogWriter}, from the same host. Typical use by a consumer that stores
+ * the offset it has processed up to:
+ *
+ * <pre>
+ *   try (SegmentLogReader reader = new SegmentLogReader(directory)) {
+ *     reader.seek(processedOffset + 1);
+ *     while (running) {
+ *       List&lt;SegmentLogRecord&gt; records = reader.poll(100);
+ *       ...
+ *     }
+ *   }
+ * </pre>
+ *
+ * When the requested offset was deleted by retention, reading starts from the oldest record kept.
+ */
+public class SegmentLogReader implements Closeable {
+  private final Path directory;
+  private Segment segment;
+  private int position;
+  private long nextOffset;
+
+  public SegmentLogReader(Path directory) {
+    this.directory = directory;
+  }
+
+  /** Position the reader at the first record with an offset greater than or equal to the given offset. */
+  public synchronized void seek(long offset) throws IOException {
+    close();
+    nextOffset = offset;
+    List<Long> segments = Segment.list(directory);
+    if (segments.isEmpty()) {
+      return;
+    }
+    long baseOffset = segments.get(0);
+    for (long segmentOffset : segments) {
+      if (segmentOffset <= offset) {
+        baseOffset = segmentOffset;
+      }
+    }
+    segment = Segment.open(directory, baseOffset, false);
+    position = segment.lookup(offset);
+    SegmentLogRecord record;
+    while ((record = SegmentLogRecord.read(segment.getLog(), position)) != null && record.getOffset() < offset) {
+      position += record.size();
+    }
+    nextOffset = Math.max(offset, baseOffset);
+  }
+
+  /** Read up to {@code maxRecords} records. Returns an empty list when no new record has been written. */
+  public synchronized List<SegmentLogRecord> poll(int maxRecords) throws IOException {
+    List<SegmentLogRecord> records = new ArrayList<>();
+    if (segment == null) {
+      seek(nextOffset);
+      if (segment == null) {
+        return records;
+      }
+    }
+    while (records.size() < maxRecords) {
+      SegmentLogRecord record = SegmentLogRecord.read(segment.getLog(), position);
+      if (record == null) {
+        Long next = getNextSegment();
+        if (next == null) {
+          break;
+        }
+        // The writer moves to the next segment only after the last record of this one is written
+        record = SegmentLogRecord.read(segment.getLog(), position);
+        if (record == null) {
+          segment.close();
+          segment = Segment.open(directory, next, false);
+          position = 0;
+          continue;
+        }
+      }
+      records.add(record);
+      position += record.size();
+      nextOffset = record.getOffset() + 1;
+    }
+    return records;
+  }
+
+  /** Offset of the next record to be read. */
+  public synchronized long getNextOffset() {
+    return nextOffset;
+  }
+
+  @Override
+  public synchronized void close() {
+    if (segment != null) {
+      segment.close();
+      segment = null;
+    }
+  }
+
+  private Long getNextSegment() throws IOException {
+    for (long baseOffset : Segment.list(directory)) {
+      if (baseOffset > segment.getBaseOffset()) {
+        return baseOffset;
+      }
+    }
+    return null;
+  }
+}
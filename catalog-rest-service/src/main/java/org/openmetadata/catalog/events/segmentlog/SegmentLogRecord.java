@@ -0,0 +1,102 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.events.segmentlog;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Record of the segment log. A record is stored as a header followed by the payload:
+ *
+ * <pre>
+ *   int  length     length of the payload in bytes
+ *   int  crc        CRC32 of offset, timestamp and payload
+ *   long offset     offset of the record in the log
+ *   long timestamp  time of the change event in milliseconds
+ *   byte[length]    change event as UTF-8 JSON
+ * </pre>
+ *
+ * Segments are preallocated and zero filled, so a zero length marks the end of the records written so far. The crc
+ * guards against reading a record that is only partially written.
+ */
+public class SegmentLogRecord {
+  static final int HEADER_BYTES = 24;
+
+  private final long offset;
+  private final long timestamp;
+  private final byte[] payload;
+
+  SegmentLogRecord(long offset, long timestamp, byte[] payload) {
+    this.offset = offset;
+    this.timestamp = timestamp;
+    this.payload = payload;
+  }
+
+  public long getOffset() {
+    return offset;
+  }
+
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  public byte[] getPayload() {
+    return payload;
+  }
+
+  /** Change event as JSON. */
+  public String getJson() {
+    return new String(payload, StandardCharsets.UTF_8);
+  }
+
+  int size() {
+    return HEADER_BYTES + payload.length;
+  }
+
+  /** Write the record at the current position of the buffer. The length is written last. */
+  void write(ByteBuffer buffer) {
+    int position = buffer.position();
+    buffer.putLong(position + 8, offset).putLong(position + 16, timestamp);
+    buffer.position(position + HEADER_BYTES);
+    buffer.put(payload);
+    buffer.putInt(position + 4, crc(offset, timestamp, payload));
+    buffer.putInt(position, payload.length);
+  }
+
+  /** Read the record at the given position, or null when no complete record is there. */
+  static SegmentLogRecord read(ByteBuffer buffer, int position) {
+    if (position + HEADER_BYTES > buffer.limit()) {
+      return null;
+    }
+    int length = buffer.getInt(position);
+    if (length <= 0 || position + HEADER_BYTES + length > buffer.limit()) {
+      return null;
+    }
+    long offset = buffer.getLong(position + 8);
+    long timestamp = buffer.getLong(position + 16);
+    byte[] payload = new byte[length];
+    buffer.duplicate().position(position + HEADER_BYTES).get(payload);
+    if (buffer.getInt(position + 4) != crc(offset, timestamp, payload)) {
+      return null;
+    }
+    return new SegmentLogRecord(offset, timestamp, payload);
+  }
+
+  private static int crc(long offset, long timestamp, byte[] payload) {
+    CRC32 crc = new CRC32();
+    crc.update(ByteBuffer.allocate(16).putLong(offset).putLong(timestamp).array());
+    crc.update(payload);
+    return (int) crc.getValue();
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.events.segmentlog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Appends records to the segment log in a directory. Records are written to the memory-mapped active segment, which
+ * makes them visible to the readers on the same host without any system call. When a record does not fit in the active
+ * segment a new segment is started. Old segments are deleted past the retention size or age.
+ *
+ * <p>Pages are written back to disk by the operating system, or on {@link #flush()}. On restart the active segment is
+ * scanned to find the end of the complete records.
+ */
+@Slf4j
+public class SegmentLogWriter implements Closeable {
+  private static final long RETENTION_CHECK_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+  private final Path directory;
+  private final SegmentLogConfiguration config;
+  private Segment active;
+  private int position;
+  private int indexEntries;
+  private int bytesSinceIndex;
+  private long nextOffset;
+  private long lastRetentionCheck;
+
+  public SegmentLogWriter(SegmentLogConfiguration config) throws IOException {
+    this.config = config;
+    this.directory = Paths.get(config.getDirectory());
+    Files.createDirectories(directory);
+    List<Long> segments = Segment.list(directory);
+    if (segments.isEmpty()) {
+      roll(0);
+    } else {
+      recover(segments.get(segments.size() - 1));
+    }
+  }
+
+  /** Append a record and return its offset. */
+  public synchronized long append(long timestamp, byte[] payload) throws IOException {
+    SegmentLogRecord record = new SegmentLogRecord(nextOffset, timestamp, payload);
+    if (record.size() > config.getSegmentBytes()) {
+      throw new IOException(
+          String.format(
+              "Record of %d bytes is larger than the segment size %d", record.size(), config.getSegmentBytes()));
+    }
+    if (position + record.size() > config.getSegmentBytes()) {
+      roll(nextOffset);
+    }
+    index(record.getOffset());
+    active.getLog().position(position);
+    record.write(active.getLog());
+    position += record.size();
+    bytesSinceIndex += record.size();
+    if (System.currentTimeMillis() - lastRetentionCheck > RETENTION_CHECK_MILLIS) {
+      applyRetention();
+    }
+    return nextOffset++;
+  }
+
+  public synchronized long getNextOffset() {
+    return nextOffset;
+  }
+
+  /** Write the active segment back to disk. */
+  public synchronized void flush() {
+    active.force();
+  }
+
+  @Override
+  public synchronized void close() {
+    flush();
+    active.close();
+  }
+
+  /** Delete the oldest segments past the retention size or age. The active segment is never deleted. */
+  synchronized void applyRetention() throws IOException {
+    lastRetentionCheck = System.currentTimeMillis();
+    List<Long> segments = Segment.list(directory);
+    long totalBytes = 0;
+    for (long baseOffset : segments) {
+      totalBytes += Files.size(directory.resolve(Segment.getName(baseOffset) + Segment.LOG_SUFFIX));
+    }
+    long cutoff = lastRetentionCheck - TimeUnit.HOURS.toMillis(config.getRetentionHours());
+    for (long baseOffset : segments.subList(0, segments.size() - 1)) {
+      Path logFile = directory.resolve(Segment.getName(baseOffset) + Segment.LOG_SUFFIX);
+      boolean overSize = config.getRetentionBytes() > 0 && totalBytes > config.getRetentionBytes();
+      boolean expired = config.getRetentionHours() > 0 && Files.getLastModifiedTime(logFile).toMillis() < cutoff;
+      if (!overSize && !expired) {
+        break;
+      }
+      totalBytes -= Files.size(logFile);
+      Segment.open(directory, baseOffset, false).delete();
+      LOG.info("Deleted segment {} of the change event log", logFile);
+    }
+  }
+
+  private void roll(long baseOffset) throws IOException {
+    if (active != null) {
+      active.force();
+      active.close();
+      // Mapped writes don't reliably update the modification time used for retention by age
+      Files.setLastModifiedTime(active.getLogFile(), FileTime.fromMillis(System.currentTimeMillis()));
+    }
+    int indexBytes = (config.getSegmentBytes() / config.getIndexIntervalBytes() + 1) * Segment.INDEX_ENTRY_BYTES;
+    active = Segment.create(directory, baseOffset, config.getSegmentBytes(), indexBytes);
+    position = 0;
+    indexEntries = 1; // The first entry points to the start of the segment
+    bytesSinceIndex = 0;
+    nextOffset = baseOffset;
+    applyRetention();
+  }
+
+  private void recover(long baseOffset) throws IOException {
+    active = Segment.open(directory, baseOffset, true);
+    position = 0;
+    indexEntries = 1;
+    bytesSinceIndex = 0;
+    nextOffset = baseOffset;
+    SegmentLogRecord record;
+    while ((record = SegmentLogRecord.read(active.getLog(), position)) != null) {
+      index(record.getOffset());
+      position += record.size();
+      bytesSinceIndex += record.size();
+      nextOffset = record.getOffset() + 1;
+    }
+    // Clear the header of a record that was partially written when the server stopped
+    if (position + SegmentLogRecord.HEADER_BYTES <= active.getLog().capacity()) {
+      active.getLog().putInt(position, 0);
+    }
+    LOG.info("Recovered the change event log segment {} up to offset {}", active.getLogFile(), nextOffset);
+    applyRetention();
+  }
+
+  private void index(long offset) {
+    if (position > 0 && bytesSinceIndex >= config.getIndexIntervalBytes() && indexEntries < active.getIndexCapacity()) {
+      active.putIndexEntry(indexEntries++, offset, position);
+      bytesSinceIndex = 0;
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.http;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import io.dropwizard.lifecycle.Managed;
+import java.io.IOException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
+import java.nio.channels.UnresolvedAddressException;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * HTTP client shared by all the outbound calls of the server, such as webhooks, Slack and Airflow. A single {@link
+ * HttpClient} keeps one pool of keep-alive connections, so connections and TLS sessions are reused across publishers
+ * instead of each publisher opening its own. HTTP/2 is negotiated when the endpoint supports it.
+ *
+ * <p>The number of concurrent requests to a host, and therefore of HTTP/1.1 connections to it, is limited to {@code
+ * maxConnectionsPerHost}. Requests over the limit wait up to their timeout for a slot.
+ */
+@Slf4j
+public class OutboundHttpClient implements Managed {
+  private static volatile OutboundHttpClient instance;
+
+  private final OutboundHttpClientConfiguration config;
+  private final ExecutorService executor;
+  private final HttpClient client;
+  private final ConcurrentHashMap<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+  private final Timer requests;
+  private final Meter failures;
+  private final Meter rejected;
+  private final Meter[] responses = new Meter[6];
+
+  private OutboundHttpClient(OutboundHttpClientConfiguration config, MetricRegistry metrics) {
+    this.config = config;
+    this.executor = Executors.newFixedThreadPool(config.getThreads(), DaemonThreadFactory.INSTANCE);
+    this.client =
+        HttpClient.newBuilder()
+            .version(config.getVersion())
+            .connectTimeout(Duration.ofSeconds(config.getConnectTimeoutSeconds()))
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .executor(executor)
+            .build();
+    MetricRegistry registry = metrics != null ? metrics : new MetricRegistry();
+    this.requests = registry.timer(MetricRegistry.name(OutboundHttpClient.class, "requests"));
+    this.failures = registry.meter(MetricRegistry.name(OutboundHttpClient.class, "failures"));
+    this.rejected = registry.meter(MetricRegistry.name(OutboundHttpClient.class, "rejected"));
+    for (int i = 1; i < responses.length; i++) {
+      responses[i] = registry.meter(MetricRegistry.name(OutboundHttpClient.class, "responses", i + "xx"));
+    }
+    registry.register(MetricRegistry.name(OutboundHttpClient.class, "hosts"), (Gauge<Integer>) hostPermits::size);
+  }
+
+  /** Create the shared client. Called once at startup before the publishers are created. */
+  public static synchronized OutboundHttpClient initialize(
+      OutboundHttpClientConfiguration config, MetricRegistry metrics) {
+    if (instance == null) {
+      instance = new OutboundHttpClient(config, metrics);
+    }
+    return instance;
+  }
+
+  /** The shared client, created with the default configuration when the server did not initialize it. */
+  public static OutboundHttpClient getInstance() {
+    OutboundHttpClient client = instance;
+    return client != null ? client : initialize(new OutboundHttpClientConfiguration(), null);
+  }
+
+  @Override
+  public void start() {
+    LOG.info(
+        "Outbound HTTP client started with {} and up to {} connections per host",
+        config.getVersion(),
+        config.getMaxConnectionsPerHost());
+  }
+
+  @Override
+  public void stop() throws InterruptedException {
+    executor.shutdownNow();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+  }
+
+  /** Request builder for the given url with the default request timeout. */
+  public HttpRequest.Builder newRequest(String url) {
+    return HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(config.getRequestTimeoutSeconds()));
+  }
+
+  public <T> HttpResponse<T> send(HttpRequest request, BodyHandler<T> bodyHandler)
+      throws IOException, InterruptedException {
+    Semaphore permits = getPermits(request.uri());
+    long timeoutMillis = request.timeout().orElse(Duration.ofSeconds(config.getRequestTimeoutSeconds())).toMillis();
+    if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+      rejected.mark();
+      throw new IOException("Too many concurrent requests to " + request.uri().getHost());
+    }
+    try (Timer.Context ignored = requests.time()) {
+      HttpResponse<T> response = client.send(request, bodyHandler);
+      int statusClass = response.statusCode() / 100;
+      if (statusClass > 0 && statusClass < responses.length) {
+        responses[statusClass].mark();
+      }
+      return response;
+    } catch (IOException e) {
+      failures.mark();
+      throw e;
+    } finally {
+      permits.release();
+    }
+  }
+
+  /** True when the request failed because the host name could not be resolved. */
+  public static boolean isUnknownHost(Throwable e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof UnknownHostException || cause instanceof UnresolvedAddressException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private Semaphore getPermits(URI uri) {
+    String host = uri.getHost() + ":" + uri.getPort();
+    return hostPermits.computeIfAbsent(host, h -> new Semaphore(config.getMaxConnectionsPerHost()));
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.http;
+
+import java.net.http.HttpClient;
+
+/** Configuration of the {@link OutboundHttpClient} shared by the webhook, Slack and Airflow clients. */
+public class OutboundHttpClientConfiguration {
+  private HttpClient.Version version = HttpClient.Version.HTTP_2; // Falls back to HTTP/1.1 when not supported
+
+  private int connectTimeoutSeconds = 10;
+
+  private int requestTimeoutSeconds = 12;
+
+  private int maxConnectionsPerHost = 20;
+
+  /**
+   * Idle time after which the pooled connections are closed. This is the process wide {@code
+   * jdk.httpclient.keepalive.timeout} system property, set at startup, and applies to every {@link HttpClient} of the
+   * server.
+   */
+  private int keepAliveSeconds = 60;
+
+  /**
+   * How long the JVM caches successful DNS lookups. This is the process wide {@code networkaddress.cache.ttl} security
+   * property and applies to all the connections of the server, including the database and Elasticsearch ones. It is
+   * only set when configured, before the first lookup, and the JVM default is kept otherwise.
+   */
+  private Integer dnsCacheTtlSeconds;
+
+  private int threads = 8;
+
+  public HttpClient.Version getVersion() {
+    return version;
+  }
+
+  public void setVersion(HttpClient.Version version) {
+    this.version = version;
+  }
+
+  public int getConnectTimeoutSeconds() {
+    return connectTimeoutSeconds;
+  }
+
+  public void setConnectTimeoutSeconds(int connectTimeoutSeconds) {
+    this.connectTimeoutSeconds = connectTimeoutSeconds;
+  }
+
+  public int getRequestTimeoutSeconds() {
+    return requestTimeoutSeconds;
+  }
+
+  public void setRequestTimeoutSeconds(int requestTimeoutSeconds) {
+    this.requestTimeoutSeconds = requestTimeoutSeconds;
+  }
+
+  public int getMaxConnectionsPerHost() {
+    return maxConnectionsPerHost;
+  }
+
+  public void setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+    this.maxConnectionsPerHost = maxConnectionsPerHost;
+  }
+
+  public int getKeepAliveSeconds() {
+    return keepAliveSeconds;
+  }
+
+  public void setKeepAliveSeconds(int keepAliveSeconds) {
+    this.keepAliveSeconds = keepAliveSeconds;
+  }
+
+  public Integer getDnsCacheTtlSeconds() {
+    return dnsCacheTtlSeconds;
+  }
+
+  public void setDnsCacheTtlSeconds(Integer dnsCacheTtlSeconds) {
+    this.dnsCacheTtlSeconds = dnsCacheTtlSeconds;
+  }
+
+  public int getThreads() {
+    return threads;
+  }
+
+  public void setThreads(int threads) {
+    this.threads = threads;
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.jdbi3;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.openmetadata.catalog.jdbi3.CollectionDAO.EventRecord;
+import org.openmetadata.catalog.resources.events.AuditLogResource.AuditLogList;
+import org.openmetadata.catalog.type.AuditLog;
+import org.openmetadata.catalog.util.JsonUtils;
+import org.openmetadata.catalog.util.ResultList;
+import org.openmetadata.common.utils.CipherText;
+
+public class AuditLogRepository {
+  private final CollectionDAO dao;
+
+  public AuditLogRepository(CollectionDAO dao) {
+    this.dao = dao;
+  }
+
+  /**
+   * List a page of audit logs between {@code startTs} and {@code endTs}, ordered by (timestamp, id). The following
+   * pages start after the {@code after} cursor returned with the previous page.
+   */
+  public ResultList<AuditLog> list(
+      UUID entityId, String entityType, String userName, long startTs, long endTs, int limit, String after)
+      throws IOException, GeneralSecurityException {
+    long[] position =
+        after == null
+            ? new long[] {startTs, 0}
+            : ChangeEventRepository.decodeCursor(CipherText.instance().decrypt(after));
+
+    // Get one extra result to know if there is a next page
+    List<EventRecord> records =
+        dao.auditLogDAO()
+            .listAfter(
+                entityId == null ? null : entityId.toString(),
+                entityType,
+                userName,
+                endTs,
+                position[0],
+                position[1],
+                limit + 1);
+    String afterCursor = null;
+    if (records.size() > limit) {
+      records = records.subList(0, limit);
+      EventRecord last = records.get(limit - 1);
+      afterCursor = ChangeEventRepository.encodeCursor(last.getEventTime(), last.getId());
+    }
+
+    List<AuditLog> auditLogs = new ArrayList<>();
+    for (EventRecord record : records) {
+      auditLogs.add(JsonUtils.readValue(record.getJson(), AuditLog.class));
+    }
+    return new AuditLogList(auditLogs, null, afterCursor, auditLogs.size());
+  }
+}
@@ -21,34 +21,121 @@ import static org.openmetadata.catalog.type.EventType.ENTITY_UPDATED;
 import java.io.IOException;
 import java.security.GeneralSecurityException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import org.jdbi.v3.sqlobject.transaction.Transaction;
+import java.util.Map;
+import org.openmetadata.catalog.jdbi3.CollectionDAO.ChangeEventDAO;
+import org.openmetadata.catalog.jdbi3.CollectionDAO.EventRecord;
 import org.openmetadata.catalog.resources.events.EventResource.ChangeEventList;
 import org.openmetadata.catalog.type.ChangeEvent;
+import org.openmetadata.catalog.type.EventType;
 import org.openmetadata.catalog.util.JsonUtils;
 import org.openmetadata.catalog.util.ResultList;
+import org.openmetadata.common.utils.CipherText;
 
 public class ChangeEventRepository {
+  /** Number of rows read per query when streaming change events. */
+  private static final int STREAM_PAGE_SIZE = 1000;
+
   private final CollectionDAO dao;
 
   public ChangeEventRepository(CollectionDAO dao) {
     this.dao = dao;
   }
 
-  @Transaction
+  /** Consumer of the change events read from change_event in (eventTime, id) order. */
+  public interface EventRecordConsumer {
+    void accept(EventRecord record) throws IOException;
+  }
+
+  /**
+   * List a page of change events. Events are ordered by (eventTime, id). The first page starts at {@code timestamp} and
+   * the following pages start after the {@code after} cursor returned with the previous page.
+   */
   public ResultList<ChangeEvent> list(
-      long timestamp, List<String> entityCreatedList, List<String> entityUpdatedList, List<String> entityDeletedList)
+      long timestamp,
+      List<String> entityCreatedList,
+      List<String> entityUpdatedList,
+      List<String> entityDeletedList,
+      int limit,
+      String after)
       throws IOException, GeneralSecurityException {
-    List<String> jsons = new ArrayList<>();
-    jsons.addAll(dao.changeEventDAO().list(ENTITY_CREATED.value(), entityCreatedList, timestamp));
-    jsons.addAll(dao.changeEventDAO().list(ENTITY_UPDATED.value(), entityUpdatedList, timestamp));
-    jsons.addAll(dao.changeEventDAO().list(ENTITY_DELETED.value(), entityDeletedList, timestamp));
-    jsons.addAll(dao.changeEventDAO().list(ENTITY_SOFT_DELETED.value(), entityDeletedList, timestamp));
+    String eventFilter = getEventFilter(entityCreatedList, entityUpdatedList, entityDeletedList);
+    long[] position = after == null ? new long[] {timestamp, 0} : decodeCursor(CipherText.instance().decrypt(after));
+
+    // Get one extra result to know if there is a next page
+    List<EventRecord> records = dao.changeEventDAO().listAfter(eventFilter, position[0], position[1], limit + 1);
+    String afterCursor = null;
+    if (records.size() > limit) {
+      records = records.subList(0, limit);
+      EventRecord last = records.get(limit - 1);
+      afterCursor = encodeCursor(last.getEventTime(), last.getId());
+    }
 
     List<ChangeEvent> changeEvents = new ArrayList<>();
-    for (String json : jsons) {
-      changeEvents.add(JsonUtils.readValue(json, ChangeEvent.class));
+    for (EventRecord record : records) {
+      changeEvents.add(JsonUtils.readValue(record.getJson(), ChangeEvent.class));
+    }
+    return new ChangeEventList(changeEvents, null, afterCursor, changeEvents.size());
+  }
+
+  /**
+   * Stream all the change events starting at {@code timestamp} page by page, so that only one page of events is held in
+   * memory irrespective of how many events match.
+   */
+  public void stream(
+      long timestamp,
+      List<String> entityCreatedList,
+      List<String> entityUpdatedList,
+      List<String> entityDeletedList,
+      EventRecordConsumer consumer)
+      throws IOException {
+    stream(timestamp, getEventFilter(entityCreatedList, entityUpdatedList, entityDeletedList), consumer);
+  }
+
+  /** Stream all the change events starting at {@code timestamp} for the requested entity types per event type. */
+  public void stream(long timestamp, Map<EventType, List<String>> entityTypesByEventType, EventRecordConsumer consumer)
+      throws IOException {
+    stream(timestamp, ChangeEventDAO.getEventFilter(entityTypesByEventType), consumer);
+  }
+
+  private void stream(long timestamp, String eventFilter, EventRecordConsumer consumer) throws IOException {
+    long eventTime = timestamp;
+    long id = 0;
+    List<EventRecord> records;
+    do {
+      records = dao.changeEventDAO().listAfter(eventFilter, eventTime, id, STREAM_PAGE_SIZE);
+      for (EventRecord record : records) {
+        consumer.accept(record);
+        eventTime = record.getEventTime();
+        id = record.getId();
+      }
+    } while (records.size() == STREAM_PAGE_SIZE);
+  }
+
+  private static String getEventFilter(
+      List<String> entityCreatedList, List<String> entityUpdatedList, List<String> entityDeletedList) {
+    Map<EventType, List<String>> filter = new LinkedHashMap<>();
+    filter.put(ENTITY_CREATED, entityCreatedList);
+    filter.put(ENTITY_UPDATED, entityUpdatedList);
+    filter.put(ENTITY_DELETED, entityDeletedList);
+    filter.put(ENTITY_SOFT_DELETED, entityDeletedList);
+    return ChangeEventDAO.getEventFilter(filter);
+  }
+
+  static String encodeCursor(long eventTime, long id) {
+    return eventTime + ":" + id;
+  }
+
+  static long[] decodeCursor(String cursor) {
+    String[] parts = cursor.split(":");
+    if (parts.length != 2) {
+      throw new IllegalArgumentException("Invalid cursor " + cursor);
+    }
+    try {
+      return new long[] {Long.parseLong(parts[0]), Long.parseLong(parts[1])};
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid cursor " + cursor);
     }
-    return new ChangeEventList(changeEvents, null, null, changeEvents.size()); // TODO
   }
 }
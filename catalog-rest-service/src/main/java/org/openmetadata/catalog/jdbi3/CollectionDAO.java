@@ -17,16 +17,21 @@ import static org.openmetadata.catalog.util.EntityUtil.toBoolean;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import org.jdbi.v3.core.mapper.RowMapper;
 import org.jdbi.v3.core.statement.StatementContext;
 import org.jdbi.v3.sqlobject.CreateSqlObject;
+import org.jdbi.v3.sqlobject.config.KeyColumn;
 import org.jdbi.v3.sqlobject.config.RegisterRowMapper;
+import org.jdbi.v3.sqlobject.config.ValueColumn;
 import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.customizer.BindBeanList;
 import org.jdbi.v3.sqlobject.customizer.BindList;
 import org.jdbi.v3.sqlobject.customizer.Define;
+import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
 import org.openmetadata.catalog.entity.Bots;
@@ -75,6 +80,7 @@ import org.openmetadata.catalog.jdbi3.UserRepository.UserEntityInterface;
 import org.openmetadata.catalog.jdbi3.WebhookRepository.WebhookEntityInterface;
 import org.openmetadata.catalog.operations.pipelines.AirflowPipeline;
 import org.openmetadata.catalog.type.EntityReference;
+import org.openmetadata.catalog.type.EventType;
 import org.openmetadata.catalog.type.Include;
 import org.openmetadata.catalog.type.TagLabel;
 import org.openmetadata.catalog.type.UsageDetails;
@@ -167,6 +173,12 @@ public interface CollectionDAO {
   @CreateSqlObject
   ChangeEventDAO changeEventDAO();
 
+  @CreateSqlObject
+  AuditLogDAO auditLogDAO();
+
+  @CreateSqlObject
+  LeaderLeaseDAO leaderLeaseDAO();
+
   @CreateSqlObject
   WebhookDAO webhookDAO();
 
@@ -433,6 +445,39 @@ public interface CollectionDAO {
         @Bind("fromEntity") String fromEntity,
         @Bind("deleted") Boolean deleted);
 
+    /** Relationships to any of the given entities, one query for a whole level of a graph walk. */
+    @SqlQuery(
+        "SELECT fromId, toId, fromEntity, toEntity FROM entity_relationship "
+            + "WHERE toId IN (<toIds>) AND relation = :relation "
+            + "AND (deleted = :deleted OR :deleted IS NULL) "
+            + "ORDER BY toId, fromId")
+    @RegisterRowMapper(EntityRelationMapper.class)
+    List<EntityRelation> findFromAll(
+        @BindList("toIds") List<String> toIds, @Bind("relation") int relation, @Bind("deleted") Boolean deleted);
+
+    /** Relationships from any of the given entities, one query for a whole level of a graph walk. */
+    @SqlQuery(
+        "SELECT fromId, toId, fromEntity, toEntity FROM entity_relationship "
+            + "WHERE fromId IN (<fromIds>) AND relation = :relation "
+            + "AND (deleted = :deleted OR :deleted IS NULL) "
+            + "ORDER BY fromId, toId")
+    @RegisterRowMapper(EntityRelationMapper.class)
+    List<EntityRelation> findToAll(
+        @BindList("fromIds") List<String> fromIds, @Bind("relation") int relation, @Bind("deleted") Boolean deleted);
+
+    /** Keyset scan, by from and to id, over the relationships of a kind that are not deleted. */
+    @SqlQuery(
+        "SELECT fromId, toId, fromEntity, toEntity FROM entity_relationship "
+            + "WHERE relation = :relation AND deleted = FALSE "
+            + "AND (fromId > :afterFromId OR (fromId = :afterFromId AND toId > :afterToId)) "
+            + "ORDER BY fromId, toId LIMIT :limit")
+    @RegisterRowMapper(EntityRelationMapper.class)
+    List<EntityRelation> listAfter(
+        @Bind("relation") int relation,
+        @Bind("afterFromId") String afterFromId,
+        @Bind("afterToId") String afterToId,
+        @Bind("limit") int limit);
+
     //
     // Delete Operations
     //
@@ -909,6 +954,9 @@ public interface CollectionDAO {
     default EntityReference getEntityReference(Webhook entity) {
       return new WebhookEntityInterface(entity).getEntityReference();
     }
+
+    @SqlQuery("SELECT json FROM webhook_entity")
+    List<String> listAll();
   }
 
   @RegisterRowMapper(TagLabelMapper.class)
@@ -1083,6 +1131,15 @@ public interface CollectionDAO {
             + "WHERE usageDate IN (SELECT MAX(usageDate) FROM entity_usage WHERE id = :id) AND id = :id")
     UsageDetails getLatestUsage(@Bind("id") String id);
 
+    /** Monthly usage count of the latest usage record of every entity, by entity id */
+    @SqlQuery(
+        "SELECT u.id, u.count30 FROM entity_usage u JOIN "
+            + "(SELECT id, MAX(usageDate) AS usageDate FROM entity_usage GROUP BY id) latest "
+            + "ON u.id = latest.id AND u.usageDate = latest.usageDate")
+    @KeyColumn("id")
+    @ValueColumn("count30")
+    Map<String, Integer> listLatestMonthlyCounts();
+
     @SqlUpdate("DELETE FROM entity_usage WHERE id = :id")
     int delete(@Bind("id") String id);
 
@@ -1106,6 +1163,9 @@ public interface CollectionDAO {
             + " ROUND(p30*100/total, 2)")
     void computePercentile(@Bind("entityType") String entityType, @Bind("date") String date);
 
+    @SqlQuery("SELECT DISTINCT entityType FROM entity_usage WHERE usageDate = :date")
+    List<String> listEntityTypes(@Bind("date") String date);
+
     class UsageDetailsMapper implements RowMapper<UsageDetails> {
       @Override
       public UsageDetails map(ResultSet r, StatementContext ctx) throws SQLException {
@@ -1230,29 +1290,342 @@ public interface CollectionDAO {
     @SqlUpdate("INSERT INTO change_event (json) VALUES (:json)")
     void insert(@Bind("json") String json);
 
-    default List<String> list(String eventType, List<String> entityTypes, long timestamp) {
-      if (entityTypes == null) {
-        return Collections.emptyList();
+    /** Insert change events recorded by the server {@code origin} with a multi-row insert. */
+    default void insertAll(String origin, List<String> jsons) {
+      List<EventRow> rows = new ArrayList<>(jsons.size());
+      for (String json : jsons) {
+        rows.add(new EventRow(origin, json));
+      }
+      insertRows(rows);
+    }
+
+    @SqlUpdate("INSERT INTO change_event (origin, json) VALUES <rows>")
+    void insertRows(
+        @BindBeanList(
+                value = "rows",
+                propertyNames = {"origin", "json"})
+            List<EventRow> rows);
+
+    /** Insert a change event recorded by the server {@code origin} and return its id. */
+    @SqlUpdate("INSERT INTO change_event (origin, json) VALUES (:origin, :json)")
+    @GetGeneratedKeys("id")
+    long insert(@Bind("origin") String origin, @Bind("json") String json);
+
+    @SqlQuery("SELECT COALESCE(MAX(id), 0) FROM change_event")
+    long getMaxId();
+
+    @SqlQuery("SELECT id, eventTime, json FROM change_event WHERE id IN (<ids>) ORDER BY id")
+    @RegisterRowMapper(EventRecordMapper.class)
+    List<EventRecord> listByIds(@BindList("ids") List<Long> ids);
+
+    /**
+     * Change events after the given id, up to {@code maxId}, in id order. The json of the events recorded by the server
+     * {@code origin} with an id above {@code originAfterId} is not returned.
+     */
+    @SqlQuery(
+        "SELECT id, eventTime, CASE WHEN origin = :origin AND id > :originAfterId THEN NULL ELSE json END AS json "
+            + "FROM change_event WHERE id > :id AND id <= :maxId ORDER BY id LIMIT :limit")
+    @RegisterRowMapper(EventRecordMapper.class)
+    List<EventRecord> listOthersAfter(
+        @Bind("origin") String origin,
+        @Bind("originAfterId") long originAfterId,
+        @Bind("id") long id,
+        @Bind("maxId") long maxId,
+        @Bind("limit") int limit);
+
+    /** Entities changed after the given id, up to {@code maxId}, in id order. */
+    @SqlQuery(
+        "SELECT id, entityType, entityId FROM change_event WHERE id > :id AND id <= :maxId ORDER BY id LIMIT :limit")
+    @RegisterRowMapper(EntityChangeMapper.class)
+    List<EntityChange> listEntityChangesAfter(@Bind("id") long id, @Bind("maxId") long maxId, @Bind("limit") int limit);
+
+    /**
+     * Build the filter on change_event for the requested entity types per event type. Entity types are validated
+     * against the entity registry and event types are enum values, so they can be inlined in the query. When no entity
+     * type is requested for any event type, the filter matches nothing.
+     */
+    static String getEventFilter(Map<EventType, List<String>> entityTypesByEventType) {
+      List<String> conditions = new ArrayList<>();
+      for (Map.Entry<EventType, List<String>> entry : entityTypesByEventType.entrySet()) {
+        List<String> entityTypes = entry.getValue();
+        if (entityTypes == null) {
+          continue;
+        }
+        String condition = "eventType = '" + entry.getKey().value() + "'";
+        if (!entityTypes.get(0).equals("*")) {
+          condition += " AND entityType IN ('" + String.join("','", entityTypes) + "')";
+        }
+        conditions.add("(" + condition + ")");
       }
-      if (entityTypes.get(0).equals("*")) {
-        return listWithoutEntityFilter(eventType, timestamp);
+      return conditions.isEmpty() ? "FALSE" : String.join(" OR ", conditions);
+    }
+
+    /** Keyset pagination on (eventTime, id) that uses the (eventType, entityType, eventTime) index. */
+    @SqlQuery(
+        "SELECT id, eventTime, json FROM change_event WHERE (<eventFilter>) AND "
+            + "(eventTime > :eventTime OR (eventTime = :eventTime AND id > :id)) "
+            + "ORDER BY eventTime, id LIMIT :limit")
+    @RegisterRowMapper(EventRecordMapper.class)
+    List<EventRecord> listAfter(
+        @Define("eventFilter") String eventFilter,
+        @Bind("eventTime") long eventTime,
+        @Bind("id") long id,
+        @Bind("limit") int limit);
+
+    /** Names of the daily partitions of change_event in ascending order, excluding the catch all p_future partition. */
+    @SqlQuery(
+        "SELECT PARTITION_NAME FROM information_schema.PARTITIONS WHERE TABLE_SCHEMA = DATABASE() AND "
+            + "TABLE_NAME = 'change_event' AND PARTITION_NAME IS NOT NULL AND PARTITION_NAME != 'p_future' "
+            + "ORDER BY PARTITION_ORDINAL_POSITION")
+    List<String> listPartitions();
+
+    /** Split p_future into the given partitions followed by a new p_future. */
+    @SqlUpdate("ALTER TABLE change_event REORGANIZE PARTITION p_future INTO (<partitions>)")
+    void addPartitions(@Define("partitions") String partitions);
+
+    @SqlUpdate("ALTER TABLE change_event DROP PARTITION <partitions>")
+    void dropPartitions(@Define("partitions") String partitions);
+
+    /** Ids of events older than the cutoff for which a newer event of the same entity exists. */
+    @SqlQuery(
+        "SELECT c.id FROM change_event c WHERE c.eventTime < :cutoff AND EXISTS "
+            + "(SELECT 1 FROM change_event n WHERE n.entityId = c.entityId AND n.id > c.id) LIMIT :limit")
+    List<Long> listSuperseded(@Bind("cutoff") long cutoff, @Bind("limit") int limit);
+
+    @SqlUpdate("DELETE FROM change_event WHERE id IN (<ids>) AND eventTime < :cutoff")
+    int delete(@BindList("ids") List<Long> ids, @Bind("cutoff") long cutoff);
+  }
+
+  interface AuditLogDAO {
+    /** Insert audit logs with a multi-row insert. */
+    default void insertAll(List<String> jsons) {
+      List<EventRow> rows = new ArrayList<>(jsons.size());
+      for (String json : jsons) {
+        rows.add(new EventRow(null, json));
       }
-      return listWithEntityFilter(eventType, entityTypes, timestamp);
+      insertRows(rows);
     }
 
+    @SqlUpdate("INSERT INTO audit_log (json) VALUES <rows>")
+    void insertRows(@BindBeanList(value = "rows", propertyNames = "json") List<EventRow> rows);
+
+    /** Keyset pagination on (eventTime, id) of the audit logs matching the filters that are not null. */
     @SqlQuery(
-        "SELECT json FROM change_event WHERE "
-            + "eventType = :eventType AND (entityType IN (<entityTypes>)) AND eventTime >= :timestamp "
-            + "ORDER BY eventTime ASC")
-    List<String> listWithEntityFilter(
-        @Bind("eventType") String eventType,
-        @BindList("entityTypes") List<String> entityTypes,
-        @Bind("timestamp") long timestamp);
+        "SELECT id, eventTime, json FROM audit_log WHERE "
+            + "(:entityId IS NULL OR entityId = :entityId) AND "
+            + "(:entityType IS NULL OR entityType = :entityType) AND "
+            + "(:userName IS NULL OR userName = :userName) AND eventTime <= :endTime AND "
+            + "(eventTime > :eventTime OR (eventTime = :eventTime AND id > :id)) "
+            + "ORDER BY eventTime, id LIMIT :limit")
+    @RegisterRowMapper(EventRecordMapper.class)
+    List<EventRecord> listAfter(
+        @Bind("entityId") String entityId,
+        @Bind("entityType") String entityType,
+        @Bind("userName") String userName,
+        @Bind("endTime") long endTime,
+        @Bind("eventTime") long eventTime,
+        @Bind("id") long id,
+        @Bind("limit") int limit);
+  }
+
+  /**
+   * Lease used to elect the leader among the servers. The token is incremented every time the lease changes hands and
+   * is used as a fencing token. Time is taken from the database clock so that the servers' clocks don't matter.
+   */
+  interface LeaderLeaseDAO {
+    String NOW = "ROUND(UNIX_TIMESTAMP(NOW(3)) * 1000)";
+
+    /**
+     * Create the lease the first time a server starts with leader election. The watermark starts at the last change
+     * event recorded until then, as the servers published their events to all their handlers without leader election.
+     */
+    @SqlUpdate(
+        "INSERT IGNORE INTO leader_lease (name, owner, token, expiresAt, watermark) "
+            + "SELECT :name, '', 0, 0, COALESCE(MAX(id), 0) FROM change_event")
+    void create(@Bind("name") String name);
+
+    /** Take over the lease if it has expired. Returns 1 when the lease was acquired. */
+    @SqlUpdate(
+        "UPDATE leader_lease SET owner = :owner, token = token + 1, expiresAt = "
+            + NOW
+            + " + :leaseMillis WHERE name = :name AND expiresAt < "
+            + NOW)
+    int acquire(@Bind("name") String name, @Bind("owner") String owner, @Bind("leaseMillis") long leaseMillis);
+
+    @SqlQuery("SELECT token FROM leader_lease WHERE name = :name AND owner = :owner")
+    Long getToken(@Bind("name") String name, @Bind("owner") String owner);
+
+    /** Extend the lease held with the given token. Returns 0 when the lease has been taken over by another server. */
+    @SqlUpdate("UPDATE leader_lease SET expiresAt = " + NOW + " + :leaseMillis WHERE name = :name AND token = :token")
+    int renew(@Bind("name") String name, @Bind("token") long token, @Bind("leaseMillis") long leaseMillis);
+
+    @SqlUpdate("UPDATE leader_lease SET expiresAt = 0 WHERE name = :name AND token = :token")
+    int release(@Bind("name") String name, @Bind("token") long token);
 
     @SqlQuery(
-        "SELECT json FROM change_event WHERE "
-            + "eventType = :eventType AND eventTime >= :timestamp "
-            + "ORDER BY eventTime ASC")
-    List<String> listWithoutEntityFilter(@Bind("eventType") String eventType, @Bind("timestamp") long timestamp);
+        "SELECT EXISTS (SELECT * FROM leader_lease WHERE name = :name AND token = :token AND expiresAt >= " + NOW + ")")
+    boolean isValid(@Bind("name") String name, @Bind("token") long token);
+
+    @SqlQuery("SELECT watermark FROM leader_lease WHERE name = :name")
+    long getWatermark(@Bind("name") String name);
+
+    /** Fenced update of the watermark. Returns 0 when the token is no longer the current one. */
+    @SqlUpdate("UPDATE leader_lease SET watermark = :watermark WHERE name = :name AND token = :token")
+    int setWatermark(@Bind("name") String name, @Bind("token") long token, @Bind("watermark") long watermark);
+  }
+
+  /** Row inserted into an event table. */
+  class EventRow {
+    private final String origin;
+    private final String json;
+
+    public EventRow(String origin, String json) {
+      this.origin = origin;
+      this.json = json;
+    }
+
+    public String getOrigin() {
+      return origin;
+    }
+
+    public String getJson() {
+      return json;
+    }
+  }
+
+  /** Row of an event table such as change_event or audit_log. */
+  class EventRecord {
+    private final long id;
+    private final long eventTime;
+    private final String json;
+
+    public EventRecord(long id, long eventTime, String json) {
+      this.id = id;
+      this.eventTime = eventTime;
+      this.json = json;
+    }
+
+    public long getId() {
+      return id;
+    }
+
+    public long getEventTime() {
+      return eventTime;
+    }
+
+    public String getJson() {
+      return json;
+    }
+  }
+
+  class EventRecordMapper implements RowMapper<EventRecord> {
+    @Override
+    public EventRecord map(ResultSet rs, StatementContext ctx) throws SQLException {
+      return new EventRecord(rs.getLong("id"), rs.getLong("eventTime"), rs.getString("json"));
+    }
+  }
+
+  /** Entity changed by a change event. */
+  class EntityChange {
+    private final long id;
+    private final String entityType;
+    private final String entityId;
+
+    public EntityChange(long id, String entityType, String entityId) {
+      this.id = id;
+      this.entityType = entityType;
+      this.entityId = entityId;
+    }
+
+    public long getId() {
+      return id;
+    }
+
+    public String getEntityType() {
+      return entityType;
+    }
+
+    public String getEntityId() {
+      return entityId;
+    }
+  }
+
+  class EntityChangeMapper implements RowMapper<EntityChange> {
+    @Override
+    public EntityChange map(ResultSet rs, StatementContext ctx) throws SQLException {
+      return new EntityChange(rs.getLong("id"), rs.getString("entityType"), rs.getString("entityId"));
+    }
+  }
+
+  /** Relationship between two entities, with the types of both. */
+  class EntityRelation {
+    private final String fromId;
+    private final String toId;
+    private final String fromEntity;
+    private final String toEntity;
+
+    public EntityRelation(String fromId, String toId, String fromEntity, String toEntity) {
+      this.fromId = fromId;
+      this.toId = toId;
+      this.fromEntity = fromEntity;
+      this.toEntity = toEntity;
+    }
+
+    public String getFromId() {
+      return fromId;
+    }
+
+    public String getToId() {
+      return toId;
+    }
+
+    public String getFromEntity() {
+      return fromEntity;
+    }
+
+    public String getToEntity() {
+      return toEntity;
+    }
+  }
+
+  class EntityRelationMapper implements RowMapper<EntityRelation> {
+    @Override
+    public EntityRelation map(ResultSet rs, StatementContext ctx) throws SQLException {
+      return new EntityRelation(
+          rs.getString("fromId"), rs.getString("toId"), rs.getString("fromEntity"), rs.getString("toEntity"));
+    }
+  }
+
+  /** Id, version and deleted flag of an entity, compared with the search index by the consistency check. */
+  class EntityState {
+    private final String id;
+    private final Double version;
+    private final boolean deleted;
+
+    public EntityState(String id, Double version, boolean deleted) {
+      this.id = id;
+      this.version = version;
+      this.deleted = deleted;
+    }
+
+    public String getId() {
+      return id;
+    }
+
+    public Double getVersion() {
+      return version;
+    }
+
+    public boolean isDeleted() {
+      return deleted;
+    }
+  }
+
+  class EntityStateMapper implements RowMapper<EntityState> {
+    @Override
+    public EntityState map(ResultSet rs, StatementContext ctx) throws SQLException {
+      double version = rs.getDouble("version");
+      return new EntityState(rs.getString("id"), rs.wasNull() ? null : version, rs.getBoolean("deleted"));
+    }
   }
 }
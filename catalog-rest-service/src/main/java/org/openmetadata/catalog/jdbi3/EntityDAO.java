@@ -18,9 +18,13 @@ import static org.openmetadata.catalog.util.EntityUtil.toBoolean;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import org.jdbi.v3.sqlobject.config.RegisterRowMapper;
 import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.customizer.BindList;
 import org.jdbi.v3.sqlobject.customizer.Define;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
@@ -58,6 +62,10 @@ public interface EntityDAO<T> {
       @Bind("name") String name,
       @Bind("deleted") Boolean deleted);
 
+  @SqlQuery("SELECT json FROM <table> WHERE id IN (<ids>) AND (deleted = :deleted OR :deleted IS NULL)")
+  List<String> findByIds(
+      @Define("table") String table, @BindList("ids") List<String> ids, @Bind("deleted") Boolean deleted);
+
   @SqlQuery(
       "SELECT count(*) FROM <table> WHERE "
           + "(<nameColumn> LIKE CONCAT(:fqnPrefix, '.%') OR :fqnPrefix IS NULL) AND "
@@ -136,6 +144,23 @@ public interface EntityDAO<T> {
       @Bind("after") String after,
       @Bind("deleted") Boolean deleted);
 
+  @SqlQuery(
+      "SELECT json FROM <table> WHERE <nameColumn> > :after AND updatedAt >= :updatedSince "
+          + "ORDER BY <nameColumn> "
+          + "LIMIT :limit")
+  List<String> listAfterUpdatedSince(
+      @Define("table") String table,
+      @Define("nameColumn") String nameColumn,
+      @Bind("limit") int limit,
+      @Bind("after") String after,
+      @Bind("updatedSince") long updatedSince);
+
+  @SqlQuery(
+      "SELECT id, json ->> '$.version' AS version, deleted FROM <table> WHERE id > :after ORDER BY id LIMIT :limit")
+  @RegisterRowMapper(CollectionDAO.EntityStateMapper.class)
+  List<CollectionDAO.EntityState> listVersionsAfter(
+      @Define("table") String table, @Bind("limit") int limit, @Bind("after") String after);
+
   @SqlQuery("SELECT EXISTS (SELECT * FROM <table> WHERE id = :id)")
   boolean exists(@Define("table") String table, @Bind("id") String id);
 
@@ -203,6 +228,20 @@ public interface EntityDAO<T> {
     return findByName(getTableName(), getNameColumn(), fqn, toBoolean(include));
   }
 
+  /** JSON of the entities with the given ids, in no particular order. */
+  default List<String> findJsonByIds(List<String> ids, Include include) {
+    return ids.isEmpty() ? Collections.emptyList() : findByIds(getTableName(), ids, toBoolean(include));
+  }
+
+  /** References of the entities with the given ids, in no particular order, leaving out the ones not found. */
+  default List<EntityReference> findEntityReferencesByIds(List<String> ids, Include include) throws IOException {
+    List<EntityReference> refs = new ArrayList<>();
+    for (String json : findJsonByIds(ids, include)) {
+      refs.add(getEntityReference(JsonUtils.readValue(json, getEntityClass())));
+    }
+    return refs;
+  }
+
   default int listCount(String databaseFQN, Include include) {
     return listCount(getTableName(), getNameColumn(), databaseFQN, toBoolean(include));
   }
@@ -215,6 +254,16 @@ public interface EntityDAO<T> {
     return listAfter(getTableName(), getNameColumn(), databaseFQN, limit, after, toBoolean(include));
   }
 
+  /** Keyset scan over all the entities, including the deleted ones, updated at or after the given time. */
+  default List<String> listAfterUpdatedSince(int limit, String after, long updatedSince) {
+    return listAfterUpdatedSince(getTableName(), getNameColumn(), limit, after, updatedSince);
+  }
+
+  /** Keyset scan over the id, version and deleted flag of all the entities, in id order. */
+  default List<CollectionDAO.EntityState> listVersionsAfter(int limit, String after) {
+    return listVersionsAfter(getTableName(), limit, after);
+  }
+
   default boolean exists(UUID id) {
     return exists(getTableName(), id.toString());
   }
@@ -0,0 +1,78 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.jdbi3;
+
+import java.io.IOException;
+import java.util.List;
+import lombok.Value;
+import org.openmetadata.catalog.type.Include;
+
+/**
+ * Serves the list pages of the entities from a search index instead of the database. The index gives the ids of the
+ * entities of a page, in the order of their fully qualified names, and the number of entities listed. The entities are
+ * then read by id from the database, which stays the source of truth, and the GETs of a single entity do not use the
+ * index at all.
+ *
+ * <p>The index is written by the search publisher after the database, so a page may miss the entities created or
+ * deleted in the last seconds. When the index fails, the page is listed from the database. The cursors of a page are
+ * the names of the index page, so that the entities of the page no longer in the database don't end the listing.
+ */
+public interface EntityListIndex {
+  /**
+   * Up to {@code limit} entities with a fully qualified name after {@code after}, or null when the entities of the type
+   * are not in the index. The {@code fqnPrefix} is the parent of the entities, or the team of the users.
+   */
+  Page listAfter(String entityType, String fqnPrefix, int limit, String after, Include include) throws IOException;
+
+  /** Up to {@code limit} entities with a fully qualified name before {@code before}, in ascending order. */
+  Page listBefore(String entityType, String fqnPrefix, int limit, String before, Include include) throws IOException;
+
+  /**
+   * The page of a listAfter of {@code limit + 1} entities, trimmed to the limit, with the before cursor set when the
+   * page was listed after a cursor.
+   */
+  static Slice sliceAfter(Page page, int limit, boolean hasCursor) {
+    List<String> names = page.getNames();
+    int size = Math.min(names.size(), limit);
+    String before = hasCursor && !names.isEmpty() ? names.get(0) : null;
+    String after = names.size() > limit ? names.get(limit - 1) : null;
+    return new Slice(page.getIds().subList(0, size), before, after);
+  }
+
+  /** The page of a listBefore of {@code limit + 1} entities, trimmed to the limit. */
+  static Slice sliceBefore(Page page, int limit) {
+    List<String> names = page.getNames();
+    int from = names.size() > limit ? names.size() - limit : 0;
+    String before = from > 0 ? names.get(from) : null;
+    String after = names.isEmpty() ? null : names.get(names.size() - 1);
+    return new Slice(page.getIds().subList(from, names.size()), before, after);
+  }
+
+  @Value
+  class Page {
+    List<String> ids;
+    /** Fully qualified names of the entities, in the order of the ids. */
+    List<String> names;
+
+    int total;
+  }
+
+  /** Ids of the entities of a list page and its cursors. */
+  @Value
+  class Slice {
+    List<String> ids;
+    String before;
+    String after;
+  }
+}
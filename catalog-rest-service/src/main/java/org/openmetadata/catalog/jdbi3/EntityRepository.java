@@ -31,12 +31,15 @@ import java.security.GeneralSecurityException;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.function.BiPredicate;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import javax.json.JsonPatch;
 import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.UriInfo;
@@ -53,6 +56,8 @@ import org.openmetadata.catalog.exception.CatalogExceptionMessage;
 import org.openmetadata.catalog.exception.EntityNotFoundException;
 import org.openmetadata.catalog.exception.UnhandledServerException;
 import org.openmetadata.catalog.jdbi3.CollectionDAO.EntityVersionPair;
+import org.openmetadata.catalog.jdbi3.EntityListIndex.Page;
+import org.openmetadata.catalog.jdbi3.EntityListIndex.Slice;
 import org.openmetadata.catalog.jdbi3.TableRepository.TableUpdater;
 import org.openmetadata.catalog.type.ChangeDescription;
 import org.openmetadata.catalog.type.ChangeEvent;
@@ -107,6 +112,8 @@ import org.openmetadata.common.utils.CommonUtil;
  * information does not become stale.
  */
 public abstract class EntityRepository<T> {
+  private static volatile EntityListIndex listIndex;
+
   private final String collectionPath;
   private final Class<T> entityClass;
   private final String entityType;
@@ -277,8 +284,12 @@ public abstract class EntityRepository<T> {
       UriInfo uriInfo, Fields fields, String fqnPrefix, int limitParam, String after, Include include)
       throws GeneralSecurityException, IOException, ParseException {
     // forward scrolling, if after == null then first page is being asked
-    List<String> jsons =
-        dao.listAfter(fqnPrefix, limitParam + 1, after == null ? "" : CipherText.instance().decrypt(after), include);
+    String afterFqn = after == null ? "" : CipherText.instance().decrypt(after);
+    Page page = listIndexAfter(fqnPrefix, limitParam + 1, afterFqn, include);
+    if (page != null) {
+      return listFromIndex(uriInfo, fields, EntityListIndex.sliceAfter(page, limitParam, after != null), page, include);
+    }
+    List<String> jsons = dao.listAfter(fqnPrefix, limitParam + 1, afterFqn, include);
 
     List<T> entities = new ArrayList<>();
     for (String json : jsons) {
@@ -302,7 +313,12 @@ public abstract class EntityRepository<T> {
       UriInfo uriInfo, Fields fields, String fqnPrefix, int limitParam, String before, Include include)
       throws IOException, GeneralSecurityException, ParseException {
     // Reverse scrolling - Get one extra result used for computing before cursor
-    List<String> jsons = dao.listBefore(fqnPrefix, limitParam + 1, CipherText.instance().decrypt(before), include);
+    String beforeFqn = CipherText.instance().decrypt(before);
+    Page page = listIndexBefore(fqnPrefix, limitParam + 1, beforeFqn, include);
+    if (page != null) {
+      return listFromIndex(uriInfo, fields, EntityListIndex.sliceBefore(page, limitParam), page, include);
+    }
+    List<String> jsons = dao.listBefore(fqnPrefix, limitParam + 1, beforeFqn, include);
 
     List<T> entities = new ArrayList<>();
     for (String json : jsons) {
@@ -321,6 +337,51 @@ public abstract class EntityRepository<T> {
     return getResultList(entities, beforeCursor, afterCursor, total);
   }
 
+  /** Serve the list pages from the given index, or from the database when null. See {@link EntityListIndex}. */
+  public static void setListIndex(EntityListIndex index) {
+    listIndex = index;
+  }
+
+  /** Page of the list index, or null to list from the database when there is no index or it failed. */
+  private Page listIndexAfter(String fqnPrefix, int limit, String after, Include include) {
+    EntityListIndex index = listIndex;
+    try {
+      return index == null ? null : index.listAfter(entityType, fqnPrefix, limit, after, include);
+    } catch (Exception e) {
+      LOG.warn("Failed to list {} from the index, listing from the database: {}", entityType, e.getMessage());
+      return null;
+    }
+  }
+
+  private Page listIndexBefore(String fqnPrefix, int limit, String before, Include include) {
+    EntityListIndex index = listIndex;
+    try {
+      return index == null ? null : index.listBefore(entityType, fqnPrefix, limit, before, include);
+    } catch (Exception e) {
+      LOG.warn("Failed to list {} from the index, listing from the database: {}", entityType, e.getMessage());
+      return null;
+    }
+  }
+
+  /** Page listed by the index, with the cursors of the index page. */
+  private ResultList<T> listFromIndex(UriInfo uriInfo, Fields fields, Slice slice, Page page, Include include)
+      throws GeneralSecurityException, IOException, ParseException {
+    List<T> entities = new ArrayList<>();
+    for (T entity : readEntities(slice.getIds(), include)) {
+      entities.add(withHref(uriInfo, setFields(entity, fields)));
+    }
+    return getResultList(entities, slice.getBefore(), slice.getAfter(), page.getTotal());
+  }
+
+  /** Entities of a page of the list index, in the order of the page, without the ones no longer in the database. */
+  private List<T> readEntities(List<String> ids, Include include) throws IOException {
+    Map<String, T> entities = new HashMap<>();
+    for (T entity : JsonUtils.readObjects(dao.findJsonByIds(ids, include), entityClass)) {
+      entities.put(getEntityInterface(entity).getId().toString(), entity);
+    }
+    return ids.stream().map(entities::get).filter(Objects::nonNull).collect(Collectors.toList());
+  }
+
   @Transaction
   public T getVersion(String id, String version) throws IOException, ParseException {
     Double requestedVersion = Double.parseDouble(version);
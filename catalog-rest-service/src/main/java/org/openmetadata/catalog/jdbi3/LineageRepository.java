@@ -16,23 +16,46 @@ package org.openmetadata.catalog.jdbi3;
 import static org.openmetadata.catalog.util.EntityUtil.toBoolean;
 
 import java.io.IOException;
+import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response.Status;
 import org.jdbi.v3.sqlobject.transaction.Transaction;
 import org.openmetadata.catalog.Entity;
 import org.openmetadata.catalog.api.lineage.AddLineage;
+import org.openmetadata.catalog.jdbi3.CollectionDAO.EntityRelation;
+import org.openmetadata.catalog.resources.lineage.LineageConfiguration;
+import org.openmetadata.catalog.resources.lineage.LineageGraph;
+import org.openmetadata.catalog.resources.lineage.LineageGraphService;
+import org.openmetadata.catalog.type.ChangeDescription;
+import org.openmetadata.catalog.type.ChangeEvent;
 import org.openmetadata.catalog.type.Edge;
 import org.openmetadata.catalog.type.EntityLineage;
 import org.openmetadata.catalog.type.EntityReference;
+import org.openmetadata.catalog.type.EventType;
+import org.openmetadata.catalog.type.FieldChange;
 import org.openmetadata.catalog.type.Include;
+import org.openmetadata.catalog.util.EntityInterface;
+import org.openmetadata.catalog.util.EntityUtil.Fields;
 
 public class LineageRepository {
   private final CollectionDAO dao;
+  private final int maxNodes;
+  private final int maxEdges;
 
   public LineageRepository(CollectionDAO dao) {
+    this(dao, new LineageConfiguration());
+  }
+
+  public LineageRepository(CollectionDAO dao, LineageConfiguration config) {
     this.dao = dao;
+    this.maxNodes = config.getMaxNodes();
+    this.maxEdges = config.getMaxEdges();
   }
 
   @Transaction
@@ -49,7 +72,7 @@ public class LineageRepository {
   }
 
   @Transaction
-  public void addLineage(AddLineage addLineage) throws IOException {
+  public ChangeEvent addLineage(String updatedBy, AddLineage addLineage) throws IOException, ParseException {
     // Validate from entity
     EntityReference from = addLineage.getEdge().getFromEntity();
     from = Entity.getEntityReference(from.getType(), from.getId());
@@ -66,10 +89,13 @@ public class LineageRepository {
             from.getType(),
             to.getType(),
             Relationship.UPSTREAM.ordinal());
+    return getChangeEvent(updatedBy, from, to, true);
   }
 
+  /** Change event of the downstream entity of the deleted edge, or null when there was no such edge. */
   @Transaction
-  public boolean deleteLineage(String fromEntity, String fromId, String toEntity, String toId) throws IOException {
+  public ChangeEvent deleteLineage(String updatedBy, String fromEntity, String fromId, String toEntity, String toId)
+      throws IOException, ParseException {
     // Validate from entity
     EntityReference from = Entity.getEntityReference(fromEntity, UUID.fromString(fromId));
 
@@ -77,74 +103,142 @@ public class LineageRepository {
     EntityReference to = Entity.getEntityReference(toEntity, UUID.fromString(toId));
 
     // Finally, delete lineage relationship
-    return dao.relationshipDAO()
+    int deleted =
+        dao.relationshipDAO()
             .delete(
                 from.getId().toString(),
                 from.getType(),
                 to.getId().toString(),
                 to.getType(),
-                Relationship.UPSTREAM.ordinal())
-        > 0;
+                Relationship.UPSTREAM.ordinal());
+    return deleted > 0 ? getChangeEvent(updatedBy, from, to, false) : null;
   }
 
-  private EntityLineage getLineage(EntityReference primary, int upstreamDepth, int downstreamDepth) throws IOException {
-    List<EntityReference> entities = new ArrayList<>();
-    EntityLineage lineage =
-        new EntityLineage()
-            .withEntity(primary)
-            .withNodes(entities)
-            .withUpstreamEdges(new ArrayList<>())
-            .withDownstreamEdges(new ArrayList<>());
-    addUpstreamLineage(primary.getId(), primary.getType(), lineage, upstreamDepth);
-    addDownstreamLineage(primary.getId(), primary.getType(), lineage, downstreamDepth);
-
-    // Remove duplicate nodes
-    lineage.withNodes(lineage.getNodes().stream().distinct().collect(Collectors.toList()));
-
-    // Add entityReference details
-    for (int i = 0; i < lineage.getNodes().size(); i++) {
-      EntityReference ref = lineage.getNodes().get(i);
-      ref = Entity.getEntityReference(ref.getType(), ref.getId());
-      lineage.getNodes().set(i, ref);
-    }
-    return lineage;
+  /**
+   * Lineage up to {@code depth} levels in one direction, read from the lineage graph when it is loaded, for the walks
+   * deeper than the database can answer.
+   */
+  @Transaction
+  public EntityLineage traverse(String entityType, String id, boolean upstream, int depth) throws IOException {
+    EntityReference ref = Entity.getEntityReference(entityType, UUID.fromString(id));
+    return upstream ? getLineage(ref, depth, 0) : getLineage(ref, 0, depth);
+  }
+
+  /**
+   * Number of entities first reached at each level up to {@code depth} levels in one direction, from the lineage graph.
+   */
+  public int[] countReachable(String entityType, String id, boolean upstream, int depth) throws IOException {
+    EntityReference ref = Entity.getEntityReference(entityType, UUID.fromString(id));
+    return requireGraph().countReachable(ref.getId(), upstream, depth);
   }
 
-  private void addUpstreamLineage(UUID id, String entityType, EntityLineage lineage, int upstreamDepth) {
-    if (upstreamDepth == 0) {
-      return;
+  /**
+   * Lineage made of a shortest path downstream from one entity to the other, from the lineage graph, or null when there
+   * is no path of at most {@code maxDepth} edges.
+   */
+  public EntityLineage getShortestPath(String fromEntity, String fromId, String toEntity, String toId, int maxDepth)
+      throws IOException {
+    EntityReference from = Entity.getEntityReference(fromEntity, UUID.fromString(fromId));
+    EntityReference to = Entity.getEntityReference(toEntity, UUID.fromString(toId));
+    List<EntityRelation> path = requireGraph().getShortestPath(from.getId(), to.getId(), maxDepth);
+    if (path == null) {
+      return null;
     }
-    // from this id ---> find other ids
-    List<EntityReference> upstreamEntities =
-        dao.relationshipDAO()
-            .findFrom(id.toString(), entityType, Relationship.UPSTREAM.ordinal(), toBoolean(Include.NON_DELETED));
-    lineage.getNodes().addAll(upstreamEntities);
-
-    upstreamDepth--;
-    for (EntityReference upstreamEntity : upstreamEntities) {
-      lineage.getUpstreamEdges().add(new Edge().withFromEntity(upstreamEntity.getId()).withToEntity(id));
-      addUpstreamLineage(
-          upstreamEntity.getId(),
-          upstreamEntity.getType(),
-          lineage,
-          upstreamDepth); // Recursively add upstream nodes and edges
+    Map<String, String> nodes = new LinkedHashMap<>();
+    List<Edge> edges = new ArrayList<>();
+    for (EntityRelation relation : path) {
+      nodes.put(relation.getToId(), relation.getToEntity());
+      edges.add(
+          new Edge()
+              .withFromEntity(UUID.fromString(relation.getFromId()))
+              .withToEntity(UUID.fromString(relation.getToId())));
     }
+    return new EntityLineage()
+        .withEntity(from)
+        .withNodes(getEntityReferences(nodes))
+        .withUpstreamEdges(new ArrayList<>())
+        .withDownstreamEdges(edges)
+        .withTruncated(false);
   }
 
-  private void addDownstreamLineage(UUID id, String entityType, EntityLineage lineage, int downstreamDepth) {
-    if (downstreamDepth == 0) {
-      return;
+  private static LineageGraph requireGraph() {
+    LineageGraph graph = LineageGraphService.getGraph();
+    if (graph == null) {
+      throw new WebApplicationException("The lineage graph is not loaded", Status.SERVICE_UNAVAILABLE);
     }
-    // from other ids ---> to this id
-    List<EntityReference> downStreamEntities =
-        dao.relationshipDAO()
-            .findTo(id.toString(), entityType, Relationship.UPSTREAM.ordinal(), toBoolean(Include.NON_DELETED));
-    lineage.getNodes().addAll(downStreamEntities);
+    return graph;
+  }
 
-    downstreamDepth--;
-    for (EntityReference entity : downStreamEntities) {
-      lineage.getDownstreamEdges().add(new Edge().withToEntity(entity.getId()).withFromEntity(id));
-      addDownstreamLineage(entity.getId(), entity.getType(), lineage, downstreamDepth);
+  /**
+   * Change event of the downstream entity of an edge, which does not change its version, like the followers do. The
+   * event lets the search indexes and the lineage graphs of the other servers know about the edge.
+   */
+  private static ChangeEvent getChangeEvent(String updatedBy, EntityReference from, EntityReference to, boolean added)
+      throws IOException, ParseException {
+    EntityInterface<?> entityInterface = Entity.getEntityInterface(Entity.getEntity(to, Fields.EMPTY_FIELDS));
+    ChangeDescription change = new ChangeDescription().withPreviousVersion(entityInterface.getVersion());
+    if (added) {
+      change.getFieldsAdded().add(new FieldChange().withName("upstream").withNewValue(List.of(from)));
+    } else {
+      change.getFieldsDeleted().add(new FieldChange().withName("upstream").withOldValue(List.of(from)));
+    }
+    return new ChangeEvent()
+        .withChangeDescription(change)
+        .withEventType(EventType.ENTITY_UPDATED)
+        .withEntityType(to.getType())
+        .withEntityId(to.getId())
+        .withEntityFullyQualifiedName(entityInterface.getFullyQualifiedName())
+        .withUserName(updatedBy)
+        .withTimestamp(System.currentTimeMillis())
+        .withCurrentVersion(entityInterface.getVersion())
+        .withPreviousVersion(change.getPreviousVersion());
+  }
+
+  private EntityLineage getLineage(EntityReference primary, int upstreamDepth, int downstreamDepth) throws IOException {
+    int walks = (upstreamDepth > 0 ? 1 : 0) + (downstreamDepth > 0 ? 1 : 0);
+    LineageTraversal traversal = new LineageTraversal(primary.getId().toString(), maxNodes, maxEdges, walks);
+    LineageGraph graph = LineageGraphService.getGraph();
+    Boolean deleted = toBoolean(Include.NON_DELETED);
+    // from these ids ---> find other ids
+    List<Edge> upstreamEdges =
+        traversal.walk(
+            upstreamDepth,
+            true,
+            graph != null
+                ? ids -> graph.getRelations(ids, true)
+                : ids -> dao.relationshipDAO().findFromAll(ids, Relationship.UPSTREAM.ordinal(), deleted));
+    // from other ids ---> to these ids
+    List<Edge> downstreamEdges =
+        traversal.walk(
+            downstreamDepth,
+            false,
+            graph != null
+                ? ids -> graph.getRelations(ids, false)
+                : ids -> dao.relationshipDAO().findToAll(ids, Relationship.UPSTREAM.ordinal(), deleted));
+    return new EntityLineage()
+        .withEntity(primary)
+        .withNodes(getEntityReferences(traversal.getNodes()))
+        .withUpstreamEdges(upstreamEdges)
+        .withDownstreamEdges(downstreamEdges)
+        .withTruncated(traversal.isTruncated());
+  }
+
+  /** References of the nodes, read with one query per entity type, in the order the nodes were reached. */
+  private static List<EntityReference> getEntityReferences(Map<String, String> nodes) throws IOException {
+    Map<String, List<String>> idsByType = new HashMap<>();
+    nodes.forEach((id, type) -> idsByType.computeIfAbsent(type, t -> new ArrayList<>()).add(id));
+    Map<String, EntityReference> refs = new HashMap<>();
+    for (Map.Entry<String, List<String>> entry : idsByType.entrySet()) {
+      for (EntityReference ref : Entity.getEntityReferences(entry.getKey(), entry.getValue())) {
+        refs.put(ref.getId().toString(), ref);
+      }
+    }
+    List<EntityReference> references = new ArrayList<>();
+    for (String id : nodes.keySet()) {
+      if (refs.containsKey(id)) {
+        references.add(refs.get(id));
+      }
     }
+    return references;
   }
 }
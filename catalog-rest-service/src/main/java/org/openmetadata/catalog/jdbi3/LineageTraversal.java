@@ -0,0 +1,114 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.jdbi3;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.openmetadata.catalog.jdbi3.CollectionDAO.EntityRelation;
+import org.openmetadata.catalog.type.Edge;
+
+/**
+ * Breadth first walk of the lineage graph around an entity, a level at a time, so that the relationships of a whole
+ * level are read with a single query. Entities reached by several paths are expanded once and each edge is returned
+ * once. The walk stops, and the lineage is marked as truncated, when the next edge would go over the limit of edges or
+ * reach an entity over the limit of entities.
+ *
+ * <p>The limits are shared between the walks in each direction: a walk may use its share of what the previous walks
+ * left, so that a large upstream lineage does not leave the downstream one empty.
+ */
+final class LineageTraversal {
+  /** Relationships of the entities of a level to the entities of the next one. */
+  interface Expander {
+    List<EntityRelation> expand(List<String> ids);
+  }
+
+  private final String primaryId;
+  private final int maxNodes;
+  private final int maxEdges;
+  /** Entities reached by the walks, other than the primary one, with their types, in the order they were reached. */
+  private final Map<String, String> nodes = new LinkedHashMap<>();
+
+  private int edgeCount;
+  private boolean truncated;
+  /** Walks with a depth still to be done, including the current one. */
+  private int walksLeft;
+
+  LineageTraversal(String primaryId, int maxNodes, int maxEdges, int walks) {
+    this.primaryId = primaryId;
+    this.maxNodes = maxNodes;
+    this.maxEdges = maxEdges;
+    this.walksLeft = walks;
+  }
+
+  /** Edges up to {@code depth} levels upstream or downstream of the primary entity. */
+  List<Edge> walk(int depth, boolean upstream, Expander expander) {
+    List<Edge> edges = new ArrayList<>();
+    if (depth <= 0) {
+      return edges;
+    }
+    int nodeLimit = nodes.size() + share(maxNodes - nodes.size());
+    int edgeLimit = edgeCount + share(maxEdges - edgeCount);
+    walksLeft--;
+    boolean full = false;
+    Set<String> edgeKeys = new HashSet<>();
+    Set<String> visited = new HashSet<>(Set.of(primaryId));
+    List<String> level = List.of(primaryId);
+    for (int i = 0; i < depth && !level.isEmpty() && !full; i++) {
+      List<String> next = new ArrayList<>();
+      for (EntityRelation relation : expander.expand(level)) {
+        String id = upstream ? relation.getFromId() : relation.getToId();
+        if (edgeKeys.contains(relation.getFromId() + relation.getToId())) {
+          continue;
+        }
+        boolean newNode = !id.equals(primaryId) && !nodes.containsKey(id);
+        if (edgeCount >= edgeLimit || (newNode && nodes.size() >= nodeLimit)) {
+          truncated = full = true;
+          break;
+        }
+        edgeKeys.add(relation.getFromId() + relation.getToId());
+        edges.add(
+            new Edge()
+                .withFromEntity(UUID.fromString(relation.getFromId()))
+                .withToEntity(UUID.fromString(relation.getToId())));
+        edgeCount++;
+        if (newNode) {
+          nodes.put(id, upstream ? relation.getFromEntity() : relation.getToEntity());
+        }
+        if (visited.add(id)) {
+          next.add(id);
+        }
+      }
+      level = next;
+    }
+    return edges;
+  }
+
+  /** Share of the remaining budget of the current walk, rounded up. */
+  private int share(int remaining) {
+    return walksLeft <= 1 ? remaining : (remaining + walksLeft - 1) / walksLeft;
+  }
+
+  Map<String, String> getNodes() {
+    return nodes;
+  }
+
+  boolean isTruncated() {
+    return truncated;
+  }
+}
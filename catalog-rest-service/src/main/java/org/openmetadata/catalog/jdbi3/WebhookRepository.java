@@ -20,28 +20,32 @@ import com.lmax.disruptor.EventHandler;
 import com.lmax.disruptor.LifecycleAware;
 import java.io.IOException;
 import java.net.URI;
-import java.net.UnknownHostException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.text.ParseException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
-import javax.ws.rs.ProcessingException;
-import javax.ws.rs.client.Client;
-import javax.ws.rs.client.ClientBuilder;
-import javax.ws.rs.client.Invocation.Builder;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import lombok.extern.slf4j.Slf4j;
 import org.jdbi.v3.sqlobject.transaction.Transaction;
 import org.openmetadata.catalog.Entity;
 import org.openmetadata.catalog.events.EventPubSub;
 import org.openmetadata.catalog.events.EventPubSub.ChangeEventHolder;
+import org.openmetadata.catalog.http.OutboundHttpClient;
+import org.openmetadata.catalog.jobs.LeaderElection;
 import org.openmetadata.catalog.resources.events.EventResource.ChangeEventList;
 import org.openmetadata.catalog.resources.events.WebhookResource;
-import org.openmetadata.catalog.security.SecurityUtil;
+import org.openmetadata.catalog.security.CatalogOpenIdAuthorizationRequestFilter;
 import org.openmetadata.catalog.type.ChangeDescription;
 import org.openmetadata.catalog.type.ChangeEvent;
 import org.openmetadata.catalog.type.EntityReference;
@@ -118,14 +122,20 @@ public class WebhookRepository extends EntityRepository<Webhook> {
       webhook.setStatus(Status.NOT_STARTED);
       return;
     }
+    if (!LeaderElection.isLeader()) { // Webhooks are published by the leader that picks up the new webhook
+      return;
+    }
     WebhookPublisher publisher = new WebhookPublisher(webhook);
-    BatchEventProcessor<ChangeEventHolder> processor = EventPubSub.addEventHandler(publisher);
+    BatchEventProcessor<ChangeEventHolder> processor = EventPubSub.addEventHandler(webhook.getName(), publisher);
     publisher.setProcessor(processor);
     webhookPublisherMap.put(webhook.getId(), publisher);
     LOG.info("Webhook subscription started for {}", webhook.getName());
   }
 
   public void updateWebhookPublisher(Webhook webhook) throws InterruptedException {
+    if (!LeaderElection.isLeader()) { // Webhooks are published by the leader that picks up the change
+      return;
+    }
     if (Boolean.TRUE.equals(webhook.getEnabled())) { // Only add webhook that is enabled for publishing
       // If there was a previous webhook either in disabled state or stopped due
       // to errors, update it and restart publishing
@@ -140,7 +150,8 @@ public class WebhookRepository extends EntityRepository<Webhook> {
       previousPublisher.updateWebhook(webhook);
       if (status != Status.STARTED && status != Status.AWAITING_RETRY) {
         // Restart the previously stopped publisher (in states notStarted, error, retryLimitReached)
-        BatchEventProcessor<ChangeEventHolder> processor = EventPubSub.addEventHandler(previousPublisher);
+        BatchEventProcessor<ChangeEventHolder> processor =
+            EventPubSub.addEventHandler(webhook.getName(), previousPublisher);
         previousPublisher.setProcessor(processor);
         LOG.info("Webhook publisher restarted for {}", webhook.getName());
       }
@@ -161,6 +172,45 @@ public class WebhookRepository extends EntityRepository<Webhook> {
     webhookPublisherMap.remove(id);
   }
 
+  /**
+   * Bring the webhook publishers in line with the webhooks stored, to pick up the webhooks created, updated, or deleted
+   * through the other servers. Runs on the leader.
+   */
+  public void syncWebhookPublishers() throws IOException, InterruptedException {
+    Set<UUID> stored = new HashSet<>();
+    for (String json : daoCollection.webhookDAO().listAll()) {
+      Webhook webhook = JsonUtils.readValue(json, Webhook.class);
+      stored.add(webhook.getId());
+      WebhookPublisher publisher = getPublisher(webhook.getId());
+      if (publisher == null) {
+        if (Boolean.TRUE.equals(webhook.getEnabled())) {
+          addWebhookPublisher(webhook);
+        }
+      } else if (!Boolean.TRUE.equals(webhook.getEnabled()) || isChanged(publisher.getWebhook(), webhook)) {
+        updateWebhookPublisher(webhook);
+      }
+    }
+    for (UUID id : webhookPublisherMap.keySet()) {
+      if (!stored.contains(id)) {
+        deleteWebhookPublisher(id);
+      }
+    }
+  }
+
+  /** Stop all the webhook publishers of this server, when it stops being the leader. */
+  public void stopWebhookPublishers() throws InterruptedException {
+    for (UUID id : webhookPublisherMap.keySet()) {
+      deleteWebhookPublisher(id);
+    }
+  }
+
+  private static boolean isChanged(Webhook current, Webhook stored) {
+    return !Objects.equals(current.getEndpoint(), stored.getEndpoint())
+        || !Objects.equals(current.getBatchSize(), stored.getBatchSize())
+        || !Objects.equals(current.getTimeout(), stored.getTimeout())
+        || !Objects.equals(current.getEventFilters(), stored.getEventFilters());
+  }
+
   @Transaction
   public boolean delete(String id) {
     return daoCollection.webhookDAO().delete(id) > 0;
@@ -306,7 +356,6 @@ public class WebhookRepository extends EntityRepository<Webhook> {
     private final Webhook webhook;
     private final List<ChangeEvent> batch = new ArrayList<>();
     private BatchEventProcessor<ChangeEventHolder> processor;
-    private Client client;
     private final ConcurrentHashMap<EventType, List<String>> filter = new ConcurrentHashMap<>();
 
     public WebhookPublisher(Webhook webhook) {
@@ -316,7 +365,6 @@ public class WebhookRepository extends EntityRepository<Webhook> {
 
     @Override
     public void onStart() {
-      createClient();
       webhook.withFailureDetails(new FailureDetails());
       LOG.info("Webhook-lifecycle-onStart {}", webhook.getName());
     }
@@ -340,40 +388,37 @@ public class WebhookRepository extends EntityRepository<Webhook> {
       long attemptTime = System.currentTimeMillis();
       try {
         String json = JsonUtils.pojoToJson(list);
-        Response response;
+        HttpRequest.Builder request = getRequest().POST(HttpRequest.BodyPublishers.ofString(json));
         if (webhook.getSecretKey() != null) {
           String hmac = "sha256=" + CommonUtil.calculateHMAC(webhook.getSecretKey(), json);
-          response = getTarget().header(RestUtil.SIGNATURE_HEADER, hmac).post(javax.ws.rs.client.Entity.json(json));
-        } else {
-          response = getTarget().post(javax.ws.rs.client.Entity.json(json));
+          request.header(RestUtil.SIGNATURE_HEADER, hmac);
         }
-        LOG.info(
-            "Webhook {}:{}:{} received response {}",
-            webhook.getName(),
-            webhook.getStatus(),
-            batch.size(),
-            response.getStatusInfo());
+        HttpResponse<Void> response =
+            OutboundHttpClient.getInstance().send(request.build(), HttpResponse.BodyHandlers.discarding());
+        int status = response.statusCode();
+        LOG.info("Webhook {}:{}:{} received response {}", webhook.getName(), webhook.getStatus(), batch.size(), status);
         // 2xx response means call back is successful
-        if (response.getStatus() >= 200 && response.getStatus() < 300) { // All 2xx responses
+        if (status >= 200 && status < 300) { // All 2xx responses
           batch.clear();
           webhook.getFailureDetails().setLastSuccessfulAt(changeEventHolder.get().getTimestamp());
           if (webhook.getStatus() != Status.STARTED) {
             setStatus(Status.STARTED, null, null, null, null);
           }
           // 3xx response/redirection is not allowed for callback. Set the webhook state as in error
-        } else if (response.getStatus() >= 300 && response.getStatus() < 400) {
-          setErrorStatus(attemptTime, response.getStatus(), response.getStatusInfo().getReasonPhrase());
+        } else if (status >= 300 && status < 400) {
+          setErrorStatus(attemptTime, status, getReasonPhrase(status));
           // 4xx, 5xx response retry delivering events after timeout
-        } else if (response.getStatus() >= 300 && response.getStatus() < 600) {
+        } else if (status >= 300 && status < 600) {
           setNextBackOff();
-          setAwaitingRetry(attemptTime, response.getStatus(), response.getStatusInfo().getReasonPhrase());
+          setAwaitingRetry(attemptTime, status, getReasonPhrase(status));
           Thread.sleep(currentBackoffTime);
         }
-      } catch (ProcessingException ex) {
-        Throwable cause = ex.getCause();
-        if (cause.getClass() == UnknownHostException.class) {
+      } catch (IOException ex) {
+        if (OutboundHttpClient.isUnknownHost(ex)) {
           LOG.warn("Invalid webhook {} endpoint {}", webhook.getName(), webhook.getEndpoint());
           setErrorStatus(attemptTime, null, "UnknownHostException");
+        } else {
+          LOG.warn("Failed to deliver events to webhook {}: {}", webhook.getName(), ex.toString());
         }
       }
     }
@@ -381,8 +426,6 @@ public class WebhookRepository extends EntityRepository<Webhook> {
     @Override
     public void onShutdown() {
       currentBackoffTime = BACKOFF_NORMAL;
-      client.close();
-      client = null;
       shutdownLatch.countDown();
       LOG.info("Webhook-lifecycle-onShutdown {}", webhook.getName());
     }
@@ -398,7 +441,6 @@ public class WebhookRepository extends EntityRepository<Webhook> {
       webhook.setEndpoint(updatedWebhook.getEndpoint());
       webhook.setEventFilters(updatedWebhook.getEventFilters());
       initFilter();
-      createClient();
     }
 
     private void initFilter() {
@@ -433,17 +475,6 @@ public class WebhookRepository extends EntityRepository<Webhook> {
       updater.update();
     }
 
-    private synchronized void createClient() {
-      if (client != null) {
-        client.close();
-        client = null;
-      }
-      ClientBuilder clientBuilder = ClientBuilder.newBuilder();
-      clientBuilder.connectTimeout(10, TimeUnit.SECONDS);
-      clientBuilder.readTimeout(12, TimeUnit.SECONDS);
-      client = clientBuilder.build();
-    }
-
     private void awaitShutdown() throws InterruptedException {
       LOG.info("Awaiting shutdown webhook-lifecycle {}", webhook.getName());
       shutdownLatch.await(5, TimeUnit.SECONDS);
@@ -471,9 +502,21 @@ public class WebhookRepository extends EntityRepository<Webhook> {
       }
     }
 
-    private Builder getTarget() {
-      Map<String, String> authHeaders = SecurityUtil.authHeaders("admin@open-metadata.org");
-      return SecurityUtil.addHeaders(client.target(webhook.getEndpoint()), authHeaders);
+    private synchronized HttpRequest.Builder getRequest() {
+      HttpRequest.Builder request =
+          OutboundHttpClient.getInstance()
+              .newRequest(webhook.getEndpoint().toString())
+              .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+              .header(CatalogOpenIdAuthorizationRequestFilter.X_AUTH_PARAMS_EMAIL_HEADER, "admin@open-metadata.org");
+      if (webhook.getTimeout() != null) {
+        request.timeout(Duration.ofSeconds(webhook.getTimeout()));
+      }
+      return request;
+    }
+
+    private String getReasonPhrase(int status) {
+      Response.Status reason = Response.Status.fromStatusCode(status);
+      return reason != null ? reason.getReasonPhrase() : String.valueOf(status);
     }
   }
 
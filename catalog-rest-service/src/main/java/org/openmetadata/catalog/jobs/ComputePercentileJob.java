@@ -0,0 +1,51 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.jobs;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import org.jdbi.v3.core.Jdbi;
+import org.openmetadata.catalog.jdbi3.CollectionDAO;
+import org.openmetadata.catalog.jdbi3.UsageRepository;
+
+/** Computes the usage percentiles of today's usage for every entity type that has usage reported. */
+public class ComputePercentileJob implements ScheduledJob {
+  private final CollectionDAO dao;
+  private final UsageRepository usageRepository;
+  private final long intervalSeconds;
+
+  public ComputePercentileJob(Jdbi jdbi, JobSchedulerConfiguration config) {
+    this.dao = jdbi.onDemand(CollectionDAO.class);
+    this.usageRepository = new UsageRepository(dao);
+    this.intervalSeconds = TimeUnit.MINUTES.toSeconds(config.getComputePercentileIntervalMinutes());
+  }
+
+  @Override
+  public String getName() {
+    return "computePercentile";
+  }
+
+  @Override
+  public long getIntervalSeconds() {
+    return intervalSeconds;
+  }
+
+  @Override
+  public void run(long fencingToken) {
+    String date = LocalDate.now(ZoneOffset.UTC).toString();
+    for (String entityType : dao.usageDAO().listEntityTypes(date)) {
+      usageRepository.computePercentile(entityType, date);
+    }
+  }
+}
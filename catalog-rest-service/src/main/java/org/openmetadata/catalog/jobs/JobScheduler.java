@@ -0,0 +1,88 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.jobs;
+
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.openmetadata.catalog.jobs.LeaderElection.LeaderListener;
+
+/**
+ * Runs the {@link ScheduledJob}s on the leader. The jobs are scheduled when this server is elected and cancelled when
+ * it stops being the leader, so that each job runs on exactly one server at a time and moves to the new leader on
+ * failover. Before every run the fencing token is checked against the lease.
+ */
+@Slf4j
+public class JobScheduler implements LeaderListener {
+  private final LeaderElection leaderElection;
+  private final List<ScheduledJob> jobs = new ArrayList<>();
+  private final List<ScheduledFuture<?>> scheduled = new ArrayList<>();
+  private ScheduledExecutorService executor;
+
+  public JobScheduler(LeaderElection leaderElection) {
+    this.leaderElection = leaderElection;
+  }
+
+  public JobScheduler addJob(ScheduledJob job) {
+    jobs.add(job);
+    return this;
+  }
+
+  @Override
+  public synchronized void onElected(long token) {
+    executor = Executors.newScheduledThreadPool(Math.max(1, jobs.size()), DaemonThreadFactory.INSTANCE);
+    for (ScheduledJob job : jobs) {
+      scheduled.add(
+          executor.scheduleWithFixedDelay(() -> run(job, token), 0, job.getIntervalSeconds(), TimeUnit.SECONDS));
+      LOG.info("Scheduled job {} every {} seconds", job.getName(), job.getIntervalSeconds());
+    }
+  }
+
+  @Override
+  public synchronized void onRevoked() {
+    scheduled.forEach(future -> future.cancel(true));
+    scheduled.clear();
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+    for (ScheduledJob job : jobs) {
+      try {
+        job.stop();
+      } catch (Exception e) {
+        LOG.error("Failed to stop job {}", job.getName(), e);
+      }
+    }
+  }
+
+  private void run(ScheduledJob job, long token) {
+    try {
+      if (!leaderElection.isValid(token)) {
+        LOG.warn("Skipping job {} as the leader lease {} is no longer valid", job.getName(), token);
+        return;
+      }
+      long start = System.currentTimeMillis();
+      job.run(token);
+      LOG.debug("Job {} completed in {} ms", job.getName(), System.currentTimeMillis() - start);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      LOG.error("Job {} failed", job.getName(), e);
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.jobs;
+
+public class JobSchedulerConfiguration {
+  /**
+   * Elect a leader among the servers sharing the database. When disabled the server always considers itself the leader,
+   * which is only correct for single server deployments.
+   */
+  private boolean leaderElectionEnabled = false;
+
+  private long leaseSeconds = 30;
+
+  private long heartbeatSeconds = 10;
+
+  private long relayIntervalMillis = 1000;
+
+  private long relaySettleMillis = 5000;
+
+  private long computePercentileIntervalMinutes = 60;
+
+  private long webhookSyncIntervalSeconds = 30;
+
+  public boolean isLeaderElectionEnabled() {
+    return leaderElectionEnabled;
+  }
+
+  public void setLeaderElectionEnabled(boolean leaderElectionEnabled) {
+    this.leaderElectionEnabled = leaderElectionEnabled;
+  }
+
+  public long getLeaseSeconds() {
+    return leaseSeconds;
+  }
+
+  public void setLeaseSeconds(long leaseSeconds) {
+    this.leaseSeconds = leaseSeconds;
+  }
+
+  public long getHeartbeatSeconds() {
+    return heartbeatSeconds;
+  }
+
+  public void setHeartbeatSeconds(long heartbeatSeconds) {
+    this.heartbeatSeconds = heartbeatSeconds;
+  }
+
+  public long getRelayIntervalMillis() {
+    return relayIntervalMillis;
+  }
+
+  public void setRelayIntervalMillis(long relayIntervalMillis) {
+    this.relayIntervalMillis = relayIntervalMillis;
+  }
+
+  public long getRelaySettleMillis() {
+    return relaySettleMillis;
+  }
+
+  public void setRelaySettleMillis(long relaySettleMillis) {
+    this.relaySettleMillis = relaySettleMillis;
+  }
+
+  public long getComputePercentileIntervalMinutes() {
+    return computePercentileIntervalMinutes;
+  }
+
+  public void setComputePercentileIntervalMinutes(long computePercentileIntervalMinutes) {
+    this.computePercentileIntervalMinutes = computePercentileIntervalMinutes;
+  }
+
+  public long getWebhookSyncIntervalSeconds() {
+    return webhookSyncIntervalSeconds;
+  }
+
+  public void setWebhookSyncIntervalSeconds(long webhookSyncIntervalSeconds) {
+    this.webhookSyncIntervalSeconds = webhookSyncIntervalSeconds;
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.jobs;
+
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import io.dropwizard.lifecycle.Managed;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.Jdbi;
+import org.openmetadata.catalog.jdbi3.CollectionDAO;
+import org.openmetadata.catalog.jdbi3.CollectionDAO.LeaderLeaseDAO;
+
+/**
+ * Elects one leader among the servers sharing the database using a lease row in the leader_lease table. The leader
+ * renews the lease with a heartbeat; when it stops renewing, another server takes the lease over once it expires. Every
+ * change of leader increments the lease token, which work done on behalf of the leader uses as a fencing token so that
+ * a former leader that has not noticed it lost the lease can't overwrite the work of the new one.
+ *
+ * <p>{@link LeaderListener}s are notified when this server becomes the leader and when it stops being the leader.
+ */
+@Slf4j
+public class LeaderElection implements Managed {
+  /** Identifies this server as the owner of the lease and the origin of the change events it records. */
+  public static final String NODE_ID = getHostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+  public static final String LEASE = "leader";
+  private static final long NOT_LEADER = -1;
+  private static LeaderElection instance;
+
+  private final LeaderLeaseDAO dao;
+  private final JobSchedulerConfiguration config;
+  private final List<LeaderListener> listeners = new CopyOnWriteArrayList<>();
+  private volatile long token = NOT_LEADER;
+  private long lastRenewedAt;
+  private ScheduledExecutorService heartbeat;
+
+  public interface LeaderListener {
+    /** This server became the leader. {@code token} is the fencing token of its lease. */
+    void onElected(long token);
+
+    /** This server is no longer the leader. */
+    void onRevoked();
+  }
+
+  public LeaderElection(Jdbi jdbi, JobSchedulerConfiguration config) {
+    this.dao = jdbi.onDemand(CollectionDAO.class).leaderLeaseDAO();
+    this.config = config;
+  }
+
+  /** Returns true when this server is the leader, or when leader election is not running. */
+  public static boolean isLeader() {
+    return instance == null || instance.token != NOT_LEADER;
+  }
+
+  public static LeaderElection getInstance() {
+    return instance;
+  }
+
+  public boolean isEnabled() {
+    return config.isLeaderElectionEnabled();
+  }
+
+  /** Add a listener. It is notified right away when this server is already the leader. */
+  public synchronized void addListener(LeaderListener listener) {
+    listeners.add(listener);
+    if (token != NOT_LEADER) {
+      listener.onElected(token);
+    }
+  }
+
+  /**
+   * Returns true when {@code fencingToken} is the token of the current lease, or when leader election is not running.
+   * Jobs check it before the writes a former leader must not make.
+   */
+  public static boolean holdsLease(long fencingToken) {
+    LeaderElection election = instance;
+    return election == null || election.isValid(fencingToken);
+  }
+
+  /** Returns true when {@code fencingToken} is the token of the current lease. */
+  public boolean isValid(long fencingToken) {
+    if (fencingToken == NOT_LEADER || fencingToken != token) {
+      return false;
+    }
+    return !config.isLeaderElectionEnabled() || dao.isValid(LEASE, fencingToken);
+  }
+
+  @Override
+  public void start() {
+    instance = this;
+    if (!config.isLeaderElectionEnabled()) {
+      LOG.info("Leader election is disabled, {} is the leader", NODE_ID);
+      elected(0);
+      return;
+    }
+    dao.create(LEASE);
+    heartbeat = Executors.newSingleThreadScheduledExecutor(DaemonThreadFactory.INSTANCE);
+    heartbeat.scheduleWithFixedDelay(this::heartbeat, 0, config.getHeartbeatSeconds(), TimeUnit.SECONDS);
+  }
+
+  @Override
+  public void stop() throws InterruptedException {
+    if (heartbeat != null) {
+      heartbeat.shutdownNow();
+      heartbeat.awaitTermination(10, TimeUnit.SECONDS);
+    }
+    long heldToken = token;
+    revoked();
+    if (config.isLeaderElectionEnabled() && heldToken != NOT_LEADER) {
+      dao.release(LEASE, heldToken); // Let another server take over without waiting for the lease to expire
+    }
+    instance = null;
+  }
+
+  private void heartbeat() {
+    long leaseMillis = TimeUnit.SECONDS.toMillis(config.getLeaseSeconds());
+    try {
+      if (token != NOT_LEADER) {
+        if (dao.renew(LEASE, token, leaseMillis) == 1) {
+          lastRenewedAt = System.currentTimeMillis();
+        } else {
+          LOG.warn("Leader lease was taken over by another server");
+          revoked();
+        }
+      } else if (dao.acquire(LEASE, NODE_ID, leaseMillis) == 1) {
+        lastRenewedAt = System.currentTimeMillis();
+        elected(dao.getToken(LEASE, NODE_ID));
+      }
+    } catch (Exception e) {
+      LOG.error("Leader lease heartbeat failed", e);
+      // Step down before the lease could have expired and been taken over
+      if (token != NOT_LEADER && System.currentTimeMillis() - lastRenewedAt > leaseMillis) {
+        revoked();
+      }
+    }
+  }
+
+  private synchronized void elected(long newToken) {
+    token = newToken;
+    LOG.info("{} is the leader with token {}", NODE_ID, newToken);
+    for (LeaderListener listener : listeners) {
+      try {
+        listener.onElected(newToken);
+      } catch (Exception e) {
+        LOG.error("Leader listener {} failed", listener.getClass().getSimpleName(), e);
+      }
+    }
+  }
+
+  private synchronized void revoked() {
+    if (token == NOT_LEADER) {
+      return;
+    }
+    token = NOT_LEADER;
+    LOG.info("{} is no longer the leader", NODE_ID);
+    for (LeaderListener listener : listeners) {
+      try {
+        listener.onRevoked();
+      } catch (Exception e) {
+        LOG.error("Leader listener {} failed", listener.getClass().getSimpleName(), e);
+      }
+    }
+  }
+
+  private static String getHostName() {
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (UnknownHostException e) {
+      return "unknown";
+    }
+  }
+}
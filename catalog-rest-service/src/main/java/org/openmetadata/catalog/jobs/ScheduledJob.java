@@ -0,0 +1,29 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.jobs;
+
+/** Periodic background work that runs on the leader only. See {@link JobScheduler}. */
+public interface ScheduledJob {
+  String getName();
+
+  long getIntervalSeconds();
+
+  /**
+   * Run the job once. {@code fencingToken} is the token of the leader lease the job runs under; jobs writing state that
+   * must not be overwritten by a former leader pass it along with their writes.
+   */
+  void run(long fencingToken) throws Exception;
+
+  /** Called when this server stops being the leader, after the job has been cancelled. */
+  default void stop() {}
+}
@@ -0,0 +1,52 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.jobs;
+
+import org.jdbi.v3.core.Jdbi;
+import org.openmetadata.catalog.jdbi3.CollectionDAO;
+import org.openmetadata.catalog.jdbi3.WebhookRepository;
+
+/** Runs the webhook publishers on the leader, in line with the webhooks stored. */
+public class WebhookSyncJob implements ScheduledJob {
+  private final WebhookRepository webhookRepository;
+  private final long intervalSeconds;
+
+  public WebhookSyncJob(Jdbi jdbi, JobSchedulerConfiguration config) {
+    this.webhookRepository = new WebhookRepository(jdbi.onDemand(CollectionDAO.class));
+    this.intervalSeconds = config.getWebhookSyncIntervalSeconds();
+  }
+
+  @Override
+  public String getName() {
+    return "webhookSync";
+  }
+
+  @Override
+  public long getIntervalSeconds() {
+    return intervalSeconds;
+  }
+
+  @Override
+  public void run(long fencingToken) throws Exception {
+    webhookRepository.syncWebhookPublishers();
+  }
+
+  @Override
+  public void stop() {
+    try {
+      webhookRepository.stopWebhookPublishers();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
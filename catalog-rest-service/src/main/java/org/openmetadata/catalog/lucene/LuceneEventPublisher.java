@@ -0,0 +1,197 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.lucene;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.document.Document;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchConfiguration;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchIndexDefinition;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchIndexDefinition.ElasticSearchIndexType;
+import org.openmetadata.catalog.elasticsearch.IndexGenerations;
+import org.openmetadata.catalog.elasticsearch.SearchDocumentLimits;
+import org.openmetadata.catalog.elasticsearch.SearchDocuments;
+import org.openmetadata.catalog.events.AbstractEventPublisher;
+import org.openmetadata.catalog.events.errors.EventPublisherException;
+import org.openmetadata.catalog.resources.events.EventResource.ChangeEventList;
+import org.openmetadata.catalog.type.ChangeEvent;
+import org.openmetadata.catalog.type.EntityReference;
+import org.openmetadata.catalog.type.EventType;
+import org.openmetadata.catalog.type.FieldChange;
+
+/**
+ * Indexes the entities of the change events in the embedded {@link LuceneIndexes}, applying the events to the search
+ * documents the way {@code ElasticSearchEventPublisher} does in Elasticsearch. A Lucene document cannot be updated in
+ * place, so the updates read the current source of the document, change it and write the whole document again. The
+ * writes of a batch are made visible to the searches once the batch is done.
+ */
+@Slf4j
+public class LuceneEventPublisher extends AbstractEventPublisher {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private final LuceneIndexes indexes;
+
+  public LuceneEventPublisher(ElasticSearchConfiguration esConfig) {
+    super(esConfig.getBatchSize(), new ArrayList<>());
+    this.indexes = LuceneIndexes.getInstance();
+  }
+
+  @Override
+  public void onStart() {
+    LOG.info("Lucene Publisher Started");
+  }
+
+  @Override
+  public void publish(ChangeEventList events) throws EventPublisherException {
+    // Documents written in this batch, which the searcher does not see until the next refresh
+    Map<String, ObjectNode> written = new HashMap<>();
+    Set<String> indexNames = new HashSet<>();
+    for (ChangeEvent event : events.getData()) {
+      ElasticSearchIndexType indexType = ElasticSearchIndexDefinition.findIndexTypeByEntityType(event.getEntityType());
+      if (indexType == null) {
+        // Entities without a search index
+        continue;
+      }
+      try {
+        apply(indexType.indexName, event, written);
+        indexNames.add(indexType.indexName);
+      } catch (Exception e) {
+        // An event that can't be applied, such as one with unexpected field changes, must not hold up the others
+        LOG.error("Failed to update the search document for event {}", event, e);
+      }
+    }
+    try {
+      indexes.refresh();
+    } catch (IOException e) {
+      throw new EventPublisherException(e);
+    }
+    // Search results cached before the refresh are stale
+    indexNames.forEach(IndexGenerations::increment);
+  }
+
+  @Override
+  public void onShutdown() {
+    LOG.info("Shutting down LuceneEventPublisher");
+  }
+
+  private void apply(String index, ChangeEvent event, Map<String, ObjectNode> written) throws IOException {
+    String id = event.getEntityId().toString();
+    if (event.getEventType() == EventType.ENTITY_DELETED) {
+      indexes.delete(id);
+      written.remove(id);
+      return;
+    }
+    ObjectNode source;
+    if (event.getEventType() == EventType.ENTITY_CREATED) {
+      source = build(event);
+    } else {
+      source = written.containsKey(id) ? written.get(id) : read(id);
+      if (event.getEventType() == EventType.ENTITY_SOFT_DELETED) {
+        if (source == null) {
+          return;
+        }
+        source.put("deleted", true);
+        source.put("version", event.getCurrentVersion());
+      } else if (Objects.equals(event.getCurrentVersion(), event.getPreviousVersion())) {
+        if (source == null) {
+          return;
+        }
+        applyChangeDescription(event, source);
+      } else {
+        source = merge(source, build(event));
+      }
+    }
+    if (source != null) {
+      trimChangeDescriptions(source);
+      indexes.index(index, id, MAPPER.writeValueAsString(source));
+      written.put(id, source);
+    }
+  }
+
+  private ObjectNode read(String id) throws IOException {
+    Document document = indexes.get(id);
+    return document == null ? null : (ObjectNode) MAPPER.readTree(document.get(LuceneMapping.SOURCE));
+  }
+
+  private static ObjectNode build(ChangeEvent event) throws IOException {
+    String json = SearchDocuments.build(event.getEntityType(), event.getEntity(), event.getEventType());
+    return json == null ? null : (ObjectNode) MAPPER.readTree(json);
+  }
+
+  /** Keep only the most recent change descriptions of the document, see {@link SearchDocumentLimits}. */
+  private static void trimChangeDescriptions(ObjectNode source) {
+    JsonNode changeDescriptions = source.get("change_descriptions");
+    if (changeDescriptions instanceof ArrayNode) {
+      ArrayNode array = (ArrayNode) changeDescriptions;
+      int excess = array.size() - SearchDocumentLimits.getMaxChangeDescriptions();
+      for (int i = 0; i < excess; i++) {
+        array.remove(0);
+      }
+    }
+  }
+
+  /** The new document over the current one, with the change descriptions of both. */
+  private static ObjectNode merge(ObjectNode current, ObjectNode document) {
+    if (current == null || document == null) {
+      return document != null ? document : current;
+    }
+    Iterator<Map.Entry<String, JsonNode>> fields = document.fields();
+    while (fields.hasNext()) {
+      Map.Entry<String, JsonNode> field = fields.next();
+      if (field.getKey().equals("change_descriptions") && current.get("change_descriptions") instanceof ArrayNode) {
+        ((ArrayNode) current.get("change_descriptions")).addAll((ArrayNode) field.getValue());
+      } else {
+        current.set(field.getKey(), field.getValue());
+      }
+    }
+    return current;
+  }
+
+  /** Changes of an event that did not change the version, such as followers. */
+  @SuppressWarnings("unchecked")
+  private static void applyChangeDescription(ChangeEvent event, ObjectNode source) {
+    source.withArray("change_descriptions").add(MAPPER.valueToTree(SearchDocuments.changeDescription(event)));
+    source.put("last_updated_timestamp", event.getTimestamp());
+    for (FieldChange fieldChange : event.getChangeDescription().getFieldsAdded()) {
+      if (fieldChange.getName().equalsIgnoreCase("followers")) {
+        for (EntityReference follower : (List<EntityReference>) fieldChange.getNewValue()) {
+          source.withArray("followers").add(follower.getId().toString());
+        }
+      }
+    }
+    for (FieldChange fieldChange : event.getChangeDescription().getFieldsDeleted()) {
+      if (fieldChange.getName().equalsIgnoreCase("followers")) {
+        ArrayNode followers = source.withArray("followers");
+        for (EntityReference follower : (List<EntityReference>) fieldChange.getOldValue()) {
+          for (int i = followers.size() - 1; i >= 0; i--) {
+            if (followers.get(i).asText().equals(follower.getId().toString())) {
+              followers.remove(i);
+            }
+          }
+        }
+      }
+    }
+  }
+}
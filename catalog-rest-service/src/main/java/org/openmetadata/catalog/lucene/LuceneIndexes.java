@@ -0,0 +1,223 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.lucene;
+
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import io.dropwizard.lifecycle.Managed;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherLifetimeManager;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.jdbi.v3.core.Jdbi;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchConfiguration;
+import org.openmetadata.catalog.elasticsearch.SearchDocuments;
+import org.openmetadata.catalog.jdbi3.CollectionDAO;
+
+/**
+ * Search index embedded in the server, used instead of Elasticsearch when the search backend is {@code LUCENE}. The
+ * documents of all the search indexes are kept in one Lucene index, with the name of their search index in the {@code
+ * _index} field, and have the fields of the Elasticsearch mappings (see {@link LuceneMapping}).
+ *
+ * <p>The documents are written by {@link LuceneEventPublisher}. Writes become visible to the searches when the near
+ * real time reader is refreshed, at the end of each batch of events and every {@code luceneRefreshMillis}, and are
+ * committed every {@code luceneCommitIntervalSeconds}. An index kept in memory, or found empty on disk, is built from
+ * the database at startup. Only one server can write the index, so this backend is for a single server.
+ */
+@Slf4j
+public class LuceneIndexes implements Managed {
+  private static final int REBUILD_BATCH_SIZE = 500;
+  private static volatile LuceneIndexes instance;
+
+  private final ElasticSearchConfiguration esConfig;
+  private final Jdbi jdbi;
+  private final LuceneMapping mapping;
+  private final Analyzer analyzer;
+  private final Directory directory;
+  private final IndexWriter writer;
+  private final SearcherManager searcherManager;
+  private final SearcherLifetimeManager pointsInTime = new SearcherLifetimeManager();
+  private ScheduledExecutorService scheduler;
+
+  private LuceneIndexes(ElasticSearchConfiguration esConfig, Jdbi jdbi) throws IOException {
+    this.esConfig = esConfig;
+    this.jdbi = jdbi;
+    this.mapping = LuceneMapping.load();
+    // Same as the standard analyzer of Elasticsearch, which has no stop words
+    this.analyzer = new StandardAnalyzer(CharArraySet.EMPTY_SET);
+    this.directory =
+        esConfig.getLuceneIndexDirectory() == null || esConfig.getLuceneIndexDirectory().isEmpty()
+            ? new ByteBuffersDirectory()
+            : FSDirectory.open(Paths.get(esConfig.getLuceneIndexDirectory()));
+    this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+    this.searcherManager = new SearcherManager(writer, null);
+  }
+
+  /** Open the index. Called once at startup when the search backend is {@code LUCENE}. */
+  public static synchronized LuceneIndexes initialize(ElasticSearchConfiguration esConfig, Jdbi jdbi)
+      throws IOException {
+    if (instance == null) {
+      instance = new LuceneIndexes(esConfig, jdbi);
+    }
+    return instance;
+  }
+
+  public static LuceneIndexes getInstance() {
+    LuceneIndexes indexes = instance;
+    if (indexes == null) {
+      throw new IllegalStateException("The Lucene search index is not initialized");
+    }
+    return indexes;
+  }
+
+  @Override
+  public void start() throws IOException, ParseException {
+    if (writer.getDocStats().numDocs == 0 && jdbi != null) {
+      rebuild();
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(DaemonThreadFactory.INSTANCE);
+    scheduler.scheduleWithFixedDelay(
+        this::refreshQuietly,
+        esConfig.getLuceneRefreshMillis(),
+        esConfig.getLuceneRefreshMillis(),
+        TimeUnit.MILLISECONDS);
+    scheduler.scheduleWithFixedDelay(
+        this::commitQuietly,
+        esConfig.getLuceneCommitIntervalSeconds(),
+        esConfig.getLuceneCommitIntervalSeconds(),
+        TimeUnit.SECONDS);
+    LOG.info("Lucene search index started with {} documents", writer.getDocStats().numDocs);
+  }
+
+  @Override
+  public void stop() throws IOException, InterruptedException {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+      scheduler.awaitTermination(10, TimeUnit.SECONDS);
+    }
+    pointsInTime.close();
+    searcherManager.close();
+    writer.close();
+    directory.close();
+    synchronized (LuceneIndexes.class) {
+      instance = null;
+    }
+  }
+
+  public LuceneMapping getMapping() {
+    return mapping;
+  }
+
+  public Analyzer getAnalyzer() {
+    return analyzer;
+  }
+
+  /** Add or replace the document of an entity in the given search index. */
+  public void index(String index, String id, String json) throws IOException {
+    writer.updateDocument(new Term(LuceneMapping.ID, id), mapping.toDocument(index, id, json));
+  }
+
+  public void delete(String id) throws IOException {
+    writer.deleteDocuments(new Term(LuceneMapping.ID, id));
+  }
+
+  /** Search document of the entity as of the last refresh, or null when it is not indexed. */
+  public Document get(String id) throws IOException {
+    IndexSearcher searcher = searcherManager.acquire();
+    try {
+      TopDocs topDocs = searcher.search(new TermQuery(new Term(LuceneMapping.ID, id)), 1);
+      return topDocs.scoreDocs.length == 0 ? null : searcher.doc(topDocs.scoreDocs[0].doc);
+    } finally {
+      searcherManager.release(searcher);
+    }
+  }
+
+  /** Make the writes so far visible to the searches. */
+  public void refresh() throws IOException {
+    searcherManager.maybeRefreshBlocking();
+  }
+
+  public IndexSearcher acquire() throws IOException {
+    return searcherManager.acquire();
+  }
+
+  public void release(IndexSearcher searcher) throws IOException {
+    searcherManager.release(searcher);
+  }
+
+  /** Keep the searcher around for the following pages of a cursor, returning the token to read them with. */
+  public long recordPointInTime(IndexSearcher searcher) throws IOException {
+    return pointsInTime.record(searcher);
+  }
+
+  /** Searcher of the point in time, or null when it has expired. It is released with {@link #releasePointInTime}. */
+  public IndexSearcher acquirePointInTime(long token) {
+    return pointsInTime.acquire(token);
+  }
+
+  public void releasePointInTime(IndexSearcher searcher) throws IOException {
+    pointsInTime.release(searcher);
+  }
+
+  private void rebuild() throws IOException, ParseException {
+    long start = System.currentTimeMillis();
+    SearchDocuments.scan(
+        jdbi.onDemand(CollectionDAO.class),
+        REBUILD_BATCH_SIZE,
+        (indexType, id, json) -> index(indexType.indexName, id, json));
+    writer.commit();
+    refresh();
+    LOG.info(
+        "Built the Lucene search index with {} documents in {} ms",
+        writer.getDocStats().numDocs,
+        System.currentTimeMillis() - start);
+  }
+
+  private void refreshQuietly() {
+    try {
+      searcherManager.maybeRefresh();
+      // Searchers replaced for longer than the keep alive of the cursors are no longer needed
+      pointsInTime.prune(new SearcherLifetimeManager.PruneByAge(esConfig.getSearchCursorKeepAliveSeconds()));
+    } catch (IOException | RuntimeException e) {
+      LOG.error("Failed to refresh the Lucene search index", e);
+    }
+  }
+
+  private void commitQuietly() {
+    try {
+      if (writer.hasUncommittedChanges()) {
+        writer.commit();
+      }
+    } catch (IOException | RuntimeException e) {
+      LOG.error("Failed to commit the Lucene search index", e);
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.lucene;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TermRangeQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.util.BytesRef;
+import org.openmetadata.catalog.Entity;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchIndexDefinition;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchIndexDefinition.ElasticSearchIndexType;
+import org.openmetadata.catalog.jdbi3.EntityListIndex;
+import org.openmetadata.catalog.type.Include;
+
+/** List pages of the entities read from the embedded index, with a range on the fqdn after the cursor. */
+public class LuceneListIndex implements EntityListIndex {
+  private static final String FQDN = "fqdn";
+
+  private final LuceneIndexes indexes;
+
+  public LuceneListIndex(LuceneIndexes indexes) {
+    this.indexes = indexes;
+  }
+
+  @Override
+  public Page listAfter(String entityType, String fqnPrefix, int limit, String after, Include include)
+      throws IOException {
+    Query cursor = after.isEmpty() ? null : TermRangeQuery.newStringRange(FQDN, after, null, false, false);
+    return list(entityType, fqnPrefix, limit, cursor, include, false);
+  }
+
+  @Override
+  public Page listBefore(String entityType, String fqnPrefix, int limit, String before, Include include)
+      throws IOException {
+    Query cursor = TermRangeQuery.newStringRange(FQDN, null, before, false, false);
+    return list(entityType, fqnPrefix, limit, cursor, include, true);
+  }
+
+  private Page list(String entityType, String fqnPrefix, int limit, Query cursor, Include include, boolean reverse)
+      throws IOException {
+    ElasticSearchIndexType indexType = ElasticSearchIndexDefinition.findIndexTypeByEntityType(entityType);
+    if (indexType == null) {
+      return null;
+    }
+    BooleanQuery.Builder filter = new BooleanQuery.Builder();
+    filter.add(new TermQuery(new Term(LuceneMapping.INDEX, indexType.indexName)), Occur.FILTER);
+    if (fqnPrefix != null) {
+      filter.add(
+          entityType.equals(Entity.USER)
+              ? new TermQuery(new Term("teams", fqnPrefix))
+              : new PrefixQuery(new Term(FQDN, fqnPrefix + ".")),
+          Occur.FILTER);
+    }
+    if (include != Include.ALL) {
+      filter.add(new TermQuery(new Term("deleted", String.valueOf(include == Include.DELETED))), Occur.FILTER);
+    }
+    Query listed = filter.build();
+    Query page =
+        cursor == null
+            ? listed
+            : new BooleanQuery.Builder().add(listed, Occur.FILTER).add(cursor, Occur.FILTER).build();
+
+    IndexSearcher searcher = indexes.acquire();
+    try {
+      TopDocs topDocs = searcher.search(page, limit, new Sort(indexes.getMapping().sortField(FQDN, reverse)));
+      List<String> ids = new ArrayList<>();
+      List<String> names = new ArrayList<>();
+      for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+        ids.add(searcher.doc(scoreDoc.doc, Set.of(LuceneMapping.ID)).get(LuceneMapping.ID));
+        names.add(((BytesRef) ((FieldDoc) scoreDoc).fields[0]).utf8ToString());
+      }
+      if (reverse) {
+        Collections.reverse(ids);
+        Collections.reverse(names);
+      }
+      return new Page(ids, names, searcher.count(listed));
+    } finally {
+      indexes.release(searcher);
+    }
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.lucene;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FloatPoint;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.SortedNumericSortField;
+import org.apache.lucene.search.SortedSetSortField;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.NumericUtils;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchIndexDefinition.ElasticSearchIndexType;
+
+/**
+ * Lucene fields of the search documents, derived from the Elasticsearch mappings of the indexes so that both backends
+ * search the same fields the same way. Text fields are analyzed, keyword and boolean fields are indexed as is with doc
+ * values for sorting and facets, numbers are indexed as points, and the completion inputs as lower case keywords for
+ * prefix suggestions. Object and nested fields are only kept in the source.
+ */
+public final class LuceneMapping {
+  public static final String ID = "_id";
+  public static final String INDEX = "_index";
+  public static final String SOURCE = "_source";
+
+  public enum FieldKind {
+    TEXT,
+    KEYWORD,
+    BOOLEAN,
+    LONG,
+    FLOAT,
+    COMPLETION,
+    OBJECT
+  }
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private final Map<String, FieldKind> fields;
+
+  private LuceneMapping(Map<String, FieldKind> fields) {
+    this.fields = Collections.unmodifiableMap(fields);
+  }
+
+  /** Fields of all the indexes, which share a single Lucene index. */
+  public static LuceneMapping load() throws IOException {
+    Map<String, FieldKind> fields = new HashMap<>();
+    for (ElasticSearchIndexType indexType : ElasticSearchIndexType.values()) {
+      try (InputStream in = LuceneMapping.class.getResourceAsStream(indexType.indexMappingFile)) {
+        Iterator<Map.Entry<String, JsonNode>> properties = MAPPER.readTree(in).get("properties").fields();
+        while (properties.hasNext()) {
+          Map.Entry<String, JsonNode> property = properties.next();
+          fields.put(property.getKey(), toKind(property.getValue().path("type").asText("object")));
+        }
+      }
+    }
+    return new LuceneMapping(fields);
+  }
+
+  private static FieldKind toKind(String type) {
+    switch (type) {
+      case "text":
+        return FieldKind.TEXT;
+      case "keyword":
+        return FieldKind.KEYWORD;
+      case "boolean":
+        return FieldKind.BOOLEAN;
+      case "long":
+      case "integer":
+      case "date":
+        return FieldKind.LONG;
+      case "float":
+      case "double":
+        return FieldKind.FLOAT;
+      case "completion":
+        return FieldKind.COMPLETION;
+      default:
+        return FieldKind.OBJECT;
+    }
+  }
+
+  /** Analyzed fields, which the searches that don't name the fields search. */
+  public String[] getTextFields() {
+    return fields.entrySet().stream()
+        .filter(field -> field.getValue() == FieldKind.TEXT)
+        .map(Map.Entry::getKey)
+        .sorted()
+        .toArray(String[]::new);
+  }
+
+  /** Kind of the field, null when the field is not in the mappings. */
+  public FieldKind getKind(String field) {
+    return fields.get(field);
+  }
+
+  public Document toDocument(String index, String id, String json) throws IOException {
+    Document document = new Document();
+    document.add(new StringField(ID, id, Field.Store.YES));
+    document.add(new SortedDocValuesField(ID, new BytesRef(id)));
+    document.add(new StringField(INDEX, index, Field.Store.YES));
+    document.add(new StoredField(SOURCE, json));
+    Iterator<Map.Entry<String, JsonNode>> values = MAPPER.readTree(json).fields();
+    while (values.hasNext()) {
+      Map.Entry<String, JsonNode> value = values.next();
+      FieldKind kind = fields.get(value.getKey());
+      if (kind == null || kind == FieldKind.OBJECT) {
+        continue;
+      }
+      if (value.getValue().isArray()) {
+        value.getValue().forEach(element -> addField(document, value.getKey(), kind, element));
+      } else {
+        addField(document, value.getKey(), kind, value.getValue());
+      }
+    }
+    return document;
+  }
+
+  private static void addField(Document document, String name, FieldKind kind, JsonNode value) {
+    if (value.isNull()) {
+      return;
+    }
+    switch (kind) {
+      case TEXT:
+        document.add(new TextField(name, value.asText(), Field.Store.NO));
+        break;
+      case KEYWORD:
+      case BOOLEAN:
+        document.add(new StringField(name, value.asText(), Field.Store.NO));
+        document.add(new SortedSetDocValuesField(name, new BytesRef(value.asText())));
+        break;
+      case LONG:
+        document.add(new LongPoint(name, value.asLong()));
+        document.add(new SortedNumericDocValuesField(name, value.asLong()));
+        break;
+      case FLOAT:
+        document.add(new FloatPoint(name, (float) value.asDouble()));
+        document.add(new SortedNumericDocValuesField(name, NumericUtils.floatToSortableInt((float) value.asDouble())));
+        break;
+      case COMPLETION:
+        String input = value.isObject() ? value.path("input").asText(null) : value.asText();
+        if (input != null) {
+          document.add(new StringField(name, input.toLowerCase(Locale.ROOT), Field.Store.NO));
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  /** Sort on the field, with the documents missing it last as in Elasticsearch, or null when it is not sortable. */
+  public SortField sortField(String name, boolean reverse) {
+    FieldKind kind = fields.get(name);
+    if (kind == null) {
+      return null;
+    }
+    SortField sortField;
+    switch (kind) {
+      case KEYWORD:
+      case BOOLEAN:
+        sortField = new SortedSetSortField(name, reverse);
+        sortField.setMissingValue(reverse ? SortField.STRING_FIRST : SortField.STRING_LAST);
+        return sortField;
+      case LONG:
+        sortField = new SortedNumericSortField(name, SortField.Type.LONG, reverse);
+        sortField.setMissingValue(reverse ? Long.MIN_VALUE : Long.MAX_VALUE);
+        return sortField;
+      case FLOAT:
+        sortField = new SortedNumericSortField(name, SortField.Type.FLOAT, reverse);
+        sortField.setMissingValue(reverse ? Float.NEGATIVE_INFINITY : Float.POSITIVE_INFINITY);
+        return sortField;
+      default:
+        return null;
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.lucene;
+
+import java.util.Map;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.FloatPoint;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.WildcardQuery;
+import org.openmetadata.catalog.lucene.LuceneMapping.FieldKind;
+
+/**
+ * Parser of the query strings of the search API, which have the syntax of the Elasticsearch {@code query_string} query
+ * and therefore of the classic Lucene query parser. Like Elasticsearch it searches the keyword and boolean fields for
+ * the exact terms, the numeric fields with point queries, and is lenient, so that a term that is not a number matches
+ * nothing in a numeric field instead of failing the search.
+ */
+public class LuceneQueryParser extends MultiFieldQueryParser {
+  private final LuceneMapping mapping;
+
+  public LuceneQueryParser(LuceneMapping mapping, Analyzer analyzer, String[] fields, Map<String, Float> boosts) {
+    super(fields, analyzer, boosts);
+    this.mapping = mapping;
+    setAllowLeadingWildcard(true);
+  }
+
+  @Override
+  protected Query getFieldQuery(String field, String queryText, boolean quoted) throws ParseException {
+    FieldKind kind = field == null ? null : mapping.getKind(field);
+    if (kind == null) {
+      return super.getFieldQuery(field, queryText, quoted);
+    }
+    try {
+      switch (kind) {
+        case KEYWORD:
+        case BOOLEAN:
+          return new TermQuery(new Term(field, queryText));
+        case LONG:
+          return LongPoint.newExactQuery(field, Long.parseLong(queryText));
+        case FLOAT:
+          return FloatPoint.newExactQuery(field, Float.parseFloat(queryText));
+        default:
+          return super.getFieldQuery(field, queryText, quoted);
+      }
+    } catch (NumberFormatException e) {
+      return new MatchNoDocsQuery();
+    }
+  }
+
+  @Override
+  protected Query getWildcardQuery(String field, String termStr) throws ParseException {
+    if ("*".equals(termStr)) {
+      return new MatchAllDocsQuery();
+    }
+    if (isKeyword(field)) {
+      return new WildcardQuery(new Term(field, termStr));
+    }
+    return super.getWildcardQuery(field, termStr);
+  }
+
+  @Override
+  protected Query getPrefixQuery(String field, String termStr) throws ParseException {
+    if (isKeyword(field)) {
+      return new PrefixQuery(new Term(field, termStr));
+    }
+    return super.getPrefixQuery(field, termStr);
+  }
+
+  @Override
+  protected Query getRangeQuery(String field, String part1, String part2, boolean startInclusive, boolean endInclusive)
+      throws ParseException {
+    FieldKind kind = field == null ? null : mapping.getKind(field);
+    try {
+      if (kind == FieldKind.LONG) {
+        long lower = part1 == null ? Long.MIN_VALUE : Long.parseLong(part1);
+        long upper = part2 == null ? Long.MAX_VALUE : Long.parseLong(part2);
+        return LongPoint.newRangeQuery(
+            field,
+            startInclusive || part1 == null ? lower : Math.addExact(lower, 1),
+            endInclusive || part2 == null ? upper : Math.addExact(upper, -1));
+      }
+      if (kind == FieldKind.FLOAT) {
+        float lower = part1 == null ? Float.NEGATIVE_INFINITY : Float.parseFloat(part1);
+        float upper = part2 == null ? Float.POSITIVE_INFINITY : Float.parseFloat(part2);
+        return FloatPoint.newRangeQuery(
+            field,
+            startInclusive || part1 == null ? lower : FloatPoint.nextUp(lower),
+            endInclusive || part2 == null ? upper : FloatPoint.nextDown(upper));
+      }
+    } catch (NumberFormatException | ArithmeticException e) {
+      return new MatchNoDocsQuery();
+    }
+    return super.getRangeQuery(field, part1, part2, startInclusive, endInclusive);
+  }
+
+  private boolean isKeyword(String field) {
+    FieldKind kind = field == null ? null : mapping.getKind(field);
+    return kind == FieldKind.KEYWORD || kind == FieldKind.BOOLEAN;
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.resources.events;
+
+import io.swagger.annotations.Api;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.security.GeneralSecurityException;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.core.UriInfo;
+import org.openmetadata.catalog.jdbi3.AuditLogRepository;
+import org.openmetadata.catalog.jdbi3.CollectionDAO;
+import org.openmetadata.catalog.resources.Collection;
+import org.openmetadata.catalog.security.Authorizer;
+import org.openmetadata.catalog.security.SecurityUtil;
+import org.openmetadata.catalog.type.AuditLog;
+import org.openmetadata.catalog.util.ResultList;
+
+@Path("/v1/auditLogs")
+@Api(value = "Audit logs resource", tags = "auditLogs")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+@Collection(name = "auditLogs")
+public class AuditLogResource {
+  private final AuditLogRepository dao;
+  private final Authorizer authorizer;
+
+  public static class AuditLogList extends ResultList<AuditLog> {
+
+    @SuppressWarnings("unused") /* Required for tests */
+    public AuditLogList() {}
+
+    public AuditLogList(List<AuditLog> data, String beforeCursor, String afterCursor, int total)
+        throws GeneralSecurityException, UnsupportedEncodingException {
+      super(data, beforeCursor, afterCursor, total);
+    }
+  }
+
+  public AuditLogResource(CollectionDAO dao, Authorizer authorizer) {
+    Objects.requireNonNull(dao, "AuditLogRepository must not be null");
+    this.dao = new AuditLogRepository(dao);
+    this.authorizer = authorizer;
+  }
+
+  @GET
+  @Valid
+  @Operation(
+      summary = "List audit logs",
+      tags = "auditLogs",
+      description =
+          "Get a list of audit logs of the API calls that modified entities, optionally filtered by entity, entity "
+              + "type and user, in a time range. Use cursor `after` to get the next page.",
+      responses = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "List of audit logs",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = AuditLogList.class)))
+      })
+  public ResultList<AuditLog> list(
+      @Context UriInfo uriInfo,
+      @Context SecurityContext securityContext,
+      @Parameter(description = "Filter audit logs by the id of the entity modified", schema = @Schema(type = "string"))
+          @QueryParam("entityId")
+          UUID entityId,
+      @Parameter(description = "Filter audit logs by entity type", schema = @Schema(type = "string", example = "table"))
+          @QueryParam("entityType")
+          String entityType,
+      @Parameter(description = "Filter audit logs by the user who made the call", schema = @Schema(type = "string"))
+          @QueryParam("userName")
+          String userName,
+      @Parameter(
+              description = "Audit logs starting from this unix timestamp in milliseconds",
+              schema = @Schema(type = "long", example = "1426349294842"))
+          @DefaultValue("0")
+          @QueryParam("startTs")
+          long startTs,
+      @Parameter(
+              description = "Audit logs up to this unix timestamp in milliseconds",
+              schema = @Schema(type = "long", example = "1426349294842"))
+          @DefaultValue("9223372036854775807")
+          @QueryParam("endTs")
+          long endTs,
+      @Parameter(description = "Limit the number of audit logs returned. (1 to 1000, default = 100)")
+          @DefaultValue("100")
+          @Min(1)
+          @Max(1000)
+          @QueryParam("limit")
+          int limitParam,
+      @Parameter(
+              description = "Returns the next page of audit logs after this cursor",
+              schema = @Schema(type = "string"))
+          @QueryParam("after")
+          String after)
+      throws IOException, GeneralSecurityException {
+    SecurityUtil.checkAdminOrBotRole(authorizer, securityContext);
+    return dao.list(entityId, entityType, userName, startTs, endTs, limitParam, after);
+  }
+}
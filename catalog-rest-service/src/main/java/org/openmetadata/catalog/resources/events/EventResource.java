@@ -19,27 +19,42 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
 import java.text.ParseException;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
+import org.glassfish.jersey.server.ChunkedOutput;
 import org.openmetadata.catalog.Entity.EntityList;
+import org.openmetadata.catalog.events.EventStreamBroadcaster;
 import org.openmetadata.catalog.jdbi3.ChangeEventRepository;
 import org.openmetadata.catalog.jdbi3.CollectionDAO;
 import org.openmetadata.catalog.resources.Collection;
 import org.openmetadata.catalog.security.Authorizer;
 import org.openmetadata.catalog.type.ChangeEvent;
+import org.openmetadata.catalog.type.EventType;
 import org.openmetadata.catalog.util.ResultList;
 
 @Path("/v1/events")
@@ -48,6 +63,7 @@ import org.openmetadata.catalog.util.ResultList;
 @Consumes(MediaType.APPLICATION_JSON)
 @Collection(name = "events")
 public class EventResource {
+  public static final String NDJSON = "application/x-ndjson";
   private final ChangeEventRepository dao;
   private final Authorizer authorizer;
 
@@ -112,11 +128,127 @@ public class EventResource {
               required = true,
               schema = @Schema(type = "long", example = "1426349294842"))
           @QueryParam("timestamp")
-          long timestamp)
+          long timestamp,
+      @Parameter(description = "Limit the number of events returned. (1 to 10000, default = 1000)")
+          @DefaultValue("1000")
+          @Min(1)
+          @Max(10000)
+          @QueryParam("limit")
+          int limitParam,
+      @Parameter(description = "Returns the next page of events after this cursor", schema = @Schema(type = "string"))
+          @QueryParam("after")
+          String after)
       throws IOException, GeneralSecurityException, ParseException {
     List<String> entityCreatedList = EntityList.getEntityList("entityCreated", entityCreated);
     List<String> entityUpdatedList = EntityList.getEntityList("entityUpdated", entityUpdated);
     List<String> entityDeletedList = EntityList.getEntityList("entityDeleted", entityDeleted);
-    return dao.list(timestamp, entityCreatedList, entityUpdatedList, entityDeletedList);
+    return dao.list(timestamp, entityCreatedList, entityUpdatedList, entityDeletedList, limitParam, after);
+  }
+
+  @GET
+  @Path("/export")
+  @Produces(NDJSON)
+  @Operation(
+      summary = "Export change events",
+      tags = "events",
+      description =
+          "Stream all the change events matching event types, entity type, from a given date as newline "
+              + "delimited JSON. Events are read from the database page by page.",
+      responses = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Entity events, one per line",
+            content = @Content(mediaType = NDJSON, schema = @Schema(implementation = ChangeEvent.class)))
+      })
+  public StreamingOutput export(
+      @Context UriInfo uriInfo,
+      @Parameter(
+              description = "List of comma separated entities requested for `entityCreated` event",
+              schema = @Schema(type = "string", example = "table,dashboard,..."))
+          @QueryParam("entityCreated")
+          String entityCreated,
+      @Parameter(
+              description = "List of comma separated entities requested for `entityUpdated` event",
+              schema = @Schema(type = "string", example = "table,dashboard,..."))
+          @QueryParam("entityUpdated")
+          String entityUpdated,
+      @Parameter(
+              description = "List of comma separated entities requested for `entityDeleted` event",
+              schema = @Schema(type = "string", example = "table,dashboard,..."))
+          @QueryParam("entityDeleted")
+          String entityDeleted,
+      @Parameter(
+              description = "Events starting from this unix timestamp in milliseconds",
+              required = true,
+              schema = @Schema(type = "long", example = "1426349294842"))
+          @QueryParam("timestamp")
+          long timestamp)
+      throws ParseException {
+    List<String> entityCreatedList = EntityList.getEntityList("entityCreated", entityCreated);
+    List<String> entityUpdatedList = EntityList.getEntityList("entityUpdated", entityUpdated);
+    List<String> entityDeletedList = EntityList.getEntityList("entityDeleted", entityDeleted);
+    return output -> {
+      BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+      dao.stream(
+          timestamp,
+          entityCreatedList,
+          entityUpdatedList,
+          entityDeletedList,
+          record -> {
+            writer.write(record.getJson());
+            writer.newLine();
+          });
+      writer.flush();
+    };
+  }
+
+  @GET
+  @Path("/stream")
+  @Produces(MediaType.SERVER_SENT_EVENTS)
+  @Operation(
+      summary = "Stream change events",
+      tags = "events",
+      description =
+          "Stream the change events as they happen as server-sent events. The event id is the event timestamp. "
+              + "A client reconnecting with `Last-Event-ID` header gets the events since that timestamp first.",
+      responses = {
+        @ApiResponse(responseCode = "200", description = "Stream of entity events"),
+        @ApiResponse(responseCode = "503", description = "Too many clients connected to the stream")
+      })
+  public ChunkedOutput<String> stream(
+      @Context UriInfo uriInfo,
+      @Parameter(
+              description = "List of comma separated entities to stream events for. When not set all entities",
+              schema = @Schema(type = "string", example = "table,dashboard,..."))
+          @QueryParam("entityType")
+          String entityType,
+      @Parameter(
+              description = "List of comma separated event types to stream. When not set all event types",
+              schema = @Schema(type = "string", example = "entityCreated,entityUpdated,..."))
+          @QueryParam("eventType")
+          String eventType,
+      @Parameter(description = "Timestamp of the last event received before reconnecting") @HeaderParam("Last-Event-ID")
+          Long lastEventId) {
+    EventStreamBroadcaster broadcaster = EventStreamBroadcaster.getInstance();
+    if (broadcaster == null) {
+      throw new WebApplicationException("Event stream is not available", Status.SERVICE_UNAVAILABLE);
+    }
+    List<String> entityTypes = EntityList.getEntityList("entityType", entityType);
+    return broadcaster.subscribe(entityTypes, getEventTypes(eventType), lastEventId);
+  }
+
+  private static Set<EventType> getEventTypes(String eventTypesParam) {
+    if (eventTypesParam == null) {
+      return null;
+    }
+    Set<EventType> eventTypes = EnumSet.noneOf(EventType.class);
+    for (String eventType : eventTypesParam.replace(" ", "").split(",")) {
+      try {
+        eventTypes.add(EventType.fromValue(eventType));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException(String.format("Invalid event type %s in query param eventType", eventType));
+      }
+    }
+    return eventTypes;
   }
 }
@@ -0,0 +1,59 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.resources.lineage;
+
+public class LineageConfiguration {
+  /** Entities returned by a lineage request, beyond which the lineage is cut and marked as truncated. */
+  private int maxNodes = 1000;
+
+  /** Edges returned by a lineage request, upstream and downstream together. */
+  private int maxEdges = 5000;
+
+  /** Keep the lineage graph in memory, for the deep walks, reachability counts and shortest paths. */
+  private boolean graphEnabled = false;
+
+  private int graphRefreshMillis = 1000;
+
+  public int getMaxNodes() {
+    return maxNodes;
+  }
+
+  public void setMaxNodes(int maxNodes) {
+    this.maxNodes = maxNodes;
+  }
+
+  public int getMaxEdges() {
+    return maxEdges;
+  }
+
+  public void setMaxEdges(int maxEdges) {
+    this.maxEdges = maxEdges;
+  }
+
+  public boolean isGraphEnabled() {
+    return graphEnabled;
+  }
+
+  public void setGraphEnabled(boolean graphEnabled) {
+    this.graphEnabled = graphEnabled;
+  }
+
+  public int getGraphRefreshMillis() {
+    return graphRefreshMillis;
+  }
+
+  public void setGraphRefreshMillis(int graphRefreshMillis) {
+    this.graphRefreshMillis = graphRefreshMillis;
+  }
+}
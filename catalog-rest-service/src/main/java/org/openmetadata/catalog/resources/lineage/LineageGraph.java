@@ -0,0 +1,447 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.resources.lineage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.openmetadata.catalog.jdbi3.CollectionDAO.EntityRelation;
+
+/**
+ * The lineage edges of all the entities, held in memory for the walks too deep to be answered from the database. The
+ * entities are interned to ints, with their ids kept as two longs in an open addressing table, and the upstream and
+ * downstream neighbours of an entity are a sorted array of ints, delta and varint encoded, which takes one to three
+ * bytes for an edge in each direction.
+ *
+ * <p>The walks share a read lock. An update replaces all the edges of an entity, re-encoding the neighbours of the
+ * entity, under the write lock. Entities are never removed: an entity that is deleted loses its edges and stays
+ * interned until the graph is loaded again.
+ */
+public class LineageGraph {
+  private static final int NO_NODE = -1;
+  private static final byte[] NO_EDGES = new byte[0];
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final List<String> typeNames = new ArrayList<>();
+  private final Map<String, Byte> typeIndexes = new HashMap<>();
+
+  private long[] mostSignificantBits = new long[16];
+  private long[] leastSignificantBits = new long[16];
+  private byte[] types = new byte[16];
+  private byte[][] upstream = new byte[16][];
+  private byte[][] downstream = new byte[16][];
+  /** Open addressing table of the interned ids, holding the node plus one, or zero for an empty slot. */
+  private int[] slots = new int[32];
+
+  private int nodeCount;
+  private long edgeCount;
+
+  /** Graph with the given edges, in any order, where edges repeated or from an entity to itself are skipped. */
+  public static LineageGraph build(Iterable<EntityRelation> relations) {
+    Builder builder = new Builder();
+    relations.forEach(builder::add);
+    return builder.build();
+  }
+
+  /** Collects the edges of a graph as pairs of interned entities, to group them by entity once they are all added. */
+  public static final class Builder {
+    private final LineageGraph graph = new LineageGraph();
+    private int[] from = new int[1024];
+    private int[] to = new int[1024];
+    private int size;
+
+    public void add(EntityRelation relation) {
+      if (size == from.length) {
+        from = Arrays.copyOf(from, size * 2);
+        to = Arrays.copyOf(to, size * 2);
+      }
+      from[size] = graph.intern(UUID.fromString(relation.getFromId()), relation.getFromEntity());
+      to[size] = graph.intern(UUID.fromString(relation.getToId()), relation.getToEntity());
+      size++;
+    }
+
+    public LineageGraph build() {
+      int[][] downstreamNodes = group(from, to, size, graph.nodeCount);
+      int[][] upstreamNodes = group(to, from, size, graph.nodeCount);
+      for (int node = 0; node < graph.nodeCount; node++) {
+        graph.downstream[node] = encode(downstreamNodes[node]);
+        graph.upstream[node] = encode(upstreamNodes[node]);
+        graph.edgeCount += degree(graph.downstream[node]);
+      }
+      return graph;
+    }
+  }
+
+  /** Sorted distinct targets of the edges of each node, without the edges from a node to itself. */
+  private static int[][] group(int[] sources, int[] targets, int size, int nodeCount) {
+    int[] degrees = new int[nodeCount];
+    for (int i = 0; i < size; i++) {
+      degrees[sources[i]]++;
+    }
+    int[][] grouped = new int[nodeCount][];
+    for (int node = 0; node < nodeCount; node++) {
+      grouped[node] = new int[degrees[node]];
+      degrees[node] = 0;
+    }
+    for (int i = 0; i < size; i++) {
+      grouped[sources[i]][degrees[sources[i]]++] = targets[i];
+    }
+    for (int node = 0; node < nodeCount; node++) {
+      grouped[node] = sortedDistinct(grouped[node], grouped[node].length, node);
+    }
+    return grouped;
+  }
+
+  public int getNodeCount() {
+    lock.readLock().lock();
+    try {
+      return nodeCount;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public long getEdgeCount() {
+    lock.readLock().lock();
+    try {
+      return edgeCount;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Replace the edges of the entity with the given ones, the lineage relationships from or to the entity. The other
+   * relationships are left out.
+   */
+  public void replaceEdges(UUID id, String type, List<EntityRelation> relations) {
+    lock.writeLock().lock();
+    try {
+      if (relations.isEmpty() && find(id) == NO_NODE) {
+        // Not in the lineage, and staying out of it
+        return;
+      }
+      int node = intern(id, type);
+      String nodeId = id.toString();
+      int[] upstreamNodes = new int[relations.size()];
+      int[] downstreamNodes = new int[relations.size()];
+      int upstreamSize = 0;
+      int downstreamSize = 0;
+      for (EntityRelation relation : relations) {
+        if (relation.getToId().equals(nodeId)) {
+          upstreamNodes[upstreamSize++] = intern(UUID.fromString(relation.getFromId()), relation.getFromEntity());
+        } else if (relation.getFromId().equals(nodeId)) {
+          downstreamNodes[downstreamSize++] = intern(UUID.fromString(relation.getToId()), relation.getToEntity());
+        }
+      }
+      byte[] newUpstream = encode(sortedDistinct(upstreamNodes, upstreamSize, node));
+      byte[] newDownstream = encode(sortedDistinct(downstreamNodes, downstreamSize, node));
+      if (Arrays.equals(newUpstream, upstream[node]) && Arrays.equals(newDownstream, downstream[node])) {
+        // Most changes of an entity leave its lineage alone
+        return;
+      }
+      for (int neighbour : decode(upstream[node])) {
+        downstream[neighbour] = remove(downstream[neighbour], node);
+      }
+      for (int neighbour : decode(downstream[node])) {
+        upstream[neighbour] = remove(upstream[neighbour], node);
+      }
+      edgeCount -= degree(upstream[node]) + degree(downstream[node]);
+      upstream[node] = newUpstream;
+      downstream[node] = newDownstream;
+      for (int neighbour : decode(newUpstream)) {
+        downstream[neighbour] = insert(downstream[neighbour], node);
+      }
+      for (int neighbour : decode(newDownstream)) {
+        upstream[neighbour] = insert(upstream[neighbour], node);
+      }
+      edgeCount += degree(newUpstream) + degree(newDownstream);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Lineage relationships to the entities with the given ids, when {@code upstream}, or else from them. */
+  public List<EntityRelation> getRelations(List<String> ids, boolean upstream) {
+    lock.readLock().lock();
+    try {
+      List<EntityRelation> relations = new ArrayList<>();
+      for (String id : ids) {
+        int node = find(UUID.fromString(id));
+        if (node == NO_NODE) {
+          continue;
+        }
+        for (int neighbour : decode(upstream ? this.upstream[node] : this.downstream[node])) {
+          relations.add(upstream ? relation(neighbour, node) : relation(node, neighbour));
+        }
+      }
+      return relations;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Number of entities first reached at each level, up to {@code depth} levels upstream or downstream of the entity.
+   * The counts stop at the last level that reaches new entities.
+   */
+  public int[] countReachable(UUID id, boolean upstream, int depth) {
+    lock.readLock().lock();
+    try {
+      int start = find(id);
+      if (start == NO_NODE) {
+        return new int[0];
+      }
+      byte[][] edges = upstream ? this.upstream : this.downstream;
+      BitSet visited = new BitSet(nodeCount);
+      visited.set(start);
+      int[] counts = new int[depth];
+      int[] level = {start};
+      int levelSize = 1;
+      int levels = 0;
+      while (levels < depth && levelSize > 0) {
+        int[] next = new int[16];
+        int nextSize = 0;
+        for (int i = 0; i < levelSize; i++) {
+          for (int neighbour : decode(edges[level[i]])) {
+            if (!visited.get(neighbour)) {
+              visited.set(neighbour);
+              if (nextSize == next.length) {
+                next = Arrays.copyOf(next, nextSize * 2);
+              }
+              next[nextSize++] = neighbour;
+            }
+          }
+        }
+        if (nextSize > 0) {
+          counts[levels++] = nextSize;
+        }
+        level = next;
+        levelSize = nextSize;
+      }
+      return Arrays.copyOf(counts, levels);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Edges of a shortest path downstream from one entity to the other, of at most {@code maxDepth} edges, or null when
+   * there is none.
+   */
+  public List<EntityRelation> getShortestPath(UUID fromId, UUID toId, int maxDepth) {
+    lock.readLock().lock();
+    try {
+      int from = find(fromId);
+      int to = find(toId);
+      if (from == NO_NODE || to == NO_NODE) {
+        return null;
+      }
+      int[] parents = new int[nodeCount];
+      Arrays.fill(parents, NO_NODE);
+      parents[from] = from;
+      int[] level = {from};
+      int levelSize = 1;
+      for (int depth = 0; depth < maxDepth && levelSize > 0 && parents[to] == NO_NODE; depth++) {
+        int[] next = new int[16];
+        int nextSize = 0;
+        for (int i = 0; i < levelSize && parents[to] == NO_NODE; i++) {
+          for (int neighbour : decode(downstream[level[i]])) {
+            if (parents[neighbour] == NO_NODE) {
+              parents[neighbour] = level[i];
+              if (nextSize == next.length) {
+                next = Arrays.copyOf(next, nextSize * 2);
+              }
+              next[nextSize++] = neighbour;
+            }
+          }
+        }
+        level = next;
+        levelSize = nextSize;
+      }
+      if (parents[to] == NO_NODE) {
+        return null;
+      }
+      List<EntityRelation> path = new ArrayList<>();
+      for (int node = to; node != from; node = parents[node]) {
+        path.add(0, relation(parents[node], node));
+      }
+      return path;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private EntityRelation relation(int from, int to) {
+    return new EntityRelation(id(from), id(to), typeNames.get(types[from] & 0xFF), typeNames.get(types[to] & 0xFF));
+  }
+
+  private String id(int node) {
+    return new UUID(mostSignificantBits[node], leastSignificantBits[node]).toString();
+  }
+
+  private int find(UUID id) {
+    long most = id.getMostSignificantBits();
+    long least = id.getLeastSignificantBits();
+    int mask = slots.length - 1;
+    for (int slot = hash(most, least) & mask; ; slot = (slot + 1) & mask) {
+      int node = slots[slot] - 1;
+      if (node == NO_NODE || (mostSignificantBits[node] == most && leastSignificantBits[node] == least)) {
+        return node;
+      }
+    }
+  }
+
+  private int intern(UUID id, String type) {
+    int node = find(id);
+    if (node != NO_NODE) {
+      return node;
+    }
+    node = nodeCount++;
+    if (node == types.length) {
+      int capacity = types.length * 2;
+      mostSignificantBits = Arrays.copyOf(mostSignificantBits, capacity);
+      leastSignificantBits = Arrays.copyOf(leastSignificantBits, capacity);
+      types = Arrays.copyOf(types, capacity);
+      upstream = Arrays.copyOf(upstream, capacity);
+      downstream = Arrays.copyOf(downstream, capacity);
+    }
+    mostSignificantBits[node] = id.getMostSignificantBits();
+    leastSignificantBits[node] = id.getLeastSignificantBits();
+    types[node] = typeIndexes.computeIfAbsent(type, this::registerType);
+    upstream[node] = NO_EDGES;
+    downstream[node] = NO_EDGES;
+    if (nodeCount * 2 > slots.length) {
+      slots = new int[slots.length * 2];
+      for (int i = 0; i < nodeCount; i++) {
+        addSlot(i);
+      }
+    } else {
+      addSlot(node);
+    }
+    return node;
+  }
+
+  private byte registerType(String type) {
+    typeNames.add(type);
+    return (byte) (typeNames.size() - 1);
+  }
+
+  private void addSlot(int node) {
+    int mask = slots.length - 1;
+    int slot = hash(mostSignificantBits[node], leastSignificantBits[node]) & mask;
+    while (slots[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    slots[slot] = node + 1;
+  }
+
+  private static int hash(long most, long least) {
+    return Long.hashCode((most ^ least) * 0x9E3779B97F4A7C15L);
+  }
+
+  private static int[] sortedDistinct(int[] nodes, int size, int self) {
+    int[] sorted = Arrays.copyOf(nodes, size);
+    Arrays.sort(sorted);
+    int distinct = 0;
+    for (int i = 0; i < size; i++) {
+      if (sorted[i] != self && (distinct == 0 || sorted[distinct - 1] != sorted[i])) {
+        sorted[distinct++] = sorted[i];
+      }
+    }
+    return Arrays.copyOf(sorted, distinct);
+  }
+
+  private static byte[] insert(byte[] encoded, int node) {
+    int[] nodes = decode(encoded);
+    int index = Arrays.binarySearch(nodes, node);
+    if (index >= 0) {
+      return encoded;
+    }
+    int[] inserted = new int[nodes.length + 1];
+    index = -index - 1;
+    System.arraycopy(nodes, 0, inserted, 0, index);
+    inserted[index] = node;
+    System.arraycopy(nodes, index, inserted, index + 1, nodes.length - index);
+    return encode(inserted);
+  }
+
+  private static byte[] remove(byte[] encoded, int node) {
+    int[] nodes = decode(encoded);
+    int index = Arrays.binarySearch(nodes, node);
+    if (index < 0) {
+      return encoded;
+    }
+    int[] removed = new int[nodes.length - 1];
+    System.arraycopy(nodes, 0, removed, 0, index);
+    System.arraycopy(nodes, index + 1, removed, index, nodes.length - index - 1);
+    return encode(removed);
+  }
+
+  /** Deltas of the sorted nodes as varints, seven bits a byte with the high bit set on all but the last byte. */
+  static byte[] encode(int[] sorted) {
+    if (sorted.length == 0) {
+      return NO_EDGES;
+    }
+    byte[] buffer = new byte[sorted.length * 5];
+    int position = 0;
+    int previous = 0;
+    for (int node : sorted) {
+      int delta = node - previous;
+      previous = node;
+      while ((delta & ~0x7F) != 0) {
+        buffer[position++] = (byte) ((delta & 0x7F) | 0x80);
+        delta >>>= 7;
+      }
+      buffer[position++] = (byte) delta;
+    }
+    return Arrays.copyOf(buffer, position);
+  }
+
+  static int[] decode(byte[] encoded) {
+    int[] nodes = new int[degree(encoded)];
+    int node = 0;
+    int index = 0;
+    int delta = 0;
+    int shift = 0;
+    for (byte b : encoded) {
+      delta |= (b & 0x7F) << shift;
+      if (b >= 0) {
+        node += delta;
+        nodes[index++] = node;
+        delta = 0;
+        shift = 0;
+      } else {
+        shift += 7;
+      }
+    }
+    return nodes;
+  }
+
+  private static int degree(byte[] encoded) {
+    int degree = 0;
+    for (byte b : encoded) {
+      if (b >= 0) {
+        degree++;
+      }
+    }
+    return degree;
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.resources.lineage;
+
+import static org.openmetadata.catalog.util.EntityUtil.toBoolean;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.Jdbi;
+import org.openmetadata.catalog.events.ChangedEntityRefresher;
+import org.openmetadata.catalog.jdbi3.CollectionDAO;
+import org.openmetadata.catalog.jdbi3.CollectionDAO.EntityRelation;
+import org.openmetadata.catalog.jdbi3.Relationship;
+import org.openmetadata.catalog.type.Include;
+
+/**
+ * Keeps the {@link LineageGraph} of the server. The graph is loaded from the lineage relationships in the database at
+ * startup, in the background; the lineage is read from the database until it is loaded. The edges of the changed
+ * entities are read again from the database, a batch of entities at a time (see {@link ChangedEntityRefresher}). The
+ * lineage edits emit a change event of the downstream entity, so they are picked up the same way.
+ */
+@Slf4j
+public class LineageGraphService extends ChangedEntityRefresher {
+  private static final int SCAN_BATCH_SIZE = 10000;
+  private static final int REFRESH_BATCH_SIZE = 500;
+
+  private static volatile LineageGraphService instance;
+
+  private final CollectionDAO dao;
+
+  private volatile LineageGraph graph;
+
+  public LineageGraphService(Jdbi jdbi, LineageConfiguration config) {
+    super("lineage graph", config.getGraphRefreshMillis(), REFRESH_BATCH_SIZE);
+    this.dao = jdbi.onDemand(CollectionDAO.class);
+  }
+
+  /** The loaded lineage graph, or null when the lineage is read from the database. */
+  public static LineageGraph getGraph() {
+    LineageGraphService service = instance;
+    return service == null ? null : service.graph;
+  }
+
+  @Override
+  public void start() {
+    super.start();
+    instance = this;
+  }
+
+  @Override
+  public void stop() {
+    instance = null;
+    super.stop();
+  }
+
+  @Override
+  protected void load() {
+    long start = System.currentTimeMillis();
+    LineageGraph.Builder builder = new LineageGraph.Builder();
+    List<EntityRelation> batch;
+    String afterFromId = "";
+    String afterToId = "";
+    do {
+      batch = dao.relationshipDAO().listAfter(Relationship.UPSTREAM.ordinal(), afterFromId, afterToId, SCAN_BATCH_SIZE);
+      batch.forEach(builder::add);
+      if (!batch.isEmpty()) {
+        afterFromId = batch.get(batch.size() - 1).getFromId();
+        afterToId = batch.get(batch.size() - 1).getToId();
+      }
+    } while (batch.size() == SCAN_BATCH_SIZE);
+    LineageGraph loaded = builder.build();
+    graph = loaded;
+    LOG.info(
+        "Loaded the lineage graph of {} entities and {} edges in {} ms",
+        loaded.getNodeCount(),
+        loaded.getEdgeCount(),
+        System.currentTimeMillis() - start);
+  }
+
+  @Override
+  protected boolean isLoaded() {
+    return graph != null;
+  }
+
+  /** Read the lineage edges of the entities from the database and replace theirs in the graph. */
+  @Override
+  protected void refresh(Map<String, String> entities) {
+    List<String> ids = new ArrayList<>(entities.keySet());
+    Boolean deleted = toBoolean(Include.NON_DELETED);
+    Map<String, List<EntityRelation>> relations = new HashMap<>();
+    for (EntityRelation relation : dao.relationshipDAO().findFromAll(ids, Relationship.UPSTREAM.ordinal(), deleted)) {
+      relations.computeIfAbsent(relation.getToId(), id -> new ArrayList<>()).add(relation);
+    }
+    for (EntityRelation relation : dao.relationshipDAO().findToAll(ids, Relationship.UPSTREAM.ordinal(), deleted)) {
+      relations.computeIfAbsent(relation.getFromId(), id -> new ArrayList<>()).add(relation);
+    }
+    for (Map.Entry<String, String> entity : entities.entrySet()) {
+      graph.replaceEdges(
+          UUID.fromString(entity.getKey()), entity.getValue(), relations.getOrDefault(entity.getKey(), List.of()));
+    }
+  }
+}
@@ -15,6 +15,7 @@ package org.openmetadata.catalog.resources.lineage;
 
 import static javax.ws.rs.core.Response.Status.NOT_FOUND;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.dropwizard.jersey.errors.ErrorMessage;
 import io.swagger.annotations.Api;
 import io.swagger.v3.oas.annotations.Operation;
@@ -23,6 +24,10 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import java.io.IOException;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 import javax.validation.Valid;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
@@ -41,7 +46,9 @@ import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.SecurityContext;
 import javax.ws.rs.core.UriInfo;
+import lombok.Getter;
 import lombok.NonNull;
+import org.openmetadata.catalog.CatalogApplicationConfig;
 import org.openmetadata.catalog.Entity;
 import org.openmetadata.catalog.api.lineage.AddLineage;
 import org.openmetadata.catalog.jdbi3.CollectionDAO;
@@ -49,8 +56,10 @@ import org.openmetadata.catalog.jdbi3.LineageRepository;
 import org.openmetadata.catalog.resources.Collection;
 import org.openmetadata.catalog.security.Authorizer;
 import org.openmetadata.catalog.security.SecurityUtil;
+import org.openmetadata.catalog.type.ChangeEvent;
 import org.openmetadata.catalog.type.EntityLineage;
 import org.openmetadata.catalog.type.MetadataOperation;
+import org.openmetadata.catalog.util.RestUtil;
 
 @Path("/v1/lineage")
 @Api(value = "Lineage resource", tags = "Lineage resource")
@@ -58,14 +67,23 @@ import org.openmetadata.catalog.type.MetadataOperation;
 @Consumes(MediaType.APPLICATION_JSON)
 @Collection(name = "lineage")
 public class LineageResource {
-  private final LineageRepository dao;
+  /** Deepest walk of the lineage, for the graph walks. */
+  private static final int MAX_DEPTH = 50;
+
+  private final CollectionDAO collectionDAO;
   private final Authorizer authorizer;
+  private LineageRepository dao;
 
   public LineageResource(@NonNull CollectionDAO dao, Authorizer authorizer) {
+    this.collectionDAO = dao;
     this.dao = new LineageRepository(dao);
     this.authorizer = authorizer;
   }
 
+  public void initialize(CatalogApplicationConfig config) {
+    this.dao = new LineageRepository(collectionDAO, config.getLineageConfiguration());
+  }
+
   @GET
   @Valid
   @Path("/{entity}/{id}")
@@ -144,6 +162,115 @@ public class LineageResource {
     return addHref(uriInfo, dao.getByName(entity, fqn, upstreamDepth, downStreamDepth));
   }
 
+  @GET
+  @Valid
+  @Path("/{entity}/{id}/traverse")
+  @Operation(
+      summary = "Get deep lineage",
+      tags = "lineage",
+      description =
+          "Get the lineage of an entity in one direction, up to many levels deep, for impact analysis. The walk is "
+              + "answered from the in-memory lineage graph when it is enabled, and is cut at the configured number of "
+              + "nodes and edges.",
+      responses = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Entity lineage",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = EntityLineage.class))),
+        @ApiResponse(responseCode = "404", description = "Entity for instance {id} is not found")
+      })
+  public EntityLineage traverse(
+      @Context UriInfo uriInfo,
+      @Parameter(description = "Entity type", required = true, schema = @Schema(type = "string")) @PathParam("entity")
+          String entity,
+      @Parameter(description = "Entity id", required = true, schema = @Schema(type = "string")) @PathParam("id")
+          String id,
+      @Parameter(description = "upstream or downstream (default)") @DefaultValue("downstream") @QueryParam("direction")
+          String direction,
+      @Parameter(description = "Depth of lineage (default=10, min=0, max=50)") @DefaultValue("10") @QueryParam("depth")
+          int depth)
+      throws IOException {
+    depth = Math.min(Math.max(depth, 0), MAX_DEPTH);
+    return addHref(uriInfo, dao.traverse(entity, id, isUpstream(direction), depth));
+  }
+
+  @GET
+  @Path("/{entity}/{id}/count")
+  @Operation(
+      summary = "Count the entities in the lineage",
+      tags = "lineage",
+      description =
+          "Count the entities reachable from an entity in one direction, at each level up to the given depth. "
+              + "Needs the in-memory lineage graph.",
+      responses = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Entities reached",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = LineageReach.class))),
+        @ApiResponse(responseCode = "404", description = "Entity for instance {id} is not found"),
+        @ApiResponse(responseCode = "503", description = "The lineage graph is not loaded")
+      })
+  public LineageReach count(
+      @Context UriInfo uriInfo,
+      @Parameter(description = "Entity type", required = true, schema = @Schema(type = "string")) @PathParam("entity")
+          String entity,
+      @Parameter(description = "Entity id", required = true, schema = @Schema(type = "string")) @PathParam("id")
+          String id,
+      @Parameter(description = "upstream or downstream (default)") @DefaultValue("downstream") @QueryParam("direction")
+          String direction,
+      @Parameter(description = "Depth of lineage (default=10, min=0, max=50)") @DefaultValue("10") @QueryParam("depth")
+          int depth)
+      throws IOException {
+    depth = Math.min(Math.max(depth, 0), MAX_DEPTH);
+    return new LineageReach(dao.countReachable(entity, id, isUpstream(direction), depth));
+  }
+
+  @GET
+  @Path("/{fromEntity}/{fromId}/path/{toEntity}/{toId}")
+  @Operation(
+      summary = "Get the lineage path between two entities",
+      tags = "lineage",
+      description =
+          "Get a shortest lineage path downstream from one entity to the other, as the lineage of the first entity. "
+              + "Needs the in-memory lineage graph.",
+      responses = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Entity lineage",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = EntityLineage.class))),
+        @ApiResponse(responseCode = "404", description = "Entity not found or no path between the entities"),
+        @ApiResponse(responseCode = "503", description = "The lineage graph is not loaded")
+      })
+  public Response getPath(
+      @Context UriInfo uriInfo,
+      @Parameter(description = "Entity type of the upstream entity", required = true, schema = @Schema(type = "string"))
+          @PathParam("fromEntity")
+          String fromEntity,
+      @Parameter(description = "Entity id", required = true, schema = @Schema(type = "string")) @PathParam("fromId")
+          String fromId,
+      @Parameter(
+              description = "Entity type of the downstream entity",
+              required = true,
+              schema = @Schema(type = "string"))
+          @PathParam("toEntity")
+          String toEntity,
+      @Parameter(description = "Entity id", required = true, schema = @Schema(type = "string")) @PathParam("toId")
+          String toId,
+      @Parameter(description = "Longest path looked for (default=50, min=0, max=50)")
+          @DefaultValue("50")
+          @QueryParam("maxDepth")
+          int maxDepth)
+      throws IOException {
+    maxDepth = Math.min(Math.max(maxDepth, 0), MAX_DEPTH);
+    EntityLineage path = dao.getShortestPath(fromEntity, fromId, toEntity, toId, maxDepth);
+    if (path == null) {
+      return Response.status(NOT_FOUND)
+          .entity(new ErrorMessage(NOT_FOUND.getStatusCode(), "Lineage path not found"))
+          .build();
+    }
+    return Response.ok(addHref(uriInfo, path)).build();
+  }
+
   @PUT
   @Operation(
       summary = "Add a lineage edge",
@@ -155,11 +282,14 @@ public class LineageResource {
       })
   public Response addLineage(
       @Context UriInfo uriInfo, @Context SecurityContext securityContext, @Valid AddLineage addLineage)
-      throws IOException {
+      throws IOException, ParseException {
     SecurityUtil.checkAdminRoleOrPermissions(authorizer, securityContext, null, MetadataOperation.UpdateLineage);
 
-    dao.addLineage(addLineage);
-    return Response.status(Status.OK).build();
+    ChangeEvent changeEvent = dao.addLineage(securityContext.getUserPrincipal().getName(), addLineage);
+    return Response.status(Status.OK)
+        .header(RestUtil.CHANGE_CUSTOM_HEADER, RestUtil.ENTITY_FIELDS_CHANGED)
+        .entity(changeEvent)
+        .build();
   }
 
   @DELETE
@@ -191,16 +321,30 @@ public class LineageResource {
           String toEntity,
       @Parameter(description = "Entity id", required = true, schema = @Schema(type = "string")) @PathParam("toId")
           String toId)
-      throws IOException {
+      throws IOException, ParseException {
     SecurityUtil.checkAdminRoleOrPermissions(authorizer, securityContext, null, MetadataOperation.UpdateLineage);
 
-    boolean deleted = dao.deleteLineage(fromEntity, fromId, toEntity, toId);
-    if (!deleted) {
+    ChangeEvent changeEvent =
+        dao.deleteLineage(securityContext.getUserPrincipal().getName(), fromEntity, fromId, toEntity, toId);
+    if (changeEvent == null) {
       return Response.status(NOT_FOUND)
           .entity(new ErrorMessage(NOT_FOUND.getStatusCode(), "Lineage edge not " + "found"))
           .build();
     }
-    return Response.status(Status.OK).build();
+    return Response.status(Status.OK)
+        .header(RestUtil.CHANGE_CUSTOM_HEADER, RestUtil.ENTITY_FIELDS_CHANGED)
+        .entity(changeEvent)
+        .build();
+  }
+
+  private static boolean isUpstream(String direction) {
+    if ("upstream".equalsIgnoreCase(direction)) {
+      return true;
+    }
+    if ("downstream".equalsIgnoreCase(direction)) {
+      return false;
+    }
+    throw new IllegalArgumentException("Invalid lineage direction " + direction + ", expected upstream or downstream");
   }
 
   private EntityLineage addHref(UriInfo uriInfo, EntityLineage lineage) {
@@ -208,4 +352,19 @@ public class LineageResource {
     Entity.withHref(uriInfo, lineage.getNodes());
     return lineage;
   }
+
+  /** Number of the entities reached through the lineage of an entity, in total and first reached at each level. */
+  @Getter
+  public static class LineageReach {
+    @JsonProperty("total")
+    private final int total;
+
+    @JsonProperty("levels")
+    private final List<Integer> levels;
+
+    LineageReach(int[] levels) {
+      this.total = Arrays.stream(levels).sum();
+      this.levels = Arrays.stream(levels).boxed().collect(Collectors.toList());
+    }
+  }
 }
@@ -0,0 +1,401 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.resources.search;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.Iterables;
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.search.suggest.InputIterator;
+import org.apache.lucene.search.suggest.Lookup.LookupResult;
+import org.apache.lucene.search.suggest.fst.WFSTCompletionLookup;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.jdbi.v3.core.Jdbi;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchConfiguration;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchIndexDefinition;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchIndexDefinition.ElasticSearchIndexType;
+import org.openmetadata.catalog.elasticsearch.SearchDocuments;
+import org.openmetadata.catalog.events.ChangedEntityRefresher;
+import org.openmetadata.catalog.jdbi3.CollectionDAO;
+import org.openmetadata.catalog.resources.search.SearchResults.Hit;
+import org.openmetadata.catalog.resources.search.SearchResults.SuggestionEntry;
+import org.openmetadata.catalog.resources.search.SearchResults.Suggestions;
+
+/**
+ * In-memory prefix index over the suggest inputs of the search documents (the names and fully qualified names of the
+ * entities), answering the suggest API without a round trip to the search backend. Each index has a weighted FST
+ * ({@link WFSTCompletionLookup}) from the lowercased inputs to the entities, where the weight is the monthly usage
+ * count of the entity, so the most used entities are suggested first, with the weight of the input breaking the ties.
+ *
+ * <p>The documents are read from the database at startup, in the background; the suggestions come from the search
+ * backend until they are all loaded. The changed entities are read again from the database (see {@link
+ * ChangedEntityRefresher}). The FST of an index cannot be changed, so it is rebuilt from all the entities of the index
+ * when they change, at most once per rebuild interval unless many of them changed. Until then, the deleted entities are
+ * left out of the suggestions and the new inputs are not matched yet. The usage counts are reloaded periodically.
+ *
+ * <p>An entity only keeps the fields of its search document shown in the suggestion lists.
+ *
+ * <p>Only prefixes are matched: prefixes without suggestions, and suggestions asking for more fields than the default
+ * ones, still go to the search backend.
+ */
+@Slf4j
+public class AutocompleteIndex extends ChangedEntityRefresher {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  /** Separates the input from the entity id in the keys of the FST, so that each entity has its own suggestion. */
+  private static final char SEPARATOR = '\u001f';
+
+  /** Tells the usage counts apart from the weights of the inputs, which are under 16. */
+  private static final int USAGE_FACTOR = 16;
+
+  private static final int SUGGEST_SIZE = 5;
+  private static final int SCAN_BATCH_SIZE = 100;
+
+  /** Fields of the search documents kept for the suggestions, besides the entity id. */
+  private static final List<String> SUGGEST_FIELDS =
+      List.of(
+          "name",
+          "display_name",
+          "fqdn",
+          "description",
+          "entity_type",
+          "service",
+          "service_type",
+          "database",
+          "table_type",
+          "owner",
+          "tier",
+          "tags");
+
+  private static volatile AutocompleteIndex instance;
+
+  private final CollectionDAO dao;
+  private final int usageRefreshMinutes;
+  private final int rebuildMillis;
+  private final int rebuildChanges;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  /** Changes of the entities of the indexes since their FST was rebuilt, by index. */
+  private final Map<String, Integer> dirtyIndexes = new ConcurrentHashMap<>();
+  /** Time of the last rebuild of the FST, by index. */
+  private final Map<String, Long> rebuiltAt = new ConcurrentHashMap<>();
+
+  private volatile Map<String, WFSTCompletionLookup> lookups = Map.of();
+  private volatile Map<String, Integer> usage = Map.of();
+  private volatile boolean ready;
+
+  public AutocompleteIndex(Jdbi jdbi, ElasticSearchConfiguration esConfig) {
+    this(
+        jdbi.onDemand(CollectionDAO.class),
+        esConfig.getAutocompleteRefreshMillis(),
+        esConfig.getAutocompleteUsageRefreshMinutes(),
+        esConfig.getAutocompleteRebuildMillis(),
+        esConfig.getAutocompleteRebuildChanges());
+  }
+
+  AutocompleteIndex(
+      CollectionDAO dao, int refreshMillis, int usageRefreshMinutes, int rebuildMillis, int rebuildChanges) {
+    super("autocomplete index", refreshMillis, 1);
+    this.dao = dao;
+    this.usageRefreshMinutes = usageRefreshMinutes;
+    this.rebuildMillis = rebuildMillis;
+    this.rebuildChanges = rebuildChanges;
+  }
+
+  /** The running index, or null when the suggestions come from the search backend only. */
+  public static AutocompleteIndex getInstance() {
+    return instance;
+  }
+
+  @Override
+  public void start() {
+    super.start();
+    scheduleWithFixedDelay(this::reloadUsage, usageRefreshMinutes, TimeUnit.MINUTES);
+    instance = this;
+  }
+
+  @Override
+  public void stop() {
+    instance = null;
+    super.stop();
+  }
+
+  @Override
+  protected boolean accepts(String entityType) {
+    return ElasticSearchIndexDefinition.findIndexTypeByEntityType(entityType) != null;
+  }
+
+  /**
+   * Suggestions of the entities of the index with an input starting with the prefix, or null when the index is not
+   * loaded yet, is not a single known index, or has none, in which case the search backend is asked instead.
+   */
+  Suggestions suggest(String index, String prefix) throws IOException {
+    WFSTCompletionLookup lookup = ready ? lookups.get(index) : null;
+    if (lookup == null || prefix == null || prefix.isEmpty()) {
+      return null;
+    }
+    // An entity may match with several inputs, each of them a suggestion of the FST
+    List<LookupResult> results = lookup.lookup(prefix.toLowerCase(Locale.ROOT), false, SUGGEST_SIZE * 4);
+    Map<String, Hit> options = new LinkedHashMap<>();
+    for (LookupResult result : results) {
+      String key = result.key.toString();
+      String id = key.substring(key.lastIndexOf(SEPARATOR) + 1);
+      Entry entry = entries.get(id);
+      if (entry != null && options.size() < SUGGEST_SIZE) {
+        options.putIfAbsent(id, new Hit(index, id, (float) result.value, entry.source, null));
+      }
+    }
+    if (options.isEmpty()) {
+      return null;
+    }
+    return new Suggestions(
+        Map.of("table-suggest", List.of(new SuggestionEntry(prefix, new ArrayList<>(options.values())))));
+  }
+
+  /** Add, replace or, when it is deleted, remove the search document of an entity. */
+  void put(ElasticSearchIndexType indexType, String id, String json) throws IOException {
+    JsonNode document = MAPPER.readTree(json);
+    if (document.path("deleted").asBoolean(false)) {
+      remove(id);
+      return;
+    }
+    String index = indexType.indexName;
+    Set<String> inputs = new HashSet<>();
+    int inputWeight = 0;
+    for (JsonNode suggest : document.path("suggest")) {
+      String input = suggest.path("input").asText(null);
+      if (input != null && !input.isEmpty()) {
+        inputs.add(input.toLowerCase(Locale.ROOT));
+        inputWeight = Math.max(inputWeight, suggest.path("weight").asInt(0));
+      }
+    }
+    ObjectNode source = MAPPER.createObjectNode();
+    for (String field : Iterables.concat(List.of(indexType.idField), SUGGEST_FIELDS)) {
+      if (document.has(field)) {
+        source.set(field, document.get(field));
+      }
+    }
+    Entry entry = new Entry(index, inputs.toArray(new String[0]), inputWeight, MAPPER.writeValueAsString(source));
+    Entry previous = entries.put(id, entry);
+    changed(index);
+    if (previous != null && !previous.index.equals(index)) {
+      changed(previous.index);
+    }
+  }
+
+  void remove(String id) {
+    Entry previous = entries.remove(id);
+    if (previous != null) {
+      changed(previous.index);
+    }
+  }
+
+  void setUsage(Map<String, Integer> usage) {
+    this.usage = usage;
+    entries.values().forEach(entry -> changed(entry.index));
+  }
+
+  private void changed(String index) {
+    dirtyIndexes.merge(index, 1, Integer::sum);
+  }
+
+  /** Rebuild the FST of the indexes with changed entities, and start serving the suggestions. */
+  void rebuild() throws IOException {
+    rebuild(new HashSet<>(dirtyIndexes.keySet()), System.currentTimeMillis());
+  }
+
+  /**
+   * Rebuild the FST of the indexes with changed entities that were not rebuilt in the last rebuild interval, or have at
+   * least the given number of changes.
+   */
+  void rebuildDue(long now) throws IOException {
+    Set<String> indexes = new HashSet<>();
+    dirtyIndexes.forEach(
+        (index, changes) -> {
+          if (changes >= rebuildChanges || now - rebuiltAt.getOrDefault(index, 0L) >= rebuildMillis) {
+            indexes.add(index);
+          }
+        });
+    rebuild(indexes, now);
+  }
+
+  private void rebuild(Set<String> indexes, long now) throws IOException {
+    indexes.forEach(dirtyIndexes::remove);
+    if (!indexes.isEmpty()) {
+      Map<String, List<Key>> keys = new HashMap<>();
+      indexes.forEach(index -> keys.put(index, new ArrayList<>()));
+      Map<String, Integer> counts = usage;
+      for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+        List<Key> indexKeys = keys.get(entry.getValue().index);
+        if (indexKeys != null) {
+          long weight = weight(counts.getOrDefault(entry.getKey(), 0), entry.getValue().inputWeight);
+          for (String input : entry.getValue().inputs) {
+            indexKeys.add(new Key(new BytesRef(input + SEPARATOR + entry.getKey()), weight));
+          }
+        }
+      }
+      Map<String, WFSTCompletionLookup> rebuilt = new HashMap<>(lookups);
+      for (Map.Entry<String, List<Key>> indexKeys : keys.entrySet()) {
+        if (indexKeys.getValue().isEmpty()) {
+          rebuilt.remove(indexKeys.getKey());
+        } else {
+          rebuilt.put(indexKeys.getKey(), build(indexKeys.getValue()));
+        }
+      }
+      lookups = rebuilt;
+      indexes.forEach(index -> rebuiltAt.put(index, now));
+    }
+    ready = true;
+  }
+
+  private static long weight(int usageCount, int inputWeight) {
+    return Math.min((long) Math.max(usageCount, 0) * USAGE_FACTOR + inputWeight, Integer.MAX_VALUE);
+  }
+
+  private static WFSTCompletionLookup build(List<Key> keys) throws IOException {
+    WFSTCompletionLookup lookup = new WFSTCompletionLookup(new ByteBuffersDirectory(), "autocomplete");
+    lookup.build(new KeyIterator(keys.iterator()));
+    return lookup;
+  }
+
+  @Override
+  protected void load() throws IOException, ParseException {
+    long start = System.currentTimeMillis();
+    Map<String, Integer> counts = dao.usageDAO().listLatestMonthlyCounts();
+    Set<String> loaded = new HashSet<>();
+    for (ElasticSearchIndexType indexType : ElasticSearchIndexType.values()) {
+      changed(indexType.indexName);
+    }
+    SearchDocuments.scan(
+        dao,
+        SCAN_BATCH_SIZE,
+        (indexType, id, json) -> {
+          put(indexType, id, json);
+          loaded.add(id);
+        });
+    entries.keySet().retainAll(loaded);
+    setUsage(counts);
+    rebuild();
+    LOG.info(
+        "Loaded {} entities in the autocomplete index in {} ms", loaded.size(), System.currentTimeMillis() - start);
+  }
+
+  @Override
+  protected void refresh(Map<String, String> entities) throws IOException, ParseException {
+    for (Map.Entry<String, String> entity : entities.entrySet()) {
+      ElasticSearchIndexType indexType = ElasticSearchIndexDefinition.findIndexTypeByEntityType(entity.getValue());
+      String json = SearchDocuments.read(dao, entity.getValue(), entity.getKey());
+      if (json == null) {
+        remove(entity.getKey());
+      } else {
+        put(indexType, entity.getKey(), json);
+      }
+    }
+  }
+
+  @Override
+  protected void afterRefresh() throws IOException {
+    if (ready) {
+      rebuildDue(System.currentTimeMillis());
+    }
+  }
+
+  private void reloadUsage() {
+    try {
+      setUsage(dao.usageDAO().listLatestMonthlyCounts());
+    } catch (Exception e) {
+      LOG.error("Failed to reload the usage counts of the autocomplete index", e);
+    }
+  }
+
+  private static final class Entry {
+    private final String index;
+    private final String[] inputs;
+    private final int inputWeight;
+    /** Fields of the search document kept for the suggestions. */
+    private final String source;
+
+    private Entry(String index, String[] inputs, int inputWeight, String source) {
+      this.index = index;
+      this.inputs = inputs;
+      this.inputWeight = inputWeight;
+      this.source = source;
+    }
+  }
+
+  private static final class Key {
+    private final BytesRef bytes;
+    private final long weight;
+
+    private Key(BytesRef bytes, long weight) {
+      this.bytes = bytes;
+      this.weight = weight;
+    }
+  }
+
+  /** The keys of an FST, with their weights and without payloads or contexts. */
+  private static final class KeyIterator implements InputIterator {
+    private final Iterator<Key> keys;
+    private Key current;
+
+    private KeyIterator(Iterator<Key> keys) {
+      this.keys = keys;
+    }
+
+    @Override
+    public BytesRef next() {
+      current = keys.hasNext() ? keys.next() : null;
+      return current == null ? null : current.bytes;
+    }
+
+    @Override
+    public long weight() {
+      return current.weight;
+    }
+
+    @Override
+    public BytesRef payload() {
+      return null;
+    }
+
+    @Override
+    public boolean hasPayloads() {
+      return false;
+    }
+
+    @Override
+    public Set<BytesRef> contexts() {
+      return null;
+    }
+
+    @Override
+    public boolean hasContexts() {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,359 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.resources.search;
+
+import com.codahale.metrics.MetricRegistry;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import javax.json.Json;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.util.EntityUtils;
+import org.apache.lucene.search.TotalHits;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.ResponseListener;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.builder.PointInTimeBuilder;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
+import org.elasticsearch.search.fetch.subphase.highlight.HighlightBuilder;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.elasticsearch.search.sort.SortOrder;
+import org.elasticsearch.search.suggest.SuggestBuilder;
+import org.elasticsearch.search.suggest.SuggestBuilders;
+import org.elasticsearch.search.suggest.completion.CompletionSuggestionBuilder;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchConfiguration;
+import org.openmetadata.catalog.resources.search.SearchResults.Facet;
+import org.openmetadata.catalog.resources.search.SearchResults.Suggestions;
+import org.openmetadata.catalog.type.Paging;
+import org.openmetadata.catalog.util.ElasticSearchClientUtils;
+import org.openmetadata.catalog.util.JsonUtils;
+
+/** Searches the Elasticsearch indexes, behind the {@link SearchGuard}. */
+@Slf4j
+class ElasticSearchBackend implements SearchBackend {
+  private final RestHighLevelClient client;
+  private final SearchGuard guard;
+  private final TimeValue timeout;
+  private final TimeValue cursorKeepAlive;
+
+  ElasticSearchBackend(ElasticSearchConfiguration esConfig, MetricRegistry metrics) {
+    this.client = ElasticSearchClientUtils.createElasticSearchClient(esConfig);
+    this.guard = new SearchGuard(esConfig, metrics);
+    this.timeout = new TimeValue(esConfig.getSearchTimeoutSeconds(), TimeUnit.SECONDS);
+    this.cursorKeepAlive = new TimeValue(esConfig.getSearchCursorKeepAliveSeconds(), TimeUnit.SECONDS);
+  }
+
+  @Override
+  public CompletableFuture<SearchResults> search(SearchQuery query, boolean withFacets) {
+    SearchSourceBuilder searchSourceBuilder = buildSearchSource(query);
+    if (withFacets) {
+      addAggregations(searchSourceBuilder, query.getIndex());
+    }
+    return search(new SearchRequest(query.getIndex()).source(searchSourceBuilder)).thenApply(SearchResults::of);
+  }
+
+  @Override
+  public CompletableFuture<Map<String, Facet>> facets(SearchQuery query) {
+    SearchSourceBuilder searchSourceBuilder =
+        new SearchSourceBuilder().query(buildSearchSource(query).query()).size(0).timeout(timeout);
+    addAggregations(searchSourceBuilder, query.getIndex());
+    return search(new SearchRequest(query.getIndex()).source(searchSourceBuilder)).thenApply(SearchResults::facets);
+  }
+
+  @Override
+  public CompletableFuture<SearchResults> searchAfter(SearchQuery query, SearchCursor cursor, boolean pointInTime) {
+    String index = query.getIndex();
+    SearchSourceBuilder searchSourceBuilder = buildSearchSource(query);
+    if (cursor.isFirst()) {
+      addAggregations(searchSourceBuilder, index);
+    } else {
+      searchSourceBuilder.searchAfter(cursor.getAfter().toArray());
+    }
+    if (searchSourceBuilder.sorts() == null) {
+      searchSourceBuilder.sort(SortBuilders.scoreSort());
+    }
+    CompletableFuture<String> pointInTimeId =
+        cursor.getPointInTime() != null || !pointInTime
+            ? CompletableFuture.completedFuture(cursor.getPointInTime())
+            : openPointInTime(index);
+    return pointInTimeId.thenCompose(
+        pitId -> {
+          SearchRequest searchRequest;
+          if (pitId != null) {
+            searchSourceBuilder
+                .sort(SortBuilders.pitTiebreaker())
+                .pointInTimeBuilder(new PointInTimeBuilder(pitId).setKeepAlive(cursorKeepAlive));
+            searchRequest = new SearchRequest();
+          } else {
+            searchSourceBuilder.sort(SortBuilders.fieldSort("_id"));
+            searchRequest = new SearchRequest(index);
+          }
+          return search(searchRequest.source(searchSourceBuilder))
+              .thenApply(
+                  response -> {
+                    SearchHit[] hits = response.getHits().getHits();
+                    String nextPitId = response.pointInTimeId() != null ? response.pointInTimeId() : pitId;
+                    if (hits.length == 0 || hits.length < searchSourceBuilder.size()) {
+                      if (nextPitId != null) {
+                        closePointInTime(nextPitId);
+                      }
+                      return SearchResults.of(response);
+                    }
+                    List<Object> sortValues = Arrays.asList(hits[hits.length - 1].getSortValues());
+                    TotalHits total = response.getHits().getTotalHits();
+                    Paging paging =
+                        new Paging()
+                            .withAfter(new SearchCursor(sortValues, nextPitId).encode())
+                            .withTotal(total != null ? (int) total.value : null);
+                    return SearchResults.of(response).withPaging(paging);
+                  });
+        });
+  }
+
+  @Override
+  public CompletableFuture<Suggestions> suggest(String index, String prefix, Set<String> excludedFields) {
+    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+    CompletionSuggestionBuilder suggestionBuilder = SuggestBuilders.completionSuggestion("suggest").prefix(prefix);
+    SuggestBuilder suggestBuilder = new SuggestBuilder();
+    suggestBuilder.addSuggestion("table-suggest", suggestionBuilder);
+    searchSourceBuilder.suggest(suggestBuilder);
+    searchSourceBuilder.fetchSource(buildSourceFilter(excludedFields));
+    searchSourceBuilder.timeout(timeout);
+    return search(new SearchRequest(index).source(searchSourceBuilder))
+        .thenApply(response -> Suggestions.of(response.getSuggest()));
+  }
+
+  private SearchSourceBuilder buildSearchSource(SearchQuery query) {
+    SearchSourceBuilder searchSourceBuilder;
+    switch (query.getIndex()) {
+      case "topic_search_index":
+        searchSourceBuilder = buildTopicSearchBuilder(query.getQuery(), query.getFrom(), query.getSize());
+        break;
+      case "dashboard_search_index":
+        searchSourceBuilder = buildDashboardSearchBuilder(query.getQuery(), query.getFrom(), query.getSize());
+        break;
+      case "pipeline_search_index":
+        searchSourceBuilder = buildPipelineSearchBuilder(query.getQuery(), query.getFrom(), query.getSize());
+        break;
+      case "table_search_index":
+        searchSourceBuilder = buildTableSearchBuilder(query.getQuery(), query.getFrom(), query.getSize());
+        break;
+      default:
+        searchSourceBuilder = buildAggregateSearchBuilder(query.getQuery(), query.getFrom(), query.getSize());
+        break;
+    }
+    if (query.getSortField() != null && !query.getSortField().isEmpty()) {
+      searchSourceBuilder.sort(query.getSortField(), query.isAscending() ? SortOrder.ASC : SortOrder.DESC);
+    }
+    LOG.info(searchSourceBuilder.toString());
+    searchSourceBuilder.timeout(timeout);
+    searchSourceBuilder.fetchSource(buildSourceFilter(query.getExcludedFields()));
+    return searchSourceBuilder;
+  }
+
+  private CompletableFuture<String> openPointInTime(String index) {
+    Request request = new Request("POST", "/" + index + "/_pit");
+    request.addParameter("keep_alive", cursorKeepAlive.getStringRep());
+    return guard.execute(
+        listener ->
+            client
+                .getLowLevelClient()
+                .performRequestAsync(
+                    request,
+                    new ResponseListener() {
+                      @Override
+                      public void onSuccess(org.elasticsearch.client.Response response) {
+                        try {
+                          String json = EntityUtils.toString(response.getEntity());
+                          listener.onResponse(JsonUtils.readJson(json).asJsonObject().getString("id"));
+                        } catch (IOException | RuntimeException e) {
+                          listener.onFailure(e);
+                        }
+                      }
+
+                      @Override
+                      public void onFailure(Exception e) {
+                        listener.onFailure(e);
+                      }
+                    }));
+  }
+
+  private void closePointInTime(String pitId) {
+    Request request = new Request("DELETE", "/_pit");
+    request.setJsonEntity(Json.createObjectBuilder().add("id", pitId).build().toString());
+    client
+        .getLowLevelClient()
+        .performRequestAsync(
+            request,
+            new ResponseListener() {
+              @Override
+              public void onSuccess(org.elasticsearch.client.Response response) {}
+
+              @Override
+              public void onFailure(Exception e) {
+                // It expires after the keep alive anyway
+                LOG.warn("Failed to close the point in time {}", pitId, e);
+              }
+            });
+  }
+
+  private CompletableFuture<SearchResponse> search(SearchRequest searchRequest) {
+    return guard.execute(listener -> client.searchAsync(searchRequest, RequestOptions.DEFAULT, listener));
+  }
+
+  private static FetchSourceContext buildSourceFilter(Set<String> excludedFields) {
+    return new FetchSourceContext(true, null, excludedFields.toArray(new String[0]));
+  }
+
+  private static void addAggregations(SearchSourceBuilder searchSourceBuilder, String index) {
+    SearchBackend.facetFields(index)
+        .forEach((name, field) -> searchSourceBuilder.aggregation(AggregationBuilders.terms(name).field(field)));
+  }
+
+  private SearchSourceBuilder buildAggregateSearchBuilder(String query, int from, int size) {
+    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+    searchSourceBuilder.query(QueryBuilders.queryStringQuery(query).lenient(true)).from(from).size(size);
+
+    return searchSourceBuilder;
+  }
+
+  private SearchSourceBuilder buildTableSearchBuilder(String query, int from, int size) {
+    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+    HighlightBuilder.Field highlightTableName = new HighlightBuilder.Field("name");
+    highlightTableName.highlighterType("unified");
+    HighlightBuilder.Field highlightDescription = new HighlightBuilder.Field("description");
+    highlightDescription.highlighterType("unified");
+    HighlightBuilder.Field highlightColumns = new HighlightBuilder.Field("column_names");
+    highlightColumns.highlighterType("unified");
+    HighlightBuilder.Field highlightColumnDescriptions = new HighlightBuilder.Field("column_descriptions");
+    highlightColumnDescriptions.highlighterType("unified");
+    HighlightBuilder hb = new HighlightBuilder();
+    hb.field(highlightDescription);
+    hb.field(highlightTableName);
+    hb.field(highlightColumns);
+    hb.field(highlightColumnDescriptions);
+    hb.preTags("<span class=\"text-highlighter\">");
+    hb.postTags("</span>");
+    searchSourceBuilder
+        .query(
+            QueryBuilders.queryStringQuery(query)
+                .field("name", 5.0f)
+                .field("description")
+                .field("column_names")
+                .field("column_descriptions")
+                .lenient(true))
+        .highlighter(hb)
+        .from(from)
+        .size(size);
+
+    return searchSourceBuilder;
+  }
+
+  private SearchSourceBuilder buildTopicSearchBuilder(String query, int from, int size) {
+    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+    HighlightBuilder.Field highlightTopicName = new HighlightBuilder.Field("topic_name");
+    highlightTopicName.highlighterType("unified");
+    HighlightBuilder.Field highlightDescription = new HighlightBuilder.Field("description");
+    highlightDescription.highlighterType("unified");
+    HighlightBuilder hb = new HighlightBuilder();
+    hb.field(highlightDescription);
+    hb.field(highlightTopicName);
+    hb.preTags("<span class=\"text-highlighter\">");
+    hb.postTags("</span>");
+    searchSourceBuilder
+        .query(QueryBuilders.queryStringQuery(query).field("name", 5.0f).field("description").lenient(true))
+        .highlighter(hb)
+        .from(from)
+        .size(size);
+
+    return searchSourceBuilder;
+  }
+
+  private SearchSourceBuilder buildDashboardSearchBuilder(String query, int from, int size) {
+    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+    HighlightBuilder.Field highlightDashboardName = new HighlightBuilder.Field("dashboard_name");
+    highlightDashboardName.highlighterType("unified");
+    HighlightBuilder.Field highlightDescription = new HighlightBuilder.Field("description");
+    highlightDescription.highlighterType("unified");
+    HighlightBuilder.Field highlightCharts = new HighlightBuilder.Field("chart_names");
+    highlightCharts.highlighterType("unified");
+    HighlightBuilder.Field highlightChartDescriptions = new HighlightBuilder.Field("chart_descriptions");
+    highlightChartDescriptions.highlighterType("unified");
+
+    HighlightBuilder hb = new HighlightBuilder();
+    hb.field(highlightDescription);
+    hb.field(highlightDashboardName);
+    hb.field(highlightCharts);
+    hb.field(highlightChartDescriptions);
+    hb.preTags("<span class=\"text-highlighter\">");
+    hb.postTags("</span>");
+    searchSourceBuilder
+        .query(
+            QueryBuilders.queryStringQuery(query)
+                .field("name", 5.0f)
+                .field("description")
+                .field("chart_names")
+                .field("chart_descriptions")
+                .lenient(true))
+        .highlighter(hb)
+        .from(from)
+        .size(size);
+
+    return searchSourceBuilder;
+  }
+
+  private SearchSourceBuilder buildPipelineSearchBuilder(String query, int from, int size) {
+    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+    HighlightBuilder.Field highlightPipelineName = new HighlightBuilder.Field("name");
+    highlightPipelineName.highlighterType("unified");
+    HighlightBuilder.Field highlightDescription = new HighlightBuilder.Field("description");
+    highlightDescription.highlighterType("unified");
+    HighlightBuilder.Field highlightTasks = new HighlightBuilder.Field("task_names");
+    highlightTasks.highlighterType("unified");
+    HighlightBuilder.Field highlightTaskDescriptions = new HighlightBuilder.Field("task_descriptions");
+    highlightTaskDescriptions.highlighterType("unified");
+    HighlightBuilder hb = new HighlightBuilder();
+    hb.field(highlightDescription);
+    hb.field(highlightPipelineName);
+    hb.field(highlightTasks);
+    hb.field(highlightTaskDescriptions);
+    hb.preTags("<span class=\"text-highlighter\">");
+    hb.postTags("</span>");
+    searchSourceBuilder
+        .query(
+            QueryBuilders.queryStringQuery(query)
+                .field("pipeline_name", 5.0f)
+                .field("description")
+                .field("task_names")
+                .field("task_descriptions")
+                .lenient(true))
+        .highlighter(hb)
+        .from(from)
+        .size(size);
+
+    return searchSourceBuilder;
+  }
+}
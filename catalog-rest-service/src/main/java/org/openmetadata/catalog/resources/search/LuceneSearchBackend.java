@@ -0,0 +1,432 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.resources.search;
+
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MultiCollector;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.SimpleCollector;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.SortedNumericSortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopFieldCollector;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.search.WildcardQuery;
+import org.apache.lucene.util.BytesRef;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchConfiguration;
+import org.openmetadata.catalog.exception.BadRequestException;
+import org.openmetadata.catalog.lucene.LuceneIndexes;
+import org.openmetadata.catalog.lucene.LuceneMapping;
+import org.openmetadata.catalog.lucene.LuceneQueryParser;
+import org.openmetadata.catalog.resources.search.SearchResults.Bucket;
+import org.openmetadata.catalog.resources.search.SearchResults.Facet;
+import org.openmetadata.catalog.resources.search.SearchResults.Hit;
+import org.openmetadata.catalog.resources.search.SearchResults.Hits;
+import org.openmetadata.catalog.resources.search.SearchResults.SuggestionEntry;
+import org.openmetadata.catalog.resources.search.SearchResults.Suggestions;
+import org.openmetadata.catalog.resources.search.SearchResults.Total;
+import org.openmetadata.catalog.type.Paging;
+
+/**
+ * Searches the embedded {@link LuceneIndexes} with the same fields, boosts, facets and response as the Elasticsearch
+ * searches, on a pool of threads behind the {@link SearchGuard}. The hits have no highlights. The point in time of a
+ * cursor is the searcher of its first page, kept for {@code searchCursorKeepAliveSeconds} after a newer one replaced
+ * it.
+ */
+class LuceneSearchBackend implements SearchBackend {
+  private static final int TOTAL_HITS_THRESHOLD = 10000;
+  private static final int FACET_SIZE = 10;
+  private static final int SUGGEST_SIZE = 5;
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final SortField ID_SORT = new SortField(LuceneMapping.ID, SortField.Type.STRING);
+
+  /** Fields searched on each index with their boost, the others searching all the text fields. */
+  private static final Map<String, Map<String, Float>> INDEX_FIELDS =
+      Map.of(
+          "table_search_index",
+          Map.of("name", 5.0f, "description", 1.0f, "column_names", 1.0f, "column_descriptions", 1.0f),
+          "topic_search_index",
+          Map.of("name", 5.0f, "description", 1.0f),
+          "dashboard_search_index",
+          Map.of("name", 5.0f, "description", 1.0f, "chart_names", 1.0f, "chart_descriptions", 1.0f),
+          "pipeline_search_index",
+          Map.of("pipeline_name", 5.0f, "description", 1.0f, "task_names", 1.0f, "task_descriptions", 1.0f));
+
+  private final LuceneIndexes indexes;
+  private final SearchGuard guard;
+  private final ExecutorService executor;
+
+  LuceneSearchBackend(LuceneIndexes indexes, ElasticSearchConfiguration esConfig, MetricRegistry metrics) {
+    this.indexes = indexes;
+    this.guard = new SearchGuard(esConfig, metrics);
+    this.executor =
+        Executors.newFixedThreadPool(esConfig.getSearchMaxConcurrentRequests(), DaemonThreadFactory.INSTANCE);
+  }
+
+  @Override
+  public CompletableFuture<SearchResults> search(SearchQuery query, boolean withFacets) {
+    return run(
+        () -> {
+          IndexSearcher searcher = indexes.acquire();
+          try {
+            return search(searcher, query, null, withFacets).results;
+          } finally {
+            indexes.release(searcher);
+          }
+        });
+  }
+
+  @Override
+  public CompletableFuture<Map<String, Facet>> facets(SearchQuery query) {
+    return run(
+        () -> {
+          IndexSearcher searcher = indexes.acquire();
+          try {
+            FacetCollector facets = new FacetCollector(SearchBackend.facetFields(query.getIndex()));
+            searcher.search(buildQuery(query), facets);
+            return facets.facets();
+          } finally {
+            indexes.release(searcher);
+          }
+        });
+  }
+
+  @Override
+  public CompletableFuture<SearchResults> searchAfter(SearchQuery query, SearchCursor cursor, boolean pointInTime) {
+    return run(
+        () -> {
+          IndexSearcher searcher;
+          String pointInTimeId = cursor.getPointInTime();
+          if (pointInTimeId != null) {
+            searcher = acquirePointInTime(pointInTimeId);
+          } else {
+            searcher = indexes.acquire();
+            if (pointInTime) {
+              try {
+                pointInTimeId = String.valueOf(indexes.recordPointInTime(searcher));
+              } finally {
+                indexes.release(searcher);
+              }
+              searcher = acquirePointInTime(pointInTimeId);
+            }
+          }
+          try {
+            Sort sort = buildSort(query);
+            FieldDoc after =
+                cursor.isFirst() ? null : new FieldDoc(Integer.MAX_VALUE, Float.NaN, toSortValues(sort, cursor));
+            Page page = search(searcher, query, after, cursor.isFirst());
+            if (page.last == null || page.results.getHits().getHits().size() < query.getSize()) {
+              return page.results;
+            }
+            List<Object> sortValues =
+                Arrays.stream(page.last.fields)
+                    .map(value -> value instanceof BytesRef ? ((BytesRef) value).utf8ToString() : value)
+                    .collect(Collectors.toList());
+            Total total = page.results.getHits().getTotal();
+            Paging paging =
+                new Paging()
+                    .withAfter(new SearchCursor(sortValues, pointInTimeId).encode())
+                    .withTotal((int) total.getValue());
+            return page.results.withPaging(paging);
+          } finally {
+            if (pointInTimeId != null) {
+              indexes.releasePointInTime(searcher);
+            } else {
+              indexes.release(searcher);
+            }
+          }
+        });
+  }
+
+  @Override
+  public CompletableFuture<Suggestions> suggest(String index, String prefix, Set<String> excludedFields) {
+    return run(
+        () -> {
+          IndexSearcher searcher = indexes.acquire();
+          try {
+            BooleanQuery.Builder query = new BooleanQuery.Builder();
+            query.add(new PrefixQuery(new Term("suggest", prefix.toLowerCase(Locale.ROOT))), BooleanClause.Occur.MUST);
+            addIndexFilter(query, index);
+            TopDocs topDocs = searcher.search(query.build(), SUGGEST_SIZE, new Sort(ID_SORT));
+            List<Hit> options = new ArrayList<>(topDocs.scoreDocs.length);
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+              options.add(toHit(searcher.doc(scoreDoc.doc), null, excludedFields));
+            }
+            return new Suggestions(Map.of("table-suggest", List.of(new SuggestionEntry(prefix, options))));
+          } finally {
+            indexes.release(searcher);
+          }
+        });
+  }
+
+  private <T> CompletableFuture<T> run(Callable<T> search) {
+    return guard.execute(
+        listener ->
+            executor.execute(
+                () -> {
+                  T result;
+                  try {
+                    result = search.call();
+                  } catch (Exception e) {
+                    listener.onFailure(e);
+                    return;
+                  }
+                  listener.onResponse(result);
+                }));
+  }
+
+  private IndexSearcher acquirePointInTime(String pointInTimeId) {
+    IndexSearcher searcher;
+    try {
+      searcher = indexes.acquirePointInTime(Long.parseLong(pointInTimeId));
+    } catch (NumberFormatException e) {
+      throw BadRequestException.message("Invalid point in time " + pointInTimeId);
+    }
+    if (searcher == null) {
+      throw BadRequestException.message("The point in time of the search cursor has expired");
+    }
+    return searcher;
+  }
+
+  private Page search(IndexSearcher searcher, SearchQuery query, FieldDoc after, boolean withFacets)
+      throws IOException {
+    long start = System.nanoTime();
+    Sort sort = buildSort(query);
+    int from = after == null ? query.getFrom() : 0;
+    TopFieldCollector hits =
+        TopFieldCollector.create(sort, Math.max(1, from + query.getSize()), after, TOTAL_HITS_THRESHOLD);
+    FacetCollector facets = withFacets ? new FacetCollector(SearchBackend.facetFields(query.getIndex())) : null;
+    searcher.search(buildQuery(query), facets == null ? hits : MultiCollector.wrap(hits, facets));
+    TopDocs topDocs = hits.topDocs();
+
+    boolean byScore = sort.getSort()[0].getType() == SortField.Type.SCORE;
+    List<Hit> page = new ArrayList<>();
+    FieldDoc last = null;
+    for (int i = from; i < Math.min(topDocs.scoreDocs.length, from + query.getSize()); i++) {
+      last = (FieldDoc) topDocs.scoreDocs[i];
+      Float score = byScore ? (Float) last.fields[0] : null;
+      page.add(toHit(searcher.doc(last.doc), score, query.getExcludedFields()));
+    }
+    Float maxScore =
+        byScore && topDocs.scoreDocs.length > 0 ? (Float) ((FieldDoc) topDocs.scoreDocs[0]).fields[0] : null;
+    Total total =
+        new Total(topDocs.totalHits.value, topDocs.totalHits.relation == TotalHits.Relation.EQUAL_TO ? "eq" : "gte");
+    SearchResults results =
+        new SearchResults(
+            (System.nanoTime() - start) / 1_000_000,
+            false,
+            new Hits(total, maxScore, page),
+            facets != null ? facets.facets() : Map.of());
+    return new Page(results, last);
+  }
+
+  private Query buildQuery(SearchQuery query) {
+    LuceneMapping mapping = indexes.getMapping();
+    Map<String, Float> boosts = INDEX_FIELDS.get(query.getIndex());
+    String[] fields = boosts != null ? boosts.keySet().toArray(new String[0]) : mapping.getTextFields();
+    BooleanQuery.Builder builder = new BooleanQuery.Builder();
+    try {
+      builder.add(
+          new LuceneQueryParser(mapping, indexes.getAnalyzer(), fields, boosts).parse(query.getQuery()),
+          BooleanClause.Occur.MUST);
+    } catch (ParseException e) {
+      throw BadRequestException.message("Failed to parse the query " + query.getQuery(), e);
+    }
+    addIndexFilter(builder, query.getIndex());
+    return builder.build();
+  }
+
+  /** Filter on the documents of the named indexes, which can be a comma separated list or patterns. */
+  private static void addIndexFilter(BooleanQuery.Builder builder, String index) {
+    BooleanQuery.Builder indexes = new BooleanQuery.Builder();
+    for (String name : index.split(",")) {
+      name = name.trim();
+      if (name.equals("*") || name.equals("_all")) {
+        return;
+      }
+      Term term = new Term(LuceneMapping.INDEX, name);
+      indexes.add(name.contains("*") ? new WildcardQuery(term) : new TermQuery(term), BooleanClause.Occur.SHOULD);
+    }
+    builder.add(indexes.build(), BooleanClause.Occur.FILTER);
+  }
+
+  /** Sort on the requested field or the score, then on the id so that the hits are always in the same order. */
+  private Sort buildSort(SearchQuery query) {
+    if (query.getSortField() == null || query.getSortField().isEmpty()) {
+      return new Sort(SortField.FIELD_SCORE, ID_SORT);
+    }
+    SortField sortField = indexes.getMapping().sortField(query.getSortField(), !query.isAscending());
+    if (sortField == null) {
+      throw BadRequestException.message("No mapping found for [" + query.getSortField() + "] in order to sort on");
+    }
+    return new Sort(sortField, ID_SORT);
+  }
+
+  /** Sort values of the cursor, as the types of the sort fields. */
+  private static Object[] toSortValues(Sort sort, SearchCursor cursor) {
+    SortField[] sortFields = sort.getSort();
+    List<Object> after = cursor.getAfter();
+    if (after.size() != sortFields.length) {
+      throw BadRequestException.message("The search cursor does not match the sort order");
+    }
+    Object[] values = new Object[sortFields.length];
+    for (int i = 0; i < sortFields.length; i++) {
+      Object value = after.get(i);
+      SortField.Type type =
+          sortFields[i] instanceof SortedNumericSortField
+              ? ((SortedNumericSortField) sortFields[i]).getNumericType()
+              : sortFields[i].getType();
+      if (value == null) {
+        values[i] = null;
+      } else if (type == SortField.Type.LONG) {
+        values[i] = ((Number) value).longValue();
+      } else if (type == SortField.Type.FLOAT || type == SortField.Type.SCORE) {
+        values[i] = ((Number) value).floatValue();
+      } else {
+        values[i] = new BytesRef(value.toString());
+      }
+    }
+    return values;
+  }
+
+  private static Hit toHit(Document document, Float score, Set<String> excludedFields) throws IOException {
+    String source = document.get(LuceneMapping.SOURCE);
+    if (!excludedFields.isEmpty()) {
+      ObjectNode node = (ObjectNode) MAPPER.readTree(source);
+      node.remove(excludedFields);
+      source = MAPPER.writeValueAsString(node);
+    }
+    return new Hit(document.get(LuceneMapping.INDEX), document.get(LuceneMapping.ID), score, source, null);
+  }
+
+  private static final class Page {
+    private final SearchResults results;
+    private final FieldDoc last;
+
+    private Page(SearchResults results, FieldDoc last) {
+      this.results = results;
+      this.last = last;
+    }
+  }
+
+  /** Counts the values of the facet fields in the matching documents, like the terms aggregations. */
+  private static final class FacetCollector extends SimpleCollector {
+    private final String[] names;
+    private final String[] fields;
+    private final List<Map<String, Long>> counts = new ArrayList<>();
+    private SortedSetDocValues[] values;
+    private long[][] segmentCounts;
+
+    private FacetCollector(Map<String, String> facetFields) {
+      this.names = facetFields.keySet().toArray(new String[0]);
+      this.fields = facetFields.values().toArray(new String[0]);
+      for (int i = 0; i < names.length; i++) {
+        counts.add(new HashMap<>());
+      }
+    }
+
+    @Override
+    protected void doSetNextReader(LeafReaderContext context) throws IOException {
+      flush();
+      values = new SortedSetDocValues[fields.length];
+      segmentCounts = new long[fields.length][];
+      for (int i = 0; i < fields.length; i++) {
+        values[i] = DocValues.getSortedSet(context.reader(), fields[i]);
+        segmentCounts[i] = new long[(int) values[i].getValueCount()];
+      }
+    }
+
+    @Override
+    public void collect(int doc) throws IOException {
+      for (int i = 0; i < values.length; i++) {
+        if (values[i].advanceExact(doc)) {
+          for (long ord = values[i].nextOrd(); ord != SortedSetDocValues.NO_MORE_ORDS; ord = values[i].nextOrd()) {
+            segmentCounts[i][(int) ord]++;
+          }
+        }
+      }
+    }
+
+    @Override
+    public ScoreMode scoreMode() {
+      return ScoreMode.COMPLETE_NO_SCORES;
+    }
+
+    /** Values of the segment counted by their ordinal, resolved once the segment is done. */
+    private void flush() throws IOException {
+      if (values == null) {
+        return;
+      }
+      for (int i = 0; i < values.length; i++) {
+        for (int ord = 0; ord < segmentCounts[i].length; ord++) {
+          if (segmentCounts[i][ord] > 0) {
+            counts.get(i).merge(values[i].lookupOrd(ord).utf8ToString(), segmentCounts[i][ord], Long::sum);
+          }
+        }
+      }
+      values = null;
+    }
+
+    /** Most frequent values of each facet, then in the order of the values. */
+    private Map<String, Facet> facets() throws IOException {
+      flush();
+      Map<String, Facet> facets = new LinkedHashMap<>();
+      for (int i = 0; i < names.length; i++) {
+        List<Bucket> buckets =
+            counts.get(i).entrySet().stream()
+                .sorted(
+                    Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(FACET_SIZE)
+                .map(count -> new Bucket(count.getKey(), count.getValue()))
+                .collect(Collectors.toList());
+        facets.put(names[i], new Facet(buckets));
+      }
+      return facets;
+    }
+  }
+}
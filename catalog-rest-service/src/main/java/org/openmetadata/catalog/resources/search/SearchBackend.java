@@ -0,0 +1,57 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.resources.search;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import org.openmetadata.catalog.resources.search.SearchResults.Facet;
+import org.openmetadata.catalog.resources.search.SearchResults.Suggestions;
+
+/**
+ * Search engine behind {@link SearchResource}, either Elasticsearch or the embedded Lucene index. The searches complete
+ * asynchronously and fail with {@link SearchGuard.SearchUnavailableException} when the engine cannot take them.
+ */
+interface SearchBackend {
+  /** Hits of the query, with the facets when asked for. */
+  CompletableFuture<SearchResults> search(SearchQuery query, boolean withFacets);
+
+  /** Facets of the query, regardless of its page and sort order. */
+  CompletableFuture<Map<String, Facet>> facets(SearchQuery query);
+
+  /**
+   * Page of the hits after the cursor, sorted on the requested field, or the score, then on a unique field so the pages
+   * neither skip nor repeat hits. The first page has the facets and, when asked for, opens the point in time the pages
+   * are read from. A full page has the cursor of the next one.
+   */
+  CompletableFuture<SearchResults> searchAfter(SearchQuery query, SearchCursor cursor, boolean pointInTime);
+
+  /** Documents whose suggest inputs start with the prefix. */
+  CompletableFuture<Suggestions> suggest(String index, String prefix, Set<String> excludedFields);
+
+  /** Facets of the searches on the index, by name, with the keyword field they count the values of. */
+  static Map<String, String> facetFields(String index) {
+    Map<String, String> fields = new LinkedHashMap<>();
+    fields.put("Service", "service_type");
+    fields.put("ServiceCategory", "service_category");
+    fields.put("EntityType", "entity_type");
+    fields.put("Tier", "tier");
+    fields.put("Tags", "tags");
+    if (index.equals("table_search_index")) {
+      fields.put("Database", "database");
+    }
+    return fields;
+  }
+}
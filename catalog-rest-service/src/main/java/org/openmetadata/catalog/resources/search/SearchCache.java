@@ -0,0 +1,101 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.resources.search;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchConfiguration;
+import org.openmetadata.catalog.elasticsearch.IndexGenerations;
+import org.openmetadata.catalog.events.CacheInvalidator;
+import org.openmetadata.catalog.resources.search.SearchResults.Facet;
+
+/**
+ * Caches search responses for a few seconds, so that the identical queries many users run, such as the landing page,
+ * are sent to Elasticsearch once. Hits are cached with the generation of their index (see {@link IndexGenerations}),
+ * which moves on when the search publisher flushes writes to the index or, on the other servers, when {@link
+ * CacheInvalidator} picks up the change events. Facets (the aggregations of a query) change much less than its hits and
+ * are cached on their own with a longer time to live, no matter the writes.
+ *
+ * <p>The cache holds the pending searches, so concurrent requests for the same entry wait for the one loading it
+ * instead of all querying Elasticsearch. Failed searches are dropped from the cache.
+ */
+class SearchCache implements CacheInvalidator.CacheListener {
+  private static final String SEPARATOR = "\u0000";
+
+  private final Cache<String, CompletableFuture<SearchResults>> hits;
+  private final Cache<String, CompletableFuture<Map<String, Facet>>> facets;
+
+  SearchCache(ElasticSearchConfiguration esConfig) {
+    this.hits = build(esConfig.getSearchCacheTtlSeconds(), esConfig.getSearchCacheMaxEntries());
+    this.facets = build(esConfig.getFacetCacheTtlSeconds(), esConfig.getSearchCacheMaxEntries());
+    CacheInvalidator.addListener(this);
+  }
+
+  interface Loader<T> {
+    CompletableFuture<T> load();
+  }
+
+  /** Hits of the request with the given key, for the current generation of the index. */
+  CompletableFuture<SearchResults> getHits(String index, String key, Loader<SearchResults> loader) {
+    return get(hits, IndexGenerations.get(index) + SEPARATOR + key, loader);
+  }
+
+  CompletableFuture<Map<String, Facet>> getFacets(String key, Loader<Map<String, Facet>> loader) {
+    return get(facets, key, loader);
+  }
+
+  /** Key of a request, with the whitespace of the text parts normalised so equivalent queries share an entry. */
+  static String key(Object... parts) {
+    return Stream.of(parts)
+        .map(part -> part == null ? "" : part.toString().trim().replaceAll("\\s+", " "))
+        .collect(Collectors.joining(SEPARATOR));
+  }
+
+  @Override
+  public void invalidate(String entityType, String entityId) {
+    IndexGenerations.incrementForEntityType(entityType);
+  }
+
+  @Override
+  public void invalidateAll() {
+    IndexGenerations.incrementAll();
+    facets.invalidateAll();
+  }
+
+  private static <T> Cache<String, T> build(long ttlSeconds, long maxEntries) {
+    return CacheBuilder.newBuilder().expireAfterWrite(ttlSeconds, TimeUnit.SECONDS).maximumSize(maxEntries).build();
+  }
+
+  private static <T> CompletableFuture<T> get(Cache<String, CompletableFuture<T>> cache, String key, Loader<T> loader) {
+    try {
+      CompletableFuture<T> future = cache.get(key, loader::load);
+      future.whenComplete(
+          (result, e) -> {
+            if (e != null) {
+              cache.asMap().remove(key, future);
+            }
+          });
+      return future;
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      return CompletableFuture.failedFuture(e.getCause());
+    }
+  }
+}
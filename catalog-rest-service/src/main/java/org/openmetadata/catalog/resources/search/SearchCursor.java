@@ -0,0 +1,77 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.resources.search;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import lombok.Getter;
+import org.openmetadata.catalog.exception.BadRequestException;
+import org.openmetadata.catalog.util.JsonUtils;
+
+/**
+ * Opaque cursor of the search API: the sort values of the last hit of a page, which the next page is searched after,
+ * and the point in time the pages are read from, if any. It is handed to the clients as URL safe base64 JSON.
+ */
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+final class SearchCursor {
+  private static final SearchCursor FIRST = new SearchCursor(null, null);
+
+  @JsonProperty("after")
+  private final List<Object> after;
+
+  @JsonProperty("pit")
+  private final String pointInTime;
+
+  @JsonCreator
+  SearchCursor(@JsonProperty("after") List<Object> after, @JsonProperty("pit") String pointInTime) {
+    this.after = after;
+    this.pointInTime = pointInTime;
+  }
+
+  @JsonIgnore
+  boolean isFirst() {
+    return after == null;
+  }
+
+  String encode() {
+    try {
+      return Base64.getUrlEncoder()
+          .withoutPadding()
+          .encodeToString(JsonUtils.pojoToJson(this).getBytes(StandardCharsets.UTF_8));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Failed to encode the search cursor", e);
+    }
+  }
+
+  /** Cursor sent by a client, where an empty one asks for the first page. */
+  static SearchCursor decode(String cursor) {
+    if (cursor.isEmpty()) {
+      return FIRST;
+    }
+    try {
+      String json = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      return JsonUtils.readValue(json, SearchCursor.class);
+    } catch (IllegalArgumentException | IOException e) {
+      throw BadRequestException.message("Invalid search cursor " + cursor);
+    }
+  }
+}
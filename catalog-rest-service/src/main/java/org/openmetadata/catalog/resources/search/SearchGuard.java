@@ -0,0 +1,151 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.resources.search;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.rest.RestStatus;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchConfiguration;
+import org.openmetadata.catalog.exception.WebServiceException;
+
+/**
+ * Isolates the search API from the rest of the API. Searches run asynchronously, at most {@code
+ * searchMaxConcurrentRequests} at a time, and a circuit breaker fails them fast once {@code
+ * searchCircuitBreakerFailureThreshold} of them in a row failed. After {@code searchCircuitBreakerOpenSeconds} one
+ * search is let through to probe the search backend, closing the breaker when it succeeds.
+ *
+ * <p>Errors in the request, such as a query that does not parse, are the client's and do not trip the breaker.
+ */
+@Slf4j
+final class SearchGuard {
+  private final Semaphore permits;
+  private final int failureThreshold;
+  private final long openNanos;
+  private final AtomicInteger failures = new AtomicInteger();
+  private final AtomicBoolean probing = new AtomicBoolean();
+  private volatile long openedAt;
+  private final Meter rejected;
+  private final Meter shortCircuited;
+  // Responses are handed over to another thread than the client's I/O reactor, which must not serialise them
+  private final Executor executor = ForkJoinPool.commonPool();
+
+  SearchGuard(ElasticSearchConfiguration esConfig, MetricRegistry metrics) {
+    this.permits = new Semaphore(esConfig.getSearchMaxConcurrentRequests());
+    this.failureThreshold = esConfig.getSearchCircuitBreakerFailureThreshold();
+    this.openNanos = TimeUnit.SECONDS.toNanos(esConfig.getSearchCircuitBreakerOpenSeconds());
+    MetricRegistry registry = metrics != null ? metrics : new MetricRegistry();
+    registry.register(MetricRegistry.name(SearchGuard.class, "available"), (Gauge<Integer>) permits::availablePermits);
+    registry.register(MetricRegistry.name(SearchGuard.class, "open"), (Gauge<Boolean>) this::isOpen);
+    this.rejected = registry.meter(MetricRegistry.name(SearchGuard.class, "rejected"));
+    this.shortCircuited = registry.meter(MetricRegistry.name(SearchGuard.class, "shortCircuited"));
+  }
+
+  /** Run a search, given the listener to notify, unless too many are running or the breaker is open. */
+  <T> CompletableFuture<T> execute(Consumer<ActionListener<T>> search) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    if (!allow()) {
+      shortCircuited.mark();
+      future.completeExceptionally(new SearchUnavailableException("Search is unavailable, retry later"));
+      return future;
+    }
+    if (!permits.tryAcquire()) {
+      probing.set(false);
+      rejected.mark();
+      future.completeExceptionally(new SearchUnavailableException("Too many concurrent searches, retry later"));
+      return future;
+    }
+    try {
+      search.accept(
+          new ActionListener<>() {
+            @Override
+            public void onResponse(T response) {
+              permits.release();
+              onSuccess();
+              executor.execute(() -> future.complete(response));
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+              permits.release();
+              if (isClientError(e)) {
+                onSuccess();
+              } else {
+                SearchGuard.this.onFailure();
+              }
+              executor.execute(() -> future.completeExceptionally(e));
+            }
+          });
+    } catch (RuntimeException e) {
+      permits.release();
+      onFailure();
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
+  boolean isOpen() {
+    return failureThreshold > 0 && failures.get() >= failureThreshold;
+  }
+
+  private boolean allow() {
+    if (!isOpen()) {
+      return true;
+    }
+    // Half open: a single probe at a time once the breaker has been open long enough
+    return System.nanoTime() - openedAt >= openNanos && probing.compareAndSet(false, true);
+  }
+
+  private void onSuccess() {
+    if (failures.getAndSet(0) >= failureThreshold && failureThreshold > 0) {
+      LOG.info("Search circuit breaker closed");
+    }
+    probing.set(false);
+  }
+
+  private void onFailure() {
+    if (failures.incrementAndGet() == failureThreshold || probing.get()) {
+      openedAt = System.nanoTime();
+      LOG.warn("Search circuit breaker opened for {} seconds", TimeUnit.NANOSECONDS.toSeconds(openNanos));
+    }
+    probing.set(false);
+  }
+
+  private static boolean isClientError(Exception e) {
+    if (e instanceof ElasticsearchStatusException) {
+      // Rejected or timed out requests mean Elasticsearch is overloaded, not that the request is wrong
+      RestStatus status = ((ElasticsearchStatusException) e).status();
+      return status.getStatus() < 500 && status != RestStatus.TOO_MANY_REQUESTS && status != RestStatus.REQUEST_TIMEOUT;
+    }
+    return e instanceof WebServiceException && ((WebServiceException) e).getResponse().getStatus() < 500;
+  }
+
+  /** Search rejected to protect Elasticsearch and the rest of the API. */
+  static class SearchUnavailableException extends RuntimeException {
+    SearchUnavailableException(String message) {
+      super(message);
+    }
+  }
+}
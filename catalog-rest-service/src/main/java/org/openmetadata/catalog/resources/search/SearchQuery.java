@@ -0,0 +1,34 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.resources.search;
+
+import java.util.Set;
+import lombok.Builder;
+import lombok.Getter;
+
+/** Parameters of a search, as given to the {@link SearchBackend}. */
+@Getter
+@Builder
+final class SearchQuery {
+  private final String index;
+  /** Query string, including the filter on the deleted flag. */
+  private final String query;
+
+  private final int from;
+  private final int size;
+  private final String sortField;
+  private final boolean ascending;
+  /** Fields of the documents left out of the hits. */
+  private final Set<String> excludedFields;
+}
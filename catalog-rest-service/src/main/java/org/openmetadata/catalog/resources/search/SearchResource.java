@@ -14,7 +14,10 @@
 package org.openmetadata.catalog.resources.search;
 
 import static javax.ws.rs.core.Response.Status.OK;
+import static javax.ws.rs.core.Response.Status.SERVICE_UNAVAILABLE;
 
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.jersey.errors.ErrorMessage;
 import io.swagger.annotations.Api;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -22,44 +25,64 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.SecurityContext;
 import javax.ws.rs.core.UriInfo;
 import lombok.extern.slf4j.Slf4j;
-import org.elasticsearch.action.search.SearchRequest;
-import org.elasticsearch.action.search.SearchResponse;
-import org.elasticsearch.client.RequestOptions;
-import org.elasticsearch.client.RestHighLevelClient;
-import org.elasticsearch.common.unit.TimeValue;
-import org.elasticsearch.index.query.QueryBuilders;
-import org.elasticsearch.search.aggregations.AggregationBuilders;
-import org.elasticsearch.search.builder.SearchSourceBuilder;
-import org.elasticsearch.search.fetch.subphase.highlight.HighlightBuilder;
-import org.elasticsearch.search.sort.SortOrder;
-import org.elasticsearch.search.suggest.Suggest;
-import org.elasticsearch.search.suggest.SuggestBuilder;
-import org.elasticsearch.search.suggest.SuggestBuilders;
-import org.elasticsearch.search.suggest.completion.CompletionSuggestionBuilder;
 import org.openmetadata.catalog.elasticsearch.ElasticSearchConfiguration;
-import org.openmetadata.catalog.util.ElasticSearchClientUtils;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchConfiguration.SearchBackendType;
+import org.openmetadata.catalog.exception.BadRequestException;
+import org.openmetadata.catalog.lucene.LuceneIndexes;
+import org.openmetadata.catalog.resources.search.SearchGuard.SearchUnavailableException;
+import org.openmetadata.catalog.resources.search.SearchResults.Facet;
+import org.openmetadata.catalog.resources.search.SearchResults.Suggestions;
 
 @Slf4j
 @Path("/v1/search")
 @Api(value = "Search collection", tags = "Search collection")
 @Produces(MediaType.APPLICATION_JSON)
 public class SearchResource {
-  private final RestHighLevelClient client;
+  /**
+   * Fields of the index documents left out of the hits unless the client asks for them with {@code include_fields}. The
+   * flattened column, chart and task fields are only there to be searched and highlighted, and the change descriptions
+   * and suggest inputs are as large as the rest of the document.
+   */
+  private static final List<String> EXCLUDED_FIELDS = List.of("suggest", "change_descriptions", "followers");
 
-  public SearchResource(ElasticSearchConfiguration esConfig) {
-    this.client = ElasticSearchClientUtils.createElasticSearchClient(esConfig);
+  private static final Map<String, List<String>> INDEX_EXCLUDED_FIELDS =
+      Map.of(
+          "table_search_index", List.of("column_names", "column_descriptions"),
+          "dashboard_search_index", List.of("chart_names", "chart_descriptions"),
+          "pipeline_search_index", List.of("task_names", "task_descriptions"));
+
+  private final SearchBackend backend;
+  private final SearchCache cache;
+  private final int timeoutSeconds;
+
+  public SearchResource(ElasticSearchConfiguration esConfig, MetricRegistry metrics) {
+    this.backend =
+        esConfig.getSearchBackend() == SearchBackendType.LUCENE
+            ? new LuceneSearchBackend(LuceneIndexes.getInstance(), esConfig, metrics)
+            : new ElasticSearchBackend(esConfig, metrics);
+    this.cache = esConfig.getSearchCacheTtlSeconds() > 0 ? new SearchCache(esConfig) : null;
+    this.timeoutSeconds = esConfig.getSearchTimeoutSeconds();
   }
 
   @GET
@@ -74,9 +97,10 @@ public class SearchResource {
         @ApiResponse(
             responseCode = "200",
             description = "search response",
-            content = @Content(mediaType = "application/json", schema = @Schema(implementation = SearchResponse.class)))
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = SearchResults.class)))
       })
-  public Response search(
+  public void search(
+      @Suspended AsyncResponse asyncResponse,
       @Context UriInfo uriInfo,
       @Context SecurityContext securityContext,
       @Parameter(
@@ -122,43 +146,58 @@ public class SearchResource {
       @Parameter(description = "Sort order asc for ascending or desc for descending, " + "defaults to desc")
           @DefaultValue("desc")
           @QueryParam("sort_order")
-          String sortOrderParam)
-      throws IOException {
+          String sortOrderParam,
+      @Parameter(
+              description =
+                  "Comma separated list of the document fields left out of the hits by default to return, such "
+                      + "as change_descriptions or column_names")
+          @QueryParam("include_fields")
+          String includeFields,
+      @Parameter(
+              description =
+                  "Page through the results with a cursor instead of `from`, which is the way to retrieve many "
+                      + "results. Pass an empty `after` for the first page, then the `paging.after` cursor of the "
+                      + "previous page until it is no longer returned")
+          @QueryParam("after")
+          String after,
+      @Parameter(description = "Read all the pages of a cursor from the same point in time, defaults to false")
+          @DefaultValue("false")
+          @QueryParam("point_in_time")
+          boolean pointInTime) {
 
-    SearchRequest searchRequest = new SearchRequest(index);
-    SortOrder sortOrder = SortOrder.DESC;
-    SearchSourceBuilder searchSourceBuilder;
-    if (sortOrderParam.equals("asc")) {
-      sortOrder = SortOrder.ASC;
-    }
     // add deleted flag
     query += " AND deleted:" + deleted;
-    switch (index) {
-      case "topic_search_index":
-        searchSourceBuilder = buildTopicSearchBuilder(query, from, size);
-        break;
-      case "dashboard_search_index":
-        searchSourceBuilder = buildDashboardSearchBuilder(query, from, size);
-        break;
-      case "pipeline_search_index":
-        searchSourceBuilder = buildPipelineSearchBuilder(query, from, size);
-        break;
-      case "table_search_index":
-        searchSourceBuilder = buildTableSearchBuilder(query, from, size);
-        break;
-      default:
-        searchSourceBuilder = buildAggregateSearchBuilder(query, from, size);
-        break;
+    SearchQuery searchQuery =
+        SearchQuery.builder()
+            .index(index)
+            .query(query)
+            .from(from)
+            .size(size)
+            .sortField(sortFieldParam)
+            .ascending(sortOrderParam.equals("asc"))
+            .excludedFields(excludedFields(index, includeFields))
+            .build();
+    if (after != null) {
+      if (from != 0) {
+        throw BadRequestException.message("Search with a cursor does not take from");
+      }
+      resume(asyncResponse, backend.searchAfter(searchQuery, SearchCursor.decode(after), pointInTime));
+      return;
     }
-
-    if (sortFieldParam != null && !sortFieldParam.isEmpty()) {
-      searchSourceBuilder.sort(sortFieldParam, sortOrder);
+    if (cache == null) {
+      resume(asyncResponse, backend.search(searchQuery, true));
+      return;
     }
-    LOG.info(searchSourceBuilder.toString());
-    searchSourceBuilder.timeout(new TimeValue(30, TimeUnit.SECONDS));
-    searchRequest.source(searchSourceBuilder);
-    SearchResponse searchResponse = client.search(searchRequest, RequestOptions.DEFAULT);
-    return Response.status(OK).entity(searchResponse.toString()).build();
+
+    // Hits and facets are cached separately, the facets of a query being reused across its pages and sort orders
+    CompletableFuture<SearchResults> hits =
+        cache.getHits(
+            index,
+            SearchCache.key(index, query, from, size, sortFieldParam, searchQuery.isAscending(), includeFields),
+            () -> backend.search(searchQuery, false));
+    CompletableFuture<Map<String, Facet>> facets =
+        cache.getFacets(SearchCache.key(index, query), () -> backend.facets(searchQuery));
+    resume(asyncResponse, hits.thenCombine(facets, SearchResults::withAggregations));
   }
 
   @GET
@@ -171,9 +210,10 @@ public class SearchResource {
         @ApiResponse(
             responseCode = "200",
             description = "Table Suggestion API",
-            content = @Content(mediaType = "application/json", schema = @Schema(implementation = SearchResponse.class)))
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = Suggestions.class)))
       })
-  public Response suggest(
+  public void suggest(
+      @Suspended AsyncResponse asyncResponse,
       @Context UriInfo uriInfo,
       @Context SecurityContext securityContext,
       @Parameter(
@@ -186,171 +226,66 @@ public class SearchResource {
               required = true)
           @javax.ws.rs.QueryParam("q")
           String query,
-      @DefaultValue("table_search_index") @javax.ws.rs.QueryParam("index") String index)
-      throws IOException {
-    SearchRequest searchRequest = new SearchRequest(index);
-    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-    CompletionSuggestionBuilder suggestionBuilder = SuggestBuilders.completionSuggestion("suggest").prefix(query);
-    SuggestBuilder suggestBuilder = new SuggestBuilder();
-    suggestBuilder.addSuggestion("table-suggest", suggestionBuilder);
-    searchSourceBuilder.suggest(suggestBuilder);
-    searchSourceBuilder.timeout(new TimeValue(30, TimeUnit.SECONDS));
-    searchRequest.source(searchSourceBuilder);
-    SearchResponse searchResponse = client.search(searchRequest, RequestOptions.DEFAULT);
-    Suggest suggest = searchResponse.getSuggest();
-    return Response.status(OK).entity(suggest.toString()).build();
-  }
-
-  private SearchSourceBuilder buildAggregateSearchBuilder(String query, int from, int size) {
-    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-    searchSourceBuilder
-        .query(QueryBuilders.queryStringQuery(query).lenient(true))
-        .aggregation(AggregationBuilders.terms("Service").field("service_type"))
-        .aggregation(AggregationBuilders.terms("ServiceCategory").field("service_category"))
-        .aggregation(AggregationBuilders.terms("EntityType").field("entity_type"))
-        .aggregation(AggregationBuilders.terms("Tier").field("tier"))
-        .aggregation(AggregationBuilders.terms("Tags").field("tags"))
-        .from(from)
-        .size(size);
-
-    return searchSourceBuilder;
+      @DefaultValue("table_search_index") @javax.ws.rs.QueryParam("index") String index,
+      @Parameter(description = "Comma separated list of the document fields left out by default to return")
+          @QueryParam("include_fields")
+          String includeFields) {
+    AutocompleteIndex autocomplete = AutocompleteIndex.getInstance();
+    if (autocomplete != null && (includeFields == null || includeFields.isBlank())) {
+      Suggestions suggestions;
+      try {
+        suggestions = autocomplete.suggest(index, query);
+      } catch (IOException e) {
+        LOG.warn("Failed to suggest from the autocomplete index, falling back to the search backend", e);
+        suggestions = null;
+      }
+      if (suggestions != null) {
+        resume(asyncResponse, CompletableFuture.completedFuture(suggestions));
+        return;
+      }
+    }
+    resume(asyncResponse, backend.suggest(index, query, excludedFields(index, includeFields)));
   }
 
-  private SearchSourceBuilder buildTableSearchBuilder(String query, int from, int size) {
-    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-    HighlightBuilder.Field highlightTableName = new HighlightBuilder.Field("name");
-    highlightTableName.highlighterType("unified");
-    HighlightBuilder.Field highlightDescription = new HighlightBuilder.Field("description");
-    highlightDescription.highlighterType("unified");
-    HighlightBuilder.Field highlightColumns = new HighlightBuilder.Field("column_names");
-    highlightColumns.highlighterType("unified");
-    HighlightBuilder.Field highlightColumnDescriptions = new HighlightBuilder.Field("column_descriptions");
-    highlightColumnDescriptions.highlighterType("unified");
-    HighlightBuilder hb = new HighlightBuilder();
-    hb.field(highlightDescription);
-    hb.field(highlightTableName);
-    hb.field(highlightColumns);
-    hb.field(highlightColumnDescriptions);
-    hb.preTags("<span class=\"text-highlighter\">");
-    hb.postTags("</span>");
-    searchSourceBuilder
-        .query(
-            QueryBuilders.queryStringQuery(query)
-                .field("name", 5.0f)
-                .field("description")
-                .field("column_names")
-                .field("column_descriptions")
-                .lenient(true))
-        .aggregation(AggregationBuilders.terms("Service").field("service_type"))
-        .aggregation(AggregationBuilders.terms("ServiceCategory").field("service_category"))
-        .aggregation(AggregationBuilders.terms("EntityType").field("entity_type"))
-        .aggregation(AggregationBuilders.terms("Tier").field("tier"))
-        .aggregation(AggregationBuilders.terms("Tags").field("tags"))
-        .aggregation(AggregationBuilders.terms("Database").field("database"))
-        .highlighter(hb)
-        .from(from)
-        .size(size);
-
-    return searchSourceBuilder;
+  /** Resume the suspended request with the result, freeing no request thread while the search runs. */
+  private void resume(AsyncResponse asyncResponse, CompletableFuture<?> result) {
+    asyncResponse.setTimeout(timeoutSeconds, TimeUnit.SECONDS);
+    asyncResponse.setTimeoutHandler(
+        response -> response.resume(unavailable("Search timed out after " + timeoutSeconds + " seconds")));
+    result.whenComplete(
+        (entity, e) -> {
+          if (e == null) {
+            asyncResponse.resume(Response.status(OK).entity(entity).build());
+            return;
+          }
+          Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+          if (cause instanceof SearchUnavailableException) {
+            asyncResponse.resume(unavailable(cause.getMessage()));
+          } else {
+            asyncResponse.resume(cause);
+          }
+        });
   }
 
-  private SearchSourceBuilder buildTopicSearchBuilder(String query, int from, int size) {
-    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-    HighlightBuilder.Field highlightTopicName = new HighlightBuilder.Field("topic_name");
-    highlightTopicName.highlighterType("unified");
-    HighlightBuilder.Field highlightDescription = new HighlightBuilder.Field("description");
-    highlightDescription.highlighterType("unified");
-    HighlightBuilder hb = new HighlightBuilder();
-    hb.field(highlightDescription);
-    hb.field(highlightTopicName);
-    hb.preTags("<span class=\"text-highlighter\">");
-    hb.postTags("</span>");
-    searchSourceBuilder
-        .query(QueryBuilders.queryStringQuery(query).field("name", 5.0f).field("description").lenient(true))
-        .aggregation(AggregationBuilders.terms("Service").field("service_type"))
-        .aggregation(AggregationBuilders.terms("ServiceCategory").field("service_category"))
-        .aggregation(AggregationBuilders.terms("EntityType").field("entity_type"))
-        .aggregation(AggregationBuilders.terms("Tier").field("tier"))
-        .aggregation(AggregationBuilders.terms("Tags").field("tags"))
-        .highlighter(hb)
-        .from(from)
-        .size(size);
-
-    return searchSourceBuilder;
+  private static Response unavailable(String message) {
+    return Response.status(SERVICE_UNAVAILABLE)
+        .type(MediaType.APPLICATION_JSON_TYPE)
+        .entity(new ErrorMessage(SERVICE_UNAVAILABLE.getStatusCode(), message))
+        .build();
   }
 
-  private SearchSourceBuilder buildDashboardSearchBuilder(String query, int from, int size) {
-    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-    HighlightBuilder.Field highlightDashboardName = new HighlightBuilder.Field("dashboard_name");
-    highlightDashboardName.highlighterType("unified");
-    HighlightBuilder.Field highlightDescription = new HighlightBuilder.Field("description");
-    highlightDescription.highlighterType("unified");
-    HighlightBuilder.Field highlightCharts = new HighlightBuilder.Field("chart_names");
-    highlightCharts.highlighterType("unified");
-    HighlightBuilder.Field highlightChartDescriptions = new HighlightBuilder.Field("chart_descriptions");
-    highlightChartDescriptions.highlighterType("unified");
-
-    HighlightBuilder hb = new HighlightBuilder();
-    hb.field(highlightDescription);
-    hb.field(highlightDashboardName);
-    hb.field(highlightCharts);
-    hb.field(highlightChartDescriptions);
-    hb.preTags("<span class=\"text-highlighter\">");
-    hb.postTags("</span>");
-    searchSourceBuilder
-        .query(
-            QueryBuilders.queryStringQuery(query)
-                .field("name", 5.0f)
-                .field("description")
-                .field("chart_names")
-                .field("chart_descriptions")
-                .lenient(true))
-        .aggregation(AggregationBuilders.terms("Service").field("service_type"))
-        .aggregation(AggregationBuilders.terms("ServiceCategory").field("service_category"))
-        .aggregation(AggregationBuilders.terms("EntityType").field("entity_type"))
-        .aggregation(AggregationBuilders.terms("Tier").field("tier"))
-        .aggregation(AggregationBuilders.terms("Tags").field("tags"))
-        .highlighter(hb)
-        .from(from)
-        .size(size);
-
-    return searchSourceBuilder;
-  }
-
-  private SearchSourceBuilder buildPipelineSearchBuilder(String query, int from, int size) {
-    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-    HighlightBuilder.Field highlightPipelineName = new HighlightBuilder.Field("name");
-    highlightPipelineName.highlighterType("unified");
-    HighlightBuilder.Field highlightDescription = new HighlightBuilder.Field("description");
-    highlightDescription.highlighterType("unified");
-    HighlightBuilder.Field highlightTasks = new HighlightBuilder.Field("task_names");
-    highlightTasks.highlighterType("unified");
-    HighlightBuilder.Field highlightTaskDescriptions = new HighlightBuilder.Field("task_descriptions");
-    highlightTaskDescriptions.highlighterType("unified");
-    HighlightBuilder hb = new HighlightBuilder();
-    hb.field(highlightDescription);
-    hb.field(highlightPipelineName);
-    hb.field(highlightTasks);
-    hb.field(highlightTaskDescriptions);
-    hb.preTags("<span class=\"text-highlighter\">");
-    hb.postTags("</span>");
-    searchSourceBuilder
-        .query(
-            QueryBuilders.queryStringQuery(query)
-                .field("pipeline_name", 5.0f)
-                .field("description")
-                .field("task_names")
-                .field("task_descriptions")
-                .lenient(true))
-        .aggregation(AggregationBuilders.terms("Service").field("service_type"))
-        .aggregation(AggregationBuilders.terms("ServiceCategory").field("service_category"))
-        .aggregation(AggregationBuilders.terms("EntityType").field("entity_type"))
-        .aggregation(AggregationBuilders.terms("Tier").field("tier"))
-        .aggregation(AggregationBuilders.terms("Tags").field("tags"))
-        .highlighter(hb)
-        .from(from)
-        .size(size);
-
-    return searchSourceBuilder;
+  /** Fields left out of the hits of the index, other than the ones the client asks for. */
+  static Set<String> excludedFields(String index, String includeFields) {
+    Set<String> excludes = new LinkedHashSet<>(EXCLUDED_FIELDS);
+    if (INDEX_EXCLUDED_FIELDS.containsKey(index)) {
+      excludes.addAll(INDEX_EXCLUDED_FIELDS.get(index));
+    } else {
+      // Index patterns and aliases over several indexes
+      INDEX_EXCLUDED_FIELDS.values().forEach(excludes::addAll);
+    }
+    if (includeFields != null && !includeFields.isBlank()) {
+      Arrays.stream(includeFields.split(",")).map(String::trim).forEach(excludes::remove);
+    }
+    return excludes;
   }
 }
@@ -0,0 +1,292 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.resources.search;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+import org.apache.lucene.search.TotalHits;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.text.Text;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.aggregations.Aggregation;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.fetch.subphase.highlight.HighlightField;
+import org.elasticsearch.search.suggest.Suggest;
+import org.elasticsearch.search.suggest.completion.CompletionSuggestion;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchIndexDefinition.ElasticSearchIndexType;
+import org.openmetadata.catalog.type.Paging;
+
+/**
+ * Response of the search API. It has the layout of the Elasticsearch search response the clients already read, but only
+ * the parts they use: the total, the hits with their highlights and trimmed source, and the buckets of the facets. The
+ * source of a hit is kept as the JSON returned by Elasticsearch and written out as is.
+ */
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SearchResults {
+  @JsonProperty("took")
+  private final long took;
+
+  @JsonProperty("timed_out")
+  private final boolean timedOut;
+
+  @JsonProperty("hits")
+  private final Hits hits;
+
+  @JsonProperty("aggregations")
+  private final Map<String, Facet> aggregations;
+
+  @JsonProperty("paging")
+  private final Paging paging;
+
+  SearchResults(long took, boolean timedOut, Hits hits, Map<String, Facet> aggregations) {
+    this(took, timedOut, hits, aggregations, null);
+  }
+
+  private SearchResults(long took, boolean timedOut, Hits hits, Map<String, Facet> aggregations, Paging paging) {
+    this.took = took;
+    this.timedOut = timedOut;
+    this.hits = hits;
+    this.aggregations = aggregations;
+    this.paging = paging;
+  }
+
+  static SearchResults of(SearchResponse response) {
+    List<Hit> hits = new ArrayList<>(response.getHits().getHits().length);
+    for (SearchHit hit : response.getHits().getHits()) {
+      hits.add(Hit.of(hit));
+    }
+    TotalHits totalHits = response.getHits().getTotalHits();
+    Total total =
+        totalHits == null
+            ? null
+            : new Total(totalHits.value, totalHits.relation == TotalHits.Relation.EQUAL_TO ? "eq" : "gte");
+    return new SearchResults(
+        response.getTook().millis(),
+        response.isTimedOut(),
+        new Hits(total, Float.isNaN(response.getHits().getMaxScore()) ? null : response.getHits().getMaxScore(), hits),
+        facets(response));
+  }
+
+  /** Terms aggregations of the response, in the order they were requested. */
+  static Map<String, Facet> facets(SearchResponse response) {
+    if (response.getAggregations() == null) {
+      return Collections.emptyMap();
+    }
+    Map<String, Facet> facets = new LinkedHashMap<>();
+    for (Aggregation aggregation : response.getAggregations()) {
+      if (aggregation instanceof Terms) {
+        List<Bucket> buckets = new ArrayList<>();
+        for (Terms.Bucket bucket : ((Terms) aggregation).getBuckets()) {
+          buckets.add(new Bucket(bucket.getKeyAsString(), bucket.getDocCount()));
+        }
+        facets.put(aggregation.getName(), new Facet(buckets));
+      }
+    }
+    return facets;
+  }
+
+  /** The same hits with the given facets, leaving this instance, which may be cached, unchanged. */
+  SearchResults withAggregations(Map<String, Facet> aggregations) {
+    return new SearchResults(took, timedOut, hits, aggregations, paging);
+  }
+
+  /** The same results with the cursor of the next page. */
+  SearchResults withPaging(Paging paging) {
+    return new SearchResults(took, timedOut, hits, aggregations, paging);
+  }
+
+  @Getter
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public static class Hits {
+    @JsonProperty("total")
+    private final Total total;
+
+    @JsonProperty("max_score")
+    private final Float maxScore;
+
+    @JsonProperty("hits")
+    private final List<Hit> hits;
+
+    Hits(Total total, Float maxScore, List<Hit> hits) {
+      this.total = total;
+      this.maxScore = maxScore;
+      this.hits = Collections.unmodifiableList(hits);
+    }
+  }
+
+  @Getter
+  public static class Total {
+    @JsonProperty("value")
+    private final long value;
+
+    @JsonProperty("relation")
+    private final String relation;
+
+    Total(long value, String relation) {
+      this.value = value;
+      this.relation = relation;
+    }
+  }
+
+  @Getter
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public static class Hit {
+    @JsonProperty("_index")
+    private final String index;
+
+    @JsonProperty("_id")
+    private final String id;
+
+    @JsonProperty("_score")
+    private final Float score;
+
+    @JsonProperty("_source")
+    @JsonRawValue
+    private final String source;
+
+    @JsonProperty("highlight")
+    private final Map<String, List<String>> highlight;
+
+    Hit(String index, String id, Float score, String source, Map<String, List<String>> highlight) {
+      this.index = index;
+      this.id = id;
+      this.score = score;
+      this.source = source;
+      this.highlight = highlight;
+    }
+
+    static Hit of(SearchHit hit) {
+      Map<String, List<String>> highlight = null;
+      if (hit.getHighlightFields() != null && !hit.getHighlightFields().isEmpty()) {
+        highlight = new LinkedHashMap<>();
+        for (HighlightField field : hit.getHighlightFields().values()) {
+          List<String> fragments = new ArrayList<>(field.fragments().length);
+          for (Text fragment : field.fragments()) {
+            fragments.add(fragment.string());
+          }
+          highlight.put(field.name(), fragments);
+        }
+      }
+      return new Hit(
+          aliasOf(hit.getIndex()),
+          hit.getId(),
+          Float.isNaN(hit.getScore()) ? null : hit.getScore(),
+          source(hit),
+          highlight);
+    }
+
+    /**
+     * Returns the alias of an index created by es-reindex, named {@code <alias>_<startedAt>}, so the hits carry the
+     * same {@code _index} whether the alias points to the original index or to a reindexed one.
+     */
+    static String aliasOf(String index) {
+      if (index == null) {
+        return null;
+      }
+      for (ElasticSearchIndexType indexType : ElasticSearchIndexType.values()) {
+        String prefix = indexType.indexName + "_";
+        if (index.length() > prefix.length()
+            && index.startsWith(prefix)
+            && index.substring(prefix.length()).chars().allMatch(Character::isDigit)) {
+          return indexType.indexName;
+        }
+      }
+      return index;
+    }
+
+    private static String source(SearchHit hit) {
+      return hit.hasSource() ? hit.getSourceAsString() : null;
+    }
+  }
+
+  @Getter
+  public static class Facet {
+    @JsonProperty("buckets")
+    private final List<Bucket> buckets;
+
+    Facet(List<Bucket> buckets) {
+      this.buckets = Collections.unmodifiableList(buckets);
+    }
+  }
+
+  @Getter
+  public static class Bucket {
+    @JsonProperty("key")
+    private final String key;
+
+    @JsonProperty("doc_count")
+    private final long docCount;
+
+    Bucket(String key, long docCount) {
+      this.key = key;
+      this.docCount = docCount;
+    }
+  }
+
+  /** Response of the suggest API, with the options of each suggestion in the layout of the search hits. */
+  @Getter
+  public static class Suggestions {
+    @JsonProperty("suggest")
+    private final Map<String, List<SuggestionEntry>> suggest;
+
+    Suggestions(Map<String, List<SuggestionEntry>> suggest) {
+      this.suggest = suggest;
+    }
+
+    static Suggestions of(Suggest suggest) {
+      Map<String, List<SuggestionEntry>> suggestions = new LinkedHashMap<>();
+      if (suggest != null) {
+        for (Suggest.Suggestion<? extends Suggest.Suggestion.Entry<? extends Suggest.Suggestion.Entry.Option>>
+            suggestion : suggest) {
+          List<SuggestionEntry> entries = new ArrayList<>();
+          for (Suggest.Suggestion.Entry<? extends Suggest.Suggestion.Entry.Option> entry : suggestion) {
+            List<Hit> options = new ArrayList<>();
+            for (Suggest.Suggestion.Entry.Option option : entry) {
+              if (option instanceof CompletionSuggestion.Entry.Option) {
+                SearchHit hit = ((CompletionSuggestion.Entry.Option) option).getHit();
+                options.add(
+                    new Hit(Hit.aliasOf(hit.getIndex()), hit.getId(), option.getScore(), Hit.source(hit), null));
+              }
+            }
+            entries.add(new SuggestionEntry(entry.getText().string(), options));
+          }
+          suggestions.put(suggestion.getName(), entries);
+        }
+      }
+      return new Suggestions(suggestions);
+    }
+  }
+
+  @Getter
+  public static class SuggestionEntry {
+    @JsonProperty("text")
+    private final String text;
+
+    @JsonProperty("options")
+    private final List<Hit> options;
+
+    SuggestionEntry(String text, List<Hit> options) {
+      this.text = text;
+      this.options = options;
+    }
+  }
+}
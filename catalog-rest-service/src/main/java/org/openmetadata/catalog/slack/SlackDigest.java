@@ -0,0 +1,147 @@
+package org.openmetadata.catalog.slack;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.openmetadata.catalog.Entity;
+import org.openmetadata.catalog.type.ChangeEvent;
+import org.openmetadata.catalog.type.EntityReference;
+
+/**
+ * Aggregates the change events of a digest window into counts per entity type, owner and event type, and the most
+ * changed entities. Memory is bounded whatever the number of events: groups past {@code maxGroups} are counted under
+ * "other", and the most changed entities are tracked with the Space-Saving algorithm over a fixed number of counters,
+ * which may overestimate the count of an entity by at most the smallest tracked count.
+ */
+class SlackDigest {
+  static final String OTHER = "other";
+  private static final String NO_OWNER = "no owner";
+  private static final int MAX_GROUP_LINES = 20;
+  private static final int COUNTERS_PER_TOP_ENTITY = 10;
+
+  private final int maxGroups;
+  private final int topEntities;
+  private final Map<List<String>, Long> groupCounts = new HashMap<>();
+  private final Map<String, Long> entityCounts = new HashMap<>();
+  private final Map<String, String> entityTypes = new HashMap<>();
+  private long total;
+
+  SlackDigest(int maxGroups, int topEntities) {
+    this.maxGroups = maxGroups;
+    this.topEntities = topEntities;
+  }
+
+  void add(ChangeEvent event) {
+    total++;
+    addGroup(List.of(event.getEntityType(), getOwner(event), event.getEventType().value()), 1);
+    addEntity(event.getEntityType(), event.getEntityFullyQualifiedName(), 1);
+  }
+
+  /** Add the counts of another digest, such as the one of a window that failed to be posted. */
+  void merge(SlackDigest other) {
+    total += other.total;
+    other.groupCounts.forEach(this::addGroup);
+    other.entityCounts.forEach((fqn, count) -> addEntity(other.entityTypes.get(fqn), fqn, count));
+  }
+
+  boolean isEmpty() {
+    return total == 0;
+  }
+
+  long getTotal() {
+    return total;
+  }
+
+  int getGroupCount() {
+    return groupCounts.size();
+  }
+
+  void clear() {
+    total = 0;
+    groupCounts.clear();
+    entityCounts.clear();
+    entityTypes.clear();
+  }
+
+  /** Counts per entity type, owner and event type, the largest first. */
+  List<Map.Entry<List<String>, Long>> getGroups() {
+    List<Map.Entry<List<String>, Long>> groups = new ArrayList<>(groupCounts.entrySet());
+    groups.sort(Map.Entry.<List<String>, Long>comparingByValue().reversed());
+    return groups;
+  }
+
+  /** Most changed entities keyed by fully qualified name, the most changed first. */
+  List<Map.Entry<String, Long>> getTopEntities() {
+    List<Map.Entry<String, Long>> entities = new ArrayList<>(entityCounts.entrySet());
+    entities.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+    return entities.subList(0, Math.min(topEntities, entities.size()));
+  }
+
+  SlackMessage toSlackMessage(String openMetadataUrl, long windowSeconds) {
+    StringBuilder text = new StringBuilder();
+    List<Map.Entry<List<String>, Long>> groups = getGroups();
+    for (Map.Entry<List<String>, Long> group : groups.subList(0, Math.min(MAX_GROUP_LINES, groups.size()))) {
+      List<String> key = group.getKey();
+      text.append(String.format("- %d %s %s (%s)%n", group.getValue(), key.get(0), key.get(2), key.get(1)));
+    }
+    if (groups.size() > MAX_GROUP_LINES) {
+      text.append(String.format("- and %d more groups%n", groups.size() - MAX_GROUP_LINES));
+    }
+    text.append("\n*Most changed entities*\n");
+    for (Map.Entry<String, Long> entity : getTopEntities()) {
+      String fqn = entity.getKey();
+      String url = String.format("<%s/%s/%s|%s>", openMetadataUrl, entityTypes.get(fqn), fqn, fqn);
+      text.append(String.format("- %s %d changes%n", url, entity.getValue()));
+    }
+
+    SlackAttachment attachment = new SlackAttachment();
+    attachment.setTitle("Changes by entity type, event type and owner");
+    attachment.setText(text.toString());
+    attachment.setMarkdownIn(List.of("text"));
+    SlackMessage slackMessage = new SlackMessage();
+    slackMessage.setText(String.format("%d changes in the last %s", total, formatWindow(windowSeconds)));
+    slackMessage.setAttachments(new SlackAttachment[] {attachment});
+    return slackMessage;
+  }
+
+  private void addGroup(List<String> group, long count) {
+    if (!groupCounts.containsKey(group) && groupCounts.size() >= maxGroups) {
+      group = List.of(OTHER, OTHER, OTHER);
+    }
+    groupCounts.merge(group, count, Long::sum);
+  }
+
+  private void addEntity(String entityType, String fqn, long count) {
+    if (fqn == null) {
+      return;
+    }
+    if (entityCounts.containsKey(fqn) || entityCounts.size() < topEntities * COUNTERS_PER_TOP_ENTITY) {
+      entityCounts.merge(fqn, count, Long::sum);
+      entityTypes.putIfAbsent(fqn, entityType);
+      return;
+    }
+    // Replace the least changed entity, which the new entity may have been counted as
+    Map.Entry<String, Long> min =
+        entityCounts.entrySet().stream().min(Comparator.comparingLong(Map.Entry::getValue)).get();
+    entityCounts.remove(min.getKey());
+    entityTypes.remove(min.getKey());
+    entityCounts.put(fqn, min.getValue() + count);
+    entityTypes.put(fqn, entityType);
+  }
+
+  private static String getOwner(ChangeEvent event) {
+    try {
+      EntityReference owner =
+          event.getEntity() != null ? Entity.getEntityInterface(event.getEntity()).getOwner() : null;
+      return owner != null && owner.getName() != null ? owner.getName() : NO_OWNER;
+    } catch (Exception e) {
+      return NO_OWNER; // Entity type without an owner
+    }
+  }
+
+  private static String formatWindow(long windowSeconds) {
+    return windowSeconds % 60 == 0 ? windowSeconds / 60 + " minutes" : windowSeconds + " seconds";
+  }
+}
@@ -15,6 +15,12 @@ public class SlackPublisherConfiguration {
 
   private int batchSize = 10;
 
+  private int digestWindowSeconds = 0; // 0 posts a message per event instead of a digest
+
+  private int digestMaxGroups = 1000;
+
+  private int digestTopEntities = 10;
+
   public String getWebhookUrl() {
     return webhookUrl;
   }
@@ -47,6 +53,30 @@ public class SlackPublisherConfiguration {
     this.batchSize = batchSize;
   }
 
+  public int getDigestWindowSeconds() {
+    return digestWindowSeconds;
+  }
+
+  public void setDigestWindowSeconds(int digestWindowSeconds) {
+    this.digestWindowSeconds = digestWindowSeconds;
+  }
+
+  public int getDigestMaxGroups() {
+    return digestMaxGroups;
+  }
+
+  public void setDigestMaxGroups(int digestMaxGroups) {
+    this.digestMaxGroups = digestMaxGroups;
+  }
+
+  public int getDigestTopEntities() {
+    return digestTopEntities;
+  }
+
+  public void setDigestTopEntities(int digestTopEntities) {
+    this.digestTopEntities = digestTopEntities;
+  }
+
   public void setOpenMetadataUrl(String openMetadataUrl) {
     this.openMetadataUrl = openMetadataUrl;
   }
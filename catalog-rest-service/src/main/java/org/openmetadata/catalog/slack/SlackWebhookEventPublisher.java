@@ -1,74 +1,135 @@
 package org.openmetadata.catalog.slack;
 
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
-import javax.ws.rs.client.Client;
-import javax.ws.rs.client.ClientBuilder;
-import javax.ws.rs.client.Invocation;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
-import javax.ws.rs.core.Response;
 import lombok.extern.slf4j.Slf4j;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.openmetadata.catalog.events.AbstractEventPublisher;
 import org.openmetadata.catalog.events.errors.EventPublisherException;
+import org.openmetadata.catalog.http.OutboundHttpClient;
 import org.openmetadata.catalog.resources.events.EventResource.ChangeEventList;
 import org.openmetadata.catalog.type.ChangeDescription;
 import org.openmetadata.catalog.type.ChangeEvent;
 import org.openmetadata.catalog.type.EntityReference;
 import org.openmetadata.catalog.type.EventType;
 import org.openmetadata.catalog.type.FieldChange;
+import org.openmetadata.catalog.util.JsonUtils;
 
 @Slf4j
 public class SlackWebhookEventPublisher extends AbstractEventPublisher {
-  private Invocation.Builder target;
-  private Client client;
+  private final OutboundHttpClient client;
+  private final String slackWebhookURL;
   private String openMetadataUrl;
+  private final int digestWindowSeconds;
+  private final int digestMaxGroups;
+  private final int digestTopEntities;
+  private final Object digestLock = new Object();
+  private SlackDigest digest; // Null when a message is posted per event, guarded by digestLock
+  private long unpostedSeconds; // Window of the digest, longer than digestWindowSeconds after failed posts
+  private ScheduledExecutorService digestScheduler;
 
   public SlackWebhookEventPublisher(SlackPublisherConfiguration config) {
     super(config.getBatchSize(), config.getFilters());
-    String slackWebhookURL = config.getWebhookUrl();
-    ClientBuilder clientBuilder = ClientBuilder.newBuilder();
-    clientBuilder.connectTimeout(10, TimeUnit.SECONDS);
-    clientBuilder.readTimeout(12, TimeUnit.SECONDS);
-    client = clientBuilder.build();
-    target = client.target(slackWebhookURL).request();
+    client = OutboundHttpClient.getInstance();
+    slackWebhookURL = config.getWebhookUrl();
     openMetadataUrl = config.getOpenMetadataUrl();
+    digestWindowSeconds = config.getDigestWindowSeconds();
+    digestMaxGroups = config.getDigestMaxGroups();
+    digestTopEntities = config.getDigestTopEntities();
+    digest = digestWindowSeconds > 0 ? new SlackDigest(digestMaxGroups, digestTopEntities) : null;
   }
 
   @Override
   public void onStart() {
+    if (digest != null) {
+      digestScheduler = Executors.newSingleThreadScheduledExecutor(DaemonThreadFactory.INSTANCE);
+      digestScheduler.scheduleAtFixedRate(this::postDigest, digestWindowSeconds, digestWindowSeconds, TimeUnit.SECONDS);
+    }
     LOG.info("Slack Webhook Publisher Started");
   }
 
   @Override
   public void onShutdown() {
-    if (client != null) {
-      client.close();
+    if (digestScheduler != null) {
+      digestScheduler.shutdownNow();
+      postDigest();
     }
+    LOG.info("Slack Webhook Publisher Stopped");
   }
 
   @Override
   public void publish(ChangeEventList events) throws EventPublisherException {
+    if (digest != null) {
+      synchronized (digestLock) {
+        events.getData().forEach(digest::add);
+      }
+      return;
+    }
     for (ChangeEvent event : events.getData()) {
       try {
-        SlackMessage slackMessage = buildSlackMessage(event);
-        Response response =
-            target.post(javax.ws.rs.client.Entity.entity(slackMessage, MediaType.APPLICATION_JSON_TYPE));
-        if (response.getStatus() >= 300 && response.getStatus() < 400) {
-          throw new EventPublisherException(
-              "Slack webhook callback is getting redirected. " + "Please check your configuration");
-        } else if (response.getStatus() >= 300 && response.getStatus() < 600) {
-          throw new SlackRetriableException(response.getStatusInfo().getReasonPhrase());
-        }
+        post(buildSlackMessage(event));
       } catch (Exception e) {
         LOG.error("Failed to publish event {} to slack due to {} ", event, e.getMessage());
       }
     }
   }
 
+  /**
+   * Post one summary of the events aggregated during the digest window. When the post fails, for example when Slack
+   * rate limits the webhook, the summary is merged into the next window instead of being lost.
+   */
+  private void postDigest() {
+    SlackDigest window;
+    long windowSeconds;
+    synchronized (digestLock) {
+      unpostedSeconds += digestWindowSeconds;
+      if (digest.isEmpty()) {
+        unpostedSeconds = 0;
+        return;
+      }
+      window = digest;
+      windowSeconds = unpostedSeconds;
+      digest = new SlackDigest(digestMaxGroups, digestTopEntities);
+    }
+    try {
+      post(window.toSlackMessage(openMetadataUrl, windowSeconds));
+      synchronized (digestLock) {
+        unpostedSeconds -= windowSeconds;
+      }
+    } catch (Exception e) {
+      LOG.error("Failed to publish digest to slack, merging it into the next one, due to {} ", e.getMessage());
+      synchronized (digestLock) {
+        digest.merge(window);
+      }
+    }
+  }
+
+  private void post(SlackMessage slackMessage) throws Exception {
+    HttpRequest request =
+        client
+            .newRequest(slackWebhookURL)
+            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+            .POST(HttpRequest.BodyPublishers.ofString(JsonUtils.pojoToJson(slackMessage)))
+            .build();
+    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+    if (response.statusCode() >= 300 && response.statusCode() < 400) {
+      throw new EventPublisherException(
+          "Slack webhook callback is getting redirected. " + "Please check your configuration");
+    } else if (response.statusCode() >= 300 && response.statusCode() < 600) {
+      throw new SlackRetriableException(response.body());
+    }
+  }
+
   private SlackMessage buildSlackMessage(ChangeEvent event) {
     SlackMessage slackMessage = new SlackMessage();
     slackMessage.setUsername(event.getUserName());
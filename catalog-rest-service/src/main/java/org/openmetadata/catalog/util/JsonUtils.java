@@ -16,6 +16,7 @@ package org.openmetadata.catalog.util;
 import static org.openmetadata.catalog.util.RestUtil.DATE_TIME_FORMAT;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.type.TypeFactory;
@@ -107,6 +108,13 @@ public final class JsonUtils {
     return OBJECT_MAPPER.convertValue(object, clz);
   }
 
+  public static <T> T convertValue(Object object, TypeReference<T> type) {
+    if (object == null) {
+      return null;
+    }
+    return OBJECT_MAPPER.convertValue(object, type);
+  }
+
   /** Applies the patch on original object and returns the updated object */
   public static <T> T applyPatch(T original, JsonPatch patch, Class<T> clz) {
     JsonStructure targetJson = JsonUtils.getJsonStructure(original);
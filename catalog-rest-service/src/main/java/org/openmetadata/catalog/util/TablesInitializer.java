@@ -24,7 +24,10 @@ import io.dropwizard.db.DataSourceFactory;
 import io.dropwizard.jackson.Jackson;
 import io.dropwizard.jersey.validation.Validators;
 import java.io.File;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
@@ -41,11 +44,14 @@ import org.flywaydb.core.api.MigrationVersion;
 import org.openmetadata.catalog.CatalogApplicationConfig;
 import org.openmetadata.catalog.elasticsearch.ElasticSearchConfiguration;
 import org.openmetadata.catalog.elasticsearch.ElasticSearchIndexDefinition;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchReindexer;
 
 public final class TablesInitializer {
   private static final String OPTION_SCRIPT_ROOT_PATH = "script-root";
   private static final String OPTION_CONFIG_FILE_PATH = "config";
   private static final String DISABLE_VALIDATE_ON_MIGRATE = "disable-validate-on-migrate";
+  private static final String OPTION_REINDEX_CHECKPOINT = "reindex-checkpoint";
+  private static final String DEFAULT_REINDEX_CHECKPOINT = "es-reindex-checkpoint.json";
   private static final Options OPTIONS;
 
   static {
@@ -84,6 +90,16 @@ public final class TablesInitializer {
     OPTIONS.addOption(
         null, SchemaMigrationOption.ES_DROP.toString(), false, "Drop all the indexes in the elastic search");
     OPTIONS.addOption(null, SchemaMigrationOption.ES_MIGRATE.toString(), false, "Update Elastic Search index mapping");
+    OPTIONS.addOption(
+        null,
+        SchemaMigrationOption.ES_REINDEX.toString(),
+        false,
+        "Rebuild the elastic search indexes from the database and swap them in");
+    OPTIONS.addOption(
+        null,
+        OPTION_REINDEX_CHECKPOINT,
+        true,
+        "File recording the progress of es-reindex, defaults to " + DEFAULT_REINDEX_CHECKPOINT);
   }
 
   private TablesInitializer() {}
@@ -144,7 +160,9 @@ public final class TablesInitializer {
     Flyway flyway = get(jdbcUrl, user, password, scriptRootPath, !disableValidateOnMigrate);
     RestHighLevelClient client = ElasticSearchClientUtils.createElasticSearchClient(esConfig);
     try {
-      execute(flyway, client, schemaMigrationOptionSpecified);
+      Path reindexCheckpoint =
+          Paths.get(commandLine.getOptionValue(OPTION_REINDEX_CHECKPOINT, DEFAULT_REINDEX_CHECKPOINT));
+      execute(flyway, client, schemaMigrationOptionSpecified, config, reindexCheckpoint);
       System.out.printf("\"%s\" option successful%n", schemaMigrationOptionSpecified);
     } catch (Exception e) {
       System.err.printf("\"%s\" option failed : %s%n", schemaMigrationOptionSpecified, e);
@@ -172,8 +190,13 @@ public final class TablesInitializer {
         .load();
   }
 
-  private static void execute(Flyway flyway, RestHighLevelClient client, SchemaMigrationOption schemaMigrationOption)
-      throws SQLException {
+  private static void execute(
+      Flyway flyway,
+      RestHighLevelClient client,
+      SchemaMigrationOption schemaMigrationOption,
+      CatalogApplicationConfig config,
+      Path reindexCheckpoint)
+      throws SQLException, IOException, InterruptedException {
     ElasticSearchIndexDefinition esIndexDefinition;
     switch (schemaMigrationOption) {
       case CREATE:
@@ -228,6 +251,9 @@ public final class TablesInitializer {
         esIndexDefinition = new ElasticSearchIndexDefinition(client);
         esIndexDefinition.dropIndexes();
         break;
+      case ES_REINDEX:
+        new ElasticSearchReindexer(client, config, reindexCheckpoint).reindex();
+        break;
       default:
         throw new SQLException("SchemaMigrationHelper unable to execute the option : " + schemaMigrationOption);
     }
@@ -248,7 +274,8 @@ public final class TablesInitializer {
     REPAIR("repair"),
     ES_DROP("es-drop"),
     ES_CREATE("es-create"),
-    ES_MIGRATE("es-migrate");
+    ES_MIGRATE("es-migrate"),
+    ES_REINDEX("es-reindex");
 
     private final String value;
 
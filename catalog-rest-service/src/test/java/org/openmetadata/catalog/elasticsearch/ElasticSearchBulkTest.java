@@ -0,0 +1,142 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.elasticsearch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.DocWriteRequest.OpType;
+import org.elasticsearch.action.DocWriteResponse.Result;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkItemResponse.Failure;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.support.WriteRequest.RefreshPolicy;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.action.update.UpdateResponse;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.rest.RestStatus;
+import org.junit.jupiter.api.Test;
+
+public class ElasticSearchBulkTest {
+  private static final String INDEX = "table_search_index";
+
+  @Test
+  void bulk_retriesTheLaterItemsOfTheSameDocumentWithTheFailedOne() throws Exception {
+    BulkRequest bulkRequest = new BulkRequest();
+    bulkRequest.add(update("a", 1), update("b", 1), update("a", 2), update("c", 1));
+
+    // The first update of a is rejected while its second update and the other documents are written
+    List<List<String>> sent = new ArrayList<>();
+    ElasticSearchBulk.BulkSender sender =
+        request -> {
+          sent.add(describe(request));
+          if (sent.size() == 1) {
+            return response(request, Map.of(0, RestStatus.TOO_MANY_REQUESTS));
+          }
+          return response(request, Map.of());
+        };
+    List<BulkItemResponse> failures = ElasticSearchBulk.bulk(sender, bulkRequest, 3);
+
+    assertEquals(0, failures.size());
+    assertEquals(2, sent.size());
+    assertEquals(List.of("a:1", "a:2"), sent.get(1));
+  }
+
+  @Test
+  void bulk_retriesWithTheRefreshPolicyOfTheRequest() throws Exception {
+    BulkRequest bulkRequest = new BulkRequest().setRefreshPolicy(RefreshPolicy.WAIT_UNTIL);
+    bulkRequest.add(update("a", 1));
+
+    List<RefreshPolicy> policies = new ArrayList<>();
+    ElasticSearchBulk.BulkSender sender =
+        request -> {
+          policies.add(request.getRefreshPolicy());
+          return response(request, policies.size() == 1 ? Map.of(0, RestStatus.TOO_MANY_REQUESTS) : Map.of());
+        };
+    ElasticSearchBulk.bulk(sender, bulkRequest, 3);
+
+    assertEquals(List.of(RefreshPolicy.WAIT_UNTIL, RefreshPolicy.WAIT_UNTIL), policies);
+  }
+
+  @Test
+  void bulk_returnsTheConflictsWithoutRetrying() throws Exception {
+    BulkRequest bulkRequest = new BulkRequest();
+    bulkRequest.add(update("a", 1), update("b", 1));
+
+    List<List<String>> sent = new ArrayList<>();
+    ElasticSearchBulk.BulkSender sender =
+        request -> {
+          sent.add(describe(request));
+          return response(request, Map.of(1, RestStatus.CONFLICT));
+        };
+    List<BulkItemResponse> failures = ElasticSearchBulk.bulk(sender, bulkRequest, 3);
+
+    assertEquals(1, sent.size());
+    assertEquals(1, failures.size());
+    assertEquals("b", failures.get(0).getId());
+    assertEquals(RestStatus.CONFLICT, failures.get(0).status());
+  }
+
+  @Test
+  void bulk_returnsTheItemsStillFailingAfterTheRetries() throws Exception {
+    BulkRequest bulkRequest = new BulkRequest();
+    bulkRequest.add(update("a", 1), update("b", 1));
+
+    List<List<String>> sent = new ArrayList<>();
+    ElasticSearchBulk.BulkSender sender =
+        request -> {
+          sent.add(describe(request));
+          return response(request, Map.of(0, RestStatus.SERVICE_UNAVAILABLE));
+        };
+    List<BulkItemResponse> failures = ElasticSearchBulk.bulk(sender, bulkRequest, 2);
+
+    assertEquals(3, sent.size());
+    assertEquals(List.of("a:1"), sent.get(2));
+    assertEquals(1, failures.size());
+    assertEquals("a", failures.get(0).getId());
+  }
+
+  private static UpdateRequest update(String id, int version) {
+    return new UpdateRequest(INDEX, id).doc(Map.of("version", version));
+  }
+
+  private static List<String> describe(BulkRequest request) {
+    return request.requests().stream()
+        .map(r -> r.id() + ":" + ((UpdateRequest) r).doc().sourceAsMap().get("version"))
+        .collect(Collectors.toList());
+  }
+
+  /** Response to the request where the items at the given positions failed with the given status. */
+  private static BulkResponse response(BulkRequest request, Map<Integer, RestStatus> failed) {
+    List<DocWriteRequest<?>> requests = request.requests();
+    BulkItemResponse[] items = new BulkItemResponse[requests.size()];
+    for (int i = 0; i < items.length; i++) {
+      String id = requests.get(i).id();
+      RestStatus status = failed.get(i);
+      items[i] =
+          status != null
+              ? new BulkItemResponse(
+                  i, OpType.UPDATE, new Failure(INDEX, "_doc", id, new RuntimeException("rejected"), status))
+              : new BulkItemResponse(
+                  i,
+                  OpType.UPDATE,
+                  new UpdateResponse(new ShardId(INDEX, "_na_", 0), "_doc", id, 0, 1, 1, Result.UPDATED));
+    }
+    return new BulkResponse(items, 1);
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.elasticsearch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchConsistencyJob.Drift;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchConsistencyJob.PagedIterator;
+import org.openmetadata.catalog.jdbi3.CollectionDAO.EntityState;
+
+public class ElasticSearchConsistencyJobTest {
+  @Test
+  void compare_reportsMissingStaleAndExtraDocuments() {
+    List<EntityState> database =
+        List.of(
+            new EntityState("a", 0.1, false),
+            new EntityState("b", 0.2, false),
+            new EntityState("c", 0.3, true),
+            new EntityState("e", 0.1, false));
+    List<EntityState> index =
+        List.of(
+            new EntityState("b", 0.1, false),
+            new EntityState("c", 0.3, false),
+            new EntityState("d", 0.1, false),
+            new EntityState("e", 0.1, false),
+            new EntityState("f", null, false));
+    Map<String, Drift> drifts = new LinkedHashMap<>();
+    ElasticSearchConsistencyJob.compare(database.iterator(), index.iterator(), drifts::put);
+
+    Map<String, Drift> expected = new LinkedHashMap<>();
+    expected.put("a", Drift.MISSING);
+    expected.put("b", Drift.STALE);
+    expected.put("c", Drift.STALE);
+    expected.put("d", Drift.EXTRA);
+    expected.put("f", Drift.EXTRA);
+    assertEquals(expected, drifts);
+  }
+
+  @Test
+  void pagedIterator_readsPagesAfterTheLastId() {
+    List<EntityState> all = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      all.add(new EntityState("id" + i, 0.1, false));
+    }
+    List<String> afters = new ArrayList<>();
+    PagedIterator iterator =
+        new PagedIterator(
+            after -> {
+              afters.add(after);
+              int from = after.isEmpty() ? 0 : Integer.parseInt(after.substring(2)) + 1;
+              return all.subList(Math.min(from, all.size()), Math.min(from + 4, all.size()));
+            });
+    List<EntityState> read = new ArrayList<>();
+    iterator.forEachRemaining(read::add);
+
+    assertEquals(all, read);
+    assertEquals(List.of("", "id3", "id7", "id9"), afters);
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.elasticsearch;
+
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchIndexDefinition.ElasticSearchIndexType;
+
+public class ElasticSearchIndexDefinitionTest {
+  @Test
+  void dropIndexes_deletesTheIndexBehindTheAlias() throws Exception {
+    String alias = ElasticSearchIndexType.TABLE_SEARCH_INDEX.indexName;
+    SearchIndexAdmin admin = mock(SearchIndexAdmin.class);
+    when(admin.resolve(anyString()))
+        .thenAnswer(
+            invocation -> {
+              String name = (String) invocation.getArguments()[0];
+              return name.equals(alias) ? new String[] {alias + "_1"} : new String[] {name};
+            });
+    new ElasticSearchIndexDefinition(null, admin).dropIndexes();
+
+    verify(admin).delete(List.of(alias + "_1"));
+    verify(admin, never()).delete(List.of(alias));
+    verify(admin).delete(List.of(ElasticSearchIndexType.TOPIC_SEARCH_INDEX.indexName));
+  }
+}
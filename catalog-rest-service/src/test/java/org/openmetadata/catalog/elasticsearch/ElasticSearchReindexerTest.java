@@ -0,0 +1,223 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.elasticsearch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.DocWriteRequest.OpType;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest.AliasActions;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.shard.ShardId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchIndexDefinition.ElasticSearchIndexType;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchReindexer.Checkpoint;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchReindexer.IndexProgress;
+import org.openmetadata.catalog.util.JsonUtils;
+
+public class ElasticSearchReindexerTest {
+  private static final String ALIAS = ElasticSearchIndexType.TABLE_SEARCH_INDEX.indexName;
+
+  /** Entities by name, with the time they were last updated and the content of their documents. */
+  private final Map<String, Long> updatedAt = new TreeMap<>();
+
+  private final Map<String, String> contents = new HashMap<>();
+  private final List<String> scans = new ArrayList<>();
+
+  @TempDir Path tempDir;
+
+  @Test
+  void reindex_swapsTheAliasAndIndexesTheChangesMadeBeforeTheSwap() throws Exception {
+    put("a", "a1", 0);
+    put("b", "b1", 0);
+    put("c", "c1", 0);
+    InMemoryIndexAdmin admin = new InMemoryIndexAdmin();
+    admin.indexes.put(ALIAS, new HashMap<>()); // Index created before reindexing was introduced
+    // A server changes c after the catch-up, and writes it to the previous index
+    admin.beforeAliasUpdate = () -> put("c", "c2", System.currentTimeMillis());
+
+    Path checkpointFile = tempDir.resolve("reindex.json");
+    reindexer(admin, checkpointFile).reindex();
+
+    Set<String> holders = admin.getAliasHolders(ALIAS);
+    assertEquals(1, holders.size());
+    String index = holders.iterator().next();
+    assertTrue(index.startsWith(ALIAS + "_"));
+    assertFalse(admin.indexes.containsKey(ALIAS), "The previous index is removed with the swap");
+    assertEquals(Map.of("a", "a1", "b", "b1", "c", "c2"), admin.indexes.get(index));
+    assertFalse(Files.exists(checkpointFile));
+  }
+
+  @Test
+  void reindex_resumesFromTheCheckpoint() throws Exception {
+    long startedAt = System.currentTimeMillis();
+    put("a", "a1", 0);
+    put("b", "b1", 0);
+    put("c", "c1", 0);
+    InMemoryIndexAdmin admin = new InMemoryIndexAdmin();
+    String index = ALIAS + "_" + startedAt;
+    admin.indexes.put(index, new HashMap<>(Map.of("a", "a0", "b", "b0")));
+
+    // A, b were loaded before the reindex stopped
+    IndexProgress progress = new IndexProgress();
+    progress.setIndex(index);
+    progress.setStartedAt(startedAt);
+    progress.setAfter("b");
+    progress.setCount(2);
+    Checkpoint checkpoint = new Checkpoint();
+    checkpoint.getIndexes().put(ALIAS, progress);
+    Path checkpointFile = tempDir.resolve("reindex.json");
+    Files.write(checkpointFile, JsonUtils.pojoToJson(checkpoint).getBytes(StandardCharsets.UTF_8));
+
+    reindexer(admin, checkpointFile).reindex();
+
+    assertEquals("b:0", scans.get(0));
+    assertEquals(Set.of(index), admin.getAliasHolders(ALIAS));
+    assertEquals(Map.of("a", "a0", "b", "b0", "c", "c1"), admin.indexes.get(index));
+    assertFalse(Files.exists(checkpointFile));
+  }
+
+  private void put(String name, String content, long time) {
+    updatedAt.put(name, time);
+    contents.put(name, content);
+  }
+
+  @SuppressWarnings("unchecked")
+  private ElasticSearchReindexer reindexer(SearchIndexAdmin admin, Path checkpointFile) throws Exception {
+    SearchEntitySource<String> source = mock(SearchEntitySource.class);
+    when(source.scan(anyInt(), anyString(), anyLong()))
+        .thenAnswer(
+            invocation -> {
+              int limit = (Integer) invocation.getArguments()[0];
+              String after = (String) invocation.getArguments()[1];
+              long updatedSince = (Long) invocation.getArguments()[2];
+              scans.add(after + ":" + updatedSince);
+              return updatedAt.entrySet().stream()
+                  .filter(e -> e.getKey().compareTo(after) > 0 && e.getValue() >= updatedSince)
+                  .map(Map.Entry::getKey)
+                  .limit(limit)
+                  .collect(Collectors.toList());
+            });
+    when(source.getCursor(any())).thenAnswer(invocation -> invocation.getArguments()[0]);
+    when(source.toIndexRequest(anyString(), any()))
+        .thenAnswer(
+            invocation -> {
+              String name = (String) invocation.getArguments()[1];
+              return new IndexRequest((String) invocation.getArguments()[0])
+                  .id(name)
+                  .source(Map.of("content", contents.get(name)));
+            });
+    ElasticSearchConfiguration esConfig = new ElasticSearchConfiguration();
+    esConfig.setReindexBatchSize(2);
+    return new ElasticSearchReindexer(
+        admin, esConfig, Map.of(ElasticSearchIndexType.TABLE_SEARCH_INDEX, source), checkpointFile);
+  }
+
+  /** Indexes holding the content of the documents by id, and the aliases. */
+  private static class InMemoryIndexAdmin implements SearchIndexAdmin {
+    private final Map<String, Map<String, String>> indexes = new HashMap<>();
+    private final Map<String, Set<String>> aliases = new HashMap<>();
+    private Runnable beforeAliasUpdate = () -> {};
+
+    @Override
+    public synchronized BulkResponse send(BulkRequest bulkRequest) {
+      List<DocWriteRequest<?>> requests = bulkRequest.requests();
+      BulkItemResponse[] items = new BulkItemResponse[requests.size()];
+      for (int i = 0; i < items.length; i++) {
+        IndexRequest request = (IndexRequest) requests.get(i);
+        indexes.get(request.index()).put(request.id(), (String) request.sourceAsMap().get("content"));
+        ShardId shardId = new ShardId(request.index(), "_na_", 0);
+        items[i] =
+            new BulkItemResponse(i, OpType.INDEX, new IndexResponse(shardId, "_doc", request.id(), 0, 1, 1, true));
+      }
+      return new BulkResponse(items, 1);
+    }
+
+    @Override
+    public void create(String index, String mapping, Settings settings) {
+      indexes.put(index, new HashMap<>());
+    }
+
+    @Override
+    public boolean exists(String index) {
+      return indexes.containsKey(index);
+    }
+
+    @Override
+    public void putSettings(String index, Settings settings) {}
+
+    @Override
+    public String[] resolve(String name) {
+      return aliases.containsKey(name) ? aliases.get(name).toArray(new String[0]) : new String[] {name};
+    }
+
+    @Override
+    public Set<String> getAliasHolders(String alias) {
+      return aliases.getOrDefault(alias, Set.of());
+    }
+
+    @Override
+    public void updateAliases(IndicesAliasesRequest request) {
+      beforeAliasUpdate.run();
+      for (AliasActions action : request.getAliasActions()) {
+        switch (action.actionType()) {
+          case ADD:
+            aliases.computeIfAbsent(action.aliases()[0], a -> new HashSet<>()).add(action.indices()[0]);
+            break;
+          case REMOVE:
+            aliases.get(action.aliases()[0]).remove(action.indices()[0]);
+            break;
+          case REMOVE_INDEX:
+            indexes.remove(action.indices()[0]);
+            break;
+        }
+      }
+    }
+
+    @Override
+    public void delete(List<String> names) throws IOException {
+      for (String name : names) {
+        if (indexes.remove(name) == null) {
+          throw new IOException("No index " + name);
+        }
+      }
+    }
+  }
+}
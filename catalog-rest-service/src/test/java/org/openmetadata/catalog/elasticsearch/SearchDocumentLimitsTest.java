@@ -0,0 +1,75 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.elasticsearch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openmetadata.catalog.entity.data.Table;
+import org.openmetadata.catalog.type.Column;
+import org.openmetadata.catalog.type.EventType;
+
+public class SearchDocumentLimitsTest {
+  @BeforeEach
+  void setUp() {
+    ElasticSearchConfiguration config = new ElasticSearchConfiguration();
+    config.setMaxFlattenedColumns(3);
+    config.setMaxColumnDescriptionLength(5);
+    SearchDocumentLimits.configure(config);
+  }
+
+  @AfterEach
+  void tearDown() {
+    SearchDocumentLimits.configure(new ElasticSearchConfiguration());
+  }
+
+  @Test
+  void tableDocument_capsTheFlattenedColumns() {
+    List<Column> children = List.of(column("street", "Street"), column("city", "City"));
+    List<Column> columns = new ArrayList<>();
+    columns.add(column("id", "Identifier of the customer"));
+    columns.add(column("address", "Address").withChildren(children));
+    columns.add(column("email", "Email"));
+
+    TableESIndex document = TableESIndex.builder(table(columns), EventType.ENTITY_CREATED).build();
+    assertEquals(List.of("id", "address", "address.street"), document.getColumnNames());
+    assertEquals(List.of("Ident", "Addre", "Stree"), document.getColumnDescriptions());
+    assertTrue(document.getColumnsTruncated());
+
+    document = TableESIndex.builder(table(columns.subList(0, 1)), EventType.ENTITY_CREATED).build();
+    assertEquals(List.of("id"), document.getColumnNames());
+    assertFalse(document.getColumnsTruncated());
+  }
+
+  private static Table table(List<Column> columns) {
+    return new Table()
+        .withId(UUID.randomUUID())
+        .withName("customers")
+        .withFullyQualifiedName("mysql.shop.customers")
+        .withVersion(0.1)
+        .withDeleted(false)
+        .withColumns(columns);
+  }
+
+  private static Column column(String name, String description) {
+    return new Column().withName(name).withDescription(description);
+  }
+}
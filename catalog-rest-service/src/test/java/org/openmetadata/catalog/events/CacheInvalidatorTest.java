@@ -0,0 +1,85 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openmetadata.catalog.jdbi3.CollectionDAO.ChangeEventDAO;
+import org.openmetadata.catalog.jdbi3.CollectionDAO.EntityChange;
+
+public class CacheInvalidatorTest {
+  private final RecordingListener listener = new RecordingListener();
+
+  @AfterEach
+  void removeListener() {
+    CacheInvalidator.removeListener(listener);
+  }
+
+  @Test
+  void poll_invalidatesChangedEntities() {
+    ChangeEventDAO dao = mock(ChangeEventDAO.class);
+    when(dao.getMaxId()).thenReturn(10L, 12L);
+    when(dao.listEntityChangesAfter(10, 12, 1000))
+        .thenReturn(List.of(new EntityChange(11, "table", "t1"), new EntityChange(12, "user", "u1")));
+    when(dao.listEntityChangesAfter(12, 12, 1000)).thenReturn(List.of());
+    CacheInvalidator.addListener(listener);
+    CacheInvalidationConfiguration config = new CacheInvalidationConfiguration();
+    config.setSettleMillis(0);
+
+    CacheInvalidator invalidator = new CacheInvalidator(dao, config);
+    invalidator.poll();
+    assertEquals(List.of("table/t1", "user/u1"), listener.invalidated);
+    invalidator.poll();
+    assertEquals(2, listener.invalidated.size());
+    assertEquals(0, listener.cleared);
+  }
+
+  @Test
+  void poll_clearsCachesPastStalenessBound() throws InterruptedException {
+    ChangeEventDAO dao = mock(ChangeEventDAO.class);
+    when(dao.getMaxId()).thenReturn(10L);
+    when(dao.listEntityChangesAfter(anyLong(), anyLong(), anyInt())).thenThrow(new IllegalStateException("down"));
+    CacheInvalidator.addListener(listener);
+    CacheInvalidationConfiguration config = new CacheInvalidationConfiguration();
+    config.setIntervalMillis(0);
+    config.setSettleMillis(0);
+
+    CacheInvalidator invalidator = new CacheInvalidator(dao, config);
+    Thread.sleep(5);
+    invalidator.poll();
+    assertEquals(1, listener.cleared);
+  }
+
+  private static class RecordingListener implements CacheInvalidator.CacheListener {
+    private final List<String> invalidated = new ArrayList<>();
+    private int cleared;
+
+    @Override
+    public void invalidate(String entityType, String entityId) {
+      invalidated.add(entityType + "/" + entityId);
+    }
+
+    @Override
+    public void invalidateAll() {
+      cleared++;
+    }
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.lmax.disruptor.BatchEventProcessor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import org.junit.jupiter.api.Test;
+import org.openmetadata.catalog.events.EventHandlerConfiguration.OverflowPolicy;
+import org.openmetadata.catalog.events.EventPubSub.ChangeEventHolder;
+import org.openmetadata.catalog.jdbi3.CollectionDAO;
+import org.openmetadata.catalog.jdbi3.CollectionDAO.ChangeEventDAO;
+import org.openmetadata.catalog.jdbi3.CollectionDAO.EventRecord;
+import org.openmetadata.catalog.type.ChangeEvent;
+import org.openmetadata.catalog.type.EventType;
+import org.openmetadata.catalog.util.RestUtil;
+
+public class ChangeEventHandlerTest {
+  @Test
+  void spill_replaysTheSpilledEventsInOrder() throws Exception {
+    // Events recorded with change_event ids
+    Map<Long, String> changeEvents = new ConcurrentHashMap<>();
+    ChangeEventDAO changeEventDAO = mock(ChangeEventDAO.class);
+    when(changeEventDAO.insert(anyString(), anyString()))
+        .thenAnswer(
+            invocation -> {
+              long id = changeEvents.size() + 1;
+              changeEvents.put(id, (String) invocation.getArguments()[1]);
+              return id;
+            });
+    when(changeEventDAO.listByIds(any()))
+        .thenAnswer(
+            invocation -> {
+              List<EventRecord> records = new ArrayList<>();
+              for (Object id : (List<?>) invocation.getArguments()[0]) {
+                records.add(new EventRecord((Long) id, 0, changeEvents.get(id)));
+              }
+              return records;
+            });
+    CollectionDAO dao = mock(CollectionDAO.class);
+    when(dao.changeEventDAO()).thenReturn(changeEventDAO);
+
+    EventHandlerConfiguration config = new EventHandlerConfiguration();
+    config.setRingBufferSize(4);
+    config.setOverflowPolicy(OverflowPolicy.SPILL);
+
+    EventPubSub.shutdown();
+    EventPubSub.start(config, null);
+    ChangeEventHandler handler = new ChangeEventHandler();
+    try {
+      handler.init(dao, config);
+      // The subscriber doesn't consume until released, so that the ring buffer fills up
+      CountDownLatch released = new CountDownLatch(1);
+      CountDownLatch received = new CountDownLatch(20);
+      List<Double> versions = new ArrayList<>();
+      BatchEventProcessor<ChangeEventHolder> processor =
+          EventPubSub.addEventHandler(
+              (holder, sequence, endOfBatch) -> {
+                released.await();
+                versions.add(holder.get().getCurrentVersion());
+                received.countDown();
+              });
+      UUID entityId = UUID.randomUUID();
+      for (int version = 0; version < 20; version++) {
+        handler.process(request(), response(entityId, version));
+      }
+      assertEquals(16, changeEvents.size());
+
+      released.countDown();
+      assertTrue(received.await(10, TimeUnit.SECONDS));
+      for (int version = 0; version < 20; version++) {
+        assertEquals(version, versions.get(version));
+      }
+      processor.halt();
+      EventPubSub.removeProcessor(processor);
+    } finally {
+      handler.close();
+      EventPubSub.shutdown();
+    }
+  }
+
+  @Test
+  void process_recordsTheEventsCapturedAfterTheEventHubStopped() throws Exception {
+    // The capture stage drains its queue on stop, after the event hub may have been shut down
+    ChangeEventDAO changeEventDAO = mock(ChangeEventDAO.class);
+    CollectionDAO dao = mock(CollectionDAO.class);
+    when(dao.changeEventDAO()).thenReturn(changeEventDAO);
+    EventPubSub.shutdown();
+    ChangeEventHandler handler = new ChangeEventHandler();
+    handler.init(dao, new EventHandlerConfiguration());
+    handler.process(request(), response(UUID.randomUUID(), 0.1));
+    handler.close();
+    verify(changeEventDAO).insertAll(anyString(), any());
+  }
+
+  private static ContainerRequestContext request() {
+    ContainerRequestContext request = mock(ContainerRequestContext.class);
+    when(request.getMethod()).thenReturn("PUT");
+    return request;
+  }
+
+  private static ContainerResponseContext response(UUID entityId, double version) {
+    ContainerResponseContext response = mock(ContainerResponseContext.class);
+    when(response.getEntity())
+        .thenReturn(
+            new ChangeEvent()
+                .withEntityId(entityId)
+                .withEntityType("table")
+                .withEventType(EventType.ENTITY_UPDATED)
+                .withCurrentVersion(version));
+    when(response.getHeaderString(RestUtil.CHANGE_CUSTOM_HEADER)).thenReturn(RestUtil.ENTITY_FIELDS_CHANGED);
+    return response;
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.lmax.disruptor.EventHandler;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.openmetadata.catalog.events.EventPubSub.ChangeEventHolder;
+import org.openmetadata.catalog.jdbi3.CollectionDAO;
+import org.openmetadata.catalog.jdbi3.CollectionDAO.ChangeEventDAO;
+import org.openmetadata.catalog.jdbi3.CollectionDAO.EventRecord;
+import org.openmetadata.catalog.jdbi3.CollectionDAO.LeaderLeaseDAO;
+import org.openmetadata.catalog.jobs.JobSchedulerConfiguration;
+import org.openmetadata.catalog.jobs.LeaderElection;
+import org.openmetadata.catalog.type.ChangeDescription;
+import org.openmetadata.catalog.type.ChangeEvent;
+import org.openmetadata.catalog.type.EntityReference;
+import org.openmetadata.catalog.type.EventType;
+import org.openmetadata.catalog.type.FieldChange;
+import org.openmetadata.catalog.util.JsonUtils;
+
+public class ChangeEventRelayTest {
+  @Test
+  void relay_restoresTheEntityReferencesOfTheFieldChanges() throws Exception {
+    EntityReference follower = new EntityReference().withId(UUID.randomUUID()).withType("user").withName("follower");
+    ChangeEvent event =
+        new ChangeEvent()
+            .withEntityId(UUID.randomUUID())
+            .withEntityType("table")
+            .withEventType(EventType.ENTITY_UPDATED)
+            .withChangeDescription(
+                new ChangeDescription()
+                    .withFieldsAdded(List.of(new FieldChange().withName("followers").withNewValue(List.of(follower))))
+                    .withFieldsUpdated(List.of(new FieldChange().withName("description").withNewValue("new"))));
+
+    // A change event recorded by another server
+    ChangeEventDAO changeEventDAO = mock(ChangeEventDAO.class);
+    when(changeEventDAO.getMaxId()).thenReturn(1L);
+    when(changeEventDAO.listOthersAfter(anyString(), anyLong(), eq(0L), anyLong(), anyInt()))
+        .thenReturn(List.of(new EventRecord(1, 0, JsonUtils.pojoToJson(event))));
+    when(changeEventDAO.listOthersAfter(anyString(), anyLong(), eq(1L), anyLong(), anyInt())).thenReturn(List.of());
+    LeaderLeaseDAO leaderLeaseDAO = mock(LeaderLeaseDAO.class);
+    when(leaderLeaseDAO.setWatermark(LeaderElection.LEASE, 1, 1)).thenReturn(1);
+    CollectionDAO dao = mock(CollectionDAO.class);
+    when(dao.changeEventDAO()).thenReturn(changeEventDAO);
+    when(dao.leaderLeaseDAO()).thenReturn(leaderLeaseDAO);
+
+    JobSchedulerConfiguration config = new JobSchedulerConfiguration();
+    config.setRelaySettleMillis(0);
+    config.setRelayIntervalMillis(10);
+
+    EventPubSub.shutdown();
+    EventPubSub.start();
+    BlockingQueue<ChangeEvent> received = new LinkedBlockingQueue<>();
+    EventHandler<ChangeEventHolder> handler = (holder, sequence, endOfBatch) -> received.add(holder.get());
+    EventConsumerGroup group = EventPubSub.addEventHandlers("relay", 1, () -> handler);
+    ChangeEventRelay relay = new ChangeEventRelay(dao, config);
+    try {
+      relay.onElected(1);
+      ChangeEvent relayed = received.poll(10, TimeUnit.SECONDS);
+      assertEquals(event.getEntityId(), relayed.getEntityId());
+
+      // The publishers read the followers as entity references
+      List<?> followers = (List<?>) relayed.getChangeDescription().getFieldsAdded().get(0).getNewValue();
+      assertEquals(1, followers.size());
+      assertTrue(followers.get(0) instanceof EntityReference);
+      assertEquals(follower.getId(), ((EntityReference) followers.get(0)).getId());
+      assertEquals("new", relayed.getChangeDescription().getFieldsUpdated().get(0).getNewValue());
+    } finally {
+      relay.onRevoked();
+      EventPubSub.removeEventHandlers(group);
+      EventPubSub.shutdown();
+    }
+  }
+}
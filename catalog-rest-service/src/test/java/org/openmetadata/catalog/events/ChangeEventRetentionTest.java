@@ -0,0 +1,45 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class ChangeEventRetentionTest {
+  private static final LocalDate TODAY = LocalDate.of(2022, 1, 30);
+
+  @Test
+  void getPartitionsToAdd() {
+    assertEquals(
+        List.of("p20220130", "p20220131", "p20220201"), ChangeEventRetention.getPartitionsToAdd(List.of(), TODAY, 2));
+    assertEquals(List.of("p20220201"), ChangeEventRetention.getPartitionsToAdd(List.of("p20220131"), TODAY, 2));
+    assertEquals(List.of(), ChangeEventRetention.getPartitionsToAdd(List.of("p20220201"), TODAY, 2));
+  }
+
+  @Test
+  void getPartitionsToDrop() {
+    List<String> partitions = List.of("p20220127", "p20220128", "p20220129", "p20220130");
+    assertEquals(List.of("p20220127"), ChangeEventRetention.getPartitionsToDrop(partitions, TODAY, 2));
+    assertEquals(List.of(), ChangeEventRetention.getPartitionsToDrop(partitions, TODAY, 3));
+  }
+
+  @Test
+  void getPartitionDefinitions() {
+    assertEquals(
+        "PARTITION p20220130 VALUES LESS THAN (1643587200000), PARTITION p_future VALUES LESS THAN MAXVALUE",
+        ChangeEventRetention.getPartitionDefinitions(List.of("p20220130")));
+  }
+}
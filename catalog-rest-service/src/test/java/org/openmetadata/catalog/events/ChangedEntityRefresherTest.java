@@ -0,0 +1,82 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class ChangedEntityRefresherTest {
+  @Test
+  void refresh_dropsAnEntityAfterTooManyFailedAttempts() {
+    TestRefresher refresher = new TestRefresher();
+    refresher.invalidate("table", "bad");
+    refresher.invalidate("table", "good");
+
+    for (int i = 0; i < ChangedEntityRefresher.MAX_REFRESH_ATTEMPTS + 2; i++) {
+      refresher.refresh();
+    }
+    assertEquals(List.of("good"), refresher.refreshed);
+    assertEquals(ChangedEntityRefresher.MAX_REFRESH_ATTEMPTS, refresher.failures);
+
+    // A new change of the dropped entity is refreshed again
+    refresher.invalidate("table", "bad");
+    refresher.refresh();
+    assertEquals(ChangedEntityRefresher.MAX_REFRESH_ATTEMPTS + 1, refresher.failures);
+  }
+
+  @Test
+  void refresh_keepsTheChangesUntilLoaded() {
+    TestRefresher refresher = new TestRefresher();
+    refresher.loaded = false;
+    refresher.invalidate("table", "good");
+    refresher.refresh();
+    assertEquals(List.of(), refresher.refreshed);
+
+    refresher.loaded = true;
+    refresher.refresh();
+    assertEquals(List.of("good"), refresher.refreshed);
+  }
+
+  private static class TestRefresher extends ChangedEntityRefresher {
+    private final List<String> refreshed = new ArrayList<>();
+    private int failures;
+    private boolean loaded = true;
+
+    TestRefresher() {
+      super("test view", 1000, 1);
+    }
+
+    @Override
+    protected void load() {}
+
+    @Override
+    protected boolean isLoaded() {
+      return loaded;
+    }
+
+    @Override
+    protected void refresh(Map<String, String> entities) throws IOException {
+      if (entities.containsKey("bad")) {
+        failures++;
+        throw new IOException("Not readable");
+      }
+      refreshed.addAll(entities.keySet());
+    }
+  }
+}
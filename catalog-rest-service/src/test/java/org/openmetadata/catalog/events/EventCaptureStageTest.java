@@ -0,0 +1,123 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.codahale.metrics.MetricRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.Test;
+import org.openmetadata.catalog.CatalogApplicationConfig;
+import org.openmetadata.catalog.events.EventHandlerConfiguration.CaptureRejectionPolicy;
+import org.openmetadata.catalog.type.ChangeEvent;
+
+public class EventCaptureStageTest {
+  @Test
+  void capture_processesInBatches() throws InterruptedException {
+    CountingHandler handler = new CountingHandler(100);
+    EventHandlerConfiguration config = new EventHandlerConfiguration();
+    config.setCaptureBatchSize(10);
+    EventCaptureStage stage = new EventCaptureStage(List.of(handler), config, new MetricRegistry());
+    stage.start();
+    for (int i = 0; i < 100; i++) {
+      stage.capture(mock(ContainerRequestContext.class), mock(ContainerResponseContext.class));
+    }
+    assertTrue(handler.processedAll.await(10, TimeUnit.SECONDS));
+    assertEquals(100, handler.processed.get());
+    stage.stop();
+  }
+
+  @Test
+  void capture_callerRunsWhenNotStarted() {
+    CountingHandler handler = new CountingHandler(1);
+    EventHandlerConfiguration config = new EventHandlerConfiguration();
+    config.setCaptureRejectionPolicy(CaptureRejectionPolicy.CALLER_RUNS);
+    EventCaptureStage stage = new EventCaptureStage(List.of(handler), config, new MetricRegistry());
+    stage.capture(mock(ContainerRequestContext.class), mock(ContainerResponseContext.class));
+    assertEquals(1, handler.processed.get());
+    assertEquals(0, handler.processedAll.getCount());
+  }
+
+  @Test
+  void capture_keepsTheOrderOfEventsPerEntity() throws InterruptedException {
+    List<UUID> entityIds = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+    Map<UUID, List<Integer>> versions = new ConcurrentHashMap<>();
+    CountDownLatch processed = new CountDownLatch(300);
+    EventHandler handler =
+        new CountingHandler(0) {
+          @Override
+          public Void process(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+            ChangeEvent event = (ChangeEvent) responseContext.getEntity();
+            versions
+                .computeIfAbsent(event.getEntityId(), id -> new ArrayList<>())
+                .add(event.getCurrentVersion().intValue());
+            processed.countDown();
+            return null;
+          }
+        };
+    EventHandlerConfiguration config = new EventHandlerConfiguration();
+    config.setCaptureThreads(4);
+    config.setCaptureBatchSize(7);
+    EventCaptureStage stage = new EventCaptureStage(List.of(handler), config, new MetricRegistry());
+    stage.start();
+    for (int i = 0; i < 300; i++) {
+      ContainerResponseContext response = mock(ContainerResponseContext.class);
+      when(response.getEntity())
+          .thenReturn(new ChangeEvent().withEntityId(entityIds.get(i % 3)).withCurrentVersion((double) i));
+      stage.capture(mock(ContainerRequestContext.class), response);
+    }
+    assertTrue(processed.await(10, TimeUnit.SECONDS));
+    stage.stop();
+    for (List<Integer> entityVersions : versions.values()) {
+      for (int i = 1; i < entityVersions.size(); i++) {
+        assertTrue(entityVersions.get(i - 1) < entityVersions.get(i));
+      }
+    }
+  }
+
+  private static class CountingHandler implements EventHandler {
+    private final AtomicInteger processed = new AtomicInteger();
+    private final CountDownLatch processedAll;
+
+    CountingHandler(int expected) {
+      this.processedAll = new CountDownLatch(expected);
+    }
+
+    @Override
+    public void init(CatalogApplicationConfig config, Jdbi jdbi) {}
+
+    @Override
+    public Void process(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+      processed.incrementAndGet();
+      processedAll.countDown();
+      return null;
+    }
+
+    @Override
+    public void close() {}
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.lmax.disruptor.EventHandler;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.openmetadata.catalog.events.EventPubSub.ChangeEventHolder;
+import org.openmetadata.catalog.type.ChangeEvent;
+import org.openmetadata.catalog.type.EventType;
+
+public class EventPubSubTest {
+  @Test
+  void consumerGroup_preservesOrderPerEntity() throws InterruptedException {
+    EventPubSub.start();
+    int entities = 10;
+    int eventsPerEntity = 50;
+    CountDownLatch latch = new CountDownLatch(entities * eventsPerEntity);
+
+    // Each partition records the versions received per entity and the thread that received them
+    Map<UUID, List<Double>> received = new ConcurrentHashMap<>();
+    Map<UUID, String> receivedBy = new ConcurrentHashMap<>();
+    EventHandler<ChangeEventHolder> handler =
+        (holder, sequence, endOfBatch) -> {
+          ChangeEvent event = holder.get();
+          received.computeIfAbsent(event.getEntityId(), id -> new ArrayList<>()).add(event.getCurrentVersion());
+          receivedBy.merge(event.getEntityId(), Thread.currentThread().getName(), (a, b) -> a.equals(b) ? a : "");
+          latch.countDown();
+        };
+    EventConsumerGroup group = EventPubSub.addEventHandlers("test", 4, () -> handler);
+    assertEquals(4, group.getPartitions());
+
+    List<UUID> ids = new ArrayList<>();
+    for (int i = 0; i < entities; i++) {
+      ids.add(UUID.randomUUID());
+    }
+    for (int version = 0; version < eventsPerEntity; version++) {
+      for (UUID id : ids) {
+        EventPubSub.publish(
+            new ChangeEvent()
+                .withEntityId(id)
+                .withEntityType("table")
+                .withEventType(EventType.ENTITY_UPDATED)
+                .withCurrentVersion((double) version));
+      }
+    }
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+    for (UUID id : ids) {
+      List<Double> versions = received.get(id);
+      assertEquals(eventsPerEntity, versions.size());
+      for (int version = 0; version < eventsPerEntity; version++) {
+        assertEquals(version, versions.get(version));
+      }
+      assertTrue(!receivedBy.get(id).isEmpty(), "Events of an entity must be processed by a single partition");
+    }
+    long processed = 0;
+    for (int partition = 0; partition < group.getPartitions(); partition++) {
+      processed += group.getProcessed(partition);
+    }
+    assertEquals(entities * eventsPerEntity, processed);
+    EventPubSub.removeEventHandlers(group);
+  }
+}
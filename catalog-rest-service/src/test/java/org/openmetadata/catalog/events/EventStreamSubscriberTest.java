@@ -0,0 +1,97 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.events;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import org.glassfish.jersey.server.ChunkedOutput;
+import org.junit.jupiter.api.Test;
+import org.openmetadata.catalog.events.EventStreamSubscriber.Frame;
+import org.openmetadata.catalog.type.ChangeEvent;
+import org.openmetadata.catalog.type.EventType;
+
+public class EventStreamSubscriberTest {
+  @Test
+  void accepts_filtersByEntityTypeAndEventType() {
+    EventStreamSubscriber subscriber =
+        new EventStreamSubscriber(
+            new ChunkedOutput<>(String.class),
+            List.of("table"),
+            EnumSet.of(EventType.ENTITY_CREATED),
+            1,
+            r -> {},
+            false);
+    assertTrue(subscriber.accepts(event("table", EventType.ENTITY_CREATED)));
+    assertFalse(subscriber.accepts(event("topic", EventType.ENTITY_CREATED)));
+    assertFalse(subscriber.accepts(event("table", EventType.ENTITY_UPDATED)));
+
+    EventStreamSubscriber all =
+        new EventStreamSubscriber(new ChunkedOutput<>(String.class), List.of("*"), null, 1, r -> {}, false);
+    assertTrue(all.accepts(event("topic", EventType.ENTITY_DELETED)));
+  }
+
+  @Test
+  void offer_failsWhenBufferIsFull() {
+    // Writer pool that never runs, as for a client that stopped reading
+    EventStreamSubscriber subscriber =
+        new EventStreamSubscriber(new ChunkedOutput<>(String.class), null, null, 2, r -> {}, false);
+    assertTrue(subscriber.offer(new Frame(1, "data: 1\n\n")));
+    assertTrue(subscriber.offer(new Frame(2, "data: 2\n\n")));
+    assertFalse(subscriber.offer(new Frame(3, "data: 3\n\n")));
+  }
+
+  @Test
+  void offer_failsWhenTheWriterPoolIsFull() {
+    EventStreamSubscriber subscriber =
+        new EventStreamSubscriber(
+            new ChunkedOutput<>(String.class),
+            null,
+            null,
+            2,
+            r -> {
+              throw new RejectedExecutionException();
+            },
+            false);
+    assertFalse(subscriber.offer(new Frame(1, "data: 1\n\n")));
+    assertTrue(subscriber.isClosed());
+    assertFalse(subscriber.offer(new Frame(2, "data: 2\n\n")));
+  }
+
+  @Test
+  void offer_leavesTheFramesToTheReplayWhenBufferIsFull() throws Exception {
+    EventStreamSubscriber subscriber =
+        new EventStreamSubscriber(new ChunkedOutput<>(String.class), null, null, 2, r -> {}, true);
+    assertTrue(subscriber.offer(new Frame(1, "data: 1\n\n")));
+    assertTrue(subscriber.offer(new Frame(2, "data: 2\n\n")));
+    assertTrue(subscriber.offer(new Frame(3, "data: 3\n\n")));
+    // The replay has to read change_event up to the dropped frames before switching to the live frames
+    subscriber.replay(new Frame(2, "data: 2\n\n"));
+    assertFalse(subscriber.endReplay());
+    subscriber.replay(new Frame(3, "data: 3\n\n"));
+    assertTrue(subscriber.endReplay());
+    assertTrue(subscriber.offer(new Frame(4, "data: 4\n\n")));
+  }
+
+  private static ChangeEvent event(String entityType, EventType eventType) {
+    return new ChangeEvent()
+        .withEntityId(UUID.randomUUID())
+        .withEntityType(entityType)
+        .withEventType(eventType)
+        .withTimestamp(System.currentTimeMillis());
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class GroupCommitWriterTest {
+  @Test
+  void add_writesFullBatches() {
+    List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+    GroupCommitWriter writer = new GroupCommitWriter("test", b -> batches.add(List.copyOf(b)), 10, 60000, 1000);
+    for (int i = 0; i < 100; i++) {
+      writer.add(String.valueOf(i));
+    }
+    writer.close();
+    assertEquals(100, batches.stream().mapToInt(List::size).sum());
+    assertTrue(batches.stream().allMatch(b -> b.size() <= 10));
+  }
+
+  @Test
+  void write_retriesThenWritesRowByRow() {
+    // Any insert with the row "bad" fails
+    List<String> written = Collections.synchronizedList(new ArrayList<>());
+    AtomicInteger batchAttempts = new AtomicInteger();
+    GroupCommitWriter writer =
+        new GroupCommitWriter(
+            "test",
+            b -> {
+              if (b.size() > 1) {
+                batchAttempts.incrementAndGet();
+              }
+              if (b.contains("bad")) {
+                throw new IllegalStateException("Insert failed");
+              }
+              written.addAll(b);
+            },
+            10,
+            60000,
+            1000);
+    writer.add("1");
+    writer.add("bad");
+    writer.add("2");
+    writer.close();
+    assertEquals(List.of("1", "2"), written);
+    assertEquals(3, batchAttempts.get());
+    assertEquals(1, writer.getFailedRows());
+  }
+
+  @Test
+  void add_writesPartialBatchAfterDelay() throws InterruptedException {
+    List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+    GroupCommitWriter writer = new GroupCommitWriter("test", b -> batches.add(List.copyOf(b)), 10, 50, 1000);
+    writer.add("1");
+    writer.add("2");
+    for (int i = 0; i < 100 && batches.isEmpty(); i++) {
+      Thread.sleep(20);
+    }
+    assertEquals(List.of(List.of("1", "2")), batches);
+    writer.close();
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.UnresolvedAddressException;
+import org.junit.jupiter.api.Test;
+
+public class OutboundHttpClientTest {
+  @Test
+  void send_reusesSharedClient() throws IOException, InterruptedException {
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/hook", exchange -> exchange.sendResponseHeaders(204, -1));
+    server.start();
+    try {
+      OutboundHttpClient client = OutboundHttpClient.getInstance();
+      assertTrue(client == OutboundHttpClient.getInstance());
+      String url = "http://localhost:" + server.getAddress().getPort() + "/hook";
+      for (int i = 0; i < 3; i++) {
+        HttpRequest request = client.newRequest(url).POST(HttpRequest.BodyPublishers.ofString("{}")).build();
+        assertEquals(204, client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode());
+      }
+    } finally {
+      server.stop(0);
+    }
+  }
+
+  @Test
+  void isUnknownHost() {
+    ConnectException unresolved = new ConnectException();
+    unresolved.initCause(new UnresolvedAddressException());
+    assertTrue(OutboundHttpClient.isUnknownHost(new ConnectException().initCause(unresolved)));
+    assertFalse(OutboundHttpClient.isUnknownHost(new ConnectException("Connection refused")));
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.jdbi3;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.openmetadata.catalog.jdbi3.CollectionDAO.ChangeEventDAO;
+import org.openmetadata.catalog.jdbi3.CollectionDAO.EventRecord;
+import org.openmetadata.catalog.type.ChangeEvent;
+import org.openmetadata.catalog.util.ResultList;
+
+public class ChangeEventRepositoryTest {
+  @Test
+  void list_pagesWithTheAfterCursor() throws Exception {
+    // Five events, two of them at the same time, in (eventTime, id) order
+    List<EventRecord> records = new ArrayList<>();
+    long[] eventTimes = {100, 200, 200, 300, 400};
+    for (int i = 0; i < eventTimes.length; i++) {
+      records.add(new EventRecord(i + 1, eventTimes[i], "{\"timestamp\":" + eventTimes[i] + "}"));
+    }
+    ChangeEventDAO changeEventDAO = mock(ChangeEventDAO.class);
+    when(changeEventDAO.listAfter(anyString(), anyLong(), anyLong(), anyInt()))
+        .thenAnswer(
+            invocation -> {
+              long eventTime = (Long) invocation.getArguments()[1];
+              long id = (Long) invocation.getArguments()[2];
+              int limit = (Integer) invocation.getArguments()[3];
+              return records.stream()
+                  .filter(r -> r.getEventTime() > eventTime || (r.getEventTime() == eventTime && r.getId() > id))
+                  .limit(limit)
+                  .collect(Collectors.toList());
+            });
+    CollectionDAO dao = mock(CollectionDAO.class);
+    when(dao.changeEventDAO()).thenReturn(changeEventDAO);
+    ChangeEventRepository repository = new ChangeEventRepository(dao);
+
+    List<Long> timestamps = new ArrayList<>();
+    String after = null;
+    int pages = 0;
+    do {
+      ResultList<ChangeEvent> page = repository.list(100, List.of("*"), List.of("*"), List.of("*"), 2, after);
+      page.getData().forEach(event -> timestamps.add(event.getTimestamp()));
+      after = page.getPaging().getAfter();
+      pages++;
+    } while (after != null);
+    assertEquals(List.of(100L, 200L, 200L, 300L, 400L), timestamps);
+    assertEquals(3, pages);
+
+    // The first page starts at the timestamp
+    assertNull(repository.list(300, List.of("*"), List.of("*"), List.of("*"), 2, null).getPaging().getAfter());
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.jdbi3;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.openmetadata.catalog.jdbi3.EntityListIndex.Page;
+import org.openmetadata.catalog.jdbi3.EntityListIndex.Slice;
+
+public class EntityListIndexTest {
+  @Test
+  void sliceAfter_trimsTheExtraEntityAndTakesTheCursorsFromTheNames() {
+    Page page = new Page(List.of("1", "2", "3"), List.of("a", "b", "c"), 10);
+
+    Slice first = EntityListIndex.sliceAfter(page, 2, false);
+    assertEquals(List.of("1", "2"), first.getIds());
+    assertNull(first.getBefore());
+    assertEquals("b", first.getAfter());
+
+    Slice next = EntityListIndex.sliceAfter(page, 2, true);
+    assertEquals("a", next.getBefore());
+    assertEquals("b", next.getAfter());
+  }
+
+  @Test
+  void sliceAfter_hasNoAfterCursorOnTheLastPage() {
+    Slice last = EntityListIndex.sliceAfter(new Page(List.of("1", "2"), List.of("a", "b"), 2), 2, true);
+    assertEquals(List.of("1", "2"), last.getIds());
+    assertEquals("a", last.getBefore());
+    assertNull(last.getAfter());
+
+    Slice empty = EntityListIndex.sliceAfter(new Page(List.of(), List.of(), 0), 2, true);
+    assertEquals(List.of(), empty.getIds());
+    assertNull(empty.getBefore());
+    assertNull(empty.getAfter());
+  }
+
+  @Test
+  void sliceBefore_trimsTheFirstEntityAndTakesTheCursorsFromTheNames() {
+    Slice slice = EntityListIndex.sliceBefore(new Page(List.of("1", "2", "3"), List.of("a", "b", "c"), 10), 2);
+    assertEquals(List.of("2", "3"), slice.getIds());
+    assertEquals("b", slice.getBefore());
+    assertEquals("c", slice.getAfter());
+
+    Slice first = EntityListIndex.sliceBefore(new Page(List.of("1", "2"), List.of("a", "b"), 2), 2);
+    assertEquals(List.of("1", "2"), first.getIds());
+    assertNull(first.getBefore());
+    assertEquals("b", first.getAfter());
+  }
+
+  @Test
+  void slice_cursorsDoNotDependOnTheEntitiesReadFromTheDatabase() {
+    // The page is read from the database by id after slicing, so an entity deleted since it was indexed only leaves a
+    // shorter page behind and the listing still continues from the last name of the index page
+    Page page = new Page(List.of("1", "2", "3"), List.of("a", "b", "c"), 3);
+    Slice slice = EntityListIndex.sliceAfter(page, 2, false);
+    assertEquals("b", slice.getAfter());
+    assertEquals("b", EntityListIndex.sliceBefore(page, 2).getBefore());
+  }
+}
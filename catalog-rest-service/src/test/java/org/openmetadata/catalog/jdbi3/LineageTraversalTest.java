@@ -0,0 +1,111 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.jdbi3;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.openmetadata.catalog.Entity;
+import org.openmetadata.catalog.jdbi3.CollectionDAO.EntityRelation;
+import org.openmetadata.catalog.type.Edge;
+
+public class LineageTraversalTest {
+  private static final String A = UUID.randomUUID().toString();
+  private static final String B = UUID.randomUUID().toString();
+  private static final String C = UUID.randomUUID().toString();
+  private static final String D = UUID.randomUUID().toString();
+  private static final String E = UUID.randomUUID().toString();
+
+  /** Upstream edges of a diamond: D feeds B and C, which both feed A, and E feeds D. */
+  private static final List<EntityRelation> RELATIONS =
+      List.of(relation(B, A), relation(C, A), relation(D, B), relation(D, C), relation(E, D));
+
+  @Test
+  void walk_expandsEachEntityOnce() {
+    AtomicInteger queries = new AtomicInteger();
+    List<String> expanded = new ArrayList<>();
+    LineageTraversal traversal = new LineageTraversal(A, 100, 100, 1);
+    List<Edge> edges =
+        traversal.walk(
+            5,
+            true,
+            ids -> {
+              queries.incrementAndGet();
+              expanded.addAll(ids);
+              return upstreamOf(ids);
+            });
+
+    assertEquals(5, edges.size());
+    assertEquals(List.of(B, C, D, E), new ArrayList<>(traversal.getNodes().keySet()));
+    // One query per level, D expanded once although it is reached through B and C
+    assertEquals(4, queries.get());
+    assertEquals(List.of(A, B, C, D, E), expanded);
+    assertFalse(traversal.isTruncated());
+  }
+
+  @Test
+  void walk_stopsAtDepth() {
+    LineageTraversal traversal = new LineageTraversal(A, 100, 100, 1);
+    assertEquals(2, traversal.walk(1, true, LineageTraversalTest::upstreamOf).size());
+    assertEquals(List.of(B, C), new ArrayList<>(traversal.getNodes().keySet()));
+  }
+
+  @Test
+  void walk_truncatesAtNodeLimit() {
+    LineageTraversal traversal = new LineageTraversal(A, 3, 100, 1);
+    List<Edge> edges = traversal.walk(5, true, LineageTraversalTest::upstreamOf);
+    assertTrue(traversal.isTruncated());
+    assertEquals(List.of(B, C, D), new ArrayList<>(traversal.getNodes().keySet()));
+    // Both edges into D are kept, the one from E would reach a fourth entity
+    assertEquals(4, edges.size());
+  }
+
+  @Test
+  void walk_truncatesAtEdgeLimit() {
+    LineageTraversal traversal = new LineageTraversal(A, 100, 3, 1);
+    assertEquals(3, traversal.walk(5, true, LineageTraversalTest::upstreamOf).size());
+    assertTrue(traversal.isTruncated());
+  }
+
+  @Test
+  void walk_sharesTheLimitsBetweenDirections() {
+    // The upstream walk keeps half of the edges for the downstream one
+    LineageTraversal traversal = new LineageTraversal(A, 100, 3, 2);
+    assertEquals(2, traversal.walk(5, true, LineageTraversalTest::upstreamOf).size());
+    assertEquals(1, traversal.walk(5, false, ids -> List.of(relation(A, E))).size());
+    assertTrue(traversal.isTruncated());
+
+    // What the upstream walk leaves goes to the downstream one
+    traversal = new LineageTraversal(A, 100, 4, 2);
+    assertEquals(2, traversal.walk(1, true, LineageTraversalTest::upstreamOf).size());
+    List<EntityRelation> downstream = List.of(relation(A, D), relation(A, E));
+    assertEquals(2, traversal.walk(1, false, ids -> downstream).size());
+    assertFalse(traversal.isTruncated());
+  }
+
+  private static List<EntityRelation> upstreamOf(List<String> ids) {
+    return RELATIONS.stream().filter(relation -> ids.contains(relation.getToId())).collect(Collectors.toList());
+  }
+
+  private static EntityRelation relation(String from, String to) {
+    return new EntityRelation(from, to, Entity.TABLE, Entity.TABLE);
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class JobSchedulerTest {
+  @Test
+  void onElected_runsJobsAndStopsThemWhenRevoked() throws InterruptedException {
+    LeaderElection leaderElection = mock(LeaderElection.class);
+    when(leaderElection.isValid(anyLong())).thenReturn(true);
+    CountingJob job = new CountingJob();
+    JobScheduler scheduler = new JobScheduler(leaderElection).addJob(job);
+
+    scheduler.onElected(7);
+    assertTrue(job.ran.await(10, TimeUnit.SECONDS));
+    assertEquals(7, job.token);
+    scheduler.onRevoked();
+    assertEquals(1, job.stopped.get());
+  }
+
+  @Test
+  void onElected_skipsJobsWithStaleToken() throws InterruptedException {
+    LeaderElection leaderElection = mock(LeaderElection.class);
+    when(leaderElection.isValid(anyLong())).thenReturn(false);
+    CountingJob job = new CountingJob();
+    JobScheduler scheduler = new JobScheduler(leaderElection).addJob(job);
+
+    scheduler.onElected(7);
+    assertFalse(job.ran.await(500, TimeUnit.MILLISECONDS));
+    scheduler.onRevoked();
+  }
+
+  private static class CountingJob implements ScheduledJob {
+    private final CountDownLatch ran = new CountDownLatch(1);
+    private final AtomicInteger stopped = new AtomicInteger();
+    private volatile long token;
+
+    @Override
+    public String getName() {
+      return "counting";
+    }
+
+    @Override
+    public long getIntervalSeconds() {
+      return 60;
+    }
+
+    @Override
+    public void run(long fencingToken) {
+      token = fencingToken;
+      ran.countDown();
+    }
+
+    @Override
+    public void stop() {
+      stopped.incrementAndGet();
+    }
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.lucene;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openmetadata.catalog.Entity;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchConfiguration;
+import org.openmetadata.catalog.jdbi3.EntityListIndex.Page;
+import org.openmetadata.catalog.type.Include;
+
+public class LuceneListIndexTest {
+  private LuceneIndexes indexes;
+  private LuceneListIndex listIndex;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    indexes = LuceneIndexes.initialize(new ElasticSearchConfiguration(), null);
+    indexes.index("table_search_index", "1", table("mysql.shop.orders", false));
+    indexes.index("table_search_index", "2", table("mysql.shop.customers", false));
+    indexes.index("table_search_index", "3", table("mysql.shop.addresses", true));
+    indexes.index("table_search_index", "4", table("mysql.crm.accounts", false));
+    indexes.index(
+        "user_search_index", "5", "{\"fqdn\":\"alice\",\"deleted\":false,\"teams\":[\"sales\",\"marketing\"]}");
+    indexes.index("user_search_index", "6", "{\"fqdn\":\"bob\",\"deleted\":false,\"teams\":[\"engineering\"]}");
+    indexes.refresh();
+    listIndex = new LuceneListIndex(indexes);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    indexes.stop();
+  }
+
+  @Test
+  void listAfter_pagesInFullyQualifiedNameOrder() throws Exception {
+    Page first = listIndex.listAfter(Entity.TABLE, "mysql.shop", 1, "", Include.NON_DELETED);
+    assertEquals(List.of("2"), first.getIds());
+    assertEquals(List.of("mysql.shop.customers"), first.getNames());
+    assertEquals(2, first.getTotal());
+
+    Page second = listIndex.listAfter(Entity.TABLE, "mysql.shop", 2, "mysql.shop.customers", Include.NON_DELETED);
+    assertEquals(List.of("1"), second.getIds());
+
+    Page all = listIndex.listAfter(Entity.TABLE, null, 10, "", Include.ALL);
+    assertEquals(List.of("4", "3", "2", "1"), all.getIds());
+    assertEquals(List.of("3"), listIndex.listAfter(Entity.TABLE, null, 10, "", Include.DELETED).getIds());
+  }
+
+  @Test
+  void listBefore_returnsTheLastEntitiesInAscendingOrder() throws Exception {
+    Page page = listIndex.listBefore(Entity.TABLE, null, 2, "mysql.shop.orders", Include.ALL);
+    assertEquals(List.of("3", "2"), page.getIds());
+    assertEquals(List.of("mysql.shop.addresses", "mysql.shop.customers"), page.getNames());
+    assertEquals(4, page.getTotal());
+  }
+
+  @Test
+  void list_filtersUsersByTeamAndSkipsTypesNotIndexed() throws Exception {
+    assertEquals(List.of("5"), listIndex.listAfter(Entity.USER, "sales", 10, "", Include.NON_DELETED).getIds());
+    assertNull(listIndex.listAfter(Entity.ROLE, null, 10, "", Include.NON_DELETED));
+  }
+
+  private static String table(String fqdn, boolean deleted) {
+    return String.format("{\"fqdn\":\"%s\",\"deleted\":%s,\"entity_type\":\"table\"}", fqdn, deleted);
+  }
+}
@@ -1620,14 +1620,37 @@ public abstract class EntityResourceTest<T, K> extends CatalogApplicationTest {
     return TestUtils.get(target, EntityHistory.class, authHeaders);
   }
 
+  /** All the change events since {@code timestamp}, read page by page. */
   protected ResultList<ChangeEvent> getChangeEvents(
       String entityCreated, String entityUpdated, String entityDeleted, long timestamp, Map<String, String> authHeaders)
       throws HttpResponseException {
+    List<ChangeEvent> events = new ArrayList<>();
+    String after = null;
+    do {
+      ResultList<ChangeEvent> page =
+          getChangeEvents(entityCreated, entityUpdated, entityDeleted, timestamp, null, after, authHeaders);
+      events.addAll(page.getData());
+      after = page.getPaging() == null ? null : page.getPaging().getAfter();
+    } while (after != null);
+    return new ResultList<>(events);
+  }
+
+  protected ResultList<ChangeEvent> getChangeEvents(
+      String entityCreated,
+      String entityUpdated,
+      String entityDeleted,
+      long timestamp,
+      Integer limit,
+      String after,
+      Map<String, String> authHeaders)
+      throws HttpResponseException {
     WebTarget target = getResource("events");
     target = entityCreated == null ? target : target.queryParam("entityCreated", entityCreated);
     target = entityUpdated == null ? target : target.queryParam("entityUpdated", entityUpdated);
     target = entityDeleted == null ? target : target.queryParam("entityDeleted", entityDeleted);
     target = target.queryParam("timestamp", timestamp);
+    target = limit == null ? target : target.queryParam("limit", limit);
+    target = after == null ? target : target.queryParam("after", after);
     return TestUtils.get(target, ChangeEventList.class, authHeaders);
   }
 
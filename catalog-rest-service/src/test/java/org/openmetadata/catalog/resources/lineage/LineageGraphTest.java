@@ -0,0 +1,127 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.resources.lineage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.openmetadata.catalog.Entity;
+import org.openmetadata.catalog.jdbi3.CollectionDAO.EntityRelation;
+
+public class LineageGraphTest {
+  private static final UUID RAW = UUID.randomUUID();
+  private static final UUID STAGING = UUID.randomUUID();
+  private static final UUID MART = UUID.randomUUID();
+  private static final UUID REPORT = UUID.randomUUID();
+  private static final UUID DASHBOARD = UUID.randomUUID();
+
+  /** raw -> staging -> mart -> report -> dashboard, with a shortcut raw -> mart and a repeated edge. */
+  private static LineageGraph graph() {
+    return LineageGraph.build(
+        List.of(
+            relation(RAW, STAGING),
+            relation(STAGING, MART),
+            relation(MART, REPORT),
+            relation(REPORT, DASHBOARD),
+            relation(RAW, MART),
+            relation(RAW, STAGING)));
+  }
+
+  @Test
+  void build_skipsRepeatedEdges() {
+    LineageGraph graph = graph();
+    assertEquals(5, graph.getNodeCount());
+    assertEquals(5, graph.getEdgeCount());
+    assertEquals(List.of(RAW, STAGING), from(graph.getRelations(List.of(MART.toString()), true)));
+    assertEquals(Entity.TABLE, graph.getRelations(List.of(MART.toString()), true).get(0).getFromEntity());
+  }
+
+  @Test
+  void countReachable_countsEachEntityOnce() {
+    LineageGraph graph = graph();
+    assertArrayEquals(new int[] {2, 1, 1}, graph.countReachable(RAW, false, 10));
+    assertArrayEquals(new int[] {2}, graph.countReachable(RAW, false, 1));
+    assertArrayEquals(new int[] {1, 1, 2}, graph.countReachable(DASHBOARD, true, 10));
+    assertArrayEquals(new int[0], graph.countReachable(UUID.randomUUID(), false, 10));
+  }
+
+  @Test
+  void getShortestPath_takesTheShortcut() {
+    LineageGraph graph = graph();
+    List<EntityRelation> path = graph.getShortestPath(RAW, DASHBOARD, 10);
+    assertEquals(List.of(RAW, MART, REPORT), from(path));
+    assertNull(graph.getShortestPath(RAW, DASHBOARD, 2));
+    assertNull(graph.getShortestPath(DASHBOARD, RAW, 10), "Paths only go downstream");
+  }
+
+  @Test
+  void replaceEdges_updatesBothEnds() {
+    LineageGraph graph = graph();
+    // The edge raw -> mart is deleted and mart gets a new upstream entity
+    UUID source = UUID.randomUUID();
+    graph.replaceEdges(
+        MART, Entity.TABLE, List.of(relation(STAGING, MART), relation(source, MART), relation(MART, REPORT)));
+    assertEquals(6, graph.getNodeCount());
+    assertEquals(5, graph.getEdgeCount());
+    assertEquals(List.of(STAGING), to(graph.getRelations(List.of(RAW.toString()), false)));
+    assertEquals(List.of(MART), to(graph.getRelations(List.of(source.toString()), false)));
+    assertEquals(List.of(RAW, STAGING, MART, REPORT), from(graph.getShortestPath(RAW, DASHBOARD, 10)));
+
+    // Deleting the entity removes its edges
+    graph.replaceEdges(MART, Entity.TABLE, List.of());
+    assertEquals(2, graph.getEdgeCount());
+    assertNull(graph.getShortestPath(RAW, DASHBOARD, 10));
+
+    // Entities without lineage are left out of the graph
+    graph.replaceEdges(UUID.randomUUID(), Entity.USER, List.of());
+    assertEquals(6, graph.getNodeCount());
+  }
+
+  @Test
+  void encode_roundTrips() {
+    int[] nodes = {0, 1, 127, 128, 300, 16_384, 2_000_000, Integer.MAX_VALUE};
+    assertArrayEquals(nodes, LineageGraph.decode(LineageGraph.encode(nodes)));
+    assertEquals(0, LineageGraph.encode(new int[0]).length);
+  }
+
+  @Test
+  void build_growsPastInitialCapacity() {
+    List<EntityRelation> relations = new ArrayList<>();
+    UUID root = UUID.randomUUID();
+    for (int i = 0; i < 5000; i++) {
+      relations.add(relation(root, UUID.randomUUID()));
+    }
+    LineageGraph graph = LineageGraph.build(relations);
+    assertEquals(5001, graph.getNodeCount());
+    assertArrayEquals(new int[] {5000}, graph.countReachable(root, false, 3));
+  }
+
+  private static List<UUID> from(List<EntityRelation> relations) {
+    return relations.stream().map(relation -> UUID.fromString(relation.getFromId())).collect(Collectors.toList());
+  }
+
+  private static List<UUID> to(List<EntityRelation> relations) {
+    return relations.stream().map(relation -> UUID.fromString(relation.getToId())).collect(Collectors.toList());
+  }
+
+  private static EntityRelation relation(UUID from, UUID to) {
+    return new EntityRelation(from.toString(), to.toString(), Entity.TABLE, Entity.TABLE);
+  }
+}
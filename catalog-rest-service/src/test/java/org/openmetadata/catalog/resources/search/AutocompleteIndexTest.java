@@ -0,0 +1,115 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.resources.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchIndexDefinition.ElasticSearchIndexType;
+import org.openmetadata.catalog.resources.search.SearchResults.Hit;
+
+public class AutocompleteIndexTest {
+  private static final ElasticSearchIndexType TABLE = ElasticSearchIndexType.TABLE_SEARCH_INDEX;
+  private static final String INDEX = TABLE.indexName;
+
+  @Test
+  void suggest_ranksByUsage() throws IOException {
+    AutocompleteIndex index = new AutocompleteIndex(null, 1000, 60, 10000, 2);
+    assertNull(index.suggest(INDEX, "dim"), "Not served before the index is built");
+
+    index.put(TABLE, "1", document("dim_address", "shopify.dim_address", false));
+    index.put(TABLE, "2", document("dim_customer", "shopify.dim_customer", false));
+    index.put(TABLE, "3", document("fact_sale", "shopify.fact_sale", false));
+    index.setUsage(Map.of("2", 40, "1", 3));
+    index.rebuild();
+
+    assertEquals(List.of("2", "1"), ids(index, "DIM"));
+    assertEquals(List.of("2", "1", "3"), ids(index, "shopify."));
+    assertNull(index.suggest(INDEX, "orders"), "Prefixes without suggestions go to the search backend");
+    assertNull(index.suggest("topic_search_index", "dim"));
+
+    index.setUsage(Map.of("1", 50));
+    index.rebuild();
+    assertEquals(List.of("1", "2"), ids(index, "dim"));
+  }
+
+  @Test
+  void put_removesDeletedEntities() throws IOException {
+    AutocompleteIndex index = new AutocompleteIndex(null, 1000, 60, 10000, 2);
+    index.put(TABLE, "1", document("dim_address", "shopify.dim_address", false));
+    index.put(TABLE, "2", document("dim_customer", "shopify.dim_customer", false));
+    index.rebuild();
+
+    index.put(TABLE, "1", document("dim_address", "shopify.dim_address", true));
+    index.remove("2");
+    index.rebuild();
+    assertNull(index.suggest(INDEX, "dim"));
+  }
+
+  @Test
+  void suggest_keepsOnlyTheSuggestionFields() throws IOException {
+    AutocompleteIndex index = new AutocompleteIndex(null, 1000, 60, 10000, 2);
+    index.put(
+        TABLE,
+        "1",
+        "{\"table_id\":\"1\",\"name\":\"dim_address\",\"fqdn\":\"shopify.dim_address\",\"column_names\":[\"id\"],"
+            + "\"daily_stats\":5,\"suggest\":[{\"input\":\"dim_address\",\"weight\":10}]}");
+    index.rebuild();
+
+    Hit hit = index.suggest(INDEX, "dim").getSuggest().get("table-suggest").get(0).getOptions().get(0);
+    assertEquals(INDEX, hit.getIndex());
+    assertEquals("{\"table_id\":\"1\",\"name\":\"dim_address\",\"fqdn\":\"shopify.dim_address\"}", hit.getSource());
+  }
+
+  @Test
+  void rebuildDue_waitsForTheIntervalOrEnoughChanges() throws IOException {
+    AutocompleteIndex index = new AutocompleteIndex(null, 1000, 60, 10000, 2);
+    index.put(TABLE, "1", document("dim_address", "shopify.dim_address", false));
+    index.rebuildDue(100000);
+    assertEquals(List.of("1"), ids(index, "dim"));
+
+    index.put(TABLE, "2", document("dim_customer", "shopify.dim_customer", false));
+    index.rebuildDue(105000);
+    assertEquals(List.of("1"), ids(index, "dim"), "Rebuilt at most once per interval");
+    index.rebuildDue(110000);
+    assertEquals(List.of("1", "2"), ids(index, "dim"));
+
+    index.put(TABLE, "3", document("dim_date", "shopify.dim_date", false));
+    index.put(TABLE, "4", document("dim_store", "shopify.dim_store", false));
+    index.rebuildDue(110001);
+    assertEquals(List.of("1", "2", "3", "4"), ids(index, "dim"), "Rebuilt sooner after enough changes");
+
+    index.remove("1");
+    index.rebuildDue(110002);
+    assertEquals(List.of("2", "3", "4"), ids(index, "dim"), "Deleted entities are not suggested until the rebuild");
+  }
+
+  private static List<String> ids(AutocompleteIndex index, String prefix) throws IOException {
+    return index.suggest(INDEX, prefix).getSuggest().get("table-suggest").get(0).getOptions().stream()
+        .map(Hit::getId)
+        .collect(Collectors.toList());
+  }
+
+  private static String document(String name, String fqdn, boolean deleted) {
+    return String.format(
+        "{\"name\":\"%s\",\"fqdn\":\"%s\",\"deleted\":%s,\"column_names\":[\"id\"],"
+            + "\"suggest\":[{\"input\":\"%s\",\"weight\":5},{\"input\":\"%s\",\"weight\":10}]}",
+        name, fqdn, deleted, fqdn, name);
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.resources.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.codahale.metrics.MetricRegistry;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchConfiguration;
+import org.openmetadata.catalog.lucene.LuceneIndexes;
+import org.openmetadata.catalog.resources.search.SearchResults.Hit;
+
+public class LuceneSearchBackendTest {
+  private LuceneIndexes indexes;
+  private LuceneSearchBackend backend;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    ElasticSearchConfiguration config = new ElasticSearchConfiguration();
+    indexes = LuceneIndexes.initialize(config, null);
+    indexes.index("table_search_index", "1", table("dim_customer", "Customer dimension", 30, "PII.Sensitive"));
+    indexes.index("table_search_index", "2", table("fact_order", "Orders of the customers", 20, "Tier.Tier1"));
+    indexes.index("table_search_index", "3", table("dim_address", "Addresses", 10, "PII.Sensitive"));
+    indexes.index(
+        "topic_search_index",
+        "4",
+        "{\"name\":\"customer_events\",\"entity_type\":\"topic\",\"deleted\":false,\"suggest\":[{\"input\":\"customer_events\"}]}");
+    indexes.refresh();
+    backend = new LuceneSearchBackend(indexes, config, new MetricRegistry());
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    indexes.stop();
+  }
+
+  @Test
+  void search_matchesFieldsAndCountsFacets() throws Exception {
+    SearchResults results = backend.search(query("table_search_index", "*customer*").build(), true).get();
+    assertEquals(List.of("1", "2"), ids(results));
+    assertEquals("dim_customer", results.getHits().getHits().get(0).getSource().split("\"")[3]);
+
+    results = backend.search(query("table_search_index", "tags:PII.Sensitive").build(), true).get();
+    assertEquals(Set.of("1", "3"), Set.copyOf(ids(results)));
+    SearchResults.Bucket tags = results.getAggregations().get("Tags").getBuckets().get(0);
+    assertEquals("PII.Sensitive", tags.getKey());
+    assertEquals(2, tags.getDocCount());
+
+    // Searches over several indexes and left out fields
+    results = backend.search(query("table_search_index,topic_search_index", "*customer*").build(), false).get();
+    assertEquals(3, results.getHits().getTotal().getValue());
+    assertFalse(results.getHits().getHits().get(0).getSource().contains("suggest"));
+  }
+
+  @Test
+  void searchAfter_pagesInSortOrder() throws Exception {
+    SearchQuery query = query("table_search_index", "*").size(2).sortField("weekly_stats").ascending(true).build();
+    SearchResults first = backend.searchAfter(query, SearchCursor.decode(""), true).get();
+    assertEquals(List.of("3", "2"), ids(first));
+    assertEquals(3, first.getPaging().getTotal());
+
+    // Pages read from the point in time of the first page do not see the later writes
+    indexes.delete("1");
+    indexes.refresh();
+    SearchResults second = backend.searchAfter(query, SearchCursor.decode(first.getPaging().getAfter()), true).get();
+    assertEquals(List.of("1"), ids(second));
+    assertNull(second.getPaging());
+  }
+
+  @Test
+  void suggest_matchesPrefix() throws Exception {
+    List<Hit> options =
+        backend
+            .suggest("topic_search_index", "Cust", Set.of())
+            .get()
+            .getSuggest()
+            .get("table-suggest")
+            .get(0)
+            .getOptions();
+    assertEquals(1, options.size());
+    assertTrue(options.get(0).getSource().contains("customer_events"));
+  }
+
+  private static SearchQuery.SearchQueryBuilder query(String index, String query) {
+    return SearchQuery.builder()
+        .index(index)
+        .query(query + " AND deleted:false")
+        .size(10)
+        .excludedFields(SearchResource.excludedFields(index, null));
+  }
+
+  private static List<String> ids(SearchResults results) {
+    return results.getHits().getHits().stream().map(Hit::getId).collect(Collectors.toList());
+  }
+
+  private static String table(String name, String description, long weeklyStats, String tag) {
+    return String.format(
+        "{\"name\":\"%s\",\"description\":\"%s\",\"entity_type\":\"table\",\"deleted\":false,\"weekly_stats\":%d,"
+            + "\"tags\":[\"%s\"],\"suggest\":[{\"input\":\"%s\"}]}",
+        name, description, weeklyStats, tag, name);
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.resources.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.openmetadata.catalog.Entity;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchConfiguration;
+import org.openmetadata.catalog.elasticsearch.IndexGenerations;
+import org.openmetadata.catalog.resources.search.SearchResults.Bucket;
+import org.openmetadata.catalog.resources.search.SearchResults.Facet;
+
+public class SearchCacheTest {
+  @Test
+  void key_normalisesWhitespace() {
+    assertEquals(SearchCache.key("index", "*foo*  AND  tags:a"), SearchCache.key("index", " *foo* AND tags:a "));
+    assertNotEquals(SearchCache.key("index", "foo", null), SearchCache.key("index", "foo", 10));
+  }
+
+  @Test
+  void getHits_reloadsAfterIndexWrite() {
+    SearchCache cache = new SearchCache(new ElasticSearchConfiguration());
+    AtomicInteger loads = new AtomicInteger();
+    SearchCache.Loader<SearchResults> loader =
+        () -> CompletableFuture.completedFuture(new SearchResults(loads.incrementAndGet(), false, null, null));
+    assertEquals(1, cache.getHits("topic_search_index", "q", loader).join().getTook());
+    assertEquals(1, cache.getHits("topic_search_index", "q", loader).join().getTook());
+
+    // A write to another index leaves the entry in place
+    IndexGenerations.increment("dashboard_search_index");
+    assertEquals(1, cache.getHits("topic_search_index", "q", loader).join().getTook());
+
+    cache.invalidate(Entity.TOPIC, "id");
+    assertEquals(2, cache.getHits("topic_search_index", "q", loader).join().getTook());
+  }
+
+  @Test
+  void getFacets_keptAcrossIndexWrites() {
+    SearchCache cache = new SearchCache(new ElasticSearchConfiguration());
+    AtomicInteger loads = new AtomicInteger();
+    SearchCache.Loader<Map<String, Facet>> loader =
+        () -> CompletableFuture.completedFuture(Map.of("Tier", facet(loads.incrementAndGet())));
+    assertEquals(1, cache.getFacets("q", loader).join().get("Tier").getBuckets().get(0).getDocCount());
+    IndexGenerations.increment("topic_search_index");
+    assertEquals(1, cache.getFacets("q", loader).join().get("Tier").getBuckets().get(0).getDocCount());
+    cache.invalidateAll();
+    assertEquals(2, cache.getFacets("q", loader).join().get("Tier").getBuckets().get(0).getDocCount());
+  }
+
+  @Test
+  void get_dropsFailedSearches() {
+    SearchCache cache = new SearchCache(new ElasticSearchConfiguration());
+    AtomicInteger loads = new AtomicInteger();
+    SearchCache.Loader<SearchResults> loader =
+        () ->
+            loads.incrementAndGet() == 1
+                ? CompletableFuture.failedFuture(new IllegalStateException())
+                : CompletableFuture.completedFuture(new SearchResults(loads.get(), false, null, null));
+    assertTrue(cache.getHits("topic_search_index", "failed", loader).isCompletedExceptionally());
+    assertEquals(2, cache.getHits("topic_search_index", "failed", loader).join().getTook());
+  }
+
+  private static Facet facet(long count) {
+    return new Facet(List.of(new Bucket("Tier1", count)));
+  }
+}
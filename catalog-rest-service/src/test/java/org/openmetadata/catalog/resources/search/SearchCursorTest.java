@@ -0,0 +1,41 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.resources.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.openmetadata.catalog.exception.BadRequestException;
+
+public class SearchCursorTest {
+  @Test
+  void decode_roundTripsEncode() {
+    SearchCursor cursor = SearchCursor.decode(new SearchCursor(List.of(1.5, "id1", 1650000000000L), "pit").encode());
+    assertEquals(List.of(1.5, "id1", 1650000000000L), cursor.getAfter());
+    assertEquals("pit", cursor.getPointInTime());
+
+    cursor = SearchCursor.decode(new SearchCursor(List.of("id1"), null).encode());
+    assertNull(cursor.getPointInTime());
+  }
+
+  @Test
+  void decode_emptyIsFirstPage() {
+    assertTrue(SearchCursor.decode("").isFirst());
+    assertThrows(BadRequestException.class, () -> SearchCursor.decode("not a cursor"));
+  }
+}
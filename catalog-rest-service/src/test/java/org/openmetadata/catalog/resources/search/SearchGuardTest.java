@@ -0,0 +1,81 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.resources.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.codahale.metrics.MetricRegistry;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.rest.RestStatus;
+import org.junit.jupiter.api.Test;
+import org.openmetadata.catalog.elasticsearch.ElasticSearchConfiguration;
+import org.openmetadata.catalog.resources.search.SearchGuard.SearchUnavailableException;
+
+public class SearchGuardTest {
+  @Test
+  void execute_rejectsBeyondConcurrencyLimit() throws Exception {
+    ElasticSearchConfiguration config = new ElasticSearchConfiguration();
+    config.setSearchMaxConcurrentRequests(1);
+    SearchGuard guard = new SearchGuard(config, new MetricRegistry());
+    List<ActionListener<String>> pending = new ArrayList<>();
+    CompletableFuture<String> first = guard.execute(pending::add);
+    assertUnavailable(guard.<String>execute(pending::add));
+
+    pending.get(0).onResponse("hits");
+    assertEquals("hits", first.get());
+    assertEquals("hits", guard.<String>execute(listener -> listener.onResponse("hits")).get());
+  }
+
+  @Test
+  void execute_opensAfterConsecutiveFailures() throws Exception {
+    ElasticSearchConfiguration config = new ElasticSearchConfiguration();
+    config.setSearchCircuitBreakerFailureThreshold(2);
+    config.setSearchCircuitBreakerOpenSeconds(0);
+    SearchGuard guard = new SearchGuard(config, new MetricRegistry());
+
+    // Errors in the request do not count
+    guard.execute(
+        listener -> listener.onFailure(new ElasticsearchStatusException("bad query", RestStatus.BAD_REQUEST)));
+    guard.execute(listener -> listener.onFailure(new IOException()));
+    assertFalse(guard.isOpen());
+    // Rejections from an overloaded cluster do
+    guard.execute(
+        listener -> listener.onFailure(new ElasticsearchStatusException("rejected", RestStatus.TOO_MANY_REQUESTS)));
+    assertTrue(guard.isOpen());
+
+    // Once open long enough a single probe goes through and closes the breaker
+    List<ActionListener<String>> probe = new ArrayList<>();
+    guard.<String>execute(probe::add);
+    assertEquals(1, probe.size());
+    assertUnavailable(guard.execute(listener -> listener.onResponse("hits")));
+    probe.get(0).onResponse("hits");
+    assertFalse(guard.isOpen());
+    assertEquals("hits", guard.<String>execute(listener -> listener.onResponse("hits")).get());
+  }
+
+  private static void assertUnavailable(CompletableFuture<?> future) {
+    ExecutionException e = assertThrows(ExecutionException.class, future::get);
+    assertInstanceOf(SearchUnavailableException.class, e.getCause());
+  }
+}
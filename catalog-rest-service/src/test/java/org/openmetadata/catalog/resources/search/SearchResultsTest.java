@@ -0,0 +1,30 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openmetadata.catalog.resources.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.openmetadata.catalog.resources.search.SearchResults.Hit;
+
+public class SearchResultsTest {
+  @Test
+  void aliasOf_mapsReindexedIndexesToTheirAlias() {
+    assertEquals("table_search_index", Hit.aliasOf("table_search_index_1650000000000"));
+    assertEquals("database_service_search_index", Hit.aliasOf("database_service_search_index_1650000000000"));
+    assertEquals("table_search_index", Hit.aliasOf("table_search_index"));
+    assertEquals("table_search_index_old", Hit.aliasOf("table_search_index_old"));
+    assertEquals("other_index_1650000000000", Hit.aliasOf("other_index_1650000000000"));
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ *  Copyright 2021 Collate
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.openmetadata.catalog.slack;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.openmetadata.catalog.type.ChangeEvent;
+import org.openmetadata.catalog.type.EventType;
+
+public class SlackDigestTest {
+  @Test
+  void add_countsByGroupAndEntity() {
+    SlackDigest digest = new SlackDigest(100, 2);
+    for (int i = 0; i < 5; i++) {
+      digest.add(event("table", "db.t1", EventType.ENTITY_UPDATED));
+    }
+    digest.add(event("table", "db.t2", EventType.ENTITY_UPDATED));
+    digest.add(event("topic", "kafka.orders", EventType.ENTITY_CREATED));
+
+    assertEquals(7, digest.getTotal());
+    List<Map.Entry<List<String>, Long>> groups = digest.getGroups();
+    assertEquals(List.of("table", "no owner", "entityUpdated"), groups.get(0).getKey());
+    assertEquals(6, groups.get(0).getValue());
+    assertEquals("db.t1", digest.getTopEntities().get(0).getKey());
+    assertEquals(5, digest.getTopEntities().get(0).getValue());
+    assertEquals(2, digest.getTopEntities().size());
+
+    SlackMessage message = digest.toSlackMessage("http://localhost:8585", 300);
+    assertEquals("7 changes in the last 5 minutes", message.getText());
+    assertEquals(1, message.getAttachments().length);
+    assertTrue(message.getAttachments()[0].getText().contains("<http://localhost:8585/table/db.t1|db.t1> 5 changes"));
+  }
+
+  @Test
+  void add_boundsMemory() {
+    SlackDigest digest = new SlackDigest(10, 2);
+    for (int i = 0; i < 10_000; i++) {
+      digest.add(event("type" + i, "entity" + i, EventType.ENTITY_UPDATED));
+    }
+    for (int i = 0; i < 100; i++) {
+      digest.add(event("table", "hot", EventType.ENTITY_UPDATED));
+    }
+    assertEquals(11, digest.getGroupCount()); // 10 groups and "other"
+    assertEquals("hot", digest.getTopEntities().get(0).getKey());
+    digest.clear();
+    assertTrue(digest.isEmpty());
+  }
+
+  @Test
+  void merge_addsTheCountsOfAnotherDigest() {
+    SlackDigest failed = new SlackDigest(100, 2);
+    failed.add(event("table", "db.t1", EventType.ENTITY_UPDATED));
+    failed.add(event("table", "db.t1", EventType.ENTITY_UPDATED));
+    SlackDigest digest = new SlackDigest(100, 2);
+    digest.add(event("table", "db.t1", EventType.ENTITY_UPDATED));
+    digest.add(event("topic", "kafka.orders", EventType.ENTITY_CREATED));
+
+    digest.merge(failed);
+    assertEquals(4, digest.getTotal());
+    assertEquals(3, digest.getGroups().get(0).getValue());
+    assertEquals("db.t1", digest.getTopEntities().get(0).getKey());
+    assertEquals(3, digest.getTopEntities().get(0).getValue());
+    assertEquals("4 changes in the last 10 minutes", digest.toSlackMessage("http://localhost:8585", 600).getText());
+  }
+
+  private static ChangeEvent event(String entityType, String fqn, EventType eventType) {
+    return new ChangeEvent().withEntityType(entityType).withEntityFullyQualifiedName(fqn).withEventType(eventType);
+  }
+}
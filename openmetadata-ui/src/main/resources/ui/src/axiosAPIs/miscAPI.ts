@@ -26,7 +26,8 @@ export const searchData: Function = (
   sortField: string,
   sortOrder: string,
   searchIndex: string,
-  onlyDeleted = false
+  onlyDeleted = false,
+  includeFields: Array<string> = []
 ): Promise<AxiosResponse> => {
   return APIClient.get(
     `/search/query?${getSearchAPIQuery(
@@ -37,7 +38,8 @@ export const searchData: Function = (
       sortField,
       sortOrder,
       searchIndex,
-      onlyDeleted
+      onlyDeleted,
+      includeFields
     )}`
   );
 };
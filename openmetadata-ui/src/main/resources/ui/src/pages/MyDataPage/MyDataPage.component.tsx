@@ -143,7 +143,9 @@ const MyDataPage = () => {
         : '',
       'last_updated_timestamp',
       '',
-      myDataSearchIndex
+      myDataSearchIndex,
+      false,
+      ['change_descriptions']
     ).then((res: AxiosResponse) => {
       if (res.data) {
         setFeedData(formatDataResponse(res.data.hits.hits));
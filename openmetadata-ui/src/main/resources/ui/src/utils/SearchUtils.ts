@@ -19,7 +19,8 @@ export const getSearchAPIQuery = (
   sortField: string,
   sortOrder: string,
   searchIndex: string,
-  onlyDeleted = false
+  onlyDeleted = false,
+  includeFields: Array<string> = []
 ): string => {
   const start = (from - 1) * size;
   const query = queryString
@@ -34,5 +35,5 @@ export const getSearchAPIQuery = (
     sortField ? `&sort_field=${sortField}` : ''
   }${sortOrder ? `&sort_order=${sortOrder}` : ''}${
     searchIndex ? `&index=${searchIndex}` : ''
-  }`;
+  }${includeFields.length ? `&include_fields=${includeFields.join(',')}` : ''}`;
 };